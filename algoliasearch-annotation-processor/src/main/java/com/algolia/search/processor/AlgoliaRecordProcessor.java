@@ -0,0 +1,86 @@
+package com.algolia.search.processor;
+
+import com.algolia.search.records.AlgoliaRecord;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates, for every class annotated with {@link AlgoliaRecord}, an objectID accessor plus a
+ * streaming JSON writer and reader. The generated code mirrors what Jackson would do reflectively
+ * with the default configuration of the clients. When a class relies on a Jackson feature that
+ * can't be mirrored at compile time (custom serializers, inclusion rules, creators...), a note is
+ * emitted and the class keeps using Jackson's reflective handling for that direction.
+ */
+public final class AlgoliaRecordProcessor extends AbstractProcessor {
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton(AlgoliaRecord.class.getCanonicalName());
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (Element element : roundEnv.getElementsAnnotatedWith(AlgoliaRecord.class)) {
+
+      if (element.getKind() != ElementKind.CLASS) {
+        processingEnv
+            .getMessager()
+            .printMessage(
+                Diagnostic.Kind.ERROR, "@AlgoliaRecord can only be applied to classes", element);
+        continue;
+      }
+
+      TypeElement type = (TypeElement) element;
+      RecordModel model = new RecordIntrospector(processingEnv).introspect(type);
+      RecordCodeGenerator generator = new RecordCodeGenerator(processingEnv, model);
+
+      if (model.getObjectIDExpression() != null) {
+        write(type, generator.objectIDAccessorName(), generator.generateObjectIDAccessor());
+      }
+
+      if (model.getSerializerUnsupportedReason() == null) {
+        write(type, generator.serializerName(), generator.generateSerializer());
+      } else {
+        note(type, "no JSON writer generated: " + model.getSerializerUnsupportedReason());
+      }
+
+      if (model.getDeserializerUnsupportedReason() == null) {
+        write(type, generator.deserializerName(), generator.generateDeserializer());
+      } else {
+        note(type, "no JSON reader generated: " + model.getDeserializerUnsupportedReason());
+      }
+    }
+
+    return true;
+  }
+
+  private void write(TypeElement type, String qualifiedName, String source) {
+    try (Writer writer =
+        processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+      writer.write(source);
+    } catch (IOException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.ERROR, "Can't write " + qualifiedName + ": " + e.getMessage(), type);
+    }
+  }
+
+  private void note(TypeElement type, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, message, type);
+  }
+}
@@ -0,0 +1,393 @@
+package com.algolia.search.processor;
+
+import com.algolia.search.records.GeneratedRecords;
+import java.util.List;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/** Writes the source code of the classes generated for an {@code @AlgoliaRecord} class. */
+final class RecordCodeGenerator {
+
+  private final Types types;
+  private final Elements elements;
+  private final RecordModel model;
+  private final String packageName;
+  private final String recordType;
+  private final String binaryName;
+
+  RecordCodeGenerator(ProcessingEnvironment processingEnv, RecordModel model) {
+    this.types = processingEnv.getTypeUtils();
+    this.elements = processingEnv.getElementUtils();
+    this.model = model;
+    this.packageName = elements.getPackageOf(model.getType()).getQualifiedName().toString();
+    this.recordType = model.getType().getQualifiedName().toString();
+    this.binaryName = elements.getBinaryName(model.getType()).toString();
+  }
+
+  String objectIDAccessorName() {
+    return GeneratedRecords.generatedClassName(
+        binaryName, GeneratedRecords.OBJECT_ID_ACCESSOR_SUFFIX);
+  }
+
+  String serializerName() {
+    return GeneratedRecords.generatedClassName(binaryName, GeneratedRecords.SERIALIZER_SUFFIX);
+  }
+
+  String deserializerName() {
+    return GeneratedRecords.generatedClassName(binaryName, GeneratedRecords.DESERIALIZER_SUFFIX);
+  }
+
+  String generateObjectIDAccessor() {
+    StringBuilder sb = header();
+    sb.append("public final class ")
+        .append(simpleName(objectIDAccessorName()))
+        .append("\n    implements com.algolia.search.records.ObjectIDAccessor<")
+        .append(recordType)
+        .append("> {\n\n");
+    sb.append("  @Override\n");
+    sb.append("  public String getObjectID(").append(recordType).append(" record) {\n");
+    sb.append("    return ").append(model.getObjectIDExpression()).append(";\n");
+    sb.append("  }\n");
+    sb.append("}\n");
+    return sb.toString();
+  }
+
+  String generateSerializer() {
+    List<RecordModel.Property> properties = model.getProperties();
+    String className = simpleName(serializerName());
+
+    StringBuilder sb = header();
+    sb.append("public final class ")
+        .append(className)
+        .append("\n    extends com.fasterxml.jackson.databind.ser.std.StdSerializer<")
+        .append(recordType)
+        .append("> {\n\n");
+
+    for (int i = 0; i < properties.size(); i++) {
+      if (properties.get(i).isReadable()) {
+        sb.append("  private static final com.fasterxml.jackson.core.io.SerializedString NAME_")
+            .append(i)
+            .append(" =\n      new com.fasterxml.jackson.core.io.SerializedString(")
+            .append(elements.getConstantExpression(properties.get(i).getName()))
+            .append(");\n");
+      }
+    }
+
+    sb.append("\n  public ").append(className).append("() {\n");
+    sb.append("    super(").append(recordType).append(".class);\n");
+    sb.append("  }\n\n");
+
+    sb.append("  @Override\n");
+    sb.append("  public void serialize(\n");
+    sb.append("      ").append(recordType).append(" record,\n");
+    sb.append("      com.fasterxml.jackson.core.JsonGenerator gen,\n");
+    sb.append("      com.fasterxml.jackson.databind.SerializerProvider provider)\n");
+    sb.append("      throws java.io.IOException {\n");
+    sb.append("    gen.writeStartObject(record);\n");
+
+    for (int i = 0; i < properties.size(); i++) {
+      RecordModel.Property property = properties.get(i);
+      if (!property.isReadable()) {
+        continue;
+      }
+      sb.append("    gen.writeFieldName(NAME_").append(i).append(");\n");
+      appendWriteValue(sb, property.getReadType(), property.getReadExpression(), "v" + i);
+    }
+
+    sb.append("    gen.writeEndObject();\n");
+    sb.append("  }\n");
+    sb.append("}\n");
+    return sb.toString();
+  }
+
+  private void appendWriteValue(StringBuilder sb, TypeMirror type, String expression, String var) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+        sb.append("    gen.writeBoolean(").append(expression).append(");\n");
+        return;
+      case BYTE:
+        sb.append("    gen.writeNumber((int) ").append(expression).append(");\n");
+        return;
+      case CHAR:
+        sb.append("    gen.writeString(String.valueOf(").append(expression).append("));\n");
+        return;
+      case SHORT:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        sb.append("    gen.writeNumber(").append(expression).append(");\n");
+        return;
+      default:
+        break;
+    }
+
+    String qualifiedName = declaredName(type);
+
+    if ("java.lang.String".equals(qualifiedName)) {
+      sb.append("    String ").append(var).append(" = ").append(expression).append(";\n");
+      sb.append("    if (").append(var).append(" == null) {\n");
+      sb.append("      gen.writeNull();\n");
+      sb.append("    } else {\n");
+      sb.append("      gen.writeString(").append(var).append(");\n");
+      sb.append("    }\n");
+      return;
+    }
+
+    String unboxed = unboxedWriter(qualifiedName);
+
+    if (unboxed != null) {
+      sb.append("    ").append(qualifiedName).append(" ").append(var);
+      sb.append(" = ").append(expression).append(";\n");
+      sb.append("    if (").append(var).append(" == null) {\n");
+      sb.append("      gen.writeNull();\n");
+      sb.append("    } else {\n");
+      sb.append("      gen.").append(unboxed).append("(").append(var).append(");\n");
+      sb.append("    }\n");
+      return;
+    }
+
+    sb.append("    provider.defaultSerializeValue(").append(expression).append(", gen);\n");
+  }
+
+  private static String unboxedWriter(String qualifiedName) {
+    if (qualifiedName == null) {
+      return null;
+    }
+    switch (qualifiedName) {
+      case "java.lang.Boolean":
+        return "writeBoolean";
+      case "java.lang.Short":
+      case "java.lang.Integer":
+      case "java.lang.Long":
+      case "java.lang.Float":
+      case "java.lang.Double":
+        return "writeNumber";
+      default:
+        return null;
+    }
+  }
+
+  String generateDeserializer() {
+    List<RecordModel.Property> properties = model.getProperties();
+    String className = simpleName(deserializerName());
+
+    StringBuilder sb = header();
+    sb.append("public final class ")
+        .append(className)
+        .append("\n    extends com.fasterxml.jackson.databind.deser.std.StdDeserializer<")
+        .append(recordType)
+        .append(
+            ">\n    implements com.fasterxml.jackson.databind.deser.ResolvableDeserializer {\n\n");
+
+    for (int i = 0; i < properties.size(); i++) {
+      if (properties.get(i).isWritable()) {
+        sb.append("  private com.fasterxml.jackson.databind.JsonDeserializer<Object> deserializer")
+            .append(i)
+            .append(";\n");
+        sb.append(
+                "  private com.fasterxml.jackson.databind.jsontype.TypeDeserializer typeDeserializer")
+            .append(i)
+            .append(";\n");
+      }
+    }
+
+    sb.append("\n  public ").append(className).append("() {\n");
+    sb.append("    super(").append(recordType).append(".class);\n");
+    sb.append("  }\n\n");
+
+    sb.append("  @Override\n");
+    sb.append(
+        "  public void resolve(com.fasterxml.jackson.databind.DeserializationContext ctxt)\n");
+    sb.append("      throws com.fasterxml.jackson.databind.JsonMappingException {\n");
+    for (int i = 0; i < properties.size(); i++) {
+      RecordModel.Property property = properties.get(i);
+      if (!property.isWritable()) {
+        continue;
+      }
+      sb.append("    com.fasterxml.jackson.databind.JavaType type")
+          .append(i)
+          .append(" = ctxt.getTypeFactory().constructType(")
+          .append(typeToken(property.getWriteType()))
+          .append(");\n");
+      sb.append("    deserializer")
+          .append(i)
+          .append(" = findDeserializer(ctxt, ")
+          .append(elements.getConstantExpression(property.getName()))
+          .append(", type")
+          .append(i)
+          .append(");\n");
+      sb.append("    typeDeserializer")
+          .append(i)
+          .append(" = ctxt.getFactory().findTypeDeserializer(ctxt.getConfig(), type")
+          .append(i)
+          .append(");\n");
+    }
+    sb.append("  }\n\n");
+
+    // Resolved as a property value, not as a root value, so that contextual deserializers (enums,
+    // collections, dates...) are contextualized for the property they read.
+    sb.append(
+        "  private static com.fasterxml.jackson.databind.JsonDeserializer<Object> findDeserializer(\n");
+    sb.append("      com.fasterxml.jackson.databind.DeserializationContext ctxt,\n");
+    sb.append("      String name,\n");
+    sb.append("      com.fasterxml.jackson.databind.JavaType type)\n");
+    sb.append("      throws com.fasterxml.jackson.databind.JsonMappingException {\n");
+    sb.append("    return ctxt.findContextualValueDeserializer(\n");
+    sb.append("        type,\n");
+    sb.append("        new com.fasterxml.jackson.databind.BeanProperty.Std(\n");
+    sb.append("            com.fasterxml.jackson.databind.PropertyName.construct(name),\n");
+    sb.append("            type,\n");
+    sb.append("            null,\n");
+    sb.append("            null,\n");
+    sb.append("            com.fasterxml.jackson.databind.PropertyMetadata.STD_OPTIONAL));\n");
+    sb.append("  }\n\n");
+
+    sb.append("  @Override\n");
+    sb.append("  @SuppressWarnings(\"unchecked\")\n");
+    sb.append("  public ").append(recordType).append(" deserialize(\n");
+    sb.append("      com.fasterxml.jackson.core.JsonParser p,\n");
+    sb.append("      com.fasterxml.jackson.databind.DeserializationContext ctxt)\n");
+    sb.append("      throws java.io.IOException {\n");
+    sb.append("    com.fasterxml.jackson.core.JsonToken t = p.currentToken();\n");
+    sb.append("    if (t == com.fasterxml.jackson.core.JsonToken.START_OBJECT) {\n");
+    sb.append("      t = p.nextToken();\n");
+    sb.append("    } else if (t != com.fasterxml.jackson.core.JsonToken.FIELD_NAME\n");
+    sb.append("        && t != com.fasterxml.jackson.core.JsonToken.END_OBJECT) {\n");
+    sb.append("      return (")
+        .append(recordType)
+        .append(") ctxt.handleUnexpectedToken(")
+        .append(recordType)
+        .append(".class, p);\n");
+    sb.append("    }\n\n");
+    sb.append("    ")
+        .append(recordType)
+        .append(" record = new ")
+        .append(recordType)
+        .append("();\n\n");
+    sb.append(
+        "    for (; t == com.fasterxml.jackson.core.JsonToken.FIELD_NAME; t = p.nextToken()) {\n");
+    sb.append("      String name = p.getCurrentName();\n");
+    sb.append("      t = p.nextToken();\n");
+    sb.append("      switch (name) {\n");
+
+    for (int i = 0; i < properties.size(); i++) {
+      RecordModel.Property property = properties.get(i);
+      if (!property.isWritable()) {
+        continue;
+      }
+      sb.append("        case ")
+          .append(elements.getConstantExpression(property.getName()))
+          .append(":\n");
+      sb.append("          ")
+          .append(property.writeStatement(readValue(property.getWriteType(), i)))
+          .append("\n");
+      sb.append("          break;\n");
+    }
+
+    sb.append("        default:\n");
+    sb.append("          p.skipChildren();\n");
+    sb.append("      }\n");
+    sb.append("    }\n\n");
+    sb.append("    return record;\n");
+    sb.append("  }\n");
+    sb.append("}\n");
+    return sb.toString();
+  }
+
+  /**
+   * Java expression reading the current value of the parser as the type of property {@code index}.
+   */
+  private String readValue(TypeMirror type, int index) {
+    String boxed = boxedName(type);
+    String deserializer = "deserializer" + index;
+    String typeDeserializer = "typeDeserializer" + index;
+    String generic =
+        "("
+            + boxed
+            + ") (t == com.fasterxml.jackson.core.JsonToken.VALUE_NULL\n"
+            + "              ? "
+            + deserializer
+            + ".getNullValue(ctxt)\n"
+            + "              : "
+            + typeDeserializer
+            + " == null\n"
+            + "                  ? "
+            + deserializer
+            + ".deserialize(p, ctxt)\n"
+            + "                  : "
+            + deserializer
+            + ".deserializeWithType(p, ctxt, "
+            + typeDeserializer
+            + "))";
+
+    switch (boxed) {
+      case "java.lang.String":
+        return "t == com.fasterxml.jackson.core.JsonToken.VALUE_STRING ? p.getText() : " + generic;
+      case "java.lang.Integer":
+        return "t == com.fasterxml.jackson.core.JsonToken.VALUE_NUMBER_INT\n"
+            + "              ? Integer.valueOf(p.getIntValue())\n"
+            + "              : "
+            + generic;
+      case "java.lang.Long":
+        return "t == com.fasterxml.jackson.core.JsonToken.VALUE_NUMBER_INT\n"
+            + "              ? Long.valueOf(p.getLongValue())\n"
+            + "              : "
+            + generic;
+      case "java.lang.Double":
+        return "t == com.fasterxml.jackson.core.JsonToken.VALUE_NUMBER_FLOAT\n"
+            + "              ? Double.valueOf(p.getDoubleValue())\n"
+            + "              : "
+            + generic;
+      case "java.lang.Boolean":
+        return "t == com.fasterxml.jackson.core.JsonToken.VALUE_TRUE ? Boolean.TRUE : t == "
+            + "com.fasterxml.jackson.core.JsonToken.VALUE_FALSE ? Boolean.FALSE : "
+            + generic;
+      default:
+        return generic;
+    }
+  }
+
+  /** Java expression of a Class or TypeReference that Jackson's TypeFactory can resolve. */
+  private String typeToken(TypeMirror type) {
+    if (type.getKind().isPrimitive()) {
+      return type + ".class";
+    }
+
+    if (type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).getTypeArguments().isEmpty()) {
+      return types.erasure(type) + ".class";
+    }
+
+    return "new com.fasterxml.jackson.core.type.TypeReference<" + type + ">() {}";
+  }
+
+  private String boxedName(TypeMirror type) {
+    if (type.getKind().isPrimitive()) {
+      return types.boxedClass(types.getPrimitiveType(type.getKind())).getQualifiedName().toString();
+    }
+    return type.toString();
+  }
+
+  private String declaredName(TypeMirror type) {
+    return type.getKind() == TypeKind.DECLARED ? types.erasure(type).toString() : null;
+  }
+
+  private StringBuilder header() {
+    StringBuilder sb = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      sb.append("package ").append(packageName).append(";\n\n");
+    }
+    sb.append("/** Generated by the Algolia annotation processor for {@link ")
+        .append(recordType)
+        .append("}. Do not edit. */\n");
+    return sb;
+  }
+
+  private static String simpleName(String qualifiedName) {
+    return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+  }
+}
@@ -0,0 +1,661 @@
+package com.algolia.search.processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Resolves the JSON properties of a record class the same way Jackson does with the default
+ * visibility rules: public getters, any setter, public fields, and any member annotated with
+ * {@code @JsonProperty}. Only {@code @JsonProperty(value)} and {@code @JsonIgnore} are understood,
+ * any other Jackson annotation disables the generation of the writer and the reader.
+ */
+final class RecordIntrospector {
+
+  private static final String JACKSON_PACKAGE_PREFIX = "com.fasterxml.jackson.";
+  private static final String JSON_PROPERTY = "com.fasterxml.jackson.annotation.JsonProperty";
+  private static final String JSON_IGNORE = "com.fasterxml.jackson.annotation.JsonIgnore";
+  private static final String OBJECT_ID = "objectID";
+
+  private final Types types;
+  private final Elements elements;
+
+  RecordIntrospector(ProcessingEnvironment processingEnv) {
+    this.types = processingEnv.getTypeUtils();
+    this.elements = processingEnv.getElementUtils();
+  }
+
+  RecordModel introspect(TypeElement type) {
+    List<TypeElement> hierarchy = hierarchy(type);
+    String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+
+    String commonReason = commonUnsupportedReason(type, hierarchy);
+    String serializerReason = commonReason;
+    String deserializerReason = commonReason;
+
+    if (deserializerReason == null) {
+      deserializerReason = instantiationUnsupportedReason(type, packageName);
+    }
+
+    Map<String, Accessors> accessors = collectAccessors(hierarchy);
+    List<RecordModel.Property> properties = new ArrayList<>();
+
+    for (Accessors property : accessors.values()) {
+      String reason = property.conflict();
+      if (reason != null) {
+        serializerReason = serializerReason == null ? reason : serializerReason;
+        deserializerReason = deserializerReason == null ? reason : deserializerReason;
+        continue;
+      }
+
+      if (property.isIgnored()) {
+        continue;
+      }
+
+      Element reader = property.reader();
+      Element writer = property.writer();
+
+      if (reader != null && !isAccessible(reader, packageName)) {
+        serializerReason =
+            serializerReason == null ? describe(reader) + " is not accessible" : serializerReason;
+        reader = null;
+      }
+
+      if (property.requiresGetterAsSetter(types, elements)) {
+        deserializerReason =
+            deserializerReason == null
+                ? "property '" + property.name + "' can only be deserialized through its getter"
+                : deserializerReason;
+      }
+
+      if (writer != null
+          && (!isAccessible(writer, packageName)
+              || writer.getModifiers().contains(Modifier.FINAL))) {
+        deserializerReason =
+            deserializerReason == null ? describe(writer) + " is not writable" : deserializerReason;
+        writer = null;
+      }
+
+      if (reader == null && writer == null) {
+        continue;
+      }
+
+      TypeMirror readType = reader == null ? null : memberType(type, reader);
+      TypeMirror writeType = writer == null ? null : memberType(type, writer);
+
+      if (containsTypeVariable(readType) || containsTypeVariable(writeType)) {
+        String typeReason = "property '" + property.name + "' has an unresolved type variable";
+        serializerReason = serializerReason == null ? typeReason : serializerReason;
+        deserializerReason = deserializerReason == null ? typeReason : deserializerReason;
+        continue;
+      }
+
+      properties.add(
+          new RecordModel.Property(
+              property.jsonName(),
+              readType,
+              reader == null ? null : readExpression(reader),
+              writeType,
+              writer == null ? null : writePrefix(writer),
+              writer == null ? null : writeSuffix(writer)));
+    }
+
+    Set<String> jsonNames = new HashSet<>();
+    for (RecordModel.Property property : properties) {
+      if (!jsonNames.add(property.getName())) {
+        String nameReason = "several properties are named '" + property.getName() + "'";
+        serializerReason = serializerReason == null ? nameReason : serializerReason;
+        deserializerReason = deserializerReason == null ? nameReason : deserializerReason;
+      }
+    }
+
+    if (serializerReason == null
+        && properties.stream().noneMatch(RecordModel.Property::isReadable)) {
+      serializerReason = "the class has no serializable property";
+    }
+
+    return new RecordModel(
+        type,
+        objectIDExpression(type, hierarchy, packageName),
+        Collections.unmodifiableList(properties),
+        serializerReason,
+        deserializerReason);
+  }
+
+  /** The class followed by its superclasses, {@link Object} excluded. */
+  private List<TypeElement> hierarchy(TypeElement type) {
+    List<TypeElement> result = new ArrayList<>();
+    TypeElement current = type;
+
+    while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+      result.add(current);
+      TypeMirror superclass = current.getSuperclass();
+      current =
+          superclass.getKind() == TypeKind.DECLARED
+              ? (TypeElement) types.asElement(superclass)
+              : null;
+    }
+
+    return result;
+  }
+
+  private String commonUnsupportedReason(TypeElement type, List<TypeElement> hierarchy) {
+    if (!type.getTypeParameters().isEmpty()) {
+      return "generic classes are not supported";
+    }
+
+    if (type.getNestingKind() == NestingKind.MEMBER
+        && !type.getModifiers().contains(Modifier.STATIC)) {
+      return "inner classes are not supported, the class should be static";
+    }
+
+    if (type.getNestingKind() == NestingKind.LOCAL
+        || type.getNestingKind() == NestingKind.ANONYMOUS) {
+      return "local and anonymous classes are not supported";
+    }
+
+    for (Element enclosing = type;
+        enclosing instanceof TypeElement;
+        enclosing = enclosing.getEnclosingElement()) {
+      if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+        return "private classes are not supported";
+      }
+    }
+
+    for (TypeElement t : hierarchy) {
+      String reason = unsupportedAnnotation(t);
+      if (reason != null) {
+        return reason;
+      }
+
+      for (Element member : t.getEnclosedElements()) {
+        reason = unsupportedAnnotation(member);
+        if (reason != null) {
+          return reason;
+        }
+
+        if (member instanceof ExecutableElement) {
+          for (VariableElement parameter : ((ExecutableElement) member).getParameters()) {
+            reason = unsupportedAnnotation(parameter);
+            if (reason != null) {
+              return reason;
+            }
+          }
+        }
+      }
+    }
+
+    return null;
+  }
+
+  private String instantiationUnsupportedReason(TypeElement type, String packageName) {
+    if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+      return "abstract classes can't be instantiated";
+    }
+
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty() && isAccessible(constructor, packageName)) {
+        return null;
+      }
+    }
+
+    return "the class has no accessible no-arg constructor";
+  }
+
+  /** Returns why the annotations of the given element can't be mirrored, null if they can. */
+  private String unsupportedAnnotation(Element element) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      String name =
+          ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+
+      if (!name.startsWith(JACKSON_PACKAGE_PREFIX)) {
+        continue;
+      }
+
+      Set<String> attributes = attributeNames(annotation);
+
+      if (name.equals(JSON_PROPERTY) && attributes.stream().allMatch("value"::equals)) {
+        continue;
+      }
+
+      if (name.equals(JSON_IGNORE) && !Boolean.FALSE.equals(attribute(annotation, "value"))) {
+        continue;
+      }
+
+      return "@" + name + " on " + describe(element) + " is not supported";
+    }
+
+    return null;
+  }
+
+  private Map<String, Accessors> collectAccessors(List<TypeElement> hierarchy) {
+    Map<String, Accessors> result = new LinkedHashMap<>();
+
+    // Fields first, from the top of the hierarchy, like Jackson does
+    for (int i = hierarchy.size() - 1; i >= 0; i--) {
+      for (VariableElement field : ElementFilter.fieldsIn(hierarchy.get(i).getEnclosedElements())) {
+        if (field.getModifiers().contains(Modifier.STATIC)) {
+          continue;
+        }
+        result.computeIfAbsent(field.getSimpleName().toString(), Accessors::new).field = field;
+      }
+    }
+
+    // Methods from the bottom of the hierarchy so that overrides win
+    for (TypeElement t : hierarchy) {
+      for (ExecutableElement method : ElementFilter.methodsIn(t.getEnclosedElements())) {
+        if (method.getModifiers().contains(Modifier.STATIC)) {
+          continue;
+        }
+
+        String name = method.getSimpleName().toString();
+
+        if (method.getParameters().isEmpty()) {
+          String implicitName = getterImplicitName(method);
+          if (implicitName != null) {
+            Accessors a = result.computeIfAbsent(implicitName, Accessors::new);
+            if (a.getter == null) {
+              a.getter = method;
+            }
+          }
+        } else if (method.getParameters().size() == 1
+            && name.length() > 3
+            && name.startsWith("set")) {
+          Accessors a = result.computeIfAbsent(mangle(name.substring(3)), Accessors::new);
+          if (a.setter == null) {
+            a.setter = method;
+          }
+        }
+      }
+    }
+
+    return result;
+  }
+
+  private String getterImplicitName(ExecutableElement method) {
+    String name = method.getSimpleName().toString();
+    TypeKind returnKind = method.getReturnType().getKind();
+
+    if (returnKind == TypeKind.VOID) {
+      return null;
+    }
+
+    if (name.length() > 3 && name.startsWith("get") && !name.equals("getClass")) {
+      return mangle(name.substring(3));
+    }
+
+    if (name.length() > 2 && name.startsWith("is") && returnKind == TypeKind.BOOLEAN) {
+      return mangle(name.substring(2));
+    }
+
+    return null;
+  }
+
+  /** Jackson's default ("legacy") bean name mangling: lower cases all the leading upper cases. */
+  static String mangle(String basename) {
+    StringBuilder sb = null;
+    int len = basename.length();
+
+    for (int i = 0; i < len; ++i) {
+      char upper = basename.charAt(i);
+      char lower = Character.toLowerCase(upper);
+      if (upper == lower) {
+        break;
+      }
+      if (sb == null) {
+        sb = new StringBuilder(basename);
+      }
+      sb.setCharAt(i, lower);
+    }
+
+    return sb == null ? basename : sb.toString();
+  }
+
+  /**
+   * Resolves the objectID the same way as {@code AlgoliaUtils.getObjectID}: the {@code objectID}
+   * field first, then the field annotated with {@code @JsonProperty("objectID")}.
+   */
+  private String objectIDExpression(
+      TypeElement type, List<TypeElement> hierarchy, String packageName) {
+    if (!type.getTypeParameters().isEmpty()) {
+      return null;
+    }
+
+    VariableElement objectIDField = null;
+    VariableElement annotatedField = null;
+
+    for (TypeElement t : hierarchy) {
+      for (VariableElement field : ElementFilter.fieldsIn(t.getEnclosedElements())) {
+        if (objectIDField == null && field.getSimpleName().contentEquals(OBJECT_ID)) {
+          objectIDField = field;
+        }
+      }
+    }
+
+    for (TypeElement t : hierarchy) {
+      for (VariableElement field : ElementFilter.fieldsIn(t.getEnclosedElements())) {
+        if (annotatedField == null && OBJECT_ID.equals(jsonPropertyValue(field))) {
+          annotatedField = field;
+        }
+      }
+    }
+
+    if (objectIDField == null && annotatedField == null) {
+      return null;
+    }
+
+    String first = objectIDField == null ? null : fieldReadExpression(objectIDField, packageName);
+    String second =
+        annotatedField == null ? null : fieldReadExpression(annotatedField, packageName);
+
+    if ((objectIDField != null && first == null) || (annotatedField != null && second == null)) {
+      return null;
+    }
+
+    if (first == null) {
+      return second;
+    }
+
+    return second == null ? first : "(" + first + " != null ? " + first + " : " + second + ")";
+  }
+
+  /** Reads a String field directly, or through its public getter. */
+  private String fieldReadExpression(VariableElement field, String packageName) {
+    if (!isString(field.asType())) {
+      return null;
+    }
+
+    if (field.getModifiers().contains(Modifier.STATIC)) {
+      return null;
+    }
+
+    if (isAccessible(field, packageName)) {
+      return "record." + field.getSimpleName();
+    }
+
+    TypeElement owner = (TypeElement) field.getEnclosingElement();
+    String fieldName = field.getSimpleName().toString();
+
+    for (TypeElement t = owner; t != null; ) {
+      for (ExecutableElement method : ElementFilter.methodsIn(t.getEnclosedElements())) {
+        if (method.getParameters().isEmpty()
+            && method.getModifiers().contains(Modifier.PUBLIC)
+            && !method.getModifiers().contains(Modifier.STATIC)
+            && isString(method.getReturnType())
+            && fieldName.equals(getterImplicitName(method))) {
+          return "record." + method.getSimpleName() + "()";
+        }
+      }
+      TypeMirror superclass = t.getSuperclass();
+      t =
+          superclass.getKind() == TypeKind.DECLARED
+              ? (TypeElement) types.asElement(superclass)
+              : null;
+    }
+
+    return null;
+  }
+
+  private boolean isString(TypeMirror type) {
+    return type.getKind() == TypeKind.DECLARED
+        && ((TypeElement) types.asElement(type))
+            .getQualifiedName()
+            .contentEquals("java.lang.String");
+  }
+
+  private boolean isAccessible(Element element, String packageName) {
+    Set<Modifier> modifiers = element.getModifiers();
+
+    if (modifiers.contains(Modifier.PUBLIC)) {
+      return true;
+    }
+
+    if (modifiers.contains(Modifier.PRIVATE)) {
+      return false;
+    }
+
+    TypeElement owner = (TypeElement) element.getEnclosingElement();
+    return elements.getPackageOf(owner).getQualifiedName().contentEquals(packageName);
+  }
+
+  private TypeMirror memberType(TypeElement type, Element member) {
+    TypeMirror resolved = types.asMemberOf((DeclaredType) type.asType(), member);
+
+    if (member instanceof ExecutableElement) {
+      ExecutableType executable = (ExecutableType) resolved;
+      return executable.getParameterTypes().isEmpty()
+          ? executable.getReturnType()
+          : executable.getParameterTypes().get(0);
+    }
+
+    return resolved;
+  }
+
+  private static boolean containsTypeVariable(TypeMirror type) {
+    if (type == null) {
+      return false;
+    }
+
+    switch (type.getKind()) {
+      case TYPEVAR:
+      case INTERSECTION:
+      case UNION:
+        return true;
+      case ARRAY:
+        return containsTypeVariable(((ArrayType) type).getComponentType());
+      case WILDCARD:
+        WildcardType wildcard = (WildcardType) type;
+        return containsTypeVariable(wildcard.getExtendsBound())
+            || containsTypeVariable(wildcard.getSuperBound());
+      case DECLARED:
+        for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+          if (containsTypeVariable(argument)) {
+            return true;
+          }
+        }
+        return false;
+      default:
+        return false;
+    }
+  }
+
+  private static String readExpression(Element reader) {
+    return reader instanceof ExecutableElement
+        ? "record." + reader.getSimpleName() + "()"
+        : "record." + reader.getSimpleName();
+  }
+
+  private static String writePrefix(Element writer) {
+    return writer instanceof ExecutableElement
+        ? "record." + writer.getSimpleName() + "("
+        : "record." + writer.getSimpleName() + " = ";
+  }
+
+  private static String writeSuffix(Element writer) {
+    return writer instanceof ExecutableElement ? ");" : ";";
+  }
+
+  private static String describe(Element element) {
+    return element.getEnclosingElement().getSimpleName() + "." + element.getSimpleName();
+  }
+
+  private static Set<String> attributeNames(AnnotationMirror annotation) {
+    Set<String> result = new HashSet<>();
+    for (ExecutableElement e : annotation.getElementValues().keySet()) {
+      result.add(e.getSimpleName().toString());
+    }
+    return result;
+  }
+
+  private static Object attribute(AnnotationMirror annotation, String name) {
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e :
+        annotation.getElementValues().entrySet()) {
+      if (e.getKey().getSimpleName().contentEquals(name)) {
+        return e.getValue().getValue();
+      }
+    }
+    return null;
+  }
+
+  private static AnnotationMirror findAnnotation(Element element, String qualifiedName) {
+    if (element == null) {
+      return null;
+    }
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+      if (annotationType.getQualifiedName().contentEquals(qualifiedName)) {
+        return annotation;
+      }
+    }
+    return null;
+  }
+
+  /** Returns the value of {@code @JsonProperty} on the element, "" if unnamed, null if absent. */
+  private static String jsonPropertyValue(Element element) {
+    AnnotationMirror annotation = findAnnotation(element, JSON_PROPERTY);
+    if (annotation == null) {
+      return null;
+    }
+    Object value = attribute(annotation, "value");
+    return value == null ? "" : value.toString();
+  }
+
+  /** The field, getter and setter sharing the same implicit property name. */
+  private static final class Accessors {
+
+    private final String name;
+    private VariableElement field;
+    private ExecutableElement getter;
+    private ExecutableElement setter;
+
+    private Accessors(String name) {
+      this.name = name;
+    }
+
+    private List<Element> all() {
+      List<Element> result = new ArrayList<>(3);
+      if (field != null) result.add(field);
+      if (getter != null) result.add(getter);
+      if (setter != null) result.add(setter);
+      return result;
+    }
+
+    private boolean isIgnored() {
+      return all().stream().anyMatch(e -> findAnnotation(e, JSON_IGNORE) != null);
+    }
+
+    private boolean isExplicit(Element element) {
+      return jsonPropertyValue(element) != null;
+    }
+
+    /** Returns why Jackson's resolution of this property can't be mirrored, null if it can. */
+    private String conflict() {
+      String explicitName = null;
+
+      for (Element e : all()) {
+        String value = jsonPropertyValue(e);
+        if (value == null || value.isEmpty()) {
+          continue;
+        }
+        if (explicitName != null && !explicitName.equals(value)) {
+          return "property '" + name + "' has conflicting @JsonProperty names";
+        }
+        explicitName = value;
+      }
+
+      if (isIgnored() && all().stream().anyMatch(this::isExplicit)) {
+        return "property '" + name + "' mixes @JsonIgnore and @JsonProperty";
+      }
+
+      if (field != null && field.getModifiers().contains(Modifier.TRANSIENT) && isExplicit(field)) {
+        return "transient field '" + name + "' annotated with @JsonProperty";
+      }
+
+      return null;
+    }
+
+    private String jsonName() {
+      for (Element e : all()) {
+        String value = jsonPropertyValue(e);
+        if (value != null && !value.isEmpty()) {
+          return value;
+        }
+      }
+      return name;
+    }
+
+    private boolean isVisibleField() {
+      return field != null
+          && !field.getModifiers().contains(Modifier.TRANSIENT)
+          && (field.getModifiers().contains(Modifier.PUBLIC) || isExplicit(field));
+    }
+
+    private boolean isVisibleGetter() {
+      return getter != null
+          && (getter.getModifiers().contains(Modifier.PUBLIC) || isExplicit(getter));
+    }
+
+    /** The accessor Jackson serializes the property with. */
+    private Element reader() {
+      if (isVisibleGetter()) {
+        return getter;
+      }
+      return isVisibleField() ? field : null;
+    }
+
+    /**
+     * The accessor Jackson deserializes the property with: any setter, then a visible field, then
+     * any field when the property has a visible getter (inferred mutator).
+     */
+    private Element writer() {
+      if (setter != null) {
+        return setter;
+      }
+      if (isVisibleField()) {
+        return field;
+      }
+      if (field != null
+          && isVisibleGetter()
+          && !field.getModifiers().contains(Modifier.TRANSIENT)) {
+        return field;
+      }
+      return null;
+    }
+
+    /** Jackson deserializes getter-only Collections and Maps by mutating the returned value. */
+    private boolean requiresGetterAsSetter(Types types, Elements elements) {
+      if (writer() != null || !isVisibleGetter() || isIgnored()) {
+        return false;
+      }
+
+      TypeMirror returnType = types.erasure(getter.getReturnType());
+      TypeMirror collection =
+          types.erasure(elements.getTypeElement("java.util.Collection").asType());
+      TypeMirror map = types.erasure(elements.getTypeElement("java.util.Map").asType());
+
+      return types.isAssignable(returnType, collection) || types.isAssignable(returnType, map);
+    }
+  }
+}
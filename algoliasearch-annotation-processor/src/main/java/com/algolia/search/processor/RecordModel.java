@@ -0,0 +1,105 @@
+package com.algolia.search.processor;
+
+import java.util.List;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+
+/** What the processor knows about an {@code @AlgoliaRecord} class. */
+final class RecordModel {
+
+  private final TypeElement type;
+  private final String objectIDExpression;
+  private final List<Property> properties;
+  private final String serializerUnsupportedReason;
+  private final String deserializerUnsupportedReason;
+
+  RecordModel(
+      TypeElement type,
+      String objectIDExpression,
+      List<Property> properties,
+      String serializerUnsupportedReason,
+      String deserializerUnsupportedReason) {
+    this.type = type;
+    this.objectIDExpression = objectIDExpression;
+    this.properties = properties;
+    this.serializerUnsupportedReason = serializerUnsupportedReason;
+    this.deserializerUnsupportedReason = deserializerUnsupportedReason;
+  }
+
+  TypeElement getType() {
+    return type;
+  }
+
+  /** Java expression reading the objectID of {@code record}, or null if it can't be generated. */
+  String getObjectIDExpression() {
+    return objectIDExpression;
+  }
+
+  List<Property> getProperties() {
+    return properties;
+  }
+
+  String getSerializerUnsupportedReason() {
+    return serializerUnsupportedReason;
+  }
+
+  String getDeserializerUnsupportedReason() {
+    return deserializerUnsupportedReason;
+  }
+
+  /** A JSON property of the record and the Java code used to read and write it. */
+  static final class Property {
+
+    private final String name;
+    private final TypeMirror readType;
+    private final String readExpression;
+    private final TypeMirror writeType;
+    private final String writePrefix;
+    private final String writeSuffix;
+
+    Property(
+        String name,
+        TypeMirror readType,
+        String readExpression,
+        TypeMirror writeType,
+        String writePrefix,
+        String writeSuffix) {
+      this.name = name;
+      this.readType = readType;
+      this.readExpression = readExpression;
+      this.writeType = writeType;
+      this.writePrefix = writePrefix;
+      this.writeSuffix = writeSuffix;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    boolean isReadable() {
+      return readExpression != null;
+    }
+
+    TypeMirror getReadType() {
+      return readType;
+    }
+
+    /** Java expression reading the property of {@code record}, e.g. {@code record.getName()}. */
+    String getReadExpression() {
+      return readExpression;
+    }
+
+    boolean isWritable() {
+      return writePrefix != null;
+    }
+
+    TypeMirror getWriteType() {
+      return writeType;
+    }
+
+    /** Java statement assigning {@code value} to the property of {@code record}. */
+    String writeStatement(String value) {
+      return writePrefix + value + writeSuffix;
+    }
+  }
+}
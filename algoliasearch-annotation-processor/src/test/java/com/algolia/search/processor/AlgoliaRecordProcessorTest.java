@@ -0,0 +1,198 @@
+package com.algolia.search.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.algolia.search.Defaults;
+import com.algolia.search.records.GeneratedRecords;
+import com.algolia.search.util.AlgoliaUtils;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AlgoliaRecordProcessorTest {
+
+  private static final String PRODUCT =
+      "package sample;\n"
+          + "import com.algolia.search.records.AlgoliaRecord;\n"
+          + "import com.fasterxml.jackson.annotation.JsonIgnore;\n"
+          + "import java.util.List;\n"
+          + "@AlgoliaRecord\n"
+          + "public class Product extends Base {\n"
+          + "  private String name;\n"
+          + "  private int stock;\n"
+          + "  private Double price;\n"
+          + "  private boolean available;\n"
+          + "  private List<String> tags;\n"
+          + "  private Dimension dimension;\n"
+          + "  @JsonIgnore private String secret;\n"
+          + "  public String getName() { return name; }\n"
+          + "  public Product setName(String name) { this.name = name; return this; }\n"
+          + "  public int getStock() { return stock; }\n"
+          + "  public void setStock(int stock) { this.stock = stock; }\n"
+          + "  public Double getPrice() { return price; }\n"
+          + "  public void setPrice(Double price) { this.price = price; }\n"
+          + "  public boolean isAvailable() { return available; }\n"
+          + "  public void setAvailable(boolean available) { this.available = available; }\n"
+          + "  public List<String> getTags() { return tags; }\n"
+          + "  public void setTags(List<String> tags) { this.tags = tags; }\n"
+          + "  public Dimension getDimension() { return dimension; }\n"
+          + "  public void setDimension(Dimension dimension) { this.dimension = dimension; }\n"
+          + "  public String getSecret() { return secret; }\n"
+          + "  public void setSecret(String secret) { this.secret = secret; }\n"
+          + "}\n";
+
+  private static final String BASE =
+      "package sample;\n"
+          + "import com.fasterxml.jackson.annotation.JsonProperty;\n"
+          + "public class Base {\n"
+          + "  @JsonProperty(\"objectID\") private String id;\n"
+          + "  public String getId() { return id; }\n"
+          + "  public void setId(String id) { this.id = id; }\n"
+          + "}\n";
+
+  private static final String DIMENSION =
+      "package sample;\n"
+          + "import com.fasterxml.jackson.annotation.JsonSubTypes;\n"
+          + "import com.fasterxml.jackson.annotation.JsonTypeInfo;\n"
+          + "@JsonTypeInfo(use = JsonTypeInfo.Id.NAME)\n"
+          + "@JsonSubTypes(@JsonSubTypes.Type(value = Dimension.Box.class, name = \"Box\"))\n"
+          + "public class Dimension {\n"
+          + "  public int width;\n"
+          + "  public static class Box extends Dimension {\n"
+          + "    public int height;\n"
+          + "  }\n"
+          + "}\n";
+
+  private static final String UNSUPPORTED =
+      "package sample;\n"
+          + "import com.algolia.search.records.AlgoliaRecord;\n"
+          + "import com.fasterxml.jackson.annotation.JsonInclude;\n"
+          + "@AlgoliaRecord\n"
+          + "@JsonInclude(JsonInclude.Include.NON_NULL)\n"
+          + "public class Unsupported {\n"
+          + "  public String objectID;\n"
+          + "}\n";
+
+  @TempDir static Path output;
+
+  private static ClassLoader loader;
+  private static List<Diagnostic<? extends JavaFileObject>> diagnostics;
+
+  @BeforeAll
+  static void compile() throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<>();
+
+    try (StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(collector, Locale.ROOT, null)) {
+
+      List<String> options =
+          Arrays.asList(
+              "-d",
+              output.toString(),
+              "-s",
+              output.toString(),
+              "-classpath",
+              System.getProperty("java.class.path"));
+
+      JavaCompiler.CompilationTask task =
+          compiler.getTask(
+              null,
+              fileManager,
+              collector,
+              options,
+              null,
+              Arrays.asList(
+                  source("sample.Product", PRODUCT),
+                  source("sample.Base", BASE),
+                  source("sample.Dimension", DIMENSION),
+                  source("sample.Unsupported", UNSUPPORTED)));
+
+      task.setProcessors(Collections.singletonList(new AlgoliaRecordProcessor()));
+
+      assertThat(task.call()).as(collector.getDiagnostics().toString()).isTrue();
+    }
+
+    diagnostics = collector.getDiagnostics();
+    loader =
+        new URLClassLoader(
+            new URL[] {output.toUri().toURL()}, AlgoliaRecordProcessorTest.class.getClassLoader());
+  }
+
+  @Test
+  void testGeneratedClasses() {
+    assertThat(output.resolve("sample/Product_AlgoliaObjectIDAccessor.java")).exists();
+    assertThat(output.resolve("sample/Product_AlgoliaSerializer.java")).exists();
+    assertThat(output.resolve("sample/Product_AlgoliaDeserializer.java")).exists();
+
+    assertThat(output.resolve("sample/Unsupported_AlgoliaObjectIDAccessor.java")).exists();
+    assertThat(output.resolve("sample/Unsupported_AlgoliaSerializer.java")).doesNotExist();
+    assertThat(output.resolve("sample/Unsupported_AlgoliaDeserializer.java")).doesNotExist();
+
+    assertThat(diagnostics)
+        .anySatisfy(
+            d ->
+                assertThat(d.getMessage(Locale.ROOT))
+                    .contains("JsonInclude on sample.Unsupported is not supported"));
+  }
+
+  @Test
+  void testGeneratedCodeMatchesJackson() throws Exception {
+    Class<?> productClass = loader.loadClass("sample.Product");
+    assertThat(GeneratedRecords.findSerializer(productClass)).isNotNull();
+    assertThat(GeneratedRecords.findDeserializer(productClass)).isNotNull();
+
+    String json =
+        "{\"objectID\":\"one\",\"name\":\"shoe\",\"stock\":3,\"price\":null,"
+            + "\"available\":true,\"tags\":\"single\",\"secret\":\"s\",\"unknown\":{\"a\":[1]},"
+            + "\"dimension\":{\"@type\":\"Box\",\"width\":2,\"height\":3}}";
+
+    ObjectMapper reflective =
+        new ObjectMapper()
+            .enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    Object generated = Defaults.getObjectMapper().readValue(json, productClass);
+    Object expected = reflective.readValue(json, productClass);
+
+    assertThat(
+            Defaults.getObjectMapper()
+                .readTree(Defaults.getObjectMapper().writeValueAsString(generated)))
+        .isEqualTo(reflective.readTree(reflective.writeValueAsString(expected)));
+
+    assertThat(AlgoliaUtils.getObjectID(generated, cast(productClass))).isEqualTo("one");
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Class<T> cast(Class<?> clazz) {
+    return (Class<T>) clazz;
+  }
+
+  private static JavaFileObject source(String className, String code) {
+    URI uri = URI.create("string:///" + className.replace('.', '/') + ".java");
+    return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return code;
+      }
+    };
+  }
+}
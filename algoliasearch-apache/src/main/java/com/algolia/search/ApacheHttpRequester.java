@@ -4,11 +4,17 @@ import com.algolia.search.exceptions.AlgoliaRuntimeException;
 import com.algolia.search.models.HttpRequest;
 import com.algolia.search.models.HttpResponse;
 import com.algolia.search.util.HttpStatusCodeUtils;
+import com.algolia.search.util.NamedDaemonThreadFactory;
 import java.io.IOException;
 import java.net.ConnectException;
 import java.net.SocketTimeoutException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import javax.annotation.Nonnull;
@@ -19,12 +25,26 @@ import org.apache.http.client.entity.DeflateDecompressingEntity;
 import org.apache.http.client.entity.GzipDecompressingEntity;
 import org.apache.http.client.methods.*;
 import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.ConnectTimeoutException;
 import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.conn.ManagedNHttpClientConnectionFactory;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.util.EntityUtils;
 
 /**
@@ -38,16 +58,32 @@ public final class ApacheHttpRequester implements HttpRequester {
   private final RequestConfig requestConfig;
   private final ConfigBase config;
 
+  /** The pool of the default client, null when the client was built by the user. */
+  private final PoolingNHttpClientConnectionManager connectionManager;
+
+  /** Closes the idle and expired connections, null when no eviction is configured. */
+  private final ScheduledExecutorService connectionEvictor;
+
   public ApacheHttpRequester(@Nonnull ConfigBase config) {
-    this(
-        config,
-        config.getUseSystemProxy()
-            ? HttpAsyncClientBuilder.create().useSystemProperties()
-            : HttpAsyncClientBuilder.create().setMaxConnPerRoute(100));
+    this(config, buildConnectionManager(config));
   }
 
   public ApacheHttpRequester(@Nonnull ConfigBase config, @Nonnull HttpAsyncClientBuilder builder) {
+    this(config, builder, null);
+  }
+
+  private ApacheHttpRequester(
+      @Nonnull ConfigBase config, @Nonnull PoolingNHttpClientConnectionManager connectionManager) {
+    this(config, buildClient(config).setConnectionManager(connectionManager), connectionManager);
+  }
+
+  private ApacheHttpRequester(
+      @Nonnull ConfigBase config,
+      @Nonnull HttpAsyncClientBuilder builder,
+      PoolingNHttpClientConnectionManager connectionManager) {
     this.config = config;
+    this.connectionManager = connectionManager;
+    this.connectionEvictor = startConnectionEvictor(config, connectionManager);
 
     this.requestConfig =
         RequestConfig.custom()
@@ -70,7 +106,7 @@ public final class ApacheHttpRequester implements HttpRequester {
   public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
     HttpRequestBase requestToSend = buildRequest(request);
     return toCompletableFuture(fc -> asyncHttpClient.execute(requestToSend, fc))
-        .thenApplyAsync(this::buildResponse, config.getExecutor())
+        .thenApply(this::buildResponse)
         .exceptionally(
             t -> {
               if (t.getCause() instanceof ConnectTimeoutException
@@ -88,11 +124,128 @@ public final class ApacheHttpRequester implements HttpRequester {
             });
   }
 
+  /**
+   * Statistics of the connection pool per host name. Empty when the requester was built with a
+   * custom HttpAsyncClientBuilder.
+   */
+  @Override
+  public Map<String, ConnectionPoolStats> getConnectionPoolStats() {
+    if (connectionManager == null) {
+      return Collections.emptyMap();
+    }
+
+    Map<String, ConnectionPoolStats> stats = new HashMap<>();
+    for (HttpRoute route : connectionManager.getRoutes()) {
+      PoolStats routeStats = connectionManager.getStats(route);
+      // Several routes may lead to the same host, e.g. through different ports
+      stats.merge(
+          route.getTargetHost().getHostName(),
+          new ConnectionPoolStats(
+              routeStats.getLeased(),
+              routeStats.getAvailable(),
+              routeStats.getPending(),
+              routeStats.getMax()),
+          ConnectionPoolStats::plus);
+    }
+    return stats;
+  }
+
   /** Closes the http client. */
   public void close() throws IOException {
+    if (connectionEvictor != null) {
+      connectionEvictor.shutdownNow();
+    }
     asyncHttpClient.close();
   }
 
+  /**
+   * The builder of the default client. With the system proxy, the proxy settings are read from the
+   * system properties, the pool remains the one of the {@link ConnectionPoolConfig}.
+   */
+  private static HttpAsyncClientBuilder buildClient(ConfigBase config) {
+    HttpAsyncClientBuilder builder = HttpAsyncClientBuilder.create();
+    if (config.getUseSystemProxy()) {
+      builder.useSystemProperties();
+    }
+    return builder;
+  }
+
+  /**
+   * Builds the connection pool of the default client from the {@link ConnectionPoolConfig}.
+   * HttpAsyncClient 4 can't validate connections after inactivity, this setting is ignored. With
+   * the system proxy, TLS is set up from the system properties, as the client would.
+   */
+  private static PoolingNHttpClientConnectionManager buildConnectionManager(ConfigBase config) {
+    ConnectionPoolConfig poolConfig = config.getConnectionPoolConfig();
+    Integer timeToLive = poolConfig.getConnectionTimeToLive();
+
+    PoolingNHttpClientConnectionManager connectionManager;
+    try {
+      connectionManager =
+          new PoolingNHttpClientConnectionManager(
+              new DefaultConnectingIOReactor(),
+              ManagedNHttpClientConnectionFactory.INSTANCE,
+              RegistryBuilder.<SchemeIOSessionStrategy>create()
+                  .register("http", NoopIOSessionStrategy.INSTANCE)
+                  .register(
+                      "https",
+                      config.getUseSystemProxy()
+                          ? SSLIOSessionStrategy.getSystemDefaultStrategy()
+                          : SSLIOSessionStrategy.getDefaultStrategy())
+                  .build(),
+              DefaultSchemePortResolver.INSTANCE,
+              SystemDefaultDnsResolver.INSTANCE,
+              timeToLive != null ? timeToLive : -1,
+              TimeUnit.MILLISECONDS);
+    } catch (IOReactorException e) {
+      throw new AlgoliaRuntimeException("Unable to start the HTTP client I/O reactor.", e);
+    }
+
+    connectionManager.setDefaultMaxPerRoute(poolConfig.getMaxConnPerRoute());
+    connectionManager.setMaxTotal(poolConfig.getMaxConnTotal(config.getHosts().size()));
+    return connectionManager;
+  }
+
+  /**
+   * HttpAsyncClient 4 has no eviction of its own: closes the idle and expired connections
+   * periodically, when an idle timeout or a time to live is configured.
+   */
+  private static ScheduledExecutorService startConnectionEvictor(
+      ConfigBase config, PoolingNHttpClientConnectionManager connectionManager) {
+    ConnectionPoolConfig poolConfig = config.getConnectionPoolConfig();
+    Integer idleTimeOut = poolConfig.getIdleTimeOut();
+    Integer timeToLive = poolConfig.getConnectionTimeToLive();
+
+    if (connectionManager == null || (idleTimeOut == null && timeToLive == null)) {
+      return null;
+    }
+
+    long period = Math.max(1000, Math.min(minNonNull(idleTimeOut, timeToLive) / 2, 30_000));
+
+    ScheduledExecutorService evictor =
+        Executors.newSingleThreadScheduledExecutor(
+            new NamedDaemonThreadFactory("algolia-connection-evictor"));
+
+    evictor.scheduleWithFixedDelay(
+        () -> {
+          connectionManager.closeExpiredConnections();
+          if (idleTimeOut != null) {
+            connectionManager.closeIdleConnections(idleTimeOut, TimeUnit.MILLISECONDS);
+          }
+        },
+        period,
+        period,
+        TimeUnit.MILLISECONDS);
+
+    return evictor;
+  }
+
+  private static long minNonNull(Integer a, Integer b) {
+    if (a == null) return b;
+    if (b == null) return a;
+    return Math.min(a, b);
+  }
+
   /**
    * Builds an Algolia response from the server response
    *
@@ -133,19 +286,19 @@ public final class ApacheHttpRequester implements HttpRequester {
 
       case HttpPost.METHOD_NAME:
         HttpPost post = new HttpPost(algoliaRequest.getUri().toString());
-        if (algoliaRequest.getBody() != null) post.setEntity(addEntity(algoliaRequest));
+        if (algoliaRequest.hasBody()) post.setEntity(addEntity(algoliaRequest));
         post.setConfig(buildRequestConfig(algoliaRequest));
         return addHeaders(post, algoliaRequest.getHeaders());
 
       case HttpPut.METHOD_NAME:
         HttpPut put = new HttpPut(algoliaRequest.getUri().toString());
-        if (algoliaRequest.getBody() != null) put.setEntity(addEntity(algoliaRequest));
+        if (algoliaRequest.hasBody()) put.setEntity(addEntity(algoliaRequest));
         put.setConfig(buildRequestConfig(algoliaRequest));
         return addHeaders(put, algoliaRequest.getHeaders());
 
       case HttpPatch.METHOD_NAME:
         HttpPatch patch = new HttpPatch(algoliaRequest.getUri().toString());
-        if (algoliaRequest.getBody() != null) patch.setEntity(addEntity(algoliaRequest));
+        if (algoliaRequest.hasBody()) patch.setEntity(addEntity(algoliaRequest));
         patch.setConfig(buildRequestConfig(algoliaRequest));
         return addHeaders(patch, algoliaRequest.getHeaders());
 
@@ -166,19 +319,28 @@ public final class ApacheHttpRequester implements HttpRequester {
   }
 
   private HttpEntity addEntity(@Nonnull HttpRequest request) {
-    try {
-      InputStreamEntity entity =
-          new InputStreamEntity(
-              request.getBody(), request.getBody().available(), ContentType.APPLICATION_JSON);
-
-      if (request.canCompress()) {
-        entity.setContentEncoding(Defaults.CONTENT_ENCODING_GZIP);
+    AbstractHttpEntity entity;
+
+    if (request.getBodyBytes() != null) {
+      // Sent straight from the transport buffer, without copy
+      entity =
+          new ByteArrayEntity(
+              request.getBodyBytes(), 0, request.getBodyLength(), ContentType.APPLICATION_JSON);
+    } else {
+      try {
+        entity =
+            new InputStreamEntity(
+                request.getBody(), request.getBody().available(), ContentType.APPLICATION_JSON);
+      } catch (IOException e) {
+        throw new AlgoliaRuntimeException("Error while getting body's content length.", e);
       }
+    }
 
-      return entity;
-    } catch (IOException e) {
-      throw new AlgoliaRuntimeException("Error while getting body's content length.", e);
+    if (request.getContentEncoding() != null) {
+      entity.setContentEncoding(request.getContentEncoding());
     }
+
+    return entity;
   }
 
   private static HttpEntity handleCompressedEntity(org.apache.http.HttpEntity entity) {
@@ -0,0 +1,431 @@
+package com.algolia.search;
+
+import com.algolia.search.exceptions.AlgoliaRuntimeException;
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.util.CompletableFutureUtils;
+import com.algolia.search.util.HttpStatusCodeUtils;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import javax.annotation.Nonnull;
+import javax.net.ssl.SSLException;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.H2AsyncClientBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClientBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.NoHttpResponseException;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
+import org.apache.hc.core5.http.nio.support.AsyncRequestBuilder;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.ProtocolNegotiationException;
+import org.apache.hc.core5.http2.ssl.ApplicationProtocol;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.reactor.ssl.TlsDetails;
+import org.apache.hc.core5.reactor.ssl.TransportSecurityLayer;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * The Algolia http requester on top of the async clients of Apache HttpClient 5. It's an
+ * implementation of {@link HttpRequester} It takes an {@link HttpRequest} as input. It returns an
+ * {@link HttpResponse}.
+ *
+ * <p>The requests to the HTTPS hosts are sent with HTTP/2: the HTTP/2 client keeps a single
+ * connection per host and multiplexes the concurrent requests as streams over it, up to the limit
+ * of concurrent streams set by the server. A host that doesn't speak HTTP/2, and the plain HTTP
+ * hosts, are served by a second client over HTTP/1.1, whose pool leases each connection to one
+ * request at a time. The request bodies are written straight from the transport buffer and the
+ * responses are read without blocking any thread.
+ */
+public final class Apache5HttpRequester implements HttpRequester {
+
+  private final CloseableHttpAsyncClient http2Client;
+  private final CloseableHttpAsyncClient http1Client;
+  private final PoolingAsyncClientConnectionManager connectionManager;
+
+  /** The hosts which didn't select HTTP/2 with ALPN. Served over HTTP/1.1 from then on */
+  private final Set<String> http1Hosts = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Builds the requester with the {@link ConnectionPoolConfig} of the configuration. The pool sizes
+   * only apply to the HTTP/1.1 connections, the HTTP/2 client opens one connection per host.
+   */
+  public Apache5HttpRequester(@Nonnull ConfigBase config) {
+    this(config, buildConnectionManager(config));
+  }
+
+  /**
+   * Builds the requester on top of a custom connection manager for the HTTP/1.1 requests, e.g. to
+   * change the pool sizes or the TLS settings. The manager is closed with the requester.
+   */
+  public Apache5HttpRequester(
+      @Nonnull ConfigBase config, @Nonnull PoolingAsyncClientConnectionManager connectionManager) {
+    this.connectionManager = connectionManager;
+
+    ConnectionPoolConfig poolConfig = config.getConnectionPoolConfig();
+
+    HttpAsyncClientBuilder http1Builder =
+        HttpAsyncClients.custom()
+            .setConnectionManager(connectionManager)
+            .disableRedirectHandling()
+            .disableCookieManagement()
+            // The transport has its own retry strategy across the hosts
+            .disableAutomaticRetries();
+
+    H2AsyncClientBuilder http2Builder =
+        HttpAsyncClients.customHttp2()
+            .setDefaultConnectionConfig(buildConnectionConfig(config))
+            .setTlsStrategy(new Http2TlsStrategy(DefaultClientTlsStrategy.getDefault()))
+            .disableRedirectHandling()
+            .disableCookieManagement()
+            .disableAutomaticRetries();
+
+    if (poolConfig.getIdleTimeOut() != null) {
+      TimeValue idleTimeOut = TimeValue.ofMilliseconds(poolConfig.getIdleTimeOut());
+      http1Builder.evictIdleConnections(idleTimeOut);
+      http2Builder.evictIdleConnections(idleTimeOut);
+    }
+    if (poolConfig.getConnectionTimeToLive() != null) {
+      http1Builder.evictExpiredConnections();
+    }
+
+    this.http1Client = http1Builder.build();
+    this.http2Client = http2Builder.build();
+
+    this.http1Client.start();
+    this.http2Client.start();
+  }
+
+  /**
+   * Sends the http request asynchronously to the API If the request is time out it creates a new
+   * response object with timeout set to true Otherwise it throws a run time exception
+   *
+   * @param request the request to send
+   * @throws AlgoliaRuntimeException When an error occurred while sending the request
+   */
+  public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+    return sendAsync(request)
+        .thenApply(this::buildResponse)
+        .exceptionally(
+            t -> {
+              if (t.getCause() instanceof InterruptedIOException
+                  || t.getCause() instanceof ConnectException
+                  || t.getCause() instanceof TimeoutException
+                  || t.getCause() instanceof NoHttpResponseException) {
+                return new HttpResponse(true);
+              } else if (t.getCause() instanceof HttpException
+                  || t.getCause() instanceof SSLException
+                  || t.getCause() instanceof IOException) {
+                return new HttpResponse().setNetworkError(true);
+              }
+              throw new AlgoliaRuntimeException(t);
+            });
+  }
+
+  /**
+   * Statistics of the HTTP/1.1 connection pool per host name. The HTTP/2 connections, one per host,
+   * are not pooled and not part of the statistics.
+   */
+  @Override
+  public Map<String, ConnectionPoolStats> getConnectionPoolStats() {
+    Map<String, ConnectionPoolStats> stats = new HashMap<>();
+    for (HttpRoute route : connectionManager.getRoutes()) {
+      PoolStats routeStats = connectionManager.getStats(route);
+      // Several routes may lead to the same host, e.g. through different ports
+      stats.merge(
+          route.getTargetHost().getHostName(),
+          new ConnectionPoolStats(
+              routeStats.getLeased(),
+              routeStats.getAvailable(),
+              routeStats.getPending(),
+              routeStats.getMax()),
+          ConnectionPoolStats::plus);
+    }
+    return stats;
+  }
+
+  /** Statistics of the HTTP/1.1 connection pool of all the hosts. */
+  public ConnectionPoolStats getTotalConnectionPoolStats() {
+    PoolStats total = connectionManager.getTotalStats();
+    return new ConnectionPoolStats(
+        total.getLeased(), total.getAvailable(), total.getPending(), total.getMax());
+  }
+
+  /** Closes the http clients and their connections. */
+  public void close() {
+    http2Client.close(CloseMode.GRACEFUL);
+    http1Client.close(CloseMode.GRACEFUL);
+  }
+
+  /**
+   * Sends the request with HTTP/2 to the HTTPS hosts, falling back to HTTP/1.1 for good when the
+   * host doesn't speak HTTP/2. Plain HTTP hosts are served over HTTP/1.1 right away.
+   */
+  private CompletableFuture<SimpleHttpResponse> sendAsync(HttpRequest request) {
+    String host = request.getUri().getHost();
+
+    if (!"https".equalsIgnoreCase(request.getUri().getProtocol()) || http1Hosts.contains(host)) {
+      return execute(http1Client, request);
+    }
+
+    return execute(http2Client, request)
+        .handle(
+            (response, t) -> {
+              if (t == null) {
+                return CompletableFuture.completedFuture(response);
+              }
+              if (!http1Hosts.contains(host)) {
+                return CompletableFutureUtils.<SimpleHttpResponse>failedFuture(t);
+              }
+              // The connection was refused by the TLS strategy, the request was not sent
+              return execute(http1Client, request);
+            })
+        .thenCompose(Function.identity());
+  }
+
+  private CompletableFuture<SimpleHttpResponse> execute(
+      CloseableHttpAsyncClient client, HttpRequest request) {
+    // A request producer can only be sent once, it's built for each client
+    AsyncRequestProducer requestToSend = buildRequest(request);
+    HttpClientContext context = buildContext(request);
+
+    return toCompletableFuture(
+        fc -> client.execute(requestToSend, SimpleResponseConsumer.create(), context, fc));
+  }
+
+  /**
+   * Refuses the HTTP/2 connections to the hosts which don't select HTTP/2 with ALPN, before any
+   * request is sent on them, and records these hosts to serve them over HTTP/1.1.
+   */
+  private final class Http2TlsStrategy implements TlsStrategy {
+
+    private final TlsStrategy delegate;
+
+    Http2TlsStrategy(TlsStrategy delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void upgrade(
+        TransportSecurityLayer tlsSession,
+        NamedEndpoint endpoint,
+        Object attachment,
+        Timeout handshakeTimeout,
+        FutureCallback<TransportSecurityLayer> callback) {
+
+      delegate.upgrade(
+          tlsSession,
+          endpoint,
+          attachment,
+          handshakeTimeout,
+          new FutureCallback<TransportSecurityLayer>() {
+            @Override
+            public void completed(TransportSecurityLayer result) {
+              TlsDetails details = result.getTlsDetails();
+              if (details != null
+                  && ApplicationProtocol.HTTP_2.id.equals(details.getApplicationProtocol())) {
+                callback.completed(result);
+                return;
+              }
+              http1Hosts.add(endpoint.getHostName());
+              callback.failed(
+                  new ProtocolNegotiationException(
+                      endpoint.getHostName() + " doesn't support HTTP/2"));
+            }
+
+            @Override
+            public void failed(Exception e) {
+              callback.failed(e);
+            }
+
+            @Override
+            public void cancelled() {
+              callback.cancelled();
+            }
+          });
+    }
+
+    /** Not used by the HTTP/2 client, which checks the protocol of the upgrade above. */
+    @Deprecated
+    @Override
+    public boolean upgrade(
+        TransportSecurityLayer tlsSession,
+        HttpHost host,
+        SocketAddress localAddress,
+        SocketAddress remoteAddress,
+        Object attachment,
+        Timeout handshakeTimeout) {
+      return delegate.upgrade(
+          tlsSession, host, localAddress, remoteAddress, attachment, handshakeTimeout);
+    }
+  }
+
+  private static PoolingAsyncClientConnectionManager buildConnectionManager(ConfigBase config) {
+    ConnectionPoolConfig poolConfig = config.getConnectionPoolConfig();
+
+    return PoolingAsyncClientConnectionManagerBuilder.create()
+        .setMaxConnPerRoute(poolConfig.getMaxConnPerRoute())
+        .setMaxConnTotal(poolConfig.getMaxConnTotal(config.getHosts().size()))
+        // HTTP/2 is sent by its own client, multiplexing the requests over one connection
+        .setDefaultTlsConfig(
+            TlsConfig.custom().setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_1).build())
+        .setDefaultConnectionConfig(buildConnectionConfig(config))
+        .build();
+  }
+
+  private static ConnectionConfig buildConnectionConfig(ConfigBase config) {
+    ConnectionPoolConfig poolConfig = config.getConnectionPoolConfig();
+
+    ConnectionConfig.Builder connectionConfig =
+        ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.ofMilliseconds(config.getConnectTimeOut()));
+    if (poolConfig.getConnectionTimeToLive() != null) {
+      connectionConfig.setTimeToLive(
+          TimeValue.ofMilliseconds(poolConfig.getConnectionTimeToLive()));
+    }
+    if (poolConfig.getValidateAfterInactivity() != null) {
+      connectionConfig.setValidateAfterInactivity(
+          TimeValue.ofMilliseconds(poolConfig.getValidateAfterInactivity()));
+    }
+    return connectionConfig.build();
+  }
+
+  /**
+   * Builds an Algolia response from the server response
+   *
+   * @param response The server response
+   */
+  private HttpResponse buildResponse(SimpleHttpResponse response) {
+    byte[] body = response.getBodyBytes() != null ? response.getBodyBytes() : new byte[0];
+
+    if (HttpStatusCodeUtils.isSuccess(response.getCode())) {
+      return new HttpResponse(response.getCode(), handleCompressedBody(response, body));
+    }
+
+    return new HttpResponse(response.getCode(), new String(body, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Builds an Apache request producer from an Algolia Request object
+   *
+   * @param algoliaRequest The Algolia request object
+   */
+  private AsyncRequestProducer buildRequest(HttpRequest algoliaRequest) {
+    AsyncRequestBuilder builder =
+        AsyncRequestBuilder.create(algoliaRequest.getMethod().toString())
+            .setUri(algoliaRequest.getUri().toString());
+
+    algoliaRequest.getHeaders().forEach(builder::addHeader);
+
+    if (algoliaRequest.hasBody()) {
+      builder.setEntity(buildEntity(algoliaRequest));
+    }
+
+    return builder.build();
+  }
+
+  private ByteArrayAsyncEntityProducer buildEntity(@Nonnull HttpRequest request) {
+    if (request.getBodyBytes() != null) {
+      // Sent straight from the transport buffer, without copy
+      return new ByteArrayAsyncEntityProducer(
+          request.getBodyBytes(), 0, request.getBodyLength(), request.getContentEncoding());
+    }
+
+    try (InputStream in = request.getBody()) {
+      byte[] content = new byte[in.available()];
+      int read = in.read(content);
+      return new ByteArrayAsyncEntityProducer(
+          content, 0, Math.max(read, 0), request.getContentEncoding());
+    } catch (IOException e) {
+      throw new AlgoliaRuntimeException("Error while reading the request body.", e);
+    }
+  }
+
+  private HttpClientContext buildContext(HttpRequest algoliaRequest) {
+    HttpClientContext context = HttpClientContext.create();
+    context.setRequestConfig(
+        RequestConfig.custom()
+            .setResponseTimeout(Timeout.ofMilliseconds(algoliaRequest.getTimeout()))
+            .build());
+    return context;
+  }
+
+  private static InputStream handleCompressedBody(SimpleHttpResponse response, byte[] body) {
+    InputStream in = new ByteArrayInputStream(body);
+    Header contentEncoding = response.getFirstHeader(Defaults.CONTENT_ENCODING_HEADER);
+
+    if (contentEncoding == null) {
+      return in;
+    }
+
+    try {
+      if (Defaults.CONTENT_ENCODING_GZIP.equalsIgnoreCase(contentEncoding.getValue())) {
+        return new GZIPInputStream(in);
+      }
+    } catch (IOException e) {
+      throw new AlgoliaRuntimeException(e);
+    }
+
+    if (Defaults.CONTENT_ENCODING_DEFLATE.equalsIgnoreCase(contentEncoding.getValue())) {
+      return new InflaterInputStream(in);
+    }
+
+    return in;
+  }
+
+  private static CompletableFuture<SimpleHttpResponse> toCompletableFuture(
+      Consumer<FutureCallback<SimpleHttpResponse>> c) {
+    CompletableFuture<SimpleHttpResponse> promise = new CompletableFuture<>();
+
+    c.accept(
+        new FutureCallback<SimpleHttpResponse>() {
+          @Override
+          public void completed(SimpleHttpResponse t) {
+            promise.complete(t);
+          }
+
+          @Override
+          public void failed(Exception e) {
+            promise.completeExceptionally(e);
+          }
+
+          @Override
+          public void cancelled() {
+            promise.cancel(true);
+          }
+        });
+    return promise;
+  }
+}
@@ -0,0 +1,86 @@
+package com.algolia.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+
+/**
+ * Writes a region of a byte array without copying it, unlike the producers of HttpCore which take
+ * the whole array. Used to send the request bodies straight from the transport buffer.
+ */
+final class ByteArrayAsyncEntityProducer implements AsyncEntityProducer {
+
+  private final byte[] content;
+  private final int offset;
+  private final int length;
+  private final String contentEncoding;
+  private ByteBuffer buffer;
+
+  ByteArrayAsyncEntityProducer(byte[] content, int offset, int length, String contentEncoding) {
+    this.content = content;
+    this.offset = offset;
+    this.length = length;
+    this.contentEncoding = contentEncoding;
+    this.buffer = ByteBuffer.wrap(content, offset, length);
+  }
+
+  @Override
+  public boolean isRepeatable() {
+    return true;
+  }
+
+  @Override
+  public void failed(Exception cause) {
+    releaseResources();
+  }
+
+  @Override
+  public long getContentLength() {
+    return length;
+  }
+
+  @Override
+  public String getContentType() {
+    return ContentType.APPLICATION_JSON.toString();
+  }
+
+  @Override
+  public String getContentEncoding() {
+    return contentEncoding;
+  }
+
+  @Override
+  public boolean isChunked() {
+    return false;
+  }
+
+  @Override
+  public Set<String> getTrailerNames() {
+    return null;
+  }
+
+  @Override
+  public int available() {
+    return buffer.remaining();
+  }
+
+  @Override
+  public void produce(DataStreamChannel channel) throws IOException {
+    if (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+
+    if (!buffer.hasRemaining()) {
+      channel.endStream();
+    }
+  }
+
+  /** Rewinds the body, so that it can be sent again. */
+  @Override
+  public void releaseResources() {
+    buffer = ByteBuffer.wrap(content, offset, length);
+  }
+}
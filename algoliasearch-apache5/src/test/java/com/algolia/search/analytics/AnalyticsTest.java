@@ -0,0 +1,31 @@
+package com.algolia.search.analytics;
+
+import static com.algolia.search.integration.TestHelpers.ALGOLIA_ADMIN_KEY_1;
+import static com.algolia.search.integration.TestHelpers.ALGOLIA_APPLICATION_ID_1;
+
+import com.algolia.search.AnalyticsClient;
+import com.algolia.search.AnalyticsConfig;
+import com.algolia.search.Apache5HttpRequester;
+import com.algolia.search.IntegrationTestExtension;
+import java.io.IOException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith({IntegrationTestExtension.class})
+class AnalyticsTest extends com.algolia.search.integration.analytics.AnalyticsTest {
+
+  private static AnalyticsConfig config =
+      new AnalyticsConfig.Builder(ALGOLIA_APPLICATION_ID_1, ALGOLIA_ADMIN_KEY_1).build();
+
+  private static AnalyticsClient analyticsClient =
+      new AnalyticsClient(config, new Apache5HttpRequester(config));
+
+  AnalyticsTest() {
+    super(IntegrationTestExtension.searchClient, analyticsClient);
+  }
+
+  @AfterAll
+  static void afterAll() throws IOException {
+    analyticsClient.close();
+  }
+}
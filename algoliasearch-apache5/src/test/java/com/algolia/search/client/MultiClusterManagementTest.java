@@ -0,0 +1,31 @@
+package com.algolia.search.client;
+
+import static com.algolia.search.integration.TestHelpers.ALGOLIA_ADMIN_KEY_MCM;
+import static com.algolia.search.integration.TestHelpers.ALGOLIA_APPLICATION_ID_MCM;
+
+import com.algolia.search.Apache5HttpRequester;
+import com.algolia.search.IntegrationTestExtension;
+import com.algolia.search.SearchClient;
+import com.algolia.search.SearchConfig;
+import java.io.IOException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith({IntegrationTestExtension.class})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MultiClusterManagementTest
+    extends com.algolia.search.integration.client.MultiClusterManagementTest {
+
+  private static SearchConfig config =
+      new SearchConfig.Builder(ALGOLIA_APPLICATION_ID_MCM, ALGOLIA_ADMIN_KEY_MCM).build();
+
+  MultiClusterManagementTest() {
+    super(new SearchClient(config, new Apache5HttpRequester(config)));
+  }
+
+  @AfterAll
+  void afterAll() throws IOException {
+    mcmClient.close();
+  }
+}
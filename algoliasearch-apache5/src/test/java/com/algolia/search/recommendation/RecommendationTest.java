@@ -0,0 +1,31 @@
+package com.algolia.search.recommendation;
+
+import com.algolia.search.Apache5HttpRequester;
+import com.algolia.search.IntegrationTestExtension;
+import com.algolia.search.RecommendationClient;
+import com.algolia.search.RecommendationConfig;
+import com.algolia.search.integration.TestHelpers;
+import java.io.IOException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith({IntegrationTestExtension.class})
+class RecommendationTest extends com.algolia.search.integration.recommendation.RecommendationTest {
+
+  private static RecommendationConfig config =
+      new RecommendationConfig.Builder(
+              TestHelpers.ALGOLIA_APPLICATION_ID_1, TestHelpers.ALGOLIA_ADMIN_KEY_1, "eu")
+          .build();
+
+  private static RecommendationClient recommendationClient =
+      new RecommendationClient(config, new Apache5HttpRequester(config));
+
+  RecommendationTest() {
+    super(recommendationClient);
+  }
+
+  @AfterAll
+  static void close() throws IOException {
+    recommendationClient.close();
+  }
+}
@@ -0,0 +1,7 @@
+package com.algolia.search.benchmark;
+
+import com.algolia.search.records.AlgoliaRecord;
+
+/** Same record as {@link PlainProduct}, (de)serialized by the code generated at compile time. */
+@AlgoliaRecord
+public class GeneratedProduct extends PlainProduct {}
@@ -0,0 +1,80 @@
+package com.algolia.search.benchmark;
+
+import java.util.List;
+
+/** Record (de)serialized by Jackson's reflective bean handling. */
+public class PlainProduct {
+
+  private String objectID;
+  private String name;
+  private String description;
+  private String brand;
+  private double price;
+  private int stock;
+  private boolean available;
+  private List<String> categories;
+
+  public String getObjectID() {
+    return objectID;
+  }
+
+  public void setObjectID(String objectID) {
+    this.objectID = objectID;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public void setDescription(String description) {
+    this.description = description;
+  }
+
+  public String getBrand() {
+    return brand;
+  }
+
+  public void setBrand(String brand) {
+    this.brand = brand;
+  }
+
+  public double getPrice() {
+    return price;
+  }
+
+  public void setPrice(double price) {
+    this.price = price;
+  }
+
+  public int getStock() {
+    return stock;
+  }
+
+  public void setStock(int stock) {
+    this.stock = stock;
+  }
+
+  public boolean isAvailable() {
+    return available;
+  }
+
+  public void setAvailable(boolean available) {
+    this.available = available;
+  }
+
+  public List<String> getCategories() {
+    return categories;
+  }
+
+  public void setCategories(List<String> categories) {
+    this.categories = categories;
+  }
+}
@@ -0,0 +1,91 @@
+package com.algolia.search.benchmark;
+
+import com.algolia.search.Defaults;
+import com.algolia.search.util.AlgoliaUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to write, read and get the objectID of one record with the client's {@code ObjectMapper},
+ * for a record with code generated by the annotation processor ({@link GeneratedProduct}) and for
+ * the same record handled by Jackson's reflective bean (de)serializers ({@link PlainProduct}).
+ *
+ * <pre>{@code
+ * java -jar algoliasearch-benchmark/target/benchmarks.jar RecordSerializationBenchmark
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RecordSerializationBenchmark {
+
+  private final ObjectMapper mapper = Defaults.getObjectMapper();
+
+  private GeneratedProduct generated;
+  private PlainProduct plain;
+  private String json;
+
+  @Setup
+  public void setUp() throws IOException {
+    generated = fill(new GeneratedProduct());
+    plain = fill(new PlainProduct());
+    json = mapper.writeValueAsString(plain);
+  }
+
+  @Benchmark
+  public String writeGenerated() throws IOException {
+    return mapper.writeValueAsString(generated);
+  }
+
+  @Benchmark
+  public String writeReflective() throws IOException {
+    return mapper.writeValueAsString(plain);
+  }
+
+  @Benchmark
+  public GeneratedProduct readGenerated() throws IOException {
+    return mapper.readValue(json, GeneratedProduct.class);
+  }
+
+  @Benchmark
+  public PlainProduct readReflective() throws IOException {
+    return mapper.readValue(json, PlainProduct.class);
+  }
+
+  @Benchmark
+  public String objectIDGenerated() {
+    return AlgoliaUtils.getObjectID(generated, GeneratedProduct.class);
+  }
+
+  @Benchmark
+  public String objectIDReflective() {
+    return AlgoliaUtils.getObjectID(plain, PlainProduct.class);
+  }
+
+  private static <T extends PlainProduct> T fill(T product) {
+    product.setObjectID("product-42");
+    product.setName("Trail running shoe");
+    product.setDescription("Lightweight shoe with a grippy sole for muddy and rocky trails.");
+    product.setBrand("Acme");
+    product.setPrice(129.99);
+    product.setStock(17);
+    product.setAvailable(true);
+    product.setCategories(Arrays.asList("shoes", "running", "trail"));
+    return product;
+  }
+}
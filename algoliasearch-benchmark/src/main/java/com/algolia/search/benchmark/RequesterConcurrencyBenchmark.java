@@ -0,0 +1,111 @@
+package com.algolia.search.benchmark;
+
+import com.algolia.search.ApacheHttpRequester;
+import com.algolia.search.BlockingJavaNetHttpRequester;
+import com.algolia.search.HttpRequester;
+import com.algolia.search.JavaNetHttpRequester;
+import com.algolia.search.SearchConfig;
+import com.algolia.search.models.HttpMethod;
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to send a wave of concurrent requests with each {@code HttpRequester}, and receive all their
+ * responses, from a local stub answering after 20 ms. The lower bound is the stub delay: the time
+ * above it is the cost of the requester for this number of requests in flight.
+ *
+ * <pre>{@code
+ * java -jar algoliasearch-benchmark/target/benchmarks.jar RequesterConcurrencyBenchmark
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class RequesterConcurrencyBenchmark {
+
+  private static final byte[] BODY =
+      "{\"hits\":[],\"nbHits\":0,\"processingTimeMS\":1}".getBytes(StandardCharsets.UTF_8);
+
+  @Param({"1000", "10000"})
+  private int inFlight;
+
+  @Param({"java-net", "java-net-blocking", "apache"})
+  private String requester;
+
+  private StubServer server;
+  private HttpRequester httpRequester;
+  private URL url;
+
+  @Setup
+  public void setUp() throws IOException {
+    server = new StubServer(BODY, 20);
+    url = server.url("/1/indexes/products/query");
+
+    SearchConfig config = new SearchConfig.Builder("appID", "apiKEY").build();
+    switch (requester) {
+      case "java-net":
+        httpRequester = new JavaNetHttpRequester(config);
+        break;
+      case "java-net-blocking":
+        httpRequester = new BlockingJavaNetHttpRequester(config);
+        break;
+      case "apache":
+        httpRequester = new ApacheHttpRequester(config);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown requester: " + requester);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    httpRequester.close();
+    server.close();
+  }
+
+  /** Sends the requests at once and waits for all the responses. */
+  @Benchmark
+  public int sendConcurrently() throws IOException {
+    CompletableFuture<?>[] responses = new CompletableFuture<?>[inFlight];
+    for (int i = 0; i < inFlight; i++) {
+      HttpRequest request =
+          new HttpRequest(HttpMethod.GET, url.getPath(), new HashMap<>(), 60_000).setUri(url);
+      responses[i] = httpRequester.performRequestAsync(request);
+    }
+    CompletableFuture.allOf(responses).join();
+
+    int succeeded = 0;
+    for (CompletableFuture<?> response : responses) {
+      HttpResponse httpResponse = (HttpResponse) response.join();
+      if (httpResponse.getHttpStatusCode() == 200) {
+        httpResponse.getBody().close();
+        succeeded++;
+      }
+    }
+    if (succeeded != inFlight) {
+      throw new IllegalStateException((inFlight - succeeded) + " requests failed");
+    }
+    return succeeded;
+  }
+}
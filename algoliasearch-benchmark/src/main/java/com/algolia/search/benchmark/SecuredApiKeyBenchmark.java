@@ -0,0 +1,79 @@
+package com.algolia.search.benchmark;
+
+import com.algolia.search.models.apikeys.SecuredApiKeyRestriction;
+import com.algolia.search.util.HmacShaUtils;
+import com.algolia.search.util.SecuredApiKeyMinter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to generate one secured API key with {@code HmacShaUtils}, which looks up and initializes a
+ * new {@code Mac} per call, and with a {@code SecuredApiKeyMinter} bound to the parent key. The
+ * bulk variant mints a batch of keys for distinct user tokens, reported per key.
+ *
+ * <pre>{@code
+ * java -jar algoliasearch-benchmark/target/benchmarks.jar SecuredApiKeyBenchmark
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SecuredApiKeyBenchmark {
+
+  private static final String PARENT_KEY = "182634d8894831d5dbce3b3185c50881";
+  private static final int BATCH_SIZE = 100;
+
+  private SecuredApiKeyMinter minter;
+  private SecuredApiKeyRestriction restriction;
+  private List<SecuredApiKeyRestriction> restrictions;
+
+  @Setup
+  public void setUp() {
+    minter = new SecuredApiKeyMinter(PARENT_KEY);
+    restriction = restriction("user-42");
+
+    restrictions = new ArrayList<>(BATCH_SIZE);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      restrictions.add(restriction("user-" + i));
+    }
+  }
+
+  @Benchmark
+  public String perCallMac() throws Exception {
+    return HmacShaUtils.generateSecuredApiKey(PARENT_KEY, restriction);
+  }
+
+  @Benchmark
+  public String minter() {
+    return minter.generate(restriction);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public List<String> minterBatch() {
+    return minter.generate(restrictions);
+  }
+
+  private static SecuredApiKeyRestriction restriction(String userToken) {
+    return new SecuredApiKeyRestriction()
+        .setValidUntil(1_600_000_000L)
+        .setRestrictIndices(Arrays.asList("products", "prod_*"))
+        .setUserToken(userToken);
+  }
+}
@@ -0,0 +1,67 @@
+package com.algolia.search.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local HTTP server answering every request with the same JSON body after a fixed delay, standing
+ * for the latency of the engine. No thread is held during the delay, so that the server doesn't
+ * limit the number of requests in flight.
+ */
+final class StubServer implements Closeable {
+
+  private final HttpServer server;
+  private final ExecutorService handlers;
+  private final ScheduledExecutorService responder;
+
+  StubServer(byte[] body, long delayMillis) throws IOException {
+    handlers = Executors.newFixedThreadPool(4);
+    responder = Executors.newScheduledThreadPool(4);
+
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 16_384);
+    server.setExecutor(handlers);
+    server.createContext(
+        "/",
+        exchange -> {
+          exchange.getRequestBody().readAllBytes();
+          responder.schedule(() -> respond(exchange, body), delayMillis, TimeUnit.MILLISECONDS);
+        });
+    server.start();
+  }
+
+  private static void respond(HttpExchange exchange, byte[] body) {
+    try (OutputStream out = exchange.getResponseBody()) {
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      out.write(body);
+    } catch (IOException e) {
+      // The client went away, nothing to answer
+    }
+  }
+
+  URL url(String path) {
+    try {
+      return new URL("http", "localhost", server.getAddress().getPort(), path);
+    } catch (MalformedURLException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    handlers.shutdownNow();
+    responder.shutdownNow();
+  }
+}
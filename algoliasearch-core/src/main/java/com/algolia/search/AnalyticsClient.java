@@ -10,6 +10,8 @@ import com.algolia.search.models.analytics.*;
 import com.algolia.search.models.common.CallType;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nonnull;
@@ -23,11 +25,15 @@ import javax.annotation.Nonnull;
  * @see <a href="https://www.algolia.com/doc/rest-api/analytics/">Algolia.com</a>
  */
 @SuppressWarnings("WeakerAccess")
-public final class AnalyticsClient implements Closeable {
+public final class AnalyticsClient implements Closeable, WarmableClient {
 
   /** The transport layer. Must be reused. */
   private final HttpTransport transport;
 
+  /** Models of the A/B tests calls, prepared by the warm-up */
+  private static final List<Class<?>> WARM_UP_MODELS =
+      Arrays.asList(ABTest.class, ABTests.class, ABTestResponse.class, AddABTestResponse.class);
+
   /** Client's configuration. Must be reused. */
   private final ConfigBase config;
 
@@ -62,6 +68,11 @@ public final class AnalyticsClient implements Closeable {
     transport.close();
   }
 
+  @Override
+  public CompletableFuture<WarmUpReport> warmUpAsync(int connectionsPerHost) {
+    return transport.warmUpAsync(connectionsPerHost, WARM_UP_MODELS);
+  }
+
   /** Get Client's configuration */
   public ConfigBase getConfig() {
     return config;
@@ -0,0 +1,296 @@
+package com.algolia.search;
+
+import com.algolia.search.exceptions.LaunderThrowable;
+import com.algolia.search.models.apikeys.ApiKey;
+import com.algolia.search.util.NamedDaemonThreadFactory;
+import java.io.Closeable;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+
+/**
+ * Keeps the permissions of all the API keys of an application in memory, for the gateways checking
+ * the keys of their requests. Looking up a key is a map read, it never calls Algolia.
+ *
+ * <p>All the keys are listed again with {@link SearchClientAPIKeys#listApiKeysAsync()} in the
+ * background, every {@link Builder#setReloadIntervalMs reload interval}: the API has no listing of
+ * the keys changed since a given time, so each reload is a full one, whose cost grows with the
+ * number of keys of the application. The keys are updated in place, so that the lookups never see a
+ * partially loaded cache. The keys added, updated, deleted or restored through the same {@link
+ * SearchClient} are updated right away.
+ *
+ * <p>Until the first reload completes, no key is known. See {@link #reload()} to wait for it. This
+ * class is thread-safe.
+ */
+public final class ApiKeyCache implements Closeable {
+
+  private static final Logger LOGGER = Logger.getLogger(ApiKeyCache.class.getName());
+  private static final AtomicInteger CACHE_NUMBER = new AtomicInteger();
+
+  private final SearchClientAPIKeys client;
+  private final MetricsListener metricsListener;
+  private final Map<String, ApiKeyInfo> keys = new ConcurrentHashMap<>();
+
+  /**
+   * Time of the last change of each key made through the client, so that a reload doesn't override
+   * it with the key as listed before Algolia applied the change. In nanoseconds
+   */
+  private final Map<String, Long> changes = new ConcurrentHashMap<>();
+
+  /** Time during which a key changed through the client is not overridden by the reloads. */
+  private static final long CHANGE_GRACE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+  private final AtomicReference<CompletableFuture<Void>> reloading = new AtomicReference<>();
+  private final AtomicBoolean closed = new AtomicBoolean();
+  private final ScheduledThreadPoolExecutor scheduler;
+  private final Listener listener = new Listener();
+
+  /** Time of the last successful reload, 0 when none. In milliseconds since the epoch */
+  private volatile long lastReloadAt;
+
+  private ApiKeyCache(Builder builder) {
+    this.client = builder.client;
+    this.metricsListener = client.getConfig().getMetricsListener();
+
+    this.scheduler =
+        new ScheduledThreadPoolExecutor(
+            1,
+            new NamedDaemonThreadFactory(
+                "algolia-api-key-cache-" + CACHE_NUMBER.incrementAndGet()));
+
+    client.getTransport().addApiKeyListener(listener);
+    this.scheduler.scheduleWithFixedDelay(
+        this::scheduledReload, 0, builder.reloadIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Gets the permissions of an API key.
+   *
+   * @param key The value of the API key
+   * @return null when the key doesn't exist, is expired, or isn't loaded yet
+   */
+  public ApiKeyInfo get(@Nonnull String key) {
+    ApiKeyInfo info = keys.get(key);
+    boolean valid = info != null && !info.isExpired();
+    MetricsListener.dispatch(metricsListener, l -> l.onCacheAccess("apiKey", valid));
+    return valid ? info : null;
+  }
+
+  /**
+   * Tells if the API key exists, is valid, has the ACL and can access the index.
+   *
+   * @param key The value of the API key
+   * @param acl The ACL required, e.g. search
+   * @param indexName The index accessed
+   */
+  public boolean isAllowed(@Nonnull String key, @Nonnull String acl, @Nonnull String indexName) {
+    ApiKeyInfo info = keys.get(key);
+    boolean hit = info != null && !info.isExpired();
+    MetricsListener.dispatch(metricsListener, l -> l.onCacheAccess("apiKey", hit));
+    return info != null && info.isAllowed(acl, indexName);
+  }
+
+  /** Number of API keys held, expired ones included. */
+  public int size() {
+    return keys.size();
+  }
+
+  /** Time of the last successful reload, 0 when none. In milliseconds since the epoch */
+  public long getLastReloadAt() {
+    return lastReloadAt;
+  }
+
+  /**
+   * Loads all the API keys, and waits for them.
+   *
+   * @throws com.algolia.search.exceptions.AlgoliaRetryException When the retry has failed on all
+   *     hosts
+   * @throws com.algolia.search.exceptions.AlgoliaApiException When the API sends an http error code
+   */
+  public void reload() {
+    LaunderThrowable.await(reloadAsync());
+  }
+
+  /**
+   * Loads all the API keys. When a reload is already in progress, returns it rather than starting
+   * another one.
+   */
+  public CompletableFuture<Void> reloadAsync() {
+    CompletableFuture<Void> result = new CompletableFuture<>();
+
+    // Joins the reload in progress, if any, even if it completes in between
+    while (!reloading.compareAndSet(null, result)) {
+      CompletableFuture<Void> current = reloading.get();
+      if (current != null) {
+        return current;
+      }
+    }
+
+    long since = System.nanoTime() - CHANGE_GRACE_NANOS;
+    long start = System.currentTimeMillis();
+    CompletableFuture<List<ApiKey>> list;
+
+    try {
+      list = client.listApiKeysAsync();
+    } catch (RuntimeException e) {
+      list = new CompletableFuture<>();
+      list.completeExceptionally(e);
+    }
+
+    list.whenComplete(
+        (apiKeys, e) -> {
+          Throwable error = e;
+          try {
+            if (error == null) {
+              apply(apiKeys, since, start);
+            }
+          } catch (RuntimeException applyError) {
+            error = applyError;
+          } finally {
+            reloading.set(null);
+          }
+
+          if (error != null) {
+            result.completeExceptionally(error);
+          } else {
+            result.complete(null);
+          }
+        });
+
+    return result;
+  }
+
+  /** Stops the reloads. The keys already loaded can still be looked up. */
+  @Override
+  public void close() {
+    if (closed.compareAndSet(false, true)) {
+      client.getTransport().removeApiKeyListener(listener);
+      scheduler.shutdown();
+    }
+  }
+
+  private void scheduledReload() {
+    reloadAsync()
+        .whenComplete(
+            (r, e) -> {
+              if (e != null) {
+                LOGGER.log(Level.WARNING, "Error while reloading the API keys", e);
+              }
+            });
+  }
+
+  /** Updates the keys in place, skipping those recently changed through the client. */
+  private void apply(List<ApiKey> apiKeys, long since, long start) {
+    Set<String> seen = new HashSet<>(apiKeys.size() * 2);
+
+    for (ApiKey apiKey : apiKeys) {
+      String key = apiKey.getValue();
+      if (key == null) {
+        continue;
+      }
+      seen.add(key);
+      keys.compute(
+          key,
+          (k, previous) -> isChangedSince(k, since) ? previous : ApiKeyInfo.of(k, apiKey, start));
+    }
+
+    for (String key : keys.keySet()) {
+      if (!seen.contains(key)) {
+        keys.computeIfPresent(key, (k, previous) -> isChangedSince(k, since) ? previous : null);
+      }
+    }
+
+    changes.values().removeIf(change -> change - since <= 0);
+    lastReloadAt = start;
+  }
+
+  private boolean isChangedSince(String key, long since) {
+    Long change = changes.get(key);
+    return change != null && change - since > 0;
+  }
+
+  /** Gets a key restored through the client, as its permissions are not known. */
+  private void fetchRestoredKey(String key, long change) {
+    client
+        .getApiKeyAsync(key)
+        .whenComplete(
+            (apiKey, e) -> {
+              if (e != null || apiKey == null) {
+                // Left to the next reload
+                return;
+              }
+              long now = System.currentTimeMillis();
+              keys.compute(
+                  key,
+                  (k, previous) ->
+                      Objects.equals(changes.get(k), change)
+                          ? ApiKeyInfo.of(k, apiKey, now)
+                          : previous);
+            });
+  }
+
+  private final class Listener implements ApiKeyListener {
+
+    @Override
+    public void onApiKeyChanged(String key, ApiKey apiKey) {
+      if (key == null) {
+        return;
+      }
+
+      long change = System.nanoTime();
+      changes.put(key, change);
+
+      if (apiKey != null) {
+        keys.put(key, ApiKeyInfo.of(key, apiKey, System.currentTimeMillis()));
+      } else {
+        fetchRestoredKey(key, change);
+      }
+    }
+
+    @Override
+    public void onApiKeyDeleted(String key) {
+      changes.put(key, System.nanoTime());
+      keys.remove(key);
+    }
+  }
+
+  public static class Builder {
+
+    private final SearchClientAPIKeys client;
+    private long reloadIntervalMs = 60_000;
+
+    /** @param client The client loading the keys, with the admin API key */
+    public Builder(@Nonnull SearchClientAPIKeys client) {
+      this.client = Objects.requireNonNull(client, "A client is required.");
+    }
+
+    /**
+     * Overrides the time between two full reloads of the keys, each of them listing all the keys of
+     * the application. Default = 60 000. In milliseconds
+     */
+    public Builder setReloadIntervalMs(long reloadIntervalMs) {
+      if (reloadIntervalMs < 1000) {
+        throw new IllegalArgumentException("reloadIntervalMs must be at least 1000.");
+      }
+      this.reloadIntervalMs = reloadIntervalMs;
+      return this;
+    }
+
+    /** Creates the cache, and starts loading the keys in the background. */
+    public ApiKeyCache build() {
+      return new ApiKeyCache(this);
+    }
+  }
+}
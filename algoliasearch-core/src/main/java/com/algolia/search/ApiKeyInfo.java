@@ -0,0 +1,212 @@
+package com.algolia.search;
+
+import com.algolia.search.models.apikeys.ApiKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Permissions of an API key, as held by an {@link ApiKeyCache}. The known ACLs are held as a bit
+ * set, so that checking an ACL doesn't compare strings.
+ */
+public final class ApiKeyInfo {
+
+  private static final String[] KNOWN_ACLS = {
+    "search",
+    "browse",
+    "addObject",
+    "deleteObject",
+    "listIndexes",
+    "deleteIndex",
+    "settings",
+    "editSettings",
+    "analytics",
+    "recommendation",
+    "usage",
+    "logs",
+    "seeUnretrievableAttributes",
+  };
+
+  private static final Map<String, Long> ACL_BITS = new HashMap<>();
+
+  static {
+    for (int i = 0; i < KNOWN_ACLS.length; i++) {
+      ACL_BITS.put(KNOWN_ACLS[i], 1L << i);
+    }
+  }
+
+  private static final String[] EMPTY = new String[0];
+
+  private final String key;
+  private final long aclBits;
+  private final String[] otherAcls;
+  private final String[] indexes;
+  private final String[] referers;
+  private final int maxQueriesPerIPPerHour;
+  private final long maxHitsPerQuery;
+  private final String queryParameters;
+  private final long expiresAt;
+
+  private ApiKeyInfo(String key, ApiKey apiKey, long now) {
+    long bits = 0;
+    List<String> others = new ArrayList<>(0);
+
+    if (apiKey.getAcl() != null) {
+      for (String acl : apiKey.getAcl()) {
+        Long bit = ACL_BITS.get(acl);
+        if (bit != null) {
+          bits |= bit;
+        } else if (acl != null) {
+          others.add(acl);
+        }
+      }
+    }
+
+    Long validity = apiKey.getValidity();
+
+    this.key = key;
+    this.aclBits = bits;
+    this.otherAcls = others.toArray(EMPTY);
+    this.indexes = toArray(apiKey.getIndexes());
+    this.referers = toArray(apiKey.getReferers());
+    this.maxQueriesPerIPPerHour =
+        apiKey.getMaxQueriesPerIPPerHour() != null ? apiKey.getMaxQueriesPerIPPerHour() : 0;
+    this.maxHitsPerQuery = apiKey.getMaxHitsPerQuery() != null ? apiKey.getMaxHitsPerQuery() : 0;
+    this.queryParameters = apiKey.getQueryParameters();
+    this.expiresAt = validity != null && validity > 0 ? now + validity * 1000 : Long.MAX_VALUE;
+  }
+
+  /**
+   * @param key The value of the API key
+   * @param apiKey The API key, as returned by Algolia or sent to it
+   * @param now The time the validity of the key starts from, in milliseconds since the epoch
+   */
+  static ApiKeyInfo of(String key, ApiKey apiKey, long now) {
+    return new ApiKeyInfo(key, apiKey, now);
+  }
+
+  /** The value of the API key. */
+  public String getKey() {
+    return key;
+  }
+
+  /** Tells if the key has the ACL, e.g. search. */
+  public boolean hasAcl(String acl) {
+    Long bit = ACL_BITS.get(acl);
+    if (bit != null) {
+      return (aclBits & bit) != 0;
+    }
+    for (String other : otherAcls) {
+      if (other.equals(acl)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Tells if the key can access the index: the key has no index restriction, or one of its indexes
+   * matches, with the prefix and suffix wildcards of Algolia, e.g. dev_* or *_products.
+   */
+  public boolean canAccessIndex(String indexName) {
+    if (indexes.length == 0) {
+      return true;
+    }
+    for (String pattern : indexes) {
+      if (matches(pattern, indexName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Tells if the key is valid, has the ACL and can access the index. */
+  public boolean isAllowed(String acl, String indexName) {
+    return !isExpired() && hasAcl(acl) && canAccessIndex(indexName);
+  }
+
+  /** Tells if the validity of the key has elapsed. */
+  public boolean isExpired() {
+    return expiresAt != Long.MAX_VALUE && System.currentTimeMillis() >= expiresAt;
+  }
+
+  /** The ACLs of the key. */
+  public List<String> getAcl() {
+    List<String> acl = new ArrayList<>(Long.bitCount(aclBits) + otherAcls.length);
+    for (int i = 0; i < KNOWN_ACLS.length; i++) {
+      if ((aclBits & (1L << i)) != 0) {
+        acl.add(KNOWN_ACLS[i]);
+      }
+    }
+    Collections.addAll(acl, otherAcls);
+    return acl;
+  }
+
+  /** The indexes the key is restricted to, empty when all. */
+  public List<String> getIndexes() {
+    return Collections.unmodifiableList(Arrays.asList(indexes));
+  }
+
+  /** The referers the key is restricted to, empty when all. */
+  public List<String> getReferers() {
+    return Collections.unmodifiableList(Arrays.asList(referers));
+  }
+
+  /** Maximum number of API calls per hour allowed from an IP address, 0 when unlimited. */
+  public int getMaxQueriesPerIPPerHour() {
+    return maxQueriesPerIPPerHour;
+  }
+
+  /** Maximum number of hits the key can retrieve per call, 0 when unlimited. */
+  public long getMaxHitsPerQuery() {
+    return maxHitsPerQuery;
+  }
+
+  /** The query parameters forced by the key, null when none. */
+  public String getQueryParameters() {
+    return queryParameters;
+  }
+
+  /** Time the key expires, in milliseconds since the epoch. Long.MAX_VALUE when never */
+  public long getExpiresAt() {
+    return expiresAt;
+  }
+
+  private static boolean matches(String pattern, String indexName) {
+    int length = pattern.length();
+    boolean leading = length > 0 && pattern.charAt(0) == '*';
+    boolean trailing = length > 1 && pattern.charAt(length - 1) == '*';
+
+    if (leading && trailing) {
+      return indexName.contains(pattern.substring(1, length - 1));
+    }
+    if (leading) {
+      return indexName.regionMatches(indexName.length() - (length - 1), pattern, 1, length - 1);
+    }
+    if (trailing) {
+      return indexName.regionMatches(0, pattern, 0, length - 1);
+    }
+    return pattern.equals(indexName);
+  }
+
+  private static String[] toArray(List<String> values) {
+    return values == null || values.isEmpty() ? EMPTY : values.toArray(EMPTY);
+  }
+
+  @Override
+  public String toString() {
+    return "ApiKeyInfo{"
+        + "acl="
+        + getAcl()
+        + ", indexes="
+        + getIndexes()
+        + ", maxQueriesPerIPPerHour="
+        + maxQueriesPerIPPerHour
+        + ", expiresAt="
+        + expiresAt
+        + '}';
+  }
+}
@@ -0,0 +1,22 @@
+package com.algolia.search;
+
+import com.algolia.search.models.apikeys.ApiKey;
+import javax.annotation.Nullable;
+
+/**
+ * Notified of the API keys changed through a {@link SearchClient}, once Algolia accepted the
+ * change. The change may not be visible yet when reading the key.
+ */
+interface ApiKeyListener {
+
+  /**
+   * Called when a key is added, updated or restored.
+   *
+   * @param key The value of the API key
+   * @param apiKey The permissions of the key, null when unknown
+   */
+  void onApiKeyChanged(String key, @Nullable ApiKey apiKey);
+
+  /** Called when a key is deleted. */
+  void onApiKeyDeleted(String key);
+}
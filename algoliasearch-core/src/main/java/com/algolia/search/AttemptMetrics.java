@@ -0,0 +1,259 @@
+package com.algolia.search;
+
+import com.algolia.search.models.HttpMethod;
+import com.algolia.search.models.common.CallType;
+import com.algolia.search.models.common.RetryOutcome;
+import java.util.concurrent.TimeUnit;
+
+/** Metrics of one attempt to send a request to a host, see {@link MetricsListener}. */
+public final class AttemptMetrics {
+
+  private final String host;
+  private final String endpoint;
+  private final HttpMethod method;
+  private final CallType callType;
+  private final int attempt;
+  private final int statusCode;
+  private final RetryOutcome outcome;
+  private final boolean decided;
+  private final boolean timedOut;
+  private final boolean networkError;
+  private final long requestBytes;
+  private final long uncompressedRequestBytes;
+  private final long responseBytes;
+  private final long queueNanos;
+  private final long serializationNanos;
+  private final long responseNanos;
+  private final long completionNanos;
+  private final long deserializationNanos;
+  private final String serverUsed;
+  private final long serverNanos;
+
+  AttemptMetrics(
+      String host,
+      String endpoint,
+      HttpMethod method,
+      CallType callType,
+      int attempt,
+      int statusCode,
+      RetryOutcome outcome,
+      boolean decided,
+      boolean timedOut,
+      boolean networkError,
+      long requestBytes,
+      long uncompressedRequestBytes,
+      long responseBytes,
+      long queueNanos,
+      long serializationNanos,
+      long responseNanos,
+      long completionNanos,
+      long deserializationNanos,
+      String serverUsed,
+      long serverNanos) {
+    this.host = host;
+    this.endpoint = endpoint;
+    this.method = method;
+    this.callType = callType;
+    this.attempt = attempt;
+    this.statusCode = statusCode;
+    this.outcome = outcome;
+    this.decided = decided;
+    this.timedOut = timedOut;
+    this.networkError = networkError;
+    this.requestBytes = requestBytes;
+    this.uncompressedRequestBytes = uncompressedRequestBytes;
+    this.responseBytes = responseBytes;
+    this.queueNanos = queueNanos;
+    this.serializationNanos = serializationNanos;
+    this.responseNanos = responseNanos;
+    this.completionNanos = completionNanos;
+    this.deserializationNanos = deserializationNanos;
+    this.serverUsed = serverUsed;
+    this.serverNanos = serverNanos;
+  }
+
+  /** The host requested. */
+  public String getHost() {
+    return host;
+  }
+
+  /**
+   * The path of the request, with its variable parts replaced by placeholders so that it can be
+   * used as a metric dimension, e.g. /1/indexes/{index}/query.
+   */
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  public HttpMethod getMethod() {
+    return method;
+  }
+
+  public CallType getCallType() {
+    return callType;
+  }
+
+  /** Number of the attempt of the request, starting at 1. */
+  public int getAttempt() {
+    return attempt;
+  }
+
+  /** HTTP status code of the response, 0 when no response was received. */
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  /**
+   * Decision of the retry strategy: success, retry on the next host, or failure of the request.
+   * Failure when the HTTP client failed without a response, see {@link #isDecided()}.
+   */
+  public RetryOutcome getOutcome() {
+    return outcome;
+  }
+
+  /**
+   * False when the HTTP client failed without a response: the retry strategy didn't run and the
+   * request failed with the exception of the client.
+   */
+  public boolean isDecided() {
+    return decided;
+  }
+
+  public boolean isTimedOut() {
+    return timedOut;
+  }
+
+  public boolean isNetworkError() {
+    return networkError;
+  }
+
+  /** Size of the body sent, compressed if so. 0 without body */
+  public long getRequestBytes() {
+    return requestBytes;
+  }
+
+  /** Size of the body before compression. 0 without body */
+  public long getUncompressedRequestBytes() {
+    return uncompressedRequestBytes;
+  }
+
+  /** Ratio of the uncompressed to the sent size of the body, 1 when not compressed. */
+  public double getCompressionRatio() {
+    return requestBytes > 0 && uncompressedRequestBytes > 0
+        ? (double) uncompressedRequestBytes / requestBytes
+        : 1;
+  }
+
+  /** Size of the body of the response read, -1 when not read. */
+  public long getResponseBytes() {
+    return responseBytes;
+  }
+
+  /** Time the body waited for a serialization worker, the same for every attempt. */
+  public long getQueueTime(TimeUnit unit) {
+    return unit.convert(queueNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /** Time spent serializing and compressing the body, the same for every attempt. */
+  public long getSerializationTime(TimeUnit unit) {
+    return unit.convert(serializationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Time between sending the request and getting the response, i.e. connection, network and server.
+   */
+  public long getResponseTime(TimeUnit unit) {
+    return unit.convert(responseNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Time the response waited for the completion executor, high when the executor is saturated. 0
+   * when the HTTP client failed.
+   */
+  public long getCompletionTime(TimeUnit unit) {
+    return unit.convert(completionNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /** Time spent deserializing the response, 0 when not deserialized. */
+  public long getDeserializationTime(TimeUnit unit) {
+    return unit.convert(deserializationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * The Algolia server which processed the request, read from the search, browse and multiple
+   * queries responses. Null for the other requests
+   */
+  public String getServerUsed() {
+    return serverUsed;
+  }
+
+  /** Tells if the response had a processing time, see {@link #getServerTime(TimeUnit)}. */
+  public boolean hasServerTime() {
+    return serverNanos >= 0;
+  }
+
+  /**
+   * Time spent by the Algolia server processing the request, read from the search, browse and
+   * multiple queries responses: processingTimeMS, summed for multiple queries. -1 for the other
+   * requests
+   */
+  public long getServerTime(TimeUnit unit) {
+    return serverNanos < 0 ? -1 : unit.convert(serverNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Part of the response time not spent by the server: connection, network and queueing before the
+   * server. -1 without server time
+   */
+  public long getNetworkTime(TimeUnit unit) {
+    return serverNanos < 0
+        ? -1
+        : unit.convert(Math.max(0, responseNanos - serverNanos), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Time spent by the client on the attempt: waiting for the completion executor and deserializing,
+   * and for the first attempt, waiting for a serialization worker and serializing.
+   */
+  public long getClientTime(TimeUnit unit) {
+    long nanos = completionNanos + deserializationNanos;
+    if (attempt == 1) {
+      nanos += queueNanos + serializationNanos;
+    }
+    return unit.convert(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public String toString() {
+    return "AttemptMetrics{"
+        + "host="
+        + host
+        + ", endpoint="
+        + endpoint
+        + ", method="
+        + method
+        + ", callType="
+        + callType
+        + ", attempt="
+        + attempt
+        + ", statusCode="
+        + statusCode
+        + ", outcome="
+        + outcome
+        + ", decided="
+        + decided
+        + ", requestBytes="
+        + requestBytes
+        + ", uncompressedRequestBytes="
+        + uncompressedRequestBytes
+        + ", responseBytes="
+        + responseBytes
+        + ", responseMicros="
+        + getResponseTime(TimeUnit.MICROSECONDS)
+        + ", serverUsed="
+        + serverUsed
+        + ", serverMicros="
+        + getServerTime(TimeUnit.MICROSECONDS)
+        + '}';
+  }
+}
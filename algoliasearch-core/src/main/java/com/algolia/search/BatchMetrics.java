@@ -0,0 +1,88 @@
+package com.algolia.search;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of a batch of records sent to an index, e.g. one of the batches of {@code saveObjects},
+ * once all its attempts are over. See {@link MetricsListener#onBatch(BatchMetrics)}.
+ */
+public final class BatchMetrics {
+
+  private final String endpoint;
+  private final int records;
+  private final long requestBytes;
+  private final long uncompressedRequestBytes;
+  private final int attempts;
+  private final long durationNanos;
+  private final boolean succeeded;
+
+  BatchMetrics(
+      String endpoint,
+      int records,
+      long requestBytes,
+      long uncompressedRequestBytes,
+      int attempts,
+      long durationNanos,
+      boolean succeeded) {
+    this.endpoint = endpoint;
+    this.records = records;
+    this.requestBytes = requestBytes;
+    this.uncompressedRequestBytes = uncompressedRequestBytes;
+    this.attempts = attempts;
+    this.durationNanos = durationNanos;
+    this.succeeded = succeeded;
+  }
+
+  /** The path of the request, with its variable parts replaced by placeholders. */
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  /** Number of operations in the batch. */
+  public int getRecords() {
+    return records;
+  }
+
+  /** Size of the body sent, compressed if so. */
+  public long getRequestBytes() {
+    return requestBytes;
+  }
+
+  /** Size of the body before compression. */
+  public long getUncompressedRequestBytes() {
+    return uncompressedRequestBytes;
+  }
+
+  /** Number of hosts tried. */
+  public int getAttempts() {
+    return attempts;
+  }
+
+  /** Time from the call to the response, serialization and retries included. */
+  public long getDuration(TimeUnit unit) {
+    return unit.convert(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /** False when the batch failed on all the hosts, or was rejected. */
+  public boolean isSucceeded() {
+    return succeeded;
+  }
+
+  @Override
+  public String toString() {
+    return "BatchMetrics{"
+        + "endpoint="
+        + endpoint
+        + ", records="
+        + records
+        + ", requestBytes="
+        + requestBytes
+        + ", attempts="
+        + attempts
+        + ", durationMicros="
+        + getDuration(TimeUnit.MICROSECONDS)
+        + ", succeeded="
+        + succeeded
+        + '}';
+  }
+}
@@ -0,0 +1,194 @@
+package com.algolia.search;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import javax.annotation.Nonnull;
+
+/**
+ * Pool of the scratch buffers and {@link Deflater}s used to serialize request bodies, shared
+ * between all clients of the JVM.
+ *
+ * <p>The pool is striped by thread and bounded: when every slot of a stripe is taken, the buffer or
+ * the deflater is simply dropped. New buffers are sized from the recent payload sizes and buffers
+ * much larger than the recent payloads are not kept, so the retained memory follows the workload.
+ */
+public final class BufferPool {
+
+  static final int MIN_BUFFER_SIZE = 1024;
+  static final int MAX_RETAINED_BUFFER_SIZE = 4 * 1024 * 1024;
+  private static final int MAX_SLOTS = 64;
+  private static final int PROBES = 2;
+
+  /** Singleton holding the pool shared between all the clients. */
+  private static class Holder {
+    private static final BufferPool INSTANCE =
+        new BufferPool(Runtime.getRuntime().availableProcessors() * 2);
+  }
+
+  static BufferPool getInstance() {
+    return Holder.INSTANCE;
+  }
+
+  /** Statistics of the pool shared between all the clients. */
+  public static BufferPoolStats getStats() {
+    return getInstance().stats();
+  }
+
+  private final AtomicReferenceArray<PooledBuffer> buffers;
+  private final AtomicReferenceArray<Deflater> deflaters;
+  private final int mask;
+
+  private final LongAdder bufferHits = new LongAdder();
+  private final LongAdder bufferMisses = new LongAdder();
+  private final LongAdder buffersDiscarded = new LongAdder();
+  private final LongAdder deflaterHits = new LongAdder();
+  private final LongAdder deflaterMisses = new LongAdder();
+  private final LongAdder deflatersDiscarded = new LongAdder();
+
+  // Exponentially weighted average of the payload sizes. Updates are racy on purpose: losing one
+  // sample now and then is fine for a sizing hint.
+  private volatile int averagePayloadSize = MIN_BUFFER_SIZE;
+
+  BufferPool(int slots) {
+    int size = Integer.highestOneBit(Math.max(1, Math.min(MAX_SLOTS, slots)) * 2 - 1);
+    this.buffers = new AtomicReferenceArray<>(size);
+    this.deflaters = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+  }
+
+  /** Takes an empty buffer from the pool, or allocates one sized from the recent payloads. */
+  PooledBuffer acquireBuffer() {
+    int stripe = stripe();
+    for (int i = 0; i < PROBES; i++) {
+      PooledBuffer buffer = buffers.getAndSet((stripe + i) & mask, null);
+      if (buffer != null) {
+        bufferHits.increment();
+        buffer.reset();
+        return buffer;
+      }
+    }
+
+    bufferMisses.increment();
+    int average = averagePayloadSize;
+    return new PooledBuffer(
+        Math.max(MIN_BUFFER_SIZE, Math.min(MAX_RETAINED_BUFFER_SIZE, average + (average >> 2))));
+  }
+
+  /**
+   * Gives the buffer back to the pool. The buffer must not be used by the caller afterwards.
+   *
+   * @param buffer The buffer to release
+   */
+  void releaseBuffer(@Nonnull PooledBuffer buffer) {
+    int size = buffer.size();
+    int average = averagePayloadSize;
+    averagePayloadSize = average + ((size - average) >> 3);
+
+    int retainLimit = Math.min(MAX_RETAINED_BUFFER_SIZE, Math.max(MIN_BUFFER_SIZE, average) * 4);
+
+    if (buffer.capacity() <= retainLimit) {
+      int stripe = stripe();
+      for (int i = 0; i < PROBES; i++) {
+        if (buffers.compareAndSet((stripe + i) & mask, null, buffer)) {
+          return;
+        }
+      }
+    }
+
+    buffersDiscarded.increment();
+  }
+
+  /**
+   * Takes a raw (no zlib wrapper) {@link Deflater} from the pool or creates a new one.
+   *
+   * @param level The compression level to set on the deflater
+   */
+  Deflater acquireDeflater(int level) {
+    int stripe = stripe();
+    for (int i = 0; i < PROBES; i++) {
+      Deflater deflater = deflaters.getAndSet((stripe + i) & mask, null);
+      if (deflater != null) {
+        deflaterHits.increment();
+        deflater.setLevel(level);
+        return deflater;
+      }
+    }
+
+    deflaterMisses.increment();
+    return new Deflater(level, true);
+  }
+
+  /**
+   * Resets the deflater and gives it back to the pool, or frees its native memory when the pool is
+   * full.
+   *
+   * @param deflater The deflater to release
+   */
+  void releaseDeflater(@Nonnull Deflater deflater) {
+    deflater.reset();
+
+    int stripe = stripe();
+    for (int i = 0; i < PROBES; i++) {
+      if (deflaters.compareAndSet((stripe + i) & mask, null, deflater)) {
+        return;
+      }
+    }
+
+    deflatersDiscarded.increment();
+    deflater.end();
+  }
+
+  BufferPoolStats stats() {
+    return new BufferPoolStats(
+        bufferHits.sum(),
+        bufferMisses.sum(),
+        buffersDiscarded.sum(),
+        deflaterHits.sum(),
+        deflaterMisses.sum(),
+        deflatersDiscarded.sum(),
+        averagePayloadSize);
+  }
+
+  private int stripe() {
+    long id = Thread.currentThread().getId();
+    return (int) (id ^ (id >>> 16)) * 0x9E3779B9 >>> 16;
+  }
+
+  /** Growable buffer giving access to its backing array, to avoid copying the serialized body. */
+  static final class PooledBuffer extends ByteArrayOutputStream {
+
+    PooledBuffer(int size) {
+      super(size);
+    }
+
+    /** The backing array, only the first {@link #size()} bytes are meaningful. */
+    byte[] array() {
+      return buf;
+    }
+
+    int capacity() {
+      return buf.length;
+    }
+
+    /**
+     * Grows the backing array to hold {@code length} more bytes after the first {@link #size()}
+     * ones, for the writers filling the array directly.
+     *
+     * @return The backing array
+     */
+    byte[] ensureCapacity(int length) {
+      if (count + length > buf.length) {
+        buf = Arrays.copyOf(buf, Math.max(buf.length << 1, count + length));
+      }
+      return buf;
+    }
+
+    /** Sets the number of meaningful bytes, once the backing array was filled directly. */
+    void setSize(int size) {
+      count = size;
+    }
+  }
+}
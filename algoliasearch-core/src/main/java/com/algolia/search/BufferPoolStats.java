@@ -0,0 +1,100 @@
+package com.algolia.search;
+
+/** Snapshot of the usage of the {@link BufferPool} since the JVM started. */
+public final class BufferPoolStats {
+
+  private final long bufferHits;
+  private final long bufferMisses;
+  private final long buffersDiscarded;
+  private final long deflaterHits;
+  private final long deflaterMisses;
+  private final long deflatersDiscarded;
+  private final int averagePayloadSize;
+
+  BufferPoolStats(
+      long bufferHits,
+      long bufferMisses,
+      long buffersDiscarded,
+      long deflaterHits,
+      long deflaterMisses,
+      long deflatersDiscarded,
+      int averagePayloadSize) {
+    this.bufferHits = bufferHits;
+    this.bufferMisses = bufferMisses;
+    this.buffersDiscarded = buffersDiscarded;
+    this.deflaterHits = deflaterHits;
+    this.deflaterMisses = deflaterMisses;
+    this.deflatersDiscarded = deflatersDiscarded;
+    this.averagePayloadSize = averagePayloadSize;
+  }
+
+  /** Number of buffers taken from the pool. */
+  public long getBufferHits() {
+    return bufferHits;
+  }
+
+  /** Number of buffers allocated because the pool had none available. */
+  public long getBufferMisses() {
+    return bufferMisses;
+  }
+
+  /** Number of buffers dropped on release, because the pool was full or they were too large. */
+  public long getBuffersDiscarded() {
+    return buffersDiscarded;
+  }
+
+  /** Ratio of the buffer acquisitions served by the pool, between 0 and 1. */
+  public double getBufferHitRate() {
+    return hitRate(bufferHits, bufferMisses);
+  }
+
+  /** Number of deflaters taken from the pool. */
+  public long getDeflaterHits() {
+    return deflaterHits;
+  }
+
+  /** Number of deflaters created because the pool had none available. */
+  public long getDeflaterMisses() {
+    return deflaterMisses;
+  }
+
+  /** Number of deflaters ended on release because the pool was full. */
+  public long getDeflatersDiscarded() {
+    return deflatersDiscarded;
+  }
+
+  /** Ratio of the deflater acquisitions served by the pool, between 0 and 1. */
+  public double getDeflaterHitRate() {
+    return hitRate(deflaterHits, deflaterMisses);
+  }
+
+  /** Moving average of the serialized payload sizes, in bytes. */
+  public int getAveragePayloadSize() {
+    return averagePayloadSize;
+  }
+
+  private static double hitRate(long hits, long misses) {
+    long total = hits + misses;
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  @Override
+  public String toString() {
+    return "BufferPoolStats{"
+        + "bufferHits="
+        + bufferHits
+        + ", bufferMisses="
+        + bufferMisses
+        + ", buffersDiscarded="
+        + buffersDiscarded
+        + ", deflaterHits="
+        + deflaterHits
+        + ", deflaterMisses="
+        + deflaterMisses
+        + ", deflatersDiscarded="
+        + deflatersDiscarded
+        + ", averagePayloadSize="
+        + averagePayloadSize
+        + '}';
+  }
+}
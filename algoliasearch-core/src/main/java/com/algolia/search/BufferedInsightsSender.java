@@ -0,0 +1,682 @@
+package com.algolia.search;
+
+import com.algolia.search.exceptions.AlgoliaRetryException;
+import com.algolia.search.exceptions.AlgoliaRuntimeException;
+import com.algolia.search.models.insights.CompactInsightsEvent;
+import com.algolia.search.models.insights.InsightsEvent;
+import com.algolia.search.models.insights.InsightsResult;
+import com.algolia.search.models.insights.OverflowPolicy;
+import com.algolia.search.util.CompletableFutureUtils;
+import com.algolia.search.util.NamedDaemonThreadFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+
+/**
+ * Buffers the Insights events and sends them in batches, so that tracking an event doesn't wait for
+ * a request. A batch is sent as soon as it holds {@link InsightsBufferConfig#getMaxBatchSize()}
+ * events or {@link InsightsBufferConfig#getMaxBatchBytes()}, and the buffer is flushed every {@link
+ * InsightsBufferConfig#getLingerMs()}. Up to {@link InsightsBufferConfig#getFlushers()} batches are
+ * sent concurrently.
+ *
+ * <p>The buffer is a lock-free queue bounded by {@link InsightsBufferConfig#getCapacity()}. When it
+ * is full, the {@link OverflowPolicy} decides which event is dropped, or blocks the producer.
+ *
+ * <p>When {@link InsightsBufferConfig#getSpoolDirectory()} is set, the batches which can't be sent
+ * because no host is reachable are written to an on-disk spool instead of failing, and replayed in
+ * the background once a host answers again. The replay is at-least-once, and the events keep the
+ * time at which they were buffered: the spooled events without a timestamp are dated then.
+ *
+ * <p>The events dropped by the event filter of the client, see {@link
+ * InsightsConfig.Builder#setEventFilter(InsightsFilterConfig)}, are not buffered.
+ *
+ * <p>Created by {@link InsightsClient#buffered(InsightsBufferConfig)} and closed with the client,
+ * unless closed before. This class is thread-safe.
+ */
+public final class BufferedInsightsSender implements Closeable {
+
+  private static final AtomicInteger SENDER_NUMBER = new AtomicInteger();
+
+  private final InsightsClient client;
+  private final InsightsBufferConfig config;
+  private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingCount = new AtomicInteger();
+  private final AtomicLong pendingBytes = new AtomicLong();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+  private final AtomicBoolean closed = new AtomicBoolean();
+  private final List<CompletableFuture<Void>> flushWaiters = new CopyOnWriteArrayList<>();
+  private final AtomicLong sentCount = new AtomicLong();
+  private final AtomicLong failedCount = new AtomicLong();
+  private final AtomicLong droppedCount = new AtomicLong();
+  private final AtomicLong spooledCount = new AtomicLong();
+  private final AtomicLong replayedCount = new AtomicLong();
+  private final ScheduledThreadPoolExecutor scheduler;
+
+  /** Notified when events leave the buffer, for the producers blocked by {@code BLOCK} */
+  private final Object spaceAvailable = new Object();
+
+  /** The spool, null when disabled */
+  private final InsightsEventSpool spool;
+
+  /** Set while a batch of the spool is sent, so that only one is sent at a time */
+  private final AtomicBoolean replaying = new AtomicBoolean();
+
+  /** Time to wait before the next replay when no host is up, doubled at each failed replay */
+  private volatile long replayBackoffMs = MIN_REPLAY_BACKOFF_MS;
+
+  private volatile long nextReplayNanos = System.nanoTime();
+
+  private static final long MIN_REPLAY_BACKOFF_MS = 1000;
+  private static final long MAX_REPLAY_BACKOFF_MS = 60_000;
+
+  BufferedInsightsSender(@Nonnull InsightsClient client, @Nonnull InsightsBufferConfig config) {
+    this.client = Objects.requireNonNull(client, "An insights client is required.");
+    this.config = Objects.requireNonNull(config, "A buffer configuration is required.");
+
+    this.scheduler =
+        new ScheduledThreadPoolExecutor(
+            1,
+            new NamedDaemonThreadFactory(
+                "algolia-insights-sender-" + SENDER_NUMBER.incrementAndGet()));
+    this.scheduler.scheduleWithFixedDelay(
+        () -> drain(true), config.getLingerMs(), config.getLingerMs(), TimeUnit.MILLISECONDS);
+
+    if (config.getSpoolDirectory() == null) {
+      this.spool = null;
+      return;
+    }
+
+    try {
+      this.spool =
+          new InsightsEventSpool(
+              config.getSpoolDirectory(), config.getSpoolSegmentBytes(), config.getSpoolMaxBytes());
+    } catch (IOException e) {
+      scheduler.shutdown();
+      throw new AlgoliaRuntimeException(
+          "Error while opening the insights spool " + config.getSpoolDirectory(), e);
+    }
+
+    // Also replays the events spooled by a previous sender
+    this.scheduler.scheduleWithFixedDelay(
+        this::replay, 0, config.getLingerMs(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Buffers an event, without waiting for it to be sent.
+   *
+   * @param event The event
+   * @return false when the event was dropped because the buffer is full or the sender closed
+   */
+  public boolean offer(@Nonnull InsightsEvent event) {
+    return enqueue(new Entry(event, null));
+  }
+
+  /**
+   * Buffers an event. The returned future completes when the batch holding the event is sent, or
+   * exceptionally if the event is dropped or the batch fails.
+   *
+   * @param event The event
+   */
+  public CompletableFuture<InsightsResult> sendAsync(@Nonnull InsightsEvent event) {
+    CompletableFuture<InsightsResult> result = new CompletableFuture<>();
+    enqueue(new Entry(event, result));
+    return result;
+  }
+
+  /**
+   * Buffers a compact event, without waiting for it to be sent. Meant for high-frequency tracking:
+   * see {@link CompactInsightsEvent}.
+   *
+   * @param event The event
+   * @return false when the event was dropped because the buffer is full or the sender closed
+   */
+  public boolean offer(@Nonnull CompactInsightsEvent event) {
+    return enqueue(new Entry(event, null));
+  }
+
+  /**
+   * Buffers a compact event. The returned future completes when the batch holding the event is
+   * sent, or exceptionally if the event is dropped or the batch fails.
+   *
+   * @param event The event
+   */
+  public CompletableFuture<InsightsResult> sendAsync(@Nonnull CompactInsightsEvent event) {
+    CompletableFuture<InsightsResult> result = new CompletableFuture<>();
+    enqueue(new Entry(event, result));
+    return result;
+  }
+
+  /**
+   * Creates a {@link UserInsightsClient} whose events go through this buffer. Their request options
+   * are ignored, as the events of several calls are sent together.
+   *
+   * @param userToken The user token
+   */
+  public UserInsightsClient user(@Nonnull String userToken) {
+    return new UserInsightsClient(userToken, (event, requestOptions) -> sendAsync(event));
+  }
+
+  /** Sends all the buffered events. The returned future completes once they are all sent. */
+  public CompletableFuture<Void> flush() {
+    CompletableFuture<Void> waiter = new CompletableFuture<>();
+    flushWaiters.add(waiter);
+    requestDrain();
+    completeFlushWaiters();
+    return waiter;
+  }
+
+  /** Number of buffered events, waiting to be sent. */
+  public int getPendingCount() {
+    return pendingCount.get();
+  }
+
+  /** Number of events accepted by the API. */
+  public long getSentCount() {
+    return sentCount.get();
+  }
+
+  /** Number of events lost because their request failed. */
+  public long getFailedCount() {
+    return failedCount.get();
+  }
+
+  /**
+   * Number of events dropped because the buffer was full or the sender closed, or because the spool
+   * was full.
+   */
+  public long getDroppedCount() {
+    return droppedCount.get() + (spool != null ? spool.getDroppedCount() : 0);
+  }
+
+  /** Number of events written to the spool because no host was reachable. */
+  public long getSpooledCount() {
+    return spooledCount.get();
+  }
+
+  /** Number of events of the spool accepted by the API. */
+  public long getReplayedCount() {
+    return replayedCount.get();
+  }
+
+  /**
+   * Stops accepting events and sends the buffered ones, waiting for their requests to complete. The
+   * events left in the spool stay on disk.
+   */
+  @Override
+  public void close() {
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+
+    // The blocked producers give up
+    signalSpaceAvailable();
+
+    try {
+      flush().join();
+    } catch (RuntimeException ignored) {
+      // The failed events are already counted
+    } finally {
+      scheduler.shutdown();
+      closeSpool();
+      client.removeSender(this);
+    }
+  }
+
+  private boolean enqueue(Entry entry) {
+    if (!closed.get() && !client.accept(entry.event)) {
+      // Dropped by the event filter of the client, as it would have been if sent directly
+      if (entry.result != null) {
+        entry.result.complete(InsightsClient.filteredResult());
+      }
+      return true;
+    }
+
+    if (closed.get() || !reserve()) {
+      drop(entry);
+      return false;
+    }
+
+    if (spool != null) {
+      // The replay of a spooled event must not date it from its sending
+      entry.enqueuedAt = System.currentTimeMillis();
+    }
+
+    queue.offer(entry);
+    pendingBytes.addAndGet(entry.size);
+
+    if (isBatchReady()) {
+      requestDrain();
+    }
+
+    return true;
+  }
+
+  /** Takes a place in the buffer, applying the overflow policy when it is full. */
+  private boolean reserve() {
+    while (true) {
+      int count = pendingCount.get();
+
+      if (count < config.getCapacity()) {
+        if (pendingCount.compareAndSet(count, count + 1)) {
+          return true;
+        }
+        continue;
+      }
+
+      switch (config.getOverflowPolicy()) {
+        case DROP_NEWEST:
+          return false;
+        case DROP_OLDEST:
+          Entry oldest = queue.poll();
+          if (oldest != null) {
+            release(oldest);
+            drop(oldest);
+          }
+          break;
+        default:
+          requestDrain();
+          if (!awaitSpace()) {
+            return false;
+          }
+      }
+    }
+  }
+
+  /**
+   * Blocks until the drain takes events out of the buffer.
+   *
+   * @return false when the sender is closed or the thread interrupted
+   */
+  private boolean awaitSpace() {
+    synchronized (spaceAvailable) {
+      while (pendingCount.get() >= config.getCapacity()) {
+        if (closed.get()) {
+          return false;
+        }
+        try {
+          spaceAvailable.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      }
+    }
+    return !closed.get();
+  }
+
+  private void signalSpaceAvailable() {
+    if (config.getOverflowPolicy() == OverflowPolicy.BLOCK) {
+      synchronized (spaceAvailable) {
+        spaceAvailable.notifyAll();
+      }
+    }
+  }
+
+  private boolean isBatchReady() {
+    return pendingCount.get() >= config.getMaxBatchSize()
+        || pendingBytes.get() >= config.getMaxBatchBytes();
+  }
+
+  private void requestDrain() {
+    if (!drainScheduled.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      scheduler.execute(
+          () -> {
+            drainScheduled.set(false);
+            drain(false);
+          });
+    } catch (RejectedExecutionException e) {
+      // Closed: the remaining events are drained by close()
+      drainScheduled.set(false);
+    }
+  }
+
+  /**
+   * Sends the buffered events in batches, as long as a flusher is available. Only full batches are
+   * sent, unless {@code force} is set, a flush is pending or the sender is closed. Runs on the
+   * scheduler thread only. It is not the only consumer of the queue: under {@code DROP_OLDEST}, the
+   * producers poll the oldest event to make room, so a batch may be smaller than the pending count
+   * read before polling it.
+   */
+  private void drain(boolean force) {
+    while (true) {
+      boolean sendPartial = force || closed.get() || !flushWaiters.isEmpty();
+
+      if (pendingCount.get() == 0 || (!sendPartial && !isBatchReady())) {
+        completeFlushWaiters();
+        return;
+      }
+
+      if (!acquireFlusher()) {
+        // The completion of a request drains again
+        return;
+      }
+
+      List<Entry> batch = pollBatch();
+      signalSpaceAvailable();
+      if (batch.isEmpty()) {
+        inFlight.decrementAndGet();
+        completeFlushWaiters();
+        return;
+      }
+
+      send(batch);
+    }
+  }
+
+  private boolean acquireFlusher() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= config.getFlushers()) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /** Takes the next events, up to the maximum count, or slightly above the maximum size. */
+  private List<Entry> pollBatch() {
+    List<Entry> batch = new ArrayList<>(Math.min(config.getMaxBatchSize(), pendingCount.get()));
+    long bytes = 0;
+
+    while (batch.size() < config.getMaxBatchSize() && bytes < config.getMaxBatchBytes()) {
+      Entry entry = queue.poll();
+      if (entry == null) {
+        break;
+      }
+      release(entry);
+      batch.add(entry);
+      bytes += entry.size;
+    }
+
+    return batch;
+  }
+
+  private void send(List<Entry> batch) {
+    List<Object> events = new ArrayList<>(batch.size());
+    for (Entry entry : batch) {
+      events.add(entry.event);
+    }
+
+    if (spool != null && !client.isAvailable()) {
+      // No request while the hosts are down: the replay checks when they are back
+      inFlight.decrementAndGet();
+      spool(batch, null);
+      return;
+    }
+
+    CompletableFuture<InsightsResult> request;
+    try {
+      request = client.sendMixedEventsAsync(events, null);
+    } catch (RuntimeException e) {
+      request = new CompletableFuture<>();
+      request.completeExceptionally(e);
+    }
+
+    request.whenComplete(
+        (result, t) -> {
+          inFlight.decrementAndGet();
+
+          if (t == null) {
+            sentCount.addAndGet(batch.size());
+            for (Entry entry : batch) {
+              if (entry.result != null) entry.result.complete(result);
+            }
+          } else if (spool != null
+              && CompletableFutureUtils.unwrap(t) instanceof AlgoliaRetryException) {
+            spool(batch, t);
+          } else {
+            failedCount.addAndGet(batch.size());
+            for (Entry entry : batch) {
+              if (entry.result != null) entry.result.completeExceptionally(t);
+            }
+          }
+
+          requestDrain();
+        });
+  }
+
+  /**
+   * Writes a batch to the spool. The futures of its events complete with a 202 status, as the
+   * events are accepted but not sent yet.
+   *
+   * @param error The error of the request, if any, reported when the spool fails
+   */
+  private void spool(List<Entry> batch, Throwable error) {
+    try {
+      List<InsightsEvent> events = new ArrayList<>(batch.size());
+      for (Entry entry : batch) {
+        events.add(entry.toSpooledEvent());
+      }
+      spool.append(events);
+    } catch (RuntimeException e) {
+      failedCount.addAndGet(batch.size());
+      for (Entry entry : batch) {
+        if (entry.result != null) entry.result.completeExceptionally(error != null ? error : e);
+      }
+      return;
+    }
+
+    spooledCount.addAndGet(batch.size());
+    nextReplayNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(replayBackoffMs);
+
+    InsightsResult result = new InsightsResult();
+    result.setStatus(202);
+    result.setMessage("The event was written to the spool, to be sent once a host is reachable.");
+    for (Entry entry : batch) {
+      if (entry.result != null) entry.result.complete(result);
+    }
+  }
+
+  /**
+   * Sends the oldest events of the spool, when a host is up or, as the hosts are only marked up
+   * again by a successful request, when the backoff has elapsed. Runs on the scheduler thread.
+   */
+  private void replay() {
+    if (spool.isEmpty()
+        || (!client.isAvailable() && System.nanoTime() - nextReplayNanos < 0)
+        || !replaying.compareAndSet(false, true)) {
+      return;
+    }
+
+    List<InsightsEvent> events;
+    try {
+      events = spool.read(config.getMaxBatchSize());
+    } catch (RuntimeException e) {
+      replaying.set(false);
+      return;
+    }
+
+    if (events.isEmpty()) {
+      spool.acknowledge();
+      replaying.set(false);
+      return;
+    }
+
+    CompletableFuture<InsightsResult> request;
+    try {
+      request = client.sendMixedEventsAsync(events, null);
+    } catch (RuntimeException e) {
+      request = new CompletableFuture<>();
+      request.completeExceptionally(e);
+    }
+
+    request.whenComplete(
+        (result, t) -> {
+          if (t == null) {
+            spool.acknowledge();
+            replayedCount.addAndGet(events.size());
+            replayBackoffMs = MIN_REPLAY_BACKOFF_MS;
+          } else if (CompletableFutureUtils.unwrap(t) instanceof AlgoliaRetryException) {
+            // Kept in the spool
+            nextReplayNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(replayBackoffMs);
+            replayBackoffMs = Math.min(replayBackoffMs * 2, MAX_REPLAY_BACKOFF_MS);
+            replaying.set(false);
+            return;
+          } else {
+            // Rejected by the API: replaying the batch would fail again
+            spool.acknowledge();
+            failedCount.addAndGet(events.size());
+          }
+
+          replaying.set(false);
+          try {
+            scheduler.execute(this::replay);
+          } catch (RejectedExecutionException e) {
+            // Closed: replayed by the next sender
+          }
+        });
+  }
+
+  private void closeSpool() {
+    if (spool == null) {
+      return;
+    }
+
+    try {
+      spool.close();
+    } catch (IOException ignored) {
+      // The spool is recovered up to its last complete event
+    }
+  }
+
+  private void release(Entry entry) {
+    pendingCount.decrementAndGet();
+    pendingBytes.addAndGet(-entry.size);
+  }
+
+  private void drop(Entry entry) {
+    droppedCount.incrementAndGet();
+    if (entry.result != null) {
+      entry.result.completeExceptionally(
+          new AlgoliaRuntimeException(
+              closed.get()
+                  ? "The insights sender is closed, the event was dropped."
+                  : "The insights buffer is full, the event was dropped."));
+    }
+  }
+
+  private void completeFlushWaiters() {
+    if (flushWaiters.isEmpty() || pendingCount.get() > 0 || inFlight.get() > 0) {
+      return;
+    }
+
+    for (CompletableFuture<Void> waiter : flushWaiters) {
+      flushWaiters.remove(waiter);
+      waiter.complete(null);
+    }
+  }
+
+  /**
+   * A buffered event, an {@link InsightsEvent} or a {@link CompactInsightsEvent}, and the future of
+   * its caller, if any.
+   */
+  private static final class Entry {
+
+    final Object event;
+    final CompletableFuture<InsightsResult> result;
+    final int size;
+
+    /** When the event was buffered, set only when the spool is enabled */
+    long enqueuedAt;
+
+    Entry(InsightsEvent event, CompletableFuture<InsightsResult> result) {
+      this.event = Objects.requireNonNull(event, "An event is required.");
+      this.result = result;
+      this.size = estimateSize(event);
+    }
+
+    Entry(CompactInsightsEvent event, CompletableFuture<InsightsResult> result) {
+      this.event = Objects.requireNonNull(event, "An event is required.");
+      this.result = result;
+      this.size = estimateSize(event);
+    }
+
+    /**
+     * The event to write to the spool, dated from when it was buffered if it had no timestamp. The
+     * event of the caller is copied rather than dated, as it may still be in use.
+     */
+    InsightsEvent toSpooledEvent() {
+      if (event instanceof CompactInsightsEvent) {
+        InsightsEvent spooled = ((CompactInsightsEvent) event).toInsightsEvent();
+        return spooled.getTimestamp() == null ? spooled.setTimestamp(enqueuedAt) : spooled;
+      }
+
+      InsightsEvent original = (InsightsEvent) event;
+      if (original.getTimestamp() != null) {
+        return original;
+      }
+
+      return new InsightsEvent()
+          .setEventType(original.getEventType())
+          .setEventName(original.getEventName())
+          .setIndex(original.getIndex())
+          .setUserToken(original.getUserToken())
+          .setTimestamp(enqueuedAt)
+          .setQueryID(original.getQueryID())
+          .setObjectIDs(original.getObjectIDs())
+          .setFilters(original.getFilters())
+          .setPositions(original.getPositions());
+    }
+
+    private static int estimateSize(CompactInsightsEvent event) {
+      int size = 128;
+      size += length(event.getEventType());
+      size += length(event.getEventName());
+      size += length(event.getIndex());
+      size += length(event.getUserToken());
+      size += length(event.getQueryID());
+
+      for (int i = 0; i < event.getObjectIDCount(); i++) size += length(event.getObjectID(i)) + 3;
+      for (int i = 0; i < event.getFilterCount(); i++) size += length(event.getFilter(i)) + 3;
+      size += event.getPositionCount() * 8;
+
+      return size;
+    }
+
+    /** Size of the event in JSON, estimated from its fields to avoid serializing it twice. */
+    private static int estimateSize(InsightsEvent event) {
+      int size = 128;
+      size += length(event.getEventType());
+      size += length(event.getEventName());
+      size += length(event.getIndex());
+      size += length(event.getUserToken());
+      size += length(event.getQueryID());
+
+      if (event.getObjectIDs() != null) {
+        for (String objectID : event.getObjectIDs()) size += length(objectID) + 3;
+      }
+      if (event.getFilters() != null) {
+        for (String filter : event.getFilters()) size += length(filter) + 3;
+      }
+      if (event.getPositions() != null) {
+        size += event.getPositions().size() * 8;
+      }
+
+      return size;
+    }
+
+    private static int length(String value) {
+      return value == null ? 0 : value.length();
+    }
+  }
+}
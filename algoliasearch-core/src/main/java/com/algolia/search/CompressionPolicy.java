@@ -0,0 +1,156 @@
+package com.algolia.search;
+
+import com.algolia.search.models.HttpMethod;
+import com.algolia.search.models.common.CallType;
+import com.algolia.search.models.common.CompressionType;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import javax.annotation.Nonnull;
+
+/**
+ * Decides which request bodies are compressed and how. Only POST and PUT bodies of at least {@link
+ * #getMinBodySize()} bytes are encoded, small bodies are sent as is because compressing them costs
+ * more CPU and latency than it saves bandwidth.
+ */
+public final class CompressionPolicy {
+
+  /** Bodies smaller than this are not compressed by default, in bytes. */
+  public static final int DEFAULT_MIN_BODY_SIZE = 1024;
+
+  private static final CompressionPolicy NONE = new Builder().build();
+
+  private final ContentEncoder encoder;
+  private final Map<CallType, ContentEncoder> callTypeEncoders;
+  private final int minBodySize;
+  private final int level;
+
+  /** A policy never compressing bodies. */
+  public static CompressionPolicy none() {
+    return NONE;
+  }
+
+  /**
+   * The default policy for the given compression type.
+   *
+   * @param compressionType The compression applied to all the bodies above the default threshold
+   */
+  public static CompressionPolicy of(@Nonnull CompressionType compressionType) {
+    return compressionType == CompressionType.GZIP
+        ? new Builder().setEncoder(ContentEncoder.gzip()).build()
+        : NONE;
+  }
+
+  private CompressionPolicy(Builder builder) {
+    this.encoder = builder.encoder;
+    this.callTypeEncoders = Collections.unmodifiableMap(new EnumMap<>(builder.callTypeEncoders));
+    this.minBodySize = builder.minBodySize;
+    this.level = builder.level;
+  }
+
+  /**
+   * Returns the encoder to apply to a body, or null if it must be sent as is.
+   *
+   * @param method The HTTP method of the request
+   * @param callType The call type of the request
+   * @param bodySize The size of the serialized body, in bytes
+   */
+  public ContentEncoder getEncoder(
+      @Nonnull HttpMethod method, @Nonnull CallType callType, int bodySize) {
+
+    if (bodySize < minBodySize || !(method == HttpMethod.POST || method == HttpMethod.PUT)) {
+      return null;
+    }
+
+    return callTypeEncoders.containsKey(callType) ? callTypeEncoders.get(callType) : encoder;
+  }
+
+  public int getMinBodySize() {
+    return minBodySize;
+  }
+
+  public int getLevel() {
+    return level;
+  }
+
+  /** Whether the policy compresses at least one call type. */
+  public boolean isEnabled() {
+    return encoder != null || callTypeEncoders.values().stream().anyMatch(Objects::nonNull);
+  }
+
+  @Override
+  public String toString() {
+    return "CompressionPolicy{"
+        + "encoder="
+        + (encoder != null ? encoder.getContentEncoding() : null)
+        + ", callTypeEncoders="
+        + callTypeEncoders.keySet()
+        + ", minBodySize="
+        + minBodySize
+        + ", level="
+        + level
+        + '}';
+  }
+
+  public static class Builder {
+
+    private ContentEncoder encoder;
+    private final Map<CallType, ContentEncoder> callTypeEncoders = new EnumMap<>(CallType.class);
+    private int minBodySize = DEFAULT_MIN_BODY_SIZE;
+    private int level = Deflater.DEFAULT_COMPRESSION;
+
+    /** Compresses the bodies of all the call types with the given compression type. */
+    public Builder setCompressionType(@Nonnull CompressionType compressionType) {
+      return setEncoder(compressionType == CompressionType.GZIP ? ContentEncoder.gzip() : null);
+    }
+
+    /** Compresses the bodies of all the call types with the given encoder, null to disable. */
+    public Builder setEncoder(ContentEncoder encoder) {
+      this.encoder = encoder;
+      return this;
+    }
+
+    /**
+     * Overrides the compression type for one call type, e.g. to compress only {@link
+     * CallType#WRITE} requests.
+     */
+    public Builder setCompressionType(
+        @Nonnull CallType callType, @Nonnull CompressionType compressionType) {
+      return setEncoder(
+          callType, compressionType == CompressionType.GZIP ? ContentEncoder.gzip() : null);
+    }
+
+    /** Overrides the encoder for one call type, null to disable compression for it. */
+    public Builder setEncoder(@Nonnull CallType callType, ContentEncoder encoder) {
+      this.callTypeEncoders.put(callType, encoder);
+      return this;
+    }
+
+    /** Bodies smaller than this are sent uncompressed. Default = 1024 bytes */
+    public Builder setMinBodySize(int minBodySize) {
+      if (minBodySize < 0) {
+        throw new IllegalArgumentException("The minimum body size can't be negative.");
+      }
+      this.minBodySize = minBodySize;
+      return this;
+    }
+
+    /**
+     * Sets the compression level, from 0 (no compression) to 9 (best compression). Default = -1,
+     * the deflate default which is 6.
+     */
+    public Builder setLevel(int level) {
+      if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+        throw new IllegalArgumentException("The compression level must be between -1 and 9.");
+      }
+      this.level = level;
+      return this;
+    }
+
+    public CompressionPolicy build() {
+      return new CompressionPolicy(this);
+    }
+  }
+}
@@ -1,13 +1,15 @@
 package com.algolia.search;
 
+import com.algolia.search.models.common.CompletionMode;
 import com.algolia.search.models.common.CompressionType;
+import com.algolia.search.models.common.RejectionPolicy;
 import com.algolia.search.util.AlgoliaUtils;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ForkJoinPool;
 import javax.annotation.Nonnull;
 
 /** Algolia's clients common configuration */
@@ -15,17 +17,27 @@ import javax.annotation.Nonnull;
 public abstract class ConfigBase {
 
   private static final String JAVA_VERSION = System.getProperty("java.version");
+  private static final int DEFAULT_EXECUTOR_POOL_SIZE =
+      Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+  private static final int DEFAULT_EXECUTOR_QUEUE_CAPACITY = 10_000;
   private final String applicationID;
   private final String apiKey;
   private final Map<String, String> defaultHeaders;
   private final int batchSize;
+  private final int maxConcurrentBatches;
   private final boolean useSystemProxy;
   private final Integer readTimeOut;
   private final Integer writeTimeOut;
   private final Integer connectTimeOut;
   private final List<StatefulHost> hosts;
   private final ExecutorService executor;
+  private final boolean useVirtualThreads;
+  private final Executor serializationExecutor;
+  private final Executor completionExecutor;
   private final CompressionType compressionType;
+  private final CompressionPolicy compressionPolicy;
+  private final ConnectionPoolConfig connectionPoolConfig;
+  private final MetricsListener metricsListener;
 
   /** Config base builder to ensure the immutability of the configuration. */
   public abstract static class Builder<T extends Builder<T>> {
@@ -34,13 +46,24 @@ public abstract class ConfigBase {
     private final String apiKey;
     private final Map<String, String> defaultHeaders;
     private int batchSize;
+    private int maxConcurrentBatches;
     private boolean useSystemProxy;
     private Integer readTimeOut;
     private Integer writeTimeOut;
     private Integer connectTimeOut;
     private List<StatefulHost> hosts;
     private ExecutorService executor;
+    private int executorPoolSize;
+    private int executorQueueCapacity;
+    private RejectionPolicy executorRejectionPolicy;
+    private boolean useVirtualThreads;
+    private Executor serializationExecutor;
+    private CompletionMode completionMode;
+    private Executor completionExecutor;
     protected CompressionType compressionType;
+    private CompressionPolicy compressionPolicy;
+    private ConnectionPoolConfig connectionPoolConfig;
+    private MetricsListener metricsListener;
 
     /**
      * Builds a base configuration
@@ -61,8 +84,10 @@ public abstract class ConfigBase {
 
       this.useSystemProxy = false;
       this.batchSize = 1000;
+      this.maxConcurrentBatches = 8;
       this.hosts = defaultHosts;
       this.connectTimeOut = Defaults.CONNECT_TIMEOUT_MS;
+      this.connectionPoolConfig = ConnectionPoolConfig.defaults();
       this.compressionType = compressionType;
 
       this.defaultHeaders = new HashMap<>();
@@ -75,12 +100,24 @@ public abstract class ConfigBase {
       this.defaultHeaders.put(Defaults.ACCEPT_HEADER, Defaults.APPLICATION_JSON);
       this.defaultHeaders.put(Defaults.ACCEPT_ENCODING_HEADER, Defaults.CONTENT_ENCODING_GZIP);
 
-      this.executor = ForkJoinPool.commonPool();
+      this.executorPoolSize = DEFAULT_EXECUTOR_POOL_SIZE;
+      this.executorQueueCapacity = DEFAULT_EXECUTOR_QUEUE_CAPACITY;
+      this.executorRejectionPolicy = RejectionPolicy.CALLER_RUNS;
+      this.completionMode = CompletionMode.ASYNC;
     }
 
     /** To prevent unchecked cast warning. */
     public abstract T getThis();
 
+    /**
+     * Sets the compression policy of the client: minimum body size, level, per call type rules or
+     * custom encodings. Takes precedence over the compression type. See {@link CompressionPolicy}
+     */
+    public T setCompressionPolicy(@Nonnull CompressionPolicy compressionPolicy) {
+      this.compressionPolicy = compressionPolicy;
+      return getThis();
+    }
+
     /**
      * Makes the underlying Apache HTTP Client to use JVM/System settings for the proxy.
      *
@@ -98,6 +135,18 @@ public abstract class ConfigBase {
       return getThis();
     }
 
+    /**
+     * Overrides the maximum number of batches in flight while streaming records, as done by
+     * replaceAllObjects. Default = 8 batches.
+     */
+    public T setMaxConcurrentBatches(int maxConcurrentBatches) {
+      if (maxConcurrentBatches < 1) {
+        throw new IllegalArgumentException("maxConcurrentBatches must be greater than 0.");
+      }
+      this.maxConcurrentBatches = maxConcurrentBatches;
+      return getThis();
+    }
+
     /** Overrides the default read timeout. Default = 1000ms In milliseconds */
     public T setReadTimeOut(Integer readTimeOut) {
       this.readTimeOut = readTimeOut;
@@ -116,18 +165,115 @@ public abstract class ConfigBase {
       return getThis();
     }
 
+    /** Sets the sizing and recycling of the HTTP connections, see {@link ConnectionPoolConfig} */
+    public T setConnectionPoolConfig(@Nonnull ConnectionPoolConfig connectionPoolConfig) {
+      this.connectionPoolConfig = connectionPoolConfig;
+      return getThis();
+    }
+
     /** Sets a list of specific host to target. Default hosts will be overridden. */
     public T setHosts(@Nonnull List<StatefulHost> customHosts) {
       this.hosts = customHosts;
       return getThis();
     }
 
-    /** Sets a custom executor service. Default ForkJoinPool will be overridden. */
+    /**
+     * Sets a custom executor service. The default {@link ManagedExecutorService} will be
+     * overridden. A custom executor service is never shut down by the clients.
+     */
     public T setExecutorService(ExecutorService executorService) {
       this.executor = executorService;
       return getThis();
     }
 
+    /**
+     * Overrides the number of threads of the default executor service. Default = twice the number
+     * of available processors, at least 4.
+     */
+    public T setExecutorPoolSize(int executorPoolSize) {
+      this.executorPoolSize = executorPoolSize;
+      return getThis();
+    }
+
+    /**
+     * Overrides the number of tasks the default executor service queues when all its threads are
+     * busy. Default = 10000.
+     */
+    public T setExecutorQueueCapacity(int executorQueueCapacity) {
+      this.executorQueueCapacity = executorQueueCapacity;
+      return getThis();
+    }
+
+    /**
+     * Sets what the default executor service does when its queue is full. Default = {@link
+     * RejectionPolicy#CALLER_RUNS}, so that a response received while the queue is full is still
+     * completed, on the thread of the HTTP client, rather than failed.
+     */
+    public T setExecutorRejectionPolicy(@Nonnull RejectionPolicy executorRejectionPolicy) {
+      this.executorRejectionPolicy = executorRejectionPolicy;
+      return getThis();
+    }
+
+    /**
+     * Runs the async methods on virtual threads, one per task, instead of the default executor
+     * service. Requires Java 21 or later. The threads calling the synchronous methods, blocked
+     * until the response arrives, and the waits of waitTask then no longer hold platform threads
+     * when they are virtual threads too. A custom executor service takes precedence. Default =
+     * false.
+     *
+     * @throws UnsupportedOperationException When the JVM doesn't support virtual threads
+     */
+    public T setUseVirtualThreads(boolean useVirtualThreads) {
+      if (useVirtualThreads && !VirtualThreads.isSupported()) {
+        throw new UnsupportedOperationException(
+            "Virtual threads require Java 21 or later, running on Java " + JAVA_VERSION);
+      }
+      this.useVirtualThreads = useVirtualThreads;
+      return getThis();
+    }
+
+    /**
+     * Serializes and compresses the request bodies on the given executor instead of the calling
+     * thread. The bodies of concurrent requests, such as the batches of saveObjects, are then built
+     * in parallel and pipelined with the network calls. Default = null, bodies are serialized on
+     * the calling thread.
+     *
+     * <p>With an executor, the objects given to the async methods are serialized after the method
+     * returns: they must not be modified until the returned future completes.
+     */
+    public T setSerializationExecutor(Executor serializationExecutor) {
+      this.serializationExecutor = serializationExecutor;
+      return getThis();
+    }
+
+    /**
+     * Sets where the async methods complete. Default = {@link CompletionMode#ASYNC}, on the
+     * executor service. {@link CompletionMode#DIRECT} completes on the HTTP client thread, without
+     * executor hops.
+     */
+    public T setCompletionMode(@Nonnull CompletionMode completionMode) {
+      this.completionMode = completionMode;
+      return getThis();
+    }
+
+    /**
+     * Completes the async methods on a dedicated executor, e.g. a small pool, instead of the
+     * executor service. Takes precedence over the completion mode.
+     */
+    public T setCompletionExecutor(Executor completionExecutor) {
+      this.completionExecutor = completionExecutor;
+      return getThis();
+    }
+
+    /**
+     * Reports the metrics of every attempt of the requests to the listener, e.g. a {@link
+     * LatencyMetricsListener}. Default = null, no metrics.
+     */
+    public T setMetricsListener(MetricsListener metricsListener) {
+      this.metricsListener = metricsListener;
+      return getThis();
+    }
+
     /**
      * Associates the specified value with the specified key in this map. If the map previously
      * contained a mapping for the key, the old value is replaced.
@@ -166,12 +312,40 @@ public abstract class ConfigBase {
     this.defaultHeaders = builder.defaultHeaders;
     this.useSystemProxy = builder.useSystemProxy;
     this.batchSize = builder.batchSize;
+    this.maxConcurrentBatches = builder.maxConcurrentBatches;
     this.compressionType = builder.compressionType;
+    this.compressionPolicy =
+        builder.compressionPolicy != null
+            ? builder.compressionPolicy
+            : CompressionPolicy.of(builder.compressionType);
     this.readTimeOut = builder.readTimeOut;
     this.writeTimeOut = builder.writeTimeOut;
     this.connectTimeOut = builder.connectTimeOut;
+    this.connectionPoolConfig = builder.connectionPoolConfig;
+    this.metricsListener = builder.metricsListener;
     this.hosts = builder.hosts;
-    this.executor = builder.executor;
+    this.useVirtualThreads = builder.executor == null && builder.useVirtualThreads;
+
+    if (builder.executor != null) {
+      this.executor = builder.executor;
+    } else if (builder.useVirtualThreads) {
+      this.executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+    } else {
+      this.executor =
+          new ManagedExecutorService(
+              builder.executorPoolSize,
+              builder.executorQueueCapacity,
+              builder.executorRejectionPolicy);
+    }
+    this.serializationExecutor = builder.serializationExecutor;
+
+    if (builder.completionExecutor != null) {
+      this.completionExecutor = builder.completionExecutor;
+    } else if (builder.completionMode == CompletionMode.DIRECT) {
+      this.completionExecutor = Runnable::run;
+    } else {
+      this.completionExecutor = this.executor;
+    }
   }
 
   public String getApplicationID() {
@@ -201,10 +375,22 @@ public abstract class ConfigBase {
     return batchSize;
   }
 
+  public int getMaxConcurrentBatches() {
+    return maxConcurrentBatches;
+  }
+
   public CompressionType getCompressionType() {
     return compressionType;
   }
 
+  /**
+   * The policy deciding which request bodies are compressed. Derived from the compression type when
+   * no policy was set.
+   */
+  public CompressionPolicy getCompressionPolicy() {
+    return compressionPolicy;
+  }
+
   public Integer getReadTimeOut() {
     return readTimeOut;
   }
@@ -217,11 +403,56 @@ public abstract class ConfigBase {
     return connectTimeOut;
   }
 
+  public ConnectionPoolConfig getConnectionPoolConfig() {
+    return connectionPoolConfig;
+  }
+
   public List<StatefulHost> getHosts() {
     return hosts;
   }
 
+  /**
+   * The executor service of the async methods. Unless a custom one was set, a {@link
+   * ManagedExecutorService} exposing the queue depth of the pool.
+   */
   public ExecutorService getExecutor() {
     return executor;
   }
+
+  /** Tells if the async methods run on virtual threads, see {@link Builder#setUseVirtualThreads} */
+  public boolean getUseVirtualThreads() {
+    return useVirtualThreads;
+  }
+
+  /** Registers a client using the default executor service. */
+  void retainExecutor() {
+    if (executor instanceof ManagedExecutorService) {
+      ((ManagedExecutorService) executor).retain();
+    }
+  }
+
+  /** Unregisters a closed client, the default executor service stops with the last client. */
+  void releaseExecutor() {
+    if (executor instanceof ManagedExecutorService) {
+      ((ManagedExecutorService) executor).release();
+    }
+  }
+
+  /**
+   * The executor running the stages of the async methods, see {@link
+   * Builder#setCompletionMode(CompletionMode)}
+   */
+  public Executor getCompletionExecutor() {
+    return completionExecutor;
+  }
+
+  /** The executor serializing the request bodies, null when they are serialized inline. */
+  public Executor getSerializationExecutor() {
+    return serializationExecutor;
+  }
+
+  /** The listener of the metrics of the requests, null when none. */
+  public MetricsListener getMetricsListener() {
+    return metricsListener;
+  }
 }
@@ -0,0 +1,135 @@
+package com.algolia.search;
+
+/**
+ * Sizing and recycling of the connections of the HTTP requesters. Applied by {@code
+ * ApacheHttpRequester}, except the validation after inactivity not supported by HttpAsyncClient 4,
+ * and by {@code Apache5HttpRequester}, whose pool only serves the hosts over HTTP/1.1: its HTTP/2
+ * connections are shared by the requests, one per host. The JDK HTTP client used by the java-net
+ * requesters manages its connections on its own and ignores it, except the maximum total which
+ * bounds the send threads of {@code BlockingJavaNetHttpRequester} without virtual threads.
+ *
+ * <p>Durations are in milliseconds, null leaves the setting to the HTTP client.
+ */
+public final class ConnectionPoolConfig {
+
+  private static final ConnectionPoolConfig DEFAULT = new Builder().build();
+
+  private final int maxConnPerRoute;
+  private final int maxConnTotal;
+  private final Integer idleTimeOut;
+  private final Integer connectionTimeToLive;
+  private final Integer validateAfterInactivity;
+
+  private ConnectionPoolConfig(Builder builder) {
+    this.maxConnPerRoute = builder.maxConnPerRoute;
+    this.maxConnTotal = builder.maxConnTotal;
+    this.idleTimeOut = builder.idleTimeOut;
+    this.connectionTimeToLive = builder.connectionTimeToLive;
+    this.validateAfterInactivity = builder.validateAfterInactivity;
+  }
+
+  /** The default pool: 100 connections per host, no eviction. */
+  public static ConnectionPoolConfig defaults() {
+    return DEFAULT;
+  }
+
+  /** Maximum number of connections to a host. */
+  public int getMaxConnPerRoute() {
+    return maxConnPerRoute;
+  }
+
+  /**
+   * Maximum number of connections to all the hosts.
+   *
+   * @param hostCount The number of hosts of the client, used when no total was set
+   */
+  public int getMaxConnTotal(int hostCount) {
+    return maxConnTotal > 0 ? maxConnTotal : maxConnPerRoute * Math.max(1, hostCount);
+  }
+
+  /** Time after which an idle connection is closed, null to keep it open. */
+  public Integer getIdleTimeOut() {
+    return idleTimeOut;
+  }
+
+  /** Time after which a connection is no longer reused, null for no limit. */
+  public Integer getConnectionTimeToLive() {
+    return connectionTimeToLive;
+  }
+
+  /** Time of inactivity after which a connection is checked before being reused. */
+  public Integer getValidateAfterInactivity() {
+    return validateAfterInactivity;
+  }
+
+  @Override
+  public String toString() {
+    return "ConnectionPoolConfig{"
+        + "maxConnPerRoute="
+        + maxConnPerRoute
+        + ", maxConnTotal="
+        + maxConnTotal
+        + ", idleTimeOut="
+        + idleTimeOut
+        + ", connectionTimeToLive="
+        + connectionTimeToLive
+        + ", validateAfterInactivity="
+        + validateAfterInactivity
+        + '}';
+  }
+
+  public static class Builder {
+
+    private int maxConnPerRoute = 100;
+    private int maxConnTotal;
+    private Integer idleTimeOut;
+    private Integer connectionTimeToLive;
+    private Integer validateAfterInactivity;
+
+    /** Overrides the maximum number of connections to a host. Default = 100. */
+    public Builder setMaxConnPerRoute(int maxConnPerRoute) {
+      if (maxConnPerRoute < 1) {
+        throw new IllegalArgumentException("maxConnPerRoute must be greater than 0.");
+      }
+      this.maxConnPerRoute = maxConnPerRoute;
+      return this;
+    }
+
+    /**
+     * Overrides the maximum number of connections to all the hosts. Default = maxConnPerRoute times
+     * the number of hosts.
+     */
+    public Builder setMaxConnTotal(int maxConnTotal) {
+      if (maxConnTotal < 1) {
+        throw new IllegalArgumentException("maxConnTotal must be greater than 0.");
+      }
+      this.maxConnTotal = maxConnTotal;
+      return this;
+    }
+
+    /** Closes the connections idle for longer than the given time. In milliseconds */
+    public Builder setIdleTimeOut(Integer idleTimeOut) {
+      this.idleTimeOut = idleTimeOut;
+      return this;
+    }
+
+    /** Stops reusing the connections older than the given time. In milliseconds */
+    public Builder setConnectionTimeToLive(Integer connectionTimeToLive) {
+      this.connectionTimeToLive = connectionTimeToLive;
+      return this;
+    }
+
+    /**
+     * Checks that a connection idle for longer than the given time is still open before reusing it.
+     * In milliseconds
+     */
+    public Builder setValidateAfterInactivity(Integer validateAfterInactivity) {
+      this.validateAfterInactivity = validateAfterInactivity;
+      return this;
+    }
+
+    public ConnectionPoolConfig build() {
+      return new ConnectionPoolConfig(this);
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package com.algolia.search;
+
+/** Snapshot of the connections of an HTTP requester to one host. */
+public final class ConnectionPoolStats {
+
+  private final int leased;
+  private final int available;
+  private final int pending;
+  private final int max;
+
+  public ConnectionPoolStats(int leased, int available, int pending, int max) {
+    this.leased = leased;
+    this.available = available;
+    this.pending = pending;
+    this.max = max;
+  }
+
+  /** Connections currently carrying a request. */
+  public int getLeased() {
+    return leased;
+  }
+
+  /** Idle connections, ready to be reused. */
+  public int getAvailable() {
+    return available;
+  }
+
+  /** Requests waiting for a connection. Above 0, the pool is too small for the load. */
+  public int getPending() {
+    return pending;
+  }
+
+  /** Maximum number of connections to the host. */
+  public int getMax() {
+    return max;
+  }
+
+  /**
+   * Sum of two snapshots, e.g. of the pools of the routes to the same host through different
+   * schemes or ports.
+   */
+  public ConnectionPoolStats plus(ConnectionPoolStats other) {
+    return new ConnectionPoolStats(
+        leased + other.leased,
+        available + other.available,
+        pending + other.pending,
+        max + other.max);
+  }
+
+  @Override
+  public String toString() {
+    return "ConnectionPoolStats{"
+        + "leased="
+        + leased
+        + ", available="
+        + available
+        + ", pending="
+        + pending
+        + ", max="
+        + max
+        + '}';
+  }
+}
@@ -0,0 +1,29 @@
+package com.algolia.search;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.annotation.Nonnull;
+
+/**
+ * Encodes request bodies for a given HTTP content-encoding. Implementations must be thread safe,
+ * see {@link CompressionPolicy} to use a custom encoder.
+ */
+public interface ContentEncoder {
+
+  /** The built-in gzip encoder, backed by pooled {@link java.util.zip.Deflater}s. */
+  static ContentEncoder gzip() {
+    return GzipContentEncoder.INSTANCE;
+  }
+
+  /** The value sent in the Content-Encoding header, e.g. "gzip" */
+  String getContentEncoding();
+
+  /**
+   * Wraps the given stream with the encoder. Closing the returned stream must write the end of the
+   * encoded content.
+   *
+   * @param out The stream receiving the encoded bytes
+   * @param level The compression level of the policy, from 0 to 9 or -1 for the encoder's default
+   */
+  OutputStream encode(@Nonnull OutputStream out, int level) throws IOException;
+}
@@ -2,6 +2,7 @@ package com.algolia.search;
 
 import static com.fasterxml.jackson.core.JsonGenerator.Feature;
 
+import com.algolia.search.records.GeneratedRecordsModule;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -18,6 +19,7 @@ public class Defaults {
     private static final ObjectMapper DEFAULT_OBJECT_MAPPER =
         new ObjectMapper()
             .registerModule(new JavaTimeModule()) // Registering JavaTimeModule to handle JDK8 dates
+            .registerModule(new GeneratedRecordsModule()) // Generated code for @AlgoliaRecord
             .enable(Feature.AUTO_CLOSE_JSON_CONTENT)
             .enable(
                 DeserializationFeature
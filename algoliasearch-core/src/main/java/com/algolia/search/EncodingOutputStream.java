@@ -0,0 +1,138 @@
+package com.algolia.search;
+
+import com.algolia.search.BufferPool.PooledBuffer;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Receives the JSON of a request body and compresses it on the fly once it reaches the minimum body
+ * size of the policy, so that a large body is held once, compressed, rather than serialized in a
+ * buffer then compressed in another one. Only the first {@code minBodySize} bytes are copied, when
+ * the stream switches to the encoder.
+ *
+ * <p>Not thread-safe: used by one serialization at a time.
+ */
+final class EncodingOutputStream extends OutputStream {
+
+  private final BufferPool bufferPool;
+  private final ContentEncoder encoder;
+  private final int minBodySize;
+  private final int level;
+
+  /** The JSON as is, until the minimum body size is reached. */
+  private PooledBuffer raw;
+
+  private PooledBuffer encoded;
+  private OutputStream encoderOS;
+  private long count;
+  private long encodingNanos;
+  private boolean closed;
+
+  EncodingOutputStream(BufferPool bufferPool, ContentEncoder encoder, int minBodySize, int level) {
+    this.bufferPool = bufferPool;
+    this.encoder = encoder;
+    this.minBodySize = minBodySize;
+    this.level = level;
+    this.raw = bufferPool.acquireBuffer();
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    count++;
+    if (encoderOS != null) {
+      long start = System.nanoTime();
+      encoderOS.write(b);
+      encodingNanos += System.nanoTime() - start;
+      return;
+    }
+    raw.write(b);
+    if (raw.size() >= minBodySize) {
+      startEncoding();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    count += len;
+    if (encoderOS != null) {
+      long start = System.nanoTime();
+      encoderOS.write(b, off, len);
+      encodingNanos += System.nanoTime() - start;
+      return;
+    }
+    raw.write(b, off, len);
+    if (raw.size() >= minBodySize) {
+      startEncoding();
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (encoderOS != null) {
+      encoderOS.flush();
+    }
+  }
+
+  /** Writes the end of the encoded content, if encoded. */
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      if (encoderOS != null) {
+        long start = System.nanoTime();
+        encoderOS.close();
+        encodingNanos += System.nanoTime() - start;
+      }
+    }
+  }
+
+  /** Whether the body reached the minimum size and was encoded. */
+  boolean isEncoded() {
+    return encoded != null;
+  }
+
+  /** Time spent in the encoder, out of the serialization. */
+  long getEncodingNanos() {
+    return encodingNanos;
+  }
+
+  /** The number of bytes of JSON written. */
+  long getCount() {
+    return count;
+  }
+
+  /** The body to send, once closed. To be released once the request has completed */
+  PooledBuffer getBody() {
+    return encoded != null ? encoded : raw;
+  }
+
+  /** Releases the encoder and the buffers, when the serialization failed. */
+  void release() {
+    if (encoderOS != null && !closed) {
+      closed = true;
+      try {
+        encoderOS.close();
+      } catch (IOException e) {
+        // The body is dropped anyway
+      }
+    }
+    if (raw != null) {
+      bufferPool.releaseBuffer(raw);
+      raw = null;
+    }
+    if (encoded != null) {
+      bufferPool.releaseBuffer(encoded);
+      encoded = null;
+    }
+  }
+
+  private void startEncoding() throws IOException {
+    long start = System.nanoTime();
+    encoded = bufferPool.acquireBuffer();
+    encoderOS = encoder.encode(encoded, level);
+    encoderOS.write(raw.array(), 0, raw.size());
+    bufferPool.releaseBuffer(raw);
+    raw = null;
+    encodingNanos += System.nanoTime() - start;
+  }
+}
@@ -0,0 +1,109 @@
+package com.algolia.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/** Reduces the paths of the requests to their endpoint, as a metric dimension. */
+final class Endpoints {
+
+  /** The fixed segments of the paths of the API. The other segments are variables. */
+  private static final Set<String> FIXED =
+      new HashSet<>(
+          Arrays.asList(
+              "1",
+              "2",
+              "*",
+              "abtests",
+              "batch",
+              "browse",
+              "clear",
+              "clusters",
+              "deleteByQuery",
+              "dictionaries",
+              "events",
+              "facets",
+              "indexes",
+              "isalive",
+              "keys",
+              "logs",
+              "mapping",
+              "objects",
+              "operation",
+              "partial",
+              "pending",
+              "personalization",
+              "queries",
+              "query",
+              "recommendation",
+              "restore",
+              "rules",
+              "search",
+              "settings",
+              "stop",
+              "strategies",
+              "strategy",
+              "synonyms",
+              "task",
+              "top"));
+
+  /** Name of a variable segment, according to the segment before it. */
+  private static final Map<String, String> VARIABLES = new HashMap<>();
+
+  static {
+    VARIABLES.put("abtests", "{id}");
+    VARIABLES.put("dictionaries", "{dictionary}");
+    VARIABLES.put("facets", "{facet}");
+    VARIABLES.put("indexes", "{index}");
+    VARIABLES.put("{index}", "{objectID}");
+    VARIABLES.put("keys", "{key}");
+    VARIABLES.put("mapping", "{userID}");
+    VARIABLES.put("rules", "{objectID}");
+    VARIABLES.put("synonyms", "{objectID}");
+    VARIABLES.put("task", "{taskID}");
+  }
+
+  /** The segments always followed by a variable, e.g. an index named "settings", or "*". */
+  private static final Set<String> BEFORE_VARIABLE =
+      new HashSet<>(Arrays.asList("abtests", "dictionaries", "facets", "indexes", "keys", "task"));
+
+  private Endpoints() {}
+
+  /**
+   * Replaces the variable segments of the path by placeholders, e.g. /1/indexes/products/query
+   * gives /1/indexes/{index}/query.
+   */
+  static String of(String path) {
+    int end = path.indexOf('?');
+    if (end < 0) {
+      end = path.length();
+    }
+
+    StringBuilder sb = new StringBuilder(end + 16);
+    String previous = "";
+    int start = path.startsWith("/") ? 1 : 0;
+
+    while (start <= end) {
+      int slash = path.indexOf('/', start);
+      if (slash < 0 || slash > end) {
+        slash = end;
+      }
+
+      String segment = path.substring(start, slash);
+      if (!segment.isEmpty()) {
+        boolean variable =
+            BEFORE_VARIABLE.contains(previous) ? !"*".equals(segment) : !FIXED.contains(segment);
+        if (variable) {
+          segment = VARIABLES.getOrDefault(previous, "{id}");
+        }
+        sb.append('/').append(segment);
+        previous = segment;
+      }
+      start = slash + 1;
+    }
+
+    return sb.length() == 0 ? "/" : sb.toString();
+  }
+}
@@ -0,0 +1,23 @@
+package com.algolia.search;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.annotation.Nonnull;
+
+/** Gzip {@link ContentEncoder} reusing the deflaters of the {@link BufferPool}. */
+final class GzipContentEncoder implements ContentEncoder {
+
+  static final GzipContentEncoder INSTANCE = new GzipContentEncoder();
+
+  private GzipContentEncoder() {}
+
+  @Override
+  public String getContentEncoding() {
+    return Defaults.CONTENT_ENCODING_GZIP;
+  }
+
+  @Override
+  public OutputStream encode(@Nonnull OutputStream out, int level) throws IOException {
+    return new PooledGzipOutputStream(out, BufferPool.getInstance(), level);
+  }
+}
@@ -3,6 +3,8 @@ package com.algolia.search;
 import com.algolia.search.models.HttpRequest;
 import com.algolia.search.models.HttpResponse;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /** This contract allows you to inject a custom HTTPClient to any Algolia clients of the library. */
@@ -16,6 +18,14 @@ public interface HttpRequester {
    */
   CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request);
 
+  /**
+   * Statistics of the connection pool per host name. Empty when the HTTP client doesn't expose its
+   * pool.
+   */
+  default Map<String, ConnectionPoolStats> getConnectionPoolStats() {
+    return Collections.emptyMap();
+  }
+
   /** Closes the underlying resources. */
   void close() throws IOException;
 }
@@ -1,23 +1,37 @@
 package com.algolia.search;
 
+import com.algolia.search.BufferPool.PooledBuffer;
 import com.algolia.search.exceptions.AlgoliaApiException;
 import com.algolia.search.exceptions.AlgoliaRetryException;
 import com.algolia.search.exceptions.AlgoliaRuntimeException;
 import com.algolia.search.models.*;
+import com.algolia.search.models.apikeys.ApiKey;
 import com.algolia.search.models.common.CallType;
+import com.algolia.search.models.common.RetryOutcome;
+import com.algolia.search.models.indexing.BatchRequest;
+import com.algolia.search.models.indexing.MultipleQueriesResponse;
+import com.algolia.search.models.indexing.SearchResult;
 import com.algolia.search.util.CompletableFutureUtils;
 import com.algolia.search.util.QueryStringUtils;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.zip.GZIPOutputStream;
 import javax.annotation.Nonnull;
 
 /**
@@ -28,16 +42,65 @@ class HttpTransport {
   private final HttpRequester httpRequester;
   private final RetryStrategy retryStrategy;
   private final ConfigBase config;
+  private final BufferPool bufferPool = BufferPool.getInstance();
+  private final TransportStats stats = new TransportStats();
+  private final AtomicBoolean closed = new AtomicBoolean();
+  private final List<ApiKeyListener> apiKeyListeners = new CopyOnWriteArrayList<>();
+  private final MetricsListener metricsListener;
   private static final Logger LOGGER = Logger.getLogger(HttpTransport.class.getName());
 
+  /** Lightweight endpoint requested to open the connections during the warm-up. */
+  private static final String WARM_UP_PATH = "/1/isalive";
+
   HttpTransport(@Nonnull ConfigBase config, @Nonnull HttpRequester httpRequester) {
     this.config = config;
     this.httpRequester = httpRequester;
     this.retryStrategy = new RetryStrategy(config);
+    this.metricsListener = config.getMetricsListener();
+    config.retainExecutor();
   }
 
   void close() throws IOException {
-    httpRequester.close();
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      httpRequester.close();
+    } finally {
+      config.releaseExecutor();
+    }
+  }
+
+  void addApiKeyListener(ApiKeyListener listener) {
+    apiKeyListeners.add(listener);
+  }
+
+  void removeApiKeyListener(ApiKeyListener listener) {
+    apiKeyListeners.remove(listener);
+  }
+
+  /** Notifies the listeners of a key changed through this transport. */
+  void apiKeyChanged(String key, ApiKey apiKey) {
+    for (ApiKeyListener listener : apiKeyListeners) {
+      try {
+        listener.onApiKeyChanged(key, apiKey);
+      } catch (RuntimeException e) {
+        // The change is done, a listener must not fail the call
+        LOGGER.log(Level.WARNING, "Error in an API key listener", e);
+      }
+    }
+  }
+
+  /** Notifies the listeners of a key deleted through this transport. */
+  void apiKeyDeleted(String key) {
+    for (ApiKeyListener listener : apiKeyListeners) {
+      try {
+        listener.onApiKeyDeleted(key);
+      } catch (RuntimeException e) {
+        LOGGER.log(Level.WARNING, "Error in an API key listener", e);
+      }
+    }
   }
 
   /**
@@ -116,7 +179,7 @@ class HttpTransport {
 
     Iterator<StatefulHost> hosts = retryStrategy.getTryableHosts(callType).iterator();
 
-    HttpRequest request = buildRequest(method, path, callType, requestOptions, data);
+    HttpRequest request = buildRequest(method, path, callType, requestOptions);
 
     JavaType type =
         innerClazz == null
@@ -125,7 +188,211 @@ class HttpTransport {
                 .getTypeFactory()
                 .constructParametricType(returnClazz, innerClazz);
 
-    return executeWithRetry(hosts, request, type);
+    // Only tracked for the metrics listener
+    RequestTrace trace = metricsListener != null ? new RequestTrace(path, callType) : null;
+
+    if (trace != null && data instanceof BatchRequest) {
+      int records = ((BatchRequest<?>) data).getRequests().size();
+      CompletableFuture<TResult> response = send(hosts, request, type, data, callType, trace);
+      return response.whenComplete((r, e) -> onBatch(trace, request, records, e == null));
+    }
+
+    return send(hosts, request, type, data, callType, trace);
+  }
+
+  /** Serializes the data if any, then executes the request with the retry strategy. */
+  private <TResult, TData> CompletableFuture<TResult> send(
+      Iterator<StatefulHost> hosts,
+      HttpRequest request,
+      JavaType type,
+      TData data,
+      CallType callType,
+      RequestTrace trace) {
+
+    if (data == null) {
+      return executeWithRetry(hosts, request, type, trace);
+    }
+
+    Executor serializationExecutor = config.getSerializationExecutor();
+
+    if (serializationExecutor == null) {
+      PooledBuffer body = serializeJSON(data, request, callType, trace);
+      logRequest(request, data);
+      return executeWithBody(hosts, request, type, body, trace);
+    }
+
+    // Serializing on the worker pool, so that the bodies of concurrent requests are built in
+    // parallel while other requests are on the wire
+    long submitted = System.nanoTime();
+
+    return CompletableFuture.supplyAsync(
+            () -> {
+              long queued = System.nanoTime() - submitted;
+              stats.getQueue().record(queued);
+              if (trace != null) {
+                trace.queueNanos = queued;
+              }
+              PooledBuffer body = serializeJSON(data, request, callType, trace);
+              logRequest(request, data);
+              return body;
+            },
+            serializationExecutor)
+        .thenCompose(body -> executeWithBody(hosts, request, type, body, trace));
+  }
+
+  /**
+   * Types a generic class for {@link #executeRequestAsync}, e.g. {@code SearchResult.class} for a
+   * {@code SearchResult<T>} whose inner class is given separately.
+   */
+  @SuppressWarnings("unchecked")
+  static <T> Class<T> genericClass(Class<? super T> clazz) {
+    return (Class<T>) clazz;
+  }
+
+  /** Tells if a host of the given call type is up, according to the retry strategy */
+  boolean hasAvailableHost(CallType callType) {
+    return retryStrategy.hasAvailableHost(callType);
+  }
+
+  /** Statistics of the stages of the requests sent through this transport */
+  TransportStats getStats() {
+    return stats;
+  }
+
+  /**
+   * Opens connections to every host of the configuration and prepares the JSON serializers and
+   * deserializers of the given model classes. The requests bypass the retry strategy: an
+   * unreachable host is reported, not marked as down. Never completes exceptionally.
+   *
+   * @param connectionsPerHost The number of concurrent requests sent to each host, each of them
+   *     opening a connection unless the HTTP client multiplexes them
+   * @param modelClasses The classes sent or received by the client
+   */
+  CompletableFuture<WarmUpReport> warmUpAsync(
+      int connectionsPerHost, @Nonnull Collection<Class<?>> modelClasses) {
+
+    if (connectionsPerHost < 1) {
+      throw new IllegalArgumentException("connectionsPerHost must be greater than 0.");
+    }
+
+    // Building and caching the root (de)serializers, the costly part of the first calls
+    long start = System.nanoTime();
+    ObjectMapper mapper = Defaults.getObjectMapper();
+    for (Class<?> modelClass : modelClasses) {
+      mapper.writerFor(modelClass);
+      mapper.readerFor(modelClass);
+    }
+    long serializationNanos = System.nanoTime() - start;
+
+    List<CompletableFuture<WarmUpReport.HostReport>> hostReports = new ArrayList<>();
+    for (StatefulHost host : config.getHosts()) {
+      hostReports.add(warmUpHost(host, connectionsPerHost));
+    }
+
+    return CompletableFuture.allOf(hostReports.toArray(new CompletableFuture<?>[0]))
+        .thenApply(
+            v -> {
+              List<WarmUpReport.HostReport> reports = new ArrayList<>();
+              hostReports.forEach(r -> reports.add(r.join()));
+              return new WarmUpReport(reports, serializationNanos);
+            });
+  }
+
+  /**
+   * Sends concurrent requests to the host, each of them measuring the time to get a response.
+   *
+   * @param host The host to warm up
+   * @param connections The number of concurrent requests
+   */
+  private CompletableFuture<WarmUpReport.HostReport> warmUpHost(
+      StatefulHost host, int connections) {
+
+    List<CompletableFuture<Long>> roundTrips = new ArrayList<>(connections);
+
+    for (int i = 0; i < connections; i++) {
+      roundTrips.add(warmUpConnection(host));
+    }
+
+    return CompletableFuture.allOf(roundTrips.toArray(new CompletableFuture<?>[0]))
+        .thenApply(
+            v -> {
+              int reached = 0;
+              long maxRoundTrip = 0;
+              for (CompletableFuture<Long> roundTrip : roundTrips) {
+                long nanos = roundTrip.join();
+                if (nanos >= 0) {
+                  reached++;
+                  maxRoundTrip = Math.max(maxRoundTrip, nanos);
+                }
+              }
+              return new WarmUpReport.HostReport(
+                  host.getUrl(), host.getAccept(), reached, connections - reached, maxRoundTrip);
+            });
+  }
+
+  /** Round-trip time of a request to the host, -1 if it timed out or failed. */
+  private CompletableFuture<Long> warmUpConnection(StatefulHost host) {
+    HttpRequest request = buildRequest(HttpMethod.GET, WARM_UP_PATH, CallType.READ, null);
+    request.setUri(buildURI(host.getUrl(), request.getMethodPath()));
+
+    long sent = System.nanoTime();
+    CompletableFuture<HttpResponse> response;
+
+    try {
+      response = httpRequester.performRequestAsync(request);
+    } catch (RuntimeException e) {
+      return CompletableFuture.completedFuture(-1L);
+    }
+
+    return response.handle(
+        (resp, throwable) -> {
+          if (throwable != null || resp.isTimedOut() || resp.isNetworkError()) {
+            return -1L;
+          }
+
+          long roundTrip = System.nanoTime() - sent;
+
+          // Any status means the connection is up, the body is only drained to release it
+          if (resp.getBody() != null) {
+            try (InputStream body = resp.getBody()) {
+              byte[] chunk = new byte[256];
+              while (body.read(chunk) != -1) {
+                // draining
+              }
+            } catch (IOException ignored) {
+              // The connection is established, the body doesn't matter
+            }
+          }
+
+          return roundTrip;
+        });
+  }
+
+  /** Statistics of the connection pool of the requester, per host */
+  Map<String, ConnectionPoolStats> getConnectionPoolStats() {
+    return httpRequester.getConnectionPoolStats();
+  }
+
+  /**
+   * Executes the request with the retry strategy then releases its body
+   *
+   * @param hosts An iterator of the hosts to request
+   * @param request The request to send to the API
+   * @param type The type used for deserialization
+   * @param body The pooled buffer holding the body of the request
+   * @param trace The metrics of the request, null without metrics listener
+   */
+  private <TResult> CompletableFuture<TResult> executeWithBody(
+      @Nonnull Iterator<StatefulHost> hosts,
+      @Nonnull HttpRequest request,
+      @Nonnull JavaType type,
+      @Nonnull PooledBuffer body,
+      RequestTrace trace) {
+
+    // The body is sent straight from the pooled buffer, so it can only be released once all the
+    // attempts are over
+    CompletableFuture<TResult> response = executeWithRetry(hosts, request, type, trace);
+    return response.whenComplete((result, throwable) -> bufferPool.releaseBuffer(body));
   }
 
   /**
@@ -137,13 +404,17 @@ class HttpTransport {
    * @param hosts An iterator of the hosts to request
    * @param request The request to send to the API
    * @param type The type used for deserialization
+   * @param trace The metrics of the request, null without metrics listener
    * @param <TResult> The type of the result
    * @throws AlgoliaRetryException When the retry has failed on all hosts
    * @throws AlgoliaApiException When the API sends an error
    * @throws AlgoliaRuntimeException When an error occurred during the serialization.
    */
   private <TResult> CompletableFuture<TResult> executeWithRetry(
-      @Nonnull Iterator<StatefulHost> hosts, @Nonnull HttpRequest request, @Nonnull JavaType type) {
+      @Nonnull Iterator<StatefulHost> hosts,
+      @Nonnull HttpRequest request,
+      @Nonnull JavaType type,
+      RequestTrace trace) {
 
     // If no more hosts to request the retry has failed
     if (!hosts.hasNext()) {
@@ -158,22 +429,48 @@ class HttpTransport {
     // Computing timeout with the retry count
     request.incrementTimeout(currentHost.getRetryCount());
 
+    long sent = System.nanoTime();
+
+    if (trace != null) {
+      trace.attempt++;
+      trace.serverUsed = null;
+      trace.serverNanos = -1;
+      trace.completionNanos = 0;
+    }
+
     // Performing the recursive http request in case of failure
     return httpRequester
         .performRequestAsync(request)
+        .whenComplete(
+            (resp, throwable) -> {
+              long responseNanos = System.nanoTime() - sent;
+              stats.getNetwork().record(responseNanos);
+              if (trace != null) {
+                trace.responseNanos = responseNanos;
+                trace.receivedAt = sent + responseNanos;
+                if (throwable != null) {
+                  onAttempt(trace, currentHost, request, null, RetryOutcome.FAILURE, -1, 0);
+                }
+              }
+            })
         .thenComposeAsync(
             resp -> {
-              switch (retryStrategy.decide(currentHost, resp)) {
+              if (trace != null) {
+                // Time waiting for the completion executor
+                trace.completionNanos = System.nanoTime() - trace.receivedAt;
+              }
+
+              RetryOutcome outcome = retryStrategy.decide(currentHost, resp);
+
+              if (trace != null && outcome != RetryOutcome.SUCCESS) {
+                onAttempt(trace, currentHost, request, resp, outcome, -1, 0);
+              }
+
+              switch (outcome) {
                 case SUCCESS:
-                  try (InputStream dataStream = resp.getBody()) {
-                    TResult result = Defaults.getObjectMapper().readValue(dataStream, type);
-                    logResponse(result);
-                    return CompletableFuture.completedFuture(result);
-                  } catch (IOException e) {
-                    return CompletableFutureUtils.failedFuture(new AlgoliaRuntimeException(e));
-                  }
+                  return deserialize(resp, type, currentHost, request, trace);
                 case RETRY:
-                  return executeWithRetry(hosts, request, type);
+                  return executeWithRetry(hosts, request, type, trace);
                 case FAILURE:
                   return CompletableFutureUtils.failedFuture(
                       new AlgoliaApiException(resp.getError(), resp.getHttpStatusCode()));
@@ -183,26 +480,137 @@ class HttpTransport {
                           "Error while processing the retry strategy decision."));
               }
             },
-            config.getExecutor());
+            config.getCompletionExecutor());
+  }
+
+  /** Deserializes the body of a successful response. */
+  private <TResult> CompletableFuture<TResult> deserialize(
+      HttpResponse resp,
+      JavaType type,
+      StatefulHost host,
+      HttpRequest request,
+      RequestTrace trace) {
+
+    CountingInputStream counter = null;
+    long start = System.nanoTime();
+
+    try (InputStream dataStream =
+        trace != null ? (counter = new CountingInputStream(resp.getBody())) : resp.getBody()) {
+      TResult result = Defaults.getObjectMapper().readValue(dataStream, type);
+      stats.getDeserialization().record(System.nanoTime() - start);
+      if (trace != null) {
+        readServerTiming(result, trace);
+      }
+      logResponse(result);
+      return CompletableFuture.completedFuture(result);
+    } catch (IOException e) {
+      return CompletableFutureUtils.failedFuture(new AlgoliaRuntimeException(e));
+    } finally {
+      if (trace != null) {
+        onAttempt(
+            trace,
+            host,
+            request,
+            resp,
+            RetryOutcome.SUCCESS,
+            counter.getCount(),
+            System.nanoTime() - start);
+      }
+    }
+  }
+
+  /** Reads the processing time and the server of the search responses. */
+  private static void readServerTiming(Object result, RequestTrace trace) {
+    if (result instanceof SearchResult) {
+      SearchResult<?> searchResult = (SearchResult<?>) result;
+      trace.serverUsed = searchResult.getServerUsed();
+      if (searchResult.getProcessingTimeMS() != null) {
+        trace.serverNanos = TimeUnit.MILLISECONDS.toNanos(searchResult.getProcessingTimeMS());
+      }
+    } else if (result instanceof MultipleQueriesResponse) {
+      List<? extends SearchResult<?>> results = ((MultipleQueriesResponse<?>) result).getResults();
+      if (results == null || results.isEmpty()) {
+        return;
+      }
+      // The queries are processed by the same server, one after the other
+      long processingTimeMS = 0;
+      for (SearchResult<?> searchResult : results) {
+        if (trace.serverUsed == null) {
+          trace.serverUsed = searchResult.getServerUsed();
+        }
+        if (searchResult.getProcessingTimeMS() != null) {
+          processingTimeMS += searchResult.getProcessingTimeMS();
+        }
+      }
+      trace.serverNanos = TimeUnit.MILLISECONDS.toNanos(processingTimeMS);
+    }
+  }
+
+  /** Reports an attempt to the metrics listener. */
+  private void onAttempt(
+      RequestTrace trace,
+      StatefulHost host,
+      HttpRequest request,
+      HttpResponse resp,
+      RetryOutcome outcome,
+      long responseBytes,
+      long deserializationNanos) {
+
+    AttemptMetrics metrics =
+        new AttemptMetrics(
+            host.getUrl(),
+            trace.endpoint,
+            request.getMethod(),
+            trace.callType,
+            trace.attempt,
+            resp != null ? resp.getHttpStatusCode() : 0,
+            outcome,
+            // No response when the HTTP client failed, the retry strategy didn't run
+            resp != null,
+            resp != null && resp.isTimedOut(),
+            resp != null && resp.isNetworkError(),
+            request.getBodyLength(),
+            trace.uncompressedBytes,
+            responseBytes,
+            trace.queueNanos,
+            trace.serializationNanos,
+            trace.responseNanos,
+            trace.completionNanos,
+            deserializationNanos,
+            trace.serverUsed,
+            trace.serverNanos);
+
+    MetricsListener.dispatch(metricsListener, l -> l.onAttempt(metrics));
+  }
+
+  /** Reports a batch to the metrics listener, once all its attempts are over. */
+  private void onBatch(RequestTrace trace, HttpRequest request, int records, boolean succeeded) {
+    BatchMetrics metrics =
+        new BatchMetrics(
+            trace.endpoint,
+            records,
+            request.getBodyLength(),
+            trace.uncompressedBytes,
+            trace.attempt,
+            System.nanoTime() - trace.startedAt,
+            succeeded);
+
+    MetricsListener.dispatch(metricsListener, l -> l.onBatch(metrics));
   }
 
   /**
-   * Builds the HttpRequest object Builds the headers Builds the queryParameters Serialize the data
-   * if so
+   * Builds the HttpRequest object Builds the headers Builds the queryParameters
    *
    * @param method The HTTP method (GET,POST,PUT,DELETE)
    * @param methodPath The API method path
    * @param callType The API call type can be READ or WRITE
    * @param requestOptions Requests options to add to the request (if so)
-   * @param data Data to send to the API (if so)
-   * @param <TData> The type of the data (if so)
    */
-  private <TData> HttpRequest buildRequest(
+  private HttpRequest buildRequest(
       @Nonnull HttpMethod method,
       @Nonnull String methodPath,
       @Nonnull CallType callType,
-      RequestOptions requestOptions,
-      TData data) {
+      RequestOptions requestOptions) {
 
     Map<String, String> headersToSend =
         requestOptions != null ? buildHeaders(requestOptions.getExtraHeaders()) : buildHeaders();
@@ -217,38 +625,105 @@ class HttpTransport {
             ? requestOptions.getTimeout()
             : getTimeOut(callType);
 
-    HttpRequest request =
-        new HttpRequest(method, fullPath, headersToSend, timeout, config.getCompressionType());
+    return new HttpRequest(method, fullPath, headersToSend, timeout, config.getCompressionType());
+  }
 
-    if (data != null) {
-      request.setBody(serializeJSON(data, request));
-      logRequest(request, data);
+  /**
+   * Serializes the data into a pooled buffer and sets it as the body of the request, encoded
+   * according to the compression policy. The JSON of the ObjectMapper is streamed through the
+   * encoder, so that a compressed body is buffered once. The buffer has to be released once the
+   * request has completed.
+   *
+   * @param data Data to send to the API
+   * @param request The request to send the data with
+   * @param callType The API call type can be READ or WRITE
+   * @param trace The metrics of the request, null without metrics listener
+   */
+  private <TData> PooledBuffer serializeJSON(
+      TData data, HttpRequest request, CallType callType, RequestTrace trace) {
+    CompressionPolicy policy = config.getCompressionPolicy();
+    // The encoder of the body if it reaches the minimum size of the policy
+    ContentEncoder encoder = policy.getEncoder(request.getMethod(), callType, Integer.MAX_VALUE);
+    long start = System.nanoTime();
+
+    if (encoder == null || data instanceof JsonBody) {
+      PooledBuffer json = bufferPool.acquireBuffer();
+      try {
+        if (data instanceof JsonBody) {
+          ((JsonBody) data).writeTo(json);
+        } else {
+          Defaults.getObjectMapper().writeValue(json, data);
+        }
+        stats.getSerialization().record(System.nanoTime() - start);
+        PooledBuffer body = encoder != null ? encode(json, request, callType, policy) : json;
+        request.setBody(body.array(), body.size());
+        if (trace != null) {
+          trace.uncompressedBytes = json.size();
+          trace.serializationNanos = System.nanoTime() - start;
+        }
+        if (body != json) {
+          bufferPool.releaseBuffer(json);
+        }
+        return body;
+      } catch (IOException e) {
+        bufferPool.releaseBuffer(json);
+        throw new AlgoliaRuntimeException("Error while serializing the request", e);
+      }
     }
 
-    return request;
-  }
+    // Compressed while serialized, so that a large body is only held once
+    EncodingOutputStream out =
+        new EncodingOutputStream(bufferPool, encoder, policy.getMinBodySize(), policy.getLevel());
 
-  private <TData> InputStream serializeJSON(TData data, HttpRequest request) {
-    if (request.canCompress()) {
-      try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
-          GZIPOutputStream gzipOS = new GZIPOutputStream(bos)) {
+    try {
+      // Closes the stream, which ends the encoded content
+      Defaults.getObjectMapper().writeValue(out, data);
+    } catch (IOException e) {
+      out.release();
+      throw new AlgoliaRuntimeException("Error while serializing the request", e);
+    }
 
-        Defaults.getObjectMapper().writeValue(gzipOS, data);
-        return new ByteArrayInputStream(bos.toByteArray());
+    long nanos = System.nanoTime() - start;
+    stats.getSerialization().record(nanos - out.getEncodingNanos());
+    if (out.isEncoded()) {
+      stats.getEncoding().record(out.getEncodingNanos());
+      request.setContentEncoding(encoder.getContentEncoding());
+    }
 
-      } catch (IOException e) {
-        throw new AlgoliaRuntimeException("Error while serializing the request", e);
-      }
-    } else {
-      try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    PooledBuffer body = out.getBody();
+    request.setBody(body.array(), body.size());
 
-        Defaults.getObjectMapper().writeValue(out, data);
-        return new ByteArrayInputStream(out.toByteArray());
+    if (trace != null) {
+      trace.uncompressedBytes = out.getCount();
+      trace.serializationNanos = nanos;
+    }
+    return body;
+  }
 
-      } catch (IOException e) {
-        throw new AlgoliaRuntimeException("Error while serializing the request", e);
-      }
+  /**
+   * Encodes a body written by its own JSON writer, if it reaches the minimum size of the policy.
+   *
+   * @return The encoded body, or the given one when too small
+   */
+  private PooledBuffer encode(
+      PooledBuffer json, HttpRequest request, CallType callType, CompressionPolicy policy)
+      throws IOException {
+    ContentEncoder encoder = policy.getEncoder(request.getMethod(), callType, json.size());
+    if (encoder == null) {
+      return json;
     }
+
+    long start = System.nanoTime();
+    PooledBuffer encoded = bufferPool.acquireBuffer();
+    try (OutputStream encoderOS = encoder.encode(encoded, policy.getLevel())) {
+      encoderOS.write(json.array(), 0, json.size());
+    } catch (IOException | RuntimeException e) {
+      bufferPool.releaseBuffer(encoded);
+      throw e;
+    }
+    stats.getEncoding().record(System.nanoTime() - start);
+    request.setContentEncoding(encoder.getContentEncoding());
+    return encoded;
   }
 
   /**
@@ -344,6 +819,16 @@ class HttpTransport {
               "\n Method: %s \n Path: %s \n Headers: %s",
               request.getMethod().toString(), request.getMethodPath(), request.getHeaders()));
 
+      if (data instanceof JsonBody) {
+        PooledBuffer json = new PooledBuffer(BufferPool.MIN_BUFFER_SIZE);
+        ((JsonBody) data).writeTo(json);
+        LOGGER.finest(
+            String.format(
+                "Request body: \n %s ",
+                new String(json.array(), 0, json.size(), StandardCharsets.UTF_8)));
+        return;
+      }
+
       try {
         LOGGER.finest(
             String.format(
@@ -367,4 +852,67 @@ class HttpTransport {
                   .writeValueAsString(result)));
     }
   }
+
+  /** State of a request shared by its attempts, for the metrics listener. */
+  private static final class RequestTrace {
+
+    final String endpoint;
+    final CallType callType;
+    final long startedAt = System.nanoTime();
+    int attempt;
+    long uncompressedBytes;
+    long queueNanos;
+    long serializationNanos;
+
+    // Of the current attempt
+    long responseNanos;
+    long receivedAt;
+    long completionNanos;
+    String serverUsed;
+    long serverNanos;
+
+    RequestTrace(String path, CallType callType) {
+      this.endpoint = Endpoints.of(path);
+      this.callType = callType;
+    }
+  }
+
+  /** Counts the bytes of the response read by the deserialization. */
+  private static final class CountingInputStream extends FilterInputStream {
+
+    private long count;
+
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    long getCount() {
+      return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) {
+        count += n;
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      count += skipped;
+      return skipped;
+    }
+  }
 }
@@ -0,0 +1,232 @@
+package com.algolia.search;
+
+import com.algolia.search.models.insights.OverflowPolicy;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Sizing of a {@link BufferedInsightsSender}: the events are buffered and sent in batches, when a
+ * batch is full or when the linger time has elapsed.
+ */
+public final class InsightsBufferConfig {
+
+  /** Maximum number of events accepted by the API in one request. */
+  static final int MAX_EVENTS_PER_REQUEST = 1000;
+
+  private static final InsightsBufferConfig DEFAULT = new Builder().build();
+
+  private final int capacity;
+  private final int maxBatchSize;
+  private final int maxBatchBytes;
+  private final long lingerMs;
+  private final int flushers;
+  private final OverflowPolicy overflowPolicy;
+  private final Path spoolDirectory;
+  private final int spoolSegmentBytes;
+  private final long spoolMaxBytes;
+
+  private InsightsBufferConfig(Builder builder) {
+    this.capacity = builder.capacity;
+    this.maxBatchSize = builder.maxBatchSize;
+    this.maxBatchBytes = builder.maxBatchBytes;
+    this.lingerMs = builder.lingerMs;
+    this.flushers = builder.flushers;
+    this.overflowPolicy = builder.overflowPolicy;
+    this.spoolDirectory = builder.spoolDirectory;
+    this.spoolSegmentBytes = builder.spoolSegmentBytes;
+    this.spoolMaxBytes = builder.spoolMaxBytes;
+  }
+
+  /**
+   * The default buffer: 100 000 events, batches of 1000 events or 1 MB, flushed at least every
+   * second by 2 concurrent requests, dropping the oldest events when full.
+   */
+  public static InsightsBufferConfig defaults() {
+    return DEFAULT;
+  }
+
+  /** Maximum number of buffered events. */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /** Maximum number of events per request. */
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  /** Size of the events, as estimated from their fields, above which a batch is sent. */
+  public int getMaxBatchBytes() {
+    return maxBatchBytes;
+  }
+
+  /** Maximum time an event stays in the buffer when the batches don't fill up. In milliseconds */
+  public long getLingerMs() {
+    return lingerMs;
+  }
+
+  /** Maximum number of concurrent requests. */
+  public int getFlushers() {
+    return flushers;
+  }
+
+  public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  /**
+   * Directory of the on-disk spool where the events are written while the API is unreachable, to be
+   * sent once it is back. Null when the spool is disabled, the default: the events of the failed
+   * requests are lost.
+   */
+  public Path getSpoolDirectory() {
+    return spoolDirectory;
+  }
+
+  /** Size of each file of the spool. In bytes */
+  public int getSpoolSegmentBytes() {
+    return spoolSegmentBytes;
+  }
+
+  /** Size of the spool above which its oldest events are dropped. In bytes */
+  public long getSpoolMaxBytes() {
+    return spoolMaxBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "InsightsBufferConfig{"
+        + "capacity="
+        + capacity
+        + ", maxBatchSize="
+        + maxBatchSize
+        + ", maxBatchBytes="
+        + maxBatchBytes
+        + ", lingerMs="
+        + lingerMs
+        + ", flushers="
+        + flushers
+        + ", overflowPolicy="
+        + overflowPolicy
+        + ", spoolDirectory="
+        + spoolDirectory
+        + ", spoolSegmentBytes="
+        + spoolSegmentBytes
+        + ", spoolMaxBytes="
+        + spoolMaxBytes
+        + '}';
+  }
+
+  public static class Builder {
+
+    private int capacity = 100_000;
+    private int maxBatchSize = MAX_EVENTS_PER_REQUEST;
+    private int maxBatchBytes = 1024 * 1024;
+    private long lingerMs = 1000;
+    private int flushers = 2;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    private Path spoolDirectory;
+    private int spoolSegmentBytes = 8 * 1024 * 1024;
+    private long spoolMaxBytes = 256L * 1024 * 1024;
+
+    /** Overrides the maximum number of buffered events. Default = 100 000. */
+    public Builder setCapacity(int capacity) {
+      if (capacity < 1) {
+        throw new IllegalArgumentException("capacity must be greater than 0.");
+      }
+      this.capacity = capacity;
+      return this;
+    }
+
+    /** Overrides the maximum number of events per request. Default and maximum = 1000. */
+    public Builder setMaxBatchSize(int maxBatchSize) {
+      if (maxBatchSize < 1 || maxBatchSize > MAX_EVENTS_PER_REQUEST) {
+        throw new IllegalArgumentException(
+            "maxBatchSize must be between 1 and " + MAX_EVENTS_PER_REQUEST + ".");
+      }
+      this.maxBatchSize = maxBatchSize;
+      return this;
+    }
+
+    /** Overrides the estimated size above which a batch is sent. Default = 1 MB. In bytes */
+    public Builder setMaxBatchBytes(int maxBatchBytes) {
+      if (maxBatchBytes < 1) {
+        throw new IllegalArgumentException("maxBatchBytes must be greater than 0.");
+      }
+      this.maxBatchBytes = maxBatchBytes;
+      return this;
+    }
+
+    /**
+     * Overrides the maximum time an event stays in the buffer. Default = 1000ms. In milliseconds
+     */
+    public Builder setLingerMs(long lingerMs) {
+      if (lingerMs < 1) {
+        throw new IllegalArgumentException("lingerMs must be greater than 0.");
+      }
+      this.lingerMs = lingerMs;
+      return this;
+    }
+
+    /** Overrides the maximum number of concurrent requests. Default = 2. */
+    public Builder setFlushers(int flushers) {
+      if (flushers < 1) {
+        throw new IllegalArgumentException("flushers must be greater than 0.");
+      }
+      this.flushers = flushers;
+      return this;
+    }
+
+    /** Overrides what is done with an event when the buffer is full. Default = DROP_OLDEST. */
+    public Builder setOverflowPolicy(OverflowPolicy overflowPolicy) {
+      this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "overflowPolicy is required.");
+      return this;
+    }
+
+    /**
+     * Enables the on-disk spool: the events which can't be sent because no host is reachable are
+     * written to memory-mapped files in this directory, and sent again once a host is back, with
+     * their original timestamp. The events left in the spool when the sender is closed are sent by
+     * the next sender using the directory. Default = null, disabled.
+     */
+    public Builder setSpoolDirectory(Path spoolDirectory) {
+      this.spoolDirectory = spoolDirectory;
+      return this;
+    }
+
+    /**
+     * Overrides the size of each file of the spool. Default = 8 MB. In bytes
+     *
+     * <p>A file is mapped in memory as a whole. The JDK can't unmap a file on demand, so a replayed
+     * or dropped file stays mapped, and its disk space held, until the garbage collector reclaims
+     * its buffer. After a long outage, several of them can be mapped at once.
+     */
+    public Builder setSpoolSegmentBytes(int spoolSegmentBytes) {
+      if (spoolSegmentBytes < 4096) {
+        throw new IllegalArgumentException("spoolSegmentBytes must be at least 4096.");
+      }
+      this.spoolSegmentBytes = spoolSegmentBytes;
+      return this;
+    }
+
+    /**
+     * Overrides the size of the spool above which its oldest file is dropped. Default = 256 MB. In
+     * bytes
+     */
+    public Builder setSpoolMaxBytes(long spoolMaxBytes) {
+      if (spoolMaxBytes < 1) {
+        throw new IllegalArgumentException("spoolMaxBytes must be greater than 0.");
+      }
+      this.spoolMaxBytes = spoolMaxBytes;
+      return this;
+    }
+
+    public InsightsBufferConfig build() {
+      if (spoolDirectory != null && spoolMaxBytes < spoolSegmentBytes) {
+        throw new IllegalArgumentException("spoolMaxBytes must be at least spoolSegmentBytes.");
+      }
+
+      return new InsightsBufferConfig(this);
+    }
+  }
+}
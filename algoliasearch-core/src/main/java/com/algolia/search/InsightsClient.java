@@ -7,15 +7,19 @@ import com.algolia.search.exceptions.LaunderThrowable;
 import com.algolia.search.models.HttpMethod;
 import com.algolia.search.models.RequestOptions;
 import com.algolia.search.models.common.CallType;
+import com.algolia.search.models.insights.CompactInsightsEvent;
 import com.algolia.search.models.insights.InsightsEvent;
 import com.algolia.search.models.insights.InsightsRequest;
 import com.algolia.search.models.insights.InsightsResult;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import javax.annotation.Nonnull;
 
 /**
@@ -27,14 +31,24 @@ import javax.annotation.Nonnull;
  * @see <a href="https://www.algolia.com/doc/rest-api/insights/">Algolia.com</a>
  */
 @SuppressWarnings("WeakerAccess")
-public final class InsightsClient implements Closeable {
+public final class InsightsClient implements Closeable, WarmableClient {
 
   /** The transport layer. Should be reused. */
   private final HttpTransport transport;
 
+  /** Models of the events calls, prepared by the warm-up */
+  private static final List<Class<?>> WARM_UP_MODELS =
+      Arrays.asList(InsightsRequest.class, InsightsResult.class);
+
   /** Client's configuration. Must be reused. */
   private final ConfigBase config;
 
+  /** Filter of the events before sending them, null when disabled */
+  private final InsightsEventFilter eventFilter;
+
+  /** Buffered senders, closed before the transport */
+  private final List<BufferedInsightsSender> senders = new CopyOnWriteArrayList<>();
+
   /**
    * Creates a custom {@link InsightsClient} with the given {@link InsightsConfig} and the given
    * {@link HttpRequester}
@@ -54,6 +68,8 @@ public final class InsightsClient implements Closeable {
 
     this.config = config;
     this.transport = new HttpTransport(config, httpRequester);
+    this.eventFilter =
+        config.getEventFilter() != null ? new InsightsEventFilter(config.getEventFilter()) : null;
   }
 
   /**
@@ -63,7 +79,53 @@ public final class InsightsClient implements Closeable {
    */
   @Override
   public void close() throws IOException {
-    transport.close();
+    try {
+      for (BufferedInsightsSender sender : senders) {
+        sender.close();
+      }
+    } finally {
+      transport.close();
+    }
+  }
+
+  @Override
+  public CompletableFuture<WarmUpReport> warmUpAsync(int connectionsPerHost) {
+    return transport.warmUpAsync(connectionsPerHost, WARM_UP_MODELS);
+  }
+
+  /** Tells if a host is up to send the events. */
+  boolean isAvailable() {
+    return transport.hasAvailableHost(CallType.WRITE);
+  }
+
+  /**
+   * Decisions of the event filter since the client was created, all zeros when it's disabled. See
+   * {@link InsightsConfig.Builder#setEventFilter(InsightsFilterConfig)}.
+   */
+  public InsightsFilterStats getEventFilterStats() {
+    return eventFilter != null ? eventFilter.stats() : new InsightsFilterStats(0, 0, 0, 0);
+  }
+
+  /**
+   * Tells if the event passes the event filter, recording it. Each event must be filtered once.
+   *
+   * @param event An {@link InsightsEvent} or a {@link CompactInsightsEvent}
+   */
+  boolean accept(Object event) {
+    if (eventFilter == null) {
+      return true;
+    }
+    return event instanceof CompactInsightsEvent
+        ? eventFilter.accept((CompactInsightsEvent) event)
+        : eventFilter.accept((InsightsEvent) event);
+  }
+
+  /** Result of a call whose events were all dropped by the event filter. */
+  static InsightsResult filteredResult() {
+    InsightsResult result = new InsightsResult();
+    result.setStatus(200);
+    result.setMessage("The events were dropped by the event filter.");
+    return result;
   }
 
   /** Get Client's configuration */
@@ -76,6 +138,31 @@ public final class InsightsClient implements Closeable {
     return new UserInsightsClient(userToken, this);
   }
 
+  /**
+   * Creates a sender buffering the events and sending them in batches, with the default buffer
+   * settings. See {@link InsightsBufferConfig#defaults()}.
+   */
+  public BufferedInsightsSender buffered() {
+    return buffered(InsightsBufferConfig.defaults());
+  }
+
+  /**
+   * Creates a sender buffering the events and sending them in batches. The sender is flushed and
+   * closed with the client.
+   *
+   * @param bufferConfig The size of the buffer and of the batches
+   */
+  public BufferedInsightsSender buffered(@Nonnull InsightsBufferConfig bufferConfig) {
+    BufferedInsightsSender sender = new BufferedInsightsSender(this, bufferConfig);
+    senders.add(sender);
+    return sender;
+  }
+
+  /** Forgets a sender closed before the client. */
+  void removeSender(BufferedInsightsSender sender) {
+    senders.remove(sender);
+  }
+
   /**
    * This command pushes an event to the Insights API.
    *
@@ -178,13 +265,104 @@ public final class InsightsClient implements Closeable {
    */
   public CompletableFuture<InsightsResult> sendEventsAsync(
       @Nonnull List<InsightsEvent> events, RequestOptions requestOptions) {
-    InsightsRequest request = new InsightsRequest().setEvents(events);
+    events = filter(events);
+    if (events.isEmpty()) {
+      return CompletableFuture.completedFuture(filteredResult());
+    }
+
+    return sendUnfilteredEventsAsync(events, requestOptions);
+  }
+
+  /** Pushes events which already went through the event filter. */
+  private CompletableFuture<InsightsResult> sendUnfilteredEventsAsync(
+      List<InsightsEvent> events, RequestOptions requestOptions) {
+    Object body =
+        InsightsEventsBody.supports(events)
+            ? new InsightsEventsBody(events)
+            : new InsightsRequest().setEvents(events);
+
+    return transport.executeRequestAsync(
+        HttpMethod.POST, "/1/events", CallType.WRITE, body, InsightsResult.class, requestOptions);
+  }
+
+  /**
+   * This command pushes an array of compact events to the Insights API.
+   *
+   * @param events List of events
+   * @throws AlgoliaRetryException When the retry has failed on all hosts
+   * @throws AlgoliaApiException When the API sends an http error code
+   * @throws AlgoliaRuntimeException When an error occurred during the serialization
+   */
+  public InsightsResult sendCompactEvents(@Nonnull List<CompactInsightsEvent> events) {
+    return LaunderThrowable.await(sendCompactEventsAsync(events, null));
+  }
+
+  /**
+   * This command pushes an array of compact events to the Insights API. The events are written to
+   * the request body without intermediate objects, see {@link CompactInsightsEvent}.
+   *
+   * @param events List of events
+   * @param requestOptions RequestOptions
+   * @throws AlgoliaRetryException When the retry has failed on all hosts
+   * @throws AlgoliaApiException When the API sends an http error code
+   * @throws AlgoliaRuntimeException When an error occurred during the serialization
+   */
+  public CompletableFuture<InsightsResult> sendCompactEventsAsync(
+      @Nonnull List<CompactInsightsEvent> events, RequestOptions requestOptions) {
+    Objects.requireNonNull(events, "Events are required.");
+    events = filter(events);
+    if (events.isEmpty()) {
+      return CompletableFuture.completedFuture(filteredResult());
+    }
+
+    return sendMixedEventsAsync(events, requestOptions);
+  }
+
+  /**
+   * Pushes {@link InsightsEvent}s and {@link CompactInsightsEvent}s together, for the buffered
+   * senders. The events don't go through the event filter: the senders filter them when they are
+   * buffered, and the replayed events were already filtered.
+   */
+  CompletableFuture<InsightsResult> sendMixedEventsAsync(
+      @Nonnull List<?> events, RequestOptions requestOptions) {
+    if (!InsightsEventsBody.supports(events)) {
+      List<InsightsEvent> converted = new ArrayList<>(events.size());
+      for (Object event : events) {
+        converted.add(
+            event instanceof CompactInsightsEvent
+                ? ((CompactInsightsEvent) event).toInsightsEvent()
+                : (InsightsEvent) event);
+      }
+      return sendUnfilteredEventsAsync(converted, requestOptions);
+    }
+
     return transport.executeRequestAsync(
         HttpMethod.POST,
         "/1/events",
         CallType.WRITE,
-        request,
+        new InsightsEventsBody(events),
         InsightsResult.class,
         requestOptions);
   }
+
+  /** The events passing the event filter, the same list when they all pass. */
+  private <E> List<E> filter(List<E> events) {
+    if (eventFilter == null) {
+      return events;
+    }
+
+    List<E> accepted = null;
+    for (int i = 0; i < events.size(); i++) {
+      E event = events.get(i);
+      boolean isAccepted = accept(event);
+
+      if (!isAccepted && accepted == null) {
+        accepted = new ArrayList<>(events.subList(0, i));
+      } else if (isAccepted && accepted != null) {
+        accepted.add(event);
+      }
+    }
+
+    return accepted != null ? accepted : events;
+  }
 }
@@ -11,8 +11,12 @@ import javax.annotation.Nonnull;
 @SuppressWarnings({"unused"})
 public final class InsightsConfig extends ConfigBase {
 
+  private final InsightsFilterConfig eventFilter;
+
   public static class Builder extends ConfigBase.Builder<Builder> {
 
+    private InsightsFilterConfig eventFilter;
+
     /**
      * Creates an {@link InsightsConfig} with the default region ("us").
      *
@@ -33,6 +37,15 @@ public final class InsightsConfig extends ConfigBase {
       super(applicationID, apiKey, createDefaultHosts(region), CompressionType.NONE);
     }
 
+    /**
+     * Filters the events before sending them: sampling, de-duplication and rate limiting per user
+     * token. See {@link InsightsFilterConfig}. Default = null, all the events are sent.
+     */
+    public Builder setEventFilter(InsightsFilterConfig eventFilter) {
+      this.eventFilter = eventFilter;
+      return this;
+    }
+
     @Override
     public Builder getThis() {
       return this;
@@ -57,5 +70,11 @@ public final class InsightsConfig extends ConfigBase {
 
   private InsightsConfig(Builder builder) {
     super(builder);
+    this.eventFilter = builder.eventFilter;
+  }
+
+  /** The filter of the events before sending them, null when all the events are sent. */
+  public InsightsFilterConfig getEventFilter() {
+    return eventFilter;
   }
 }
@@ -0,0 +1,306 @@
+package com.algolia.search;
+
+import com.algolia.search.models.insights.CompactInsightsEvent;
+import com.algolia.search.models.insights.InsightsEvent;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which events are sent, according to an {@link InsightsFilterConfig}: sampling per event
+ * type, then de-duplication, then rate limiting per user token. Deciding for an event takes no lock
+ * and allocates nothing, except when a user token is seen for the first time.
+ *
+ * <p>This class is thread-safe.
+ */
+final class InsightsEventFilter {
+
+  private static final long SEED = 0x9E3779B97F4A7C15L;
+
+  private final Map<String, Double> sampleRates;
+  private final Deduplicator deduplicator;
+  private final RateLimiter rateLimiter;
+
+  private final LongAdder accepted = new LongAdder();
+  private final LongAdder sampledOut = new LongAdder();
+  private final LongAdder duplicates = new LongAdder();
+  private final LongAdder rateLimited = new LongAdder();
+
+  InsightsEventFilter(InsightsFilterConfig config) {
+    this.sampleRates = config.getSampleRates();
+    this.deduplicator =
+        config.getDeduplicationWindowMs() > 0
+            ? new Deduplicator(
+                config.getDeduplicationWindowMs(),
+                config.getDeduplicationCapacity(),
+                config.getDeduplicationFalsePositiveRate())
+            : null;
+    this.rateLimiter =
+        config.getMaxEventsPerUserPerSecond() > 0
+            ? new RateLimiter(
+                config.getMaxEventsPerUserPerSecond(),
+                config.getUserBurst(),
+                config.getMaxTrackedUsers())
+            : null;
+  }
+
+  /** Tells if the event is sent. The event is recorded for the de-duplication and the rate. */
+  boolean accept(InsightsEvent event) {
+    if (isSampledOut(event.getEventType())) {
+      sampledOut.increment();
+      return false;
+    }
+
+    if (deduplicator != null) {
+      long hash = hash(SEED, event.getUserToken());
+      hash = hash(hash, event.getEventName());
+      hash = hash(hash, event.getObjectIDs());
+      hash = hash(hash, event.getFilters());
+
+      if (deduplicator.isDuplicate(hash)) {
+        duplicates.increment();
+        return false;
+      }
+    }
+
+    return acceptRate(event.getUserToken());
+  }
+
+  /** Tells if the event is sent. The event is recorded for the de-duplication and the rate. */
+  boolean accept(CompactInsightsEvent event) {
+    if (isSampledOut(event.getEventType())) {
+      sampledOut.increment();
+      return false;
+    }
+
+    if (deduplicator != null) {
+      long hash = hash(SEED, event.getUserToken());
+      hash = hash(hash, event.getEventName());
+      for (int i = 0; i < event.getObjectIDCount(); i++) {
+        hash = hash(hash, event.getObjectID(i));
+      }
+      // Separates the object IDs from the filters, as the lists of an InsightsEvent do
+      hash = mix(hash ^ 0x5BD1E995L);
+      for (int i = 0; i < event.getFilterCount(); i++) {
+        hash = hash(hash, event.getFilter(i));
+      }
+      hash = mix(hash ^ 0x5BD1E995L);
+
+      if (deduplicator.isDuplicate(hash)) {
+        duplicates.increment();
+        return false;
+      }
+    }
+
+    return acceptRate(event.getUserToken());
+  }
+
+  InsightsFilterStats stats() {
+    return new InsightsFilterStats(
+        accepted.sum(), sampledOut.sum(), duplicates.sum(), rateLimited.sum());
+  }
+
+  private boolean isSampledOut(String eventType) {
+    if (sampleRates.isEmpty() || eventType == null) {
+      return false;
+    }
+    Double rate = sampleRates.get(eventType);
+    return rate != null && ThreadLocalRandom.current().nextDouble() >= rate;
+  }
+
+  private boolean acceptRate(String userToken) {
+    if (rateLimiter != null && userToken != null && !rateLimiter.tryAcquire(userToken)) {
+      rateLimited.increment();
+      return false;
+    }
+    accepted.increment();
+    return true;
+  }
+
+  private static long hash(long hash, List<String> values) {
+    if (values != null) {
+      for (int i = 0; i < values.size(); i++) {
+        hash = hash(hash, values.get(i));
+      }
+    }
+    return mix(hash ^ 0x5BD1E995L);
+  }
+
+  /** Hashes a string into the hash, without allocating its bytes. A null is hashed as empty. */
+  private static long hash(long hash, String value) {
+    if (value != null) {
+      for (int i = 0; i < value.length(); i++) {
+        hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+      }
+    }
+    // Marks the end of the value, so that ("ab", "c") and ("a", "bc") differ
+    return mix(hash + 0x9E3779B97F4A7C15L);
+  }
+
+  /** Finalizer of MurmurHash3, spreading the bits of the hash. */
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  /**
+   * Two Bloom filters over the events, the current and the previous windows. At the end of a
+   * window, the current filter becomes the previous one and an empty filter replaces it, so an
+   * event is remembered between one and two windows.
+   */
+  static final class Deduplicator {
+
+    private final long windowNanos;
+    private final int bits;
+    private final int hashes;
+    private final AtomicReference<Generation> generation;
+
+    Deduplicator(long windowMs, int capacity, double falsePositiveRate) {
+      // Optimal size and number of hashes of a Bloom filter
+      double ln2 = Math.log(2);
+      long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+
+      this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+      this.bits = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, optimalBits));
+      this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * ln2));
+
+      this.generation =
+          new AtomicReference<>(new Generation(newFilter(), newFilter(), System.nanoTime()));
+    }
+
+    /** Records the event and tells if it was already recorded. */
+    boolean isDuplicate(long hash) {
+      Generation g = current();
+
+      // Double hashing: the k positions are h1 + i * h2
+      int h1 = (int) hash;
+      int h2 = (int) (hash >>> 32) | 1;
+
+      boolean inCurrent = true;
+      boolean inPrevious = true;
+
+      for (int i = 0; i < hashes; i++) {
+        int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bits;
+        int word = bit >>> 6;
+        long mask = 1L << bit;
+
+        // Reading first, so that the words of the recorded events are not written again
+        if ((g.current.get(word) & mask) == 0
+            && (g.current.getAndAccumulate(word, mask, (x, y) -> x | y) & mask) == 0) {
+          inCurrent = false;
+        }
+        if (inPrevious && (g.previous.get(word) & mask) == 0) {
+          inPrevious = false;
+        }
+      }
+
+      return inCurrent || inPrevious;
+    }
+
+    private Generation current() {
+      Generation g = generation.get();
+      long now = System.nanoTime();
+
+      if (now - g.start < windowNanos) {
+        return g;
+      }
+
+      // A single thread wins the rotation, the others use the generation it sets
+      generation.compareAndSet(g, new Generation(newFilter(), g.current, now));
+      return generation.get();
+    }
+
+    private AtomicLongArray newFilter() {
+      return new AtomicLongArray((bits + 63) >>> 6);
+    }
+
+    private static final class Generation {
+
+      final AtomicLongArray current;
+      final AtomicLongArray previous;
+      final long start;
+
+      Generation(AtomicLongArray current, AtomicLongArray previous, long start) {
+        this.current = current;
+        this.previous = previous;
+        this.start = start;
+      }
+    }
+  }
+
+  /**
+   * Limits the rate of each user token with the generic cell rate algorithm: a single timestamp per
+   * user token, the theoretical arrival time of its next event, updated by compare-and-set.
+   */
+  static final class RateLimiter {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int maxTrackedUsers;
+    private final Map<String, AtomicLong> users = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private volatile long nextEviction = System.nanoTime();
+
+    RateLimiter(double eventsPerSecond, int burst, int maxTrackedUsers) {
+      this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / eventsPerSecond));
+      this.toleranceNanos = intervalNanos * burst;
+      this.maxTrackedUsers = maxTrackedUsers;
+    }
+
+    boolean tryAcquire(String userToken) {
+      long now = System.nanoTime();
+      AtomicLong arrival = users.get(userToken);
+
+      if (arrival == null) {
+        if (users.size() >= maxTrackedUsers && !evictIdleUsers(now)) {
+          // Too many active users to track a new one
+          return true;
+        }
+        AtomicLong created = new AtomicLong(now);
+        arrival = users.putIfAbsent(userToken, created);
+        if (arrival == null) {
+          arrival = created;
+        }
+      }
+
+      while (true) {
+        long theoretical = arrival.get();
+        long next = Math.max(theoretical, now) + intervalNanos;
+
+        if (next - now > toleranceNanos) {
+          return false;
+        }
+        if (arrival.compareAndSet(theoretical, next)) {
+          return true;
+        }
+      }
+    }
+
+    /**
+     * Forgets the users back to their full burst, at most once per second, and tells if there is
+     * room for a new one.
+     */
+    private boolean evictIdleUsers(long now) {
+      if (now - nextEviction >= 0 && evicting.compareAndSet(false, true)) {
+        try {
+          users.values().removeIf(arrival -> arrival.get() - now <= 0);
+          nextEviction = now + TimeUnit.SECONDS.toNanos(1);
+        } finally {
+          evicting.set(false);
+        }
+      }
+      return users.size() < maxTrackedUsers;
+    }
+  }
+}
@@ -0,0 +1,320 @@
+package com.algolia.search;
+
+import com.algolia.search.exceptions.AlgoliaRuntimeException;
+import com.algolia.search.models.insights.InsightsEvent;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Write-ahead log of the Insights events which could not be sent, replayed once the API is
+ * reachable again. The events are appended as JSON to memory-mapped segment files of a fixed size,
+ * so that the heap usage doesn't depend on the length of an outage. When the log reaches its
+ * maximum size, the oldest segment is deleted.
+ *
+ * <p>A segment starts with a header holding a magic number and the offset up to which its events
+ * were replayed, followed by records made of the length of an event and its JSON. The replay is
+ * at-least-once: the events read but not yet acknowledged when the process stops are replayed at
+ * the next start.
+ *
+ * <p>A deleted segment stays mapped until its buffer is garbage collected, as there is no public
+ * API to unmap it on Java 8: its memory and its disk space are not released right away. On Windows,
+ * where a mapped file can't be deleted, the file stays and is opened again at the next start:
+ * deleted if it was replayed, replayed if it was dropped.
+ *
+ * <p>This class is thread-safe.
+ */
+final class InsightsEventSpool implements Closeable {
+
+  private static final int MAGIC = 0x414c4731;
+  private static final int HEADER_SIZE = 8;
+  private static final int READ_OFFSET_POSITION = 4;
+  private static final String SEGMENT_PREFIX = "insights-";
+  private static final String SEGMENT_SUFFIX = ".spool";
+
+  private static final ObjectWriter WRITER =
+      Defaults.getObjectMapper().writerFor(InsightsEvent.class);
+  private static final ObjectReader READER =
+      Defaults.getObjectMapper().readerFor(InsightsEvent.class);
+
+  private final Path directory;
+  private final int segmentBytes;
+  private final int maxSegments;
+  private final Deque<Segment> segments = new ArrayDeque<>();
+  private long nextSequence;
+  private int pendingReadOffset = -1;
+  private long droppedCount;
+
+  /**
+   * Opens the spool, replaying the segments left by a previous run.
+   *
+   * @param directory The directory of the segment files, created if needed
+   * @param segmentBytes The size of a segment file
+   * @param maxBytes The maximum size of all the segment files
+   */
+  InsightsEventSpool(Path directory, int segmentBytes, long maxBytes) throws IOException {
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+    this.maxSegments = (int) Math.max(1, maxBytes / segmentBytes);
+
+    Files.createDirectories(directory);
+
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream =
+        Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+      stream.forEach(files::add);
+    }
+    files.sort(null);
+
+    for (Path file : files) {
+      Segment segment = Segment.open(file, segmentBytes);
+      segments.addLast(segment);
+      nextSequence = Math.max(nextSequence, sequenceOf(file) + 1);
+    }
+  }
+
+  /**
+   * Appends events to the log. An event larger than a segment is dropped.
+   *
+   * @param events The events, with their timestamp set so that the replay preserves it
+   */
+  synchronized void append(List<InsightsEvent> events) {
+    for (InsightsEvent event : events) {
+      byte[] json;
+      try {
+        json = WRITER.writeValueAsBytes(event);
+      } catch (IOException e) {
+        throw new AlgoliaRuntimeException("Error while serializing an insights event.", e);
+      }
+
+      if (json.length + 4 > segmentBytes - HEADER_SIZE) {
+        droppedCount++;
+        continue;
+      }
+
+      Segment segment = segments.peekLast();
+      if (segment == null || !segment.hasRoom(json.length)) {
+        segment = newSegment();
+      }
+      segment.write(json);
+    }
+  }
+
+  /**
+   * Reads the oldest events, without removing them from the log until {@link #acknowledge()} is
+   * called. Calling it again before the acknowledgement reads the same events.
+   *
+   * @param maxEvents The maximum number of events to read
+   */
+  synchronized List<InsightsEvent> read(int maxEvents) {
+    List<InsightsEvent> events = new ArrayList<>();
+    Segment segment = segments.peekFirst();
+
+    // Segments replayed before a restart
+    while (segment != null
+        && segments.size() > 1
+        && segment.readOffset() >= segment.writePosition) {
+      segments.pollFirst().delete();
+      segment = segments.peekFirst();
+    }
+
+    if (segment == null) {
+      return events;
+    }
+
+    int offset = segment.readOffset();
+    while (events.size() < maxEvents && offset < segment.writePosition) {
+      byte[] json = segment.read(offset);
+      offset += 4 + json.length;
+      try {
+        events.add(READER.readValue(json));
+      } catch (IOException e) {
+        // Corrupted record, skipped
+        droppedCount++;
+      }
+    }
+
+    pendingReadOffset = offset;
+    return events;
+  }
+
+  /** Removes from the log the events returned by the last {@link #read(int)}. */
+  synchronized void acknowledge() {
+    Segment segment = segments.peekFirst();
+    if (segment == null || pendingReadOffset < 0) {
+      return;
+    }
+
+    segment.commitReadOffset(pendingReadOffset);
+    pendingReadOffset = -1;
+
+    // A fully replayed segment is deleted, unless it is still written to
+    if (segment.readOffset() >= segment.writePosition && segments.size() > 1) {
+      segments.pollFirst();
+      segment.delete();
+    }
+  }
+
+  /** Tells if the log holds events which were not replayed. */
+  synchronized boolean isEmpty() {
+    for (Segment segment : segments) {
+      if (segment.readOffset() < segment.writePosition) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Number of events lost because the log was full, too large or corrupted. */
+  synchronized long getDroppedCount() {
+    return droppedCount;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    for (Segment segment : segments) {
+      segment.close();
+    }
+    segments.clear();
+  }
+
+  private Segment newSegment() {
+    if (segments.size() >= maxSegments) {
+      Segment oldest = segments.pollFirst();
+      droppedCount += oldest.countUnread();
+      oldest.delete();
+      pendingReadOffset = -1;
+    }
+
+    Path file =
+        directory.resolve(
+            String.format("%s%019d%s", SEGMENT_PREFIX, nextSequence++, SEGMENT_SUFFIX));
+    try {
+      Segment segment = Segment.open(file, segmentBytes);
+      segments.addLast(segment);
+      return segment;
+    } catch (IOException e) {
+      throw new AlgoliaRuntimeException("Error while creating the spool segment " + file, e);
+    }
+  }
+
+  private static long sequenceOf(Path file) {
+    String name = file.getFileName().toString();
+    try {
+      return Long.parseLong(
+          name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  /** A segment file, mapped in memory. */
+  private static final class Segment {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int writePosition;
+
+    private Segment(Path file, FileChannel channel, MappedByteBuffer buffer) {
+      this.file = file;
+      this.channel = channel;
+      this.buffer = buffer;
+    }
+
+    static Segment open(Path file, int size) throws IOException {
+      FileChannel channel =
+          FileChannel.open(
+              file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      Segment segment =
+          new Segment(file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+
+      if (segment.buffer.getInt(0) != MAGIC) {
+        // New or unreadable file: starts empty
+        segment.buffer.putInt(0, MAGIC);
+        segment.buffer.putInt(READ_OFFSET_POSITION, HEADER_SIZE);
+        segment.buffer.putInt(HEADER_SIZE, 0);
+        segment.writePosition = HEADER_SIZE;
+        return segment;
+      }
+
+      // Finds the end of the records, a zero length
+      int position = HEADER_SIZE;
+      while (position + 4 <= size) {
+        int length = segment.buffer.getInt(position);
+        if (length <= 0 || position + 4 + length > size) {
+          break;
+        }
+        position += 4 + length;
+      }
+      segment.writePosition = position;
+      return segment;
+    }
+
+    boolean hasRoom(int length) {
+      // Keeps room for the zero length ending the records
+      return writePosition + 4 + length + 4 <= buffer.capacity();
+    }
+
+    void write(byte[] json) {
+      int position = writePosition;
+      buffer.position(position + 4);
+      buffer.put(json);
+      if (position + 4 + json.length + 4 <= buffer.capacity()) {
+        buffer.putInt(position + 4 + json.length, 0);
+      }
+      // The length is written last, so that a partial record is never read
+      buffer.putInt(position, json.length);
+      writePosition = position + 4 + json.length;
+    }
+
+    byte[] read(int offset) {
+      byte[] json = new byte[buffer.getInt(offset)];
+      buffer.position(offset + 4);
+      buffer.get(json);
+      return json;
+    }
+
+    int readOffset() {
+      return buffer.getInt(READ_OFFSET_POSITION);
+    }
+
+    void commitReadOffset(int offset) {
+      buffer.putInt(READ_OFFSET_POSITION, offset);
+    }
+
+    int countUnread() {
+      int count = 0;
+      for (int offset = readOffset(); offset < writePosition; count++) {
+        offset += 4 + buffer.getInt(offset);
+      }
+      return count;
+    }
+
+    void close() throws IOException {
+      buffer.force();
+      channel.close();
+    }
+
+    /** Deletes the file. The buffer is unmapped once it is garbage collected. */
+    void delete() {
+      try {
+        channel.close();
+        Files.deleteIfExists(file);
+      } catch (IOException ignored) {
+        // Replayed again at the next start, at worst
+      }
+    }
+  }
+}
@@ -0,0 +1,321 @@
+package com.algolia.search;
+
+import com.algolia.search.BufferPool.PooledBuffer;
+import com.algolia.search.models.insights.CompactInsightsEvent;
+import com.algolia.search.models.insights.InsightsEvent;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Body of a request to the events endpoint, {@code {"events":[...]}}, written field by field
+ * straight into the pooled buffer of the request. Writing an event allocates nothing, so that the
+ * serialization of high-frequency events doesn't produce garbage.
+ *
+ * <p>The events are {@link InsightsEvent}s, whose fields are written as Jackson would with {@link
+ * com.fasterxml.jackson.annotation.JsonInclude.Include#NON_NULL}, and {@link
+ * CompactInsightsEvent}s. The subclasses of {@link InsightsEvent} may have more fields and are
+ * serialized by Jackson, see {@link #supports(List)}.
+ */
+final class InsightsEventsBody implements JsonBody {
+
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+  private final List<?> events;
+
+  private PooledBuffer out;
+  private byte[] buf;
+  private int pos;
+
+  InsightsEventsBody(List<?> events) {
+    this.events = events;
+  }
+
+  /**
+   * Tells if the events can be written by this class rather than by Jackson. A null element is left
+   * to Jackson, which writes it as null as it always did.
+   */
+  static boolean supports(List<?> events) {
+    for (Object event : events) {
+      if (event == null
+          || (event.getClass() != InsightsEvent.class
+              && !(event instanceof CompactInsightsEvent))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void writeTo(PooledBuffer out) {
+    this.out = out;
+    this.buf = out.array();
+    this.pos = out.size();
+
+    try {
+      writeRaw("{\"events\":[");
+      for (int i = 0; i < events.size(); i++) {
+        if (i > 0) {
+          writeByte(',');
+        }
+        Object event = events.get(i);
+        if (event instanceof CompactInsightsEvent) {
+          write((CompactInsightsEvent) event);
+        } else {
+          write((InsightsEvent) event);
+        }
+      }
+      writeRaw("]}");
+    } finally {
+      out.setSize(pos);
+      this.out = null;
+      this.buf = null;
+    }
+  }
+
+  private void write(InsightsEvent event) {
+    writeByte('{');
+    boolean first = true;
+    first = writeField("eventType", event.getEventType(), first);
+    first = writeField("eventName", event.getEventName(), first);
+    first = writeField("index", event.getIndex(), first);
+    first = writeField("userToken", event.getUserToken(), first);
+
+    if (event.getTimestamp() != null) {
+      writeName("timestamp", first);
+      writeLong(event.getTimestamp());
+      first = false;
+    }
+
+    first = writeField("queryID", event.getQueryID(), first);
+
+    List<String> objectIDs = event.getObjectIDs();
+    if (objectIDs != null) {
+      writeName("objectIDs", first);
+      writeByte('[');
+      for (int i = 0; i < objectIDs.size(); i++) {
+        if (i > 0) writeByte(',');
+        writeNullableString(objectIDs.get(i));
+      }
+      writeByte(']');
+      first = false;
+    }
+
+    List<String> filters = event.getFilters();
+    if (filters != null) {
+      writeName("filters", first);
+      writeByte('[');
+      for (int i = 0; i < filters.size(); i++) {
+        if (i > 0) writeByte(',');
+        writeNullableString(filters.get(i));
+      }
+      writeByte(']');
+      first = false;
+    }
+
+    List<Long> positions = event.getPositions();
+    if (positions != null) {
+      writeName("positions", first);
+      writeByte('[');
+      for (int i = 0; i < positions.size(); i++) {
+        if (i > 0) writeByte(',');
+        Long position = positions.get(i);
+        if (position == null) {
+          writeRaw("null");
+        } else {
+          writeLong(position);
+        }
+      }
+      writeByte(']');
+    }
+
+    writeByte('}');
+  }
+
+  private void write(CompactInsightsEvent event) {
+    writeByte('{');
+    boolean first = true;
+    first = writeField("eventType", event.getEventType(), first);
+    first = writeField("eventName", event.getEventName(), first);
+    first = writeField("index", event.getIndex(), first);
+    first = writeField("userToken", event.getUserToken(), first);
+
+    if (event.getTimestamp() != CompactInsightsEvent.NO_TIMESTAMP) {
+      writeName("timestamp", first);
+      writeLong(event.getTimestamp());
+      first = false;
+    }
+
+    first = writeField("queryID", event.getQueryID(), first);
+
+    if (event.getObjectIDCount() > 0) {
+      writeName("objectIDs", first);
+      writeByte('[');
+      for (int i = 0; i < event.getObjectIDCount(); i++) {
+        if (i > 0) writeByte(',');
+        writeString(event.getObjectID(i));
+      }
+      writeByte(']');
+      first = false;
+    }
+
+    if (event.getFilterCount() > 0) {
+      writeName("filters", first);
+      writeByte('[');
+      for (int i = 0; i < event.getFilterCount(); i++) {
+        if (i > 0) writeByte(',');
+        writeString(event.getFilter(i));
+      }
+      writeByte(']');
+      first = false;
+    }
+
+    if (event.getPositionCount() > 0) {
+      writeName("positions", first);
+      writeByte('[');
+      for (int i = 0; i < event.getPositionCount(); i++) {
+        if (i > 0) writeByte(',');
+        writeLong(event.getPosition(i));
+      }
+      writeByte(']');
+    }
+
+    writeByte('}');
+  }
+
+  /** Writes a string field unless its value is null, and tells if the object is still empty. */
+  private boolean writeField(String name, String value, boolean first) {
+    if (value == null) {
+      return first;
+    }
+    writeName(name, first);
+    writeString(value);
+    return false;
+  }
+
+  /** Writes a field name, an ASCII constant, and its colon. */
+  private void writeName(String name, boolean first) {
+    if (!first) {
+      writeByte(',');
+    }
+    writeByte('"');
+    writeRaw(name);
+    writeByte('"');
+    writeByte(':');
+  }
+
+  private void writeNullableString(String value) {
+    if (value == null) {
+      writeRaw("null");
+    } else {
+      writeString(value);
+    }
+  }
+
+  /** Writes a quoted string, encoded in UTF-8 and escaped as JSON requires. */
+  private void writeString(String value) {
+    int length = value.length();
+    // At most 6 bytes per char, for the escaped control characters
+    ensure(length * 6 + 2);
+
+    byte[] b = buf;
+    int p = pos;
+    b[p++] = '"';
+
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+
+      if (c < 0x80) {
+        if (c >= 0x20 && c != '"' && c != '\\') {
+          b[p++] = (byte) c;
+        } else if (c == '"' || c == '\\') {
+          b[p++] = '\\';
+          b[p++] = (byte) c;
+        } else if (c == '\n') {
+          b[p++] = '\\';
+          b[p++] = 'n';
+        } else if (c == '\r') {
+          b[p++] = '\\';
+          b[p++] = 'r';
+        } else if (c == '\t') {
+          b[p++] = '\\';
+          b[p++] = 't';
+        } else {
+          b[p++] = '\\';
+          b[p++] = 'u';
+          b[p++] = '0';
+          b[p++] = '0';
+          b[p++] = HEX[c >> 4];
+          b[p++] = HEX[c & 0xF];
+        }
+      } else if (c < 0x800) {
+        b[p++] = (byte) (0xC0 | (c >> 6));
+        b[p++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c)
+          && i + 1 < length
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, value.charAt(++i));
+        b[p++] = (byte) (0xF0 | (cp >> 18));
+        b[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+        b[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+        b[p++] = (byte) (0x80 | (cp & 0x3F));
+      } else {
+        // A lone surrogate can't be encoded in UTF-8: written as the replacement character
+        int cp = Character.isSurrogate(c) ? 0xFFFD : c;
+        b[p++] = (byte) (0xE0 | (cp >> 12));
+        b[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+        b[p++] = (byte) (0x80 | (cp & 0x3F));
+      }
+    }
+
+    b[p++] = '"';
+    pos = p;
+  }
+
+  /** Writes the decimal digits of a number, without going through a String. */
+  private void writeLong(long value) {
+    if (value == Long.MIN_VALUE) {
+      writeRaw(Long.toString(value));
+      return;
+    }
+
+    ensure(20);
+
+    if (value < 0) {
+      buf[pos++] = '-';
+      value = -value;
+    }
+
+    int digits = 1;
+    for (long v = value; v >= 10; v /= 10) {
+      digits++;
+    }
+
+    int p = pos + digits;
+    pos = p;
+    do {
+      buf[--p] = (byte) ('0' + (value % 10));
+      value /= 10;
+    } while (value != 0);
+  }
+
+  /** Writes an ASCII constant. */
+  private void writeRaw(String ascii) {
+    int length = ascii.length();
+    ensure(length);
+    for (int i = 0; i < length; i++) {
+      buf[pos++] = (byte) ascii.charAt(i);
+    }
+  }
+
+  private void writeByte(char c) {
+    ensure(1);
+    buf[pos++] = (byte) c;
+  }
+
+  private void ensure(int length) {
+    if (pos + length > buf.length) {
+      out.setSize(pos);
+      buf = out.ensureCapacity(length);
+    }
+  }
+}
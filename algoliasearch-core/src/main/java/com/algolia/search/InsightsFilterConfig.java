@@ -0,0 +1,195 @@
+package com.algolia.search;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Settings of the filter applied by the {@link InsightsClient} to the events before sending them,
+ * to save the requests and the event quota spent on bots and double-clicks. Each stage is disabled
+ * by default:
+ *
+ * <ul>
+ *   <li>Sampling: only a ratio of the events of a type is sent.
+ *   <li>De-duplication: an event with the same user token, event name, object IDs and filters as
+ *       one sent during the window is dropped. The events seen are kept in Bloom filters, so the
+ *       memory doesn't depend on the traffic, and a small ratio of the events are dropped while not
+ *       duplicated.
+ *   <li>Rate limiting: the events of a user token above a rate are dropped.
+ * </ul>
+ *
+ * <p>The dropped events are reported as sent. See {@link InsightsClient#getEventFilterStats()}.
+ */
+public final class InsightsFilterConfig {
+
+  private final Map<String, Double> sampleRates;
+  private final long deduplicationWindowMs;
+  private final int deduplicationCapacity;
+  private final double deduplicationFalsePositiveRate;
+  private final double maxEventsPerUserPerSecond;
+  private final int userBurst;
+  private final int maxTrackedUsers;
+
+  private InsightsFilterConfig(Builder builder) {
+    this.sampleRates = Collections.unmodifiableMap(new HashMap<>(builder.sampleRates));
+    this.deduplicationWindowMs = builder.deduplicationWindowMs;
+    this.deduplicationCapacity = builder.deduplicationCapacity;
+    this.deduplicationFalsePositiveRate = builder.deduplicationFalsePositiveRate;
+    this.maxEventsPerUserPerSecond = builder.maxEventsPerUserPerSecond;
+    this.userBurst = builder.userBurst;
+    this.maxTrackedUsers = builder.maxTrackedUsers;
+  }
+
+  /** Ratio of the events sent, between 0 and 1, per event type. The other types are all sent. */
+  public Map<String, Double> getSampleRates() {
+    return sampleRates;
+  }
+
+  /** Time during which an identical event is dropped, 0 when disabled. In milliseconds */
+  public long getDeduplicationWindowMs() {
+    return deduplicationWindowMs;
+  }
+
+  /** Number of distinct events per window the de-duplication is sized for. */
+  public int getDeduplicationCapacity() {
+    return deduplicationCapacity;
+  }
+
+  /** Ratio of the distinct events wrongly dropped as duplicates, at the sized capacity. */
+  public double getDeduplicationFalsePositiveRate() {
+    return deduplicationFalsePositiveRate;
+  }
+
+  /** Maximum sustained rate of the events of a user token, 0 when disabled. */
+  public double getMaxEventsPerUserPerSecond() {
+    return maxEventsPerUserPerSecond;
+  }
+
+  /** Number of events a user token can send at once, above its rate. */
+  public int getUserBurst() {
+    return userBurst;
+  }
+
+  /**
+   * Maximum number of user tokens whose rate is tracked. The idle ones are forgotten first, and the
+   * events of new user tokens are not limited when the active ones are already above the maximum.
+   */
+  public int getMaxTrackedUsers() {
+    return maxTrackedUsers;
+  }
+
+  @Override
+  public String toString() {
+    return "InsightsFilterConfig{"
+        + "sampleRates="
+        + sampleRates
+        + ", deduplicationWindowMs="
+        + deduplicationWindowMs
+        + ", deduplicationCapacity="
+        + deduplicationCapacity
+        + ", deduplicationFalsePositiveRate="
+        + deduplicationFalsePositiveRate
+        + ", maxEventsPerUserPerSecond="
+        + maxEventsPerUserPerSecond
+        + ", userBurst="
+        + userBurst
+        + ", maxTrackedUsers="
+        + maxTrackedUsers
+        + '}';
+  }
+
+  public static class Builder {
+
+    private final Map<String, Double> sampleRates = new HashMap<>();
+    private long deduplicationWindowMs;
+    private int deduplicationCapacity = 100_000;
+    private double deduplicationFalsePositiveRate = 0.001;
+    private double maxEventsPerUserPerSecond;
+    private int userBurst = 10;
+    private int maxTrackedUsers = 100_000;
+
+    /**
+     * Sends only a ratio of the events of a type, picked at random.
+     *
+     * @param eventType The event type: click, conversion or view
+     * @param rate The ratio of the events sent, between 0 and 1
+     */
+    public Builder setSampleRate(String eventType, double rate) {
+      Objects.requireNonNull(eventType, "eventType is required.");
+      if (rate < 0 || rate > 1) {
+        throw new IllegalArgumentException("rate must be between 0 and 1.");
+      }
+      this.sampleRates.put(eventType, rate);
+      return this;
+    }
+
+    /**
+     * Drops the events identical to one sent during the window. Default = 0, disabled. In
+     * milliseconds
+     */
+    public Builder setDeduplicationWindowMs(long deduplicationWindowMs) {
+      if (deduplicationWindowMs < 0) {
+        throw new IllegalArgumentException("deduplicationWindowMs must be positive.");
+      }
+      this.deduplicationWindowMs = deduplicationWindowMs;
+      return this;
+    }
+
+    /**
+     * Overrides the number of distinct events per window the de-duplication is sized for. Above it,
+     * more events are wrongly dropped. Default = 100 000.
+     */
+    public Builder setDeduplicationCapacity(int deduplicationCapacity) {
+      if (deduplicationCapacity < 1) {
+        throw new IllegalArgumentException("deduplicationCapacity must be greater than 0.");
+      }
+      this.deduplicationCapacity = deduplicationCapacity;
+      return this;
+    }
+
+    /**
+     * Overrides the ratio of the distinct events wrongly dropped as duplicates. The lower, the
+     * larger the filters. Default = 0.001.
+     */
+    public Builder setDeduplicationFalsePositiveRate(double deduplicationFalsePositiveRate) {
+      if (deduplicationFalsePositiveRate <= 0 || deduplicationFalsePositiveRate >= 1) {
+        throw new IllegalArgumentException(
+            "deduplicationFalsePositiveRate must be between 0 and 1, excluded.");
+      }
+      this.deduplicationFalsePositiveRate = deduplicationFalsePositiveRate;
+      return this;
+    }
+
+    /**
+     * Limits the rate of the events of each user token.
+     *
+     * @param maxEventsPerUserPerSecond The sustained rate, 0 to disable the limit
+     * @param userBurst The number of events a user token can send at once. Default = 10
+     */
+    public Builder setUserRateLimit(double maxEventsPerUserPerSecond, int userBurst) {
+      if (maxEventsPerUserPerSecond < 0) {
+        throw new IllegalArgumentException("maxEventsPerUserPerSecond must be positive.");
+      }
+      if (userBurst < 1) {
+        throw new IllegalArgumentException("userBurst must be greater than 0.");
+      }
+      this.maxEventsPerUserPerSecond = maxEventsPerUserPerSecond;
+      this.userBurst = userBurst;
+      return this;
+    }
+
+    /** Overrides the maximum number of user tokens whose rate is tracked. Default = 100 000. */
+    public Builder setMaxTrackedUsers(int maxTrackedUsers) {
+      if (maxTrackedUsers < 1) {
+        throw new IllegalArgumentException("maxTrackedUsers must be greater than 0.");
+      }
+      this.maxTrackedUsers = maxTrackedUsers;
+      return this;
+    }
+
+    public InsightsFilterConfig build() {
+      return new InsightsFilterConfig(this);
+    }
+  }
+}
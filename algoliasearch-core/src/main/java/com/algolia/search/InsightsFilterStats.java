@@ -0,0 +1,56 @@
+package com.algolia.search;
+
+/** Snapshot of the decisions of the event filter of an {@link InsightsClient}. */
+public final class InsightsFilterStats {
+
+  private final long accepted;
+  private final long sampledOut;
+  private final long duplicates;
+  private final long rateLimited;
+
+  InsightsFilterStats(long accepted, long sampledOut, long duplicates, long rateLimited) {
+    this.accepted = accepted;
+    this.sampledOut = sampledOut;
+    this.duplicates = duplicates;
+    this.rateLimited = rateLimited;
+  }
+
+  /** Number of events let through. */
+  public long getAccepted() {
+    return accepted;
+  }
+
+  /** Number of events dropped by the sampling of their type. */
+  public long getSampledOut() {
+    return sampledOut;
+  }
+
+  /** Number of events dropped as identical to an event of the de-duplication window. */
+  public long getDuplicates() {
+    return duplicates;
+  }
+
+  /** Number of events dropped because their user token was above its rate. */
+  public long getRateLimited() {
+    return rateLimited;
+  }
+
+  /** Number of events dropped, for any reason. */
+  public long getDropped() {
+    return sampledOut + duplicates + rateLimited;
+  }
+
+  @Override
+  public String toString() {
+    return "InsightsFilterStats{"
+        + "accepted="
+        + accepted
+        + ", sampledOut="
+        + sampledOut
+        + ", duplicates="
+        + duplicates
+        + ", rateLimited="
+        + rateLimited
+        + '}';
+  }
+}
@@ -0,0 +1,18 @@
+package com.algolia.search;
+
+import com.algolia.search.BufferPool.PooledBuffer;
+
+/**
+ * A request body written by its own JSON writer rather than by the {@link
+ * com.fasterxml.jackson.databind.ObjectMapper}, for the hot paths where the reflection and the
+ * intermediate objects of the generic serialization matter.
+ */
+interface JsonBody {
+
+  /**
+   * Appends the JSON of the body to the buffer.
+   *
+   * @param out The pooled buffer of the request
+   */
+  void writeTo(PooledBuffer out);
+}
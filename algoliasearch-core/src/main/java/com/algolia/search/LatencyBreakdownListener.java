@@ -0,0 +1,104 @@
+package com.algolia.search;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits the time of the searches, browses and multiple queries between the Algolia server, the
+ * network and the client, per Algolia server and per host, to tell whether slow searches come from
+ * the engine, the network path or a saturated executor. Only the attempts whose response has a
+ * processing time are recorded.
+ *
+ * <pre>{@code
+ * LatencyBreakdownListener breakdowns = new LatencyBreakdownListener();
+ * SearchConfig config = new SearchConfig.Builder(appId, apiKey).setMetricsListener(breakdowns).build();
+ * ...
+ * breakdowns.getHostBreakdowns().forEach((host, breakdown) -> ...);
+ * }</pre>
+ */
+public final class LatencyBreakdownListener implements MetricsListener {
+
+  private final Map<String, LatencyBreakdown> servers = new ConcurrentHashMap<>();
+  private final Map<String, LatencyBreakdown> hosts = new ConcurrentHashMap<>();
+
+  @Override
+  public void onAttempt(AttemptMetrics metrics) {
+    if (!metrics.hasServerTime()) {
+      return;
+    }
+
+    hosts.computeIfAbsent(metrics.getHost(), h -> new LatencyBreakdown()).record(metrics);
+
+    if (metrics.getServerUsed() != null) {
+      servers.computeIfAbsent(metrics.getServerUsed(), s -> new LatencyBreakdown()).record(metrics);
+    }
+  }
+
+  /** The breakdowns per Algolia server, as given by the serverUsed of the responses. */
+  public Map<String, LatencyBreakdown> getServerBreakdowns() {
+    return Collections.unmodifiableMap(servers);
+  }
+
+  /** The breakdowns per host requested. */
+  public Map<String, LatencyBreakdown> getHostBreakdowns() {
+    return Collections.unmodifiableMap(hosts);
+  }
+
+  /** Histograms of the parts of the time of the attempts. */
+  public static final class LatencyBreakdown {
+
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final LatencyHistogram server = new LatencyHistogram();
+    private final LatencyHistogram network = new LatencyHistogram();
+    private final LatencyHistogram client = new LatencyHistogram();
+
+    LatencyBreakdown() {}
+
+    void record(AttemptMetrics metrics) {
+      long clientNanos = metrics.getClientTime(TimeUnit.NANOSECONDS);
+      total.record(metrics.getResponseTime(TimeUnit.NANOSECONDS) + clientNanos);
+      server.record(metrics.getServerTime(TimeUnit.NANOSECONDS));
+      network.record(metrics.getNetworkTime(TimeUnit.NANOSECONDS));
+      client.record(clientNanos);
+    }
+
+    /** Wall time of the attempts, as seen by the caller. */
+    public LatencyHistogram getTotal() {
+      return total;
+    }
+
+    /** Processing time reported by the server. Millisecond precision */
+    public LatencyHistogram getServer() {
+      return server;
+    }
+
+    /** Response time minus the processing time: connection, network and queueing. */
+    public LatencyHistogram getNetwork() {
+      return network;
+    }
+
+    /**
+     * Time spent by the client: waiting for the executors, serializing and deserializing. High
+     * values point at a saturated executor.
+     */
+    public LatencyHistogram getClient() {
+      return client;
+    }
+
+    @Override
+    public String toString() {
+      return "LatencyBreakdown{"
+          + "total="
+          + total.snapshot()
+          + ", server="
+          + server.snapshot()
+          + ", network="
+          + network.snapshot()
+          + ", client="
+          + client.snapshot()
+          + '}';
+    }
+  }
+}
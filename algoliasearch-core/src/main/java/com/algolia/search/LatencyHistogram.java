@@ -0,0 +1,170 @@
+package com.algolia.search;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations, with log-linear buckets as in HdrHistogram: each power of two
+ * is split in 32 buckets, so that the percentiles are within 3% of the recorded values, from 1
+ * nanosecond to 18 minutes. Longer durations are recorded as 18 minutes.
+ *
+ * <p>Recording is an atomic increment, without allocation. A snapshot copies the ~1 200 buckets.
+ * This class is thread-safe.
+ */
+public final class LatencyHistogram {
+
+  /** Bits of precision of the buckets: each power of two is split in 2^(PRECISION - 1) buckets. */
+  private static final int PRECISION = 6;
+
+  private static final int LINEAR = 1 << PRECISION;
+  private static final int HALF = LINEAR >> 1;
+  private static final long MAX_VALUE = (1L << 40) - 1;
+  private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder totalNanos = new LongAdder();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /** Records a duration. The negative durations are recorded as 0. */
+  public void record(long nanos) {
+    long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+    counts.incrementAndGet(index(value));
+    totalNanos.add(value);
+
+    long max = maxNanos.get();
+    while (value > max && !maxNanos.compareAndSet(max, value)) {
+      max = maxNanos.get();
+    }
+  }
+
+  /** Copies the recorded durations. The records made during the copy may be partially included. */
+  public Snapshot snapshot() {
+    long[] copy = new long[BUCKETS];
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.get(i);
+      count += copy[i];
+    }
+    return new Snapshot(copy, count, totalNanos.sum(), maxNanos.get());
+  }
+
+  /** Forgets the recorded durations. */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+    totalNanos.reset();
+    maxNanos.set(0);
+  }
+
+  /** The values below LINEAR have their own bucket, the others share one with 2^shift values. */
+  private static int index(long value) {
+    if (value < LINEAR) {
+      return (int) value;
+    }
+    int shift = 64 - Long.numberOfLeadingZeros(value) - PRECISION;
+    return shift * HALF + (int) (value >>> shift);
+  }
+
+  /** Highest value of the bucket, so that the percentiles are never under the recorded values. */
+  private static long valueOf(int index) {
+    if (index < LINEAR) {
+      return index;
+    }
+    int shift = index / HALF - 1;
+    long lowest = (long) (index - shift * HALF) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+  /** Durations recorded by a {@link LatencyHistogram} at a point in time. */
+  public static final class Snapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    private Snapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+      this.counts = counts;
+      this.count = count;
+      this.totalNanos = totalNanos;
+      this.maxNanos = maxNanos;
+    }
+
+    /** Number of durations recorded. */
+    public long getCount() {
+      return count;
+    }
+
+    /** Longest duration recorded. */
+    public long getMax(TimeUnit unit) {
+      return unit.convert(maxNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Average duration, in microseconds. */
+    public double getMeanMicros() {
+      return count == 0 ? 0 : totalNanos / 1000.0 / count;
+    }
+
+    /**
+     * Duration under which the given percentage of the durations are, rounded up to the end of its
+     * bucket.
+     *
+     * @param percentile Between 0 and 100, e.g. 99.9
+     * @param unit The unit of the returned duration
+     */
+    public long getPercentile(double percentile, TimeUnit unit) {
+      if (percentile < 0 || percentile > 100) {
+        throw new IllegalArgumentException("percentile must be between 0 and 100.");
+      }
+      if (count == 0) {
+        return 0;
+      }
+
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      long seen = 0;
+
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return unit.convert(Math.min(valueOf(i), maxNanos), TimeUnit.NANOSECONDS);
+        }
+      }
+      return unit.convert(maxNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Median duration, in microseconds. */
+    public long getP50Micros() {
+      return getPercentile(50, TimeUnit.MICROSECONDS);
+    }
+
+    /** 99th percentile of the durations, in microseconds. */
+    public long getP99Micros() {
+      return getPercentile(99, TimeUnit.MICROSECONDS);
+    }
+
+    /** 99.9th percentile of the durations, in microseconds. */
+    public long getP999Micros() {
+      return getPercentile(99.9, TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public String toString() {
+      return "{count="
+          + count
+          + ", meanMicros="
+          + getMeanMicros()
+          + ", p50Micros="
+          + getP50Micros()
+          + ", p99Micros="
+          + getP99Micros()
+          + ", p999Micros="
+          + getP999Micros()
+          + ", maxMicros="
+          + getMax(TimeUnit.MICROSECONDS)
+          + '}';
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package com.algolia.search;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a {@link LatencyHistogram} of the response times per host, and per host and endpoint, e.g.
+ * to report the p99 of the queries of each host:
+ *
+ * <pre>{@code
+ * LatencyMetricsListener latencies = new LatencyMetricsListener();
+ * SearchConfig config = new SearchConfig.Builder(appId, apiKey).setMetricsListener(latencies).build();
+ * ...
+ * latencies.getHistogram(host, "/1/indexes/{index}/query").snapshot().getP99Micros();
+ * }</pre>
+ *
+ * <p>The attempts without response, e.g. timed out, are not recorded.
+ */
+public final class LatencyMetricsListener implements MetricsListener {
+
+  private final Map<String, LatencyHistogram> hosts = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, LatencyHistogram>> endpoints = new ConcurrentHashMap<>();
+
+  @Override
+  public void onAttempt(AttemptMetrics metrics) {
+    if (metrics.getStatusCode() == 0) {
+      return;
+    }
+
+    long nanos = metrics.getResponseTime(TimeUnit.NANOSECONDS);
+
+    hosts.computeIfAbsent(metrics.getHost(), h -> new LatencyHistogram()).record(nanos);
+    endpoints
+        .computeIfAbsent(metrics.getHost(), h -> new ConcurrentHashMap<>())
+        .computeIfAbsent(metrics.getEndpoint(), e -> new LatencyHistogram())
+        .record(nanos);
+  }
+
+  /** The response times per host. */
+  public Map<String, LatencyHistogram> getHostHistograms() {
+    return Collections.unmodifiableMap(hosts);
+  }
+
+  /** The response times of a host per endpoint, empty when the host wasn't requested. */
+  public Map<String, LatencyHistogram> getEndpointHistograms(String host) {
+    Map<String, LatencyHistogram> histograms = endpoints.get(host);
+    return histograms == null ? Collections.emptyMap() : Collections.unmodifiableMap(histograms);
+  }
+
+  /** The response times of an endpoint of a host, null when not requested. */
+  public LatencyHistogram getHistogram(String host, String endpoint) {
+    return getEndpointHistograms(host).get(endpoint);
+  }
+}
@@ -0,0 +1,203 @@
+package com.algolia.search;
+
+import com.algolia.search.models.common.RejectionPolicy;
+import com.algolia.search.util.NamedDaemonThreadFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+
+/**
+ * Default executor of the clients: a bounded pool of named daemon threads with a bounded queue.
+ *
+ * <p>The pool is owned by the clients built with the configuration. Its threads are started on
+ * demand and the pool is shut down when the last of these clients is closed. It is started again if
+ * a new client is built with the same configuration.
+ */
+public final class ManagedExecutorService extends AbstractExecutorService {
+
+  private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  private final int poolSize;
+  private final int queueCapacity;
+  private final RejectionPolicy rejectionPolicy;
+  private final String threadName;
+  private final LongAdder rejected = new LongAdder();
+
+  /** Read without lock on each task, written under the lock of this object. */
+  private volatile ThreadPoolExecutor pool;
+
+  private volatile boolean shutdown;
+  private int owners;
+
+  ManagedExecutorService(
+      int poolSize, int queueCapacity, @Nonnull RejectionPolicy rejectionPolicy) {
+    if (poolSize < 1) {
+      throw new IllegalArgumentException("The executor pool size must be greater than 0.");
+    }
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("The executor queue capacity must be greater than 0.");
+    }
+    this.poolSize = poolSize;
+    this.queueCapacity = queueCapacity;
+    this.rejectionPolicy = rejectionPolicy;
+    this.threadName = "algolia-executor-" + POOL_NUMBER.incrementAndGet() + "-thread";
+  }
+
+  /** Registers a client using the pool. */
+  synchronized void retain() {
+    owners++;
+  }
+
+  /** Unregisters a client, the pool is shut down when no client uses it anymore. */
+  synchronized void release() {
+    if (owners > 0 && --owners == 0 && pool != null) {
+      pool.shutdown();
+      pool = null;
+    }
+  }
+
+  @Override
+  public void execute(@Nonnull Runnable command) {
+    ThreadPoolExecutor current = pool;
+    if (current == null || shutdown) {
+      current = currentPool();
+    }
+    current.execute(command);
+  }
+
+  /** Starts the pool if needed, under the lock. */
+  private synchronized ThreadPoolExecutor currentPool() {
+    if (shutdown) {
+      throw new RejectedExecutionException("The executor has been shut down.");
+    }
+
+    if (pool == null) {
+      pool =
+          new ThreadPoolExecutor(
+              poolSize,
+              poolSize,
+              KEEP_ALIVE_SECONDS,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(queueCapacity),
+              new NamedDaemonThreadFactory(threadName),
+              rejectionHandler());
+      pool.allowCoreThreadTimeOut(true);
+    }
+
+    return pool;
+  }
+
+  private RejectedExecutionHandler rejectionHandler() {
+    RejectedExecutionHandler handler =
+        rejectionPolicy == RejectionPolicy.CALLER_RUNS
+            ? new ThreadPoolExecutor.CallerRunsPolicy()
+            : new ThreadPoolExecutor.AbortPolicy();
+
+    return (r, executor) -> {
+      if (executor.isShutdown()) {
+        // The pool was released by its last client while the task was submitted: starting a new
+        // one here would leave it without owner
+        throw new RejectedExecutionException("The executor was released by its last client.");
+      }
+      rejected.increment();
+      handler.rejectedExecution(r, executor);
+    };
+  }
+
+  /** Number of tasks waiting for a thread. */
+  public int getQueueSize() {
+    ThreadPoolExecutor current = pool;
+    return current == null ? 0 : current.getQueue().size();
+  }
+
+  /** Number of threads running a task. */
+  public int getActiveCount() {
+    ThreadPoolExecutor current = pool;
+    return current == null ? 0 : current.getActiveCount();
+  }
+
+  /** Number of threads currently in the pool. */
+  public int getPoolSize() {
+    ThreadPoolExecutor current = pool;
+    return current == null ? 0 : current.getPoolSize();
+  }
+
+  /** Maximum number of threads of the pool. */
+  public int getMaximumPoolSize() {
+    return poolSize;
+  }
+
+  /** Capacity of the queue of waiting tasks. */
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  /** Number of tasks submitted while the queue was full, see {@link RejectionPolicy}. */
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  public RejectionPolicy getRejectionPolicy() {
+    return rejectionPolicy;
+  }
+
+  @Override
+  public synchronized void shutdown() {
+    shutdown = true;
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  @Override
+  public synchronized List<Runnable> shutdownNow() {
+    shutdown = true;
+    return pool != null ? pool.shutdownNow() : Collections.emptyList();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return shutdown;
+  }
+
+  @Override
+  public synchronized boolean isTerminated() {
+    return shutdown && (pool == null || pool.isTerminated());
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, @Nonnull TimeUnit unit)
+      throws InterruptedException {
+    ThreadPoolExecutor current;
+    synchronized (this) {
+      if (!shutdown) {
+        return false;
+      }
+      current = pool;
+    }
+    return current == null || current.awaitTermination(timeout, unit);
+  }
+
+  @Override
+  public String toString() {
+    return "ManagedExecutorService{"
+        + "poolSize="
+        + getPoolSize()
+        + ", activeCount="
+        + getActiveCount()
+        + ", queueSize="
+        + getQueueSize()
+        + ", rejectedCount="
+        + getRejectedCount()
+        + '}';
+  }
+}
@@ -0,0 +1,93 @@
+package com.algolia.search;
+
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Receives the metrics of every attempt of the requests sent by a client, and of its batches, waits
+ * and cache lookups, e.g. to feed a metrics library. See {@link
+ * ConfigBase.Builder#setMetricsListener(MetricsListener)}, the built-in {@link
+ * LatencyMetricsListener}, and the JfrMetricsListener of algoliasearch-jfr recording them as JDK
+ * Flight Recorder events.
+ *
+ * <p>The listener is called on the thread completing the attempt, by every client sharing the
+ * configuration: it must be thread-safe and return quickly. Its exceptions are ignored.
+ */
+@FunctionalInterface
+public interface MetricsListener {
+
+  /** Called once an attempt to send a request to a host is over, before the next attempt. */
+  void onAttempt(AttemptMetrics metrics);
+
+  /**
+   * Called once a batch of records sent to an index is over, e.g. each of the batches {@code
+   * saveObjects} splits the records into.
+   */
+  default void onBatch(BatchMetrics metrics) {}
+
+  /** Called once a wait for a task or an API key is over, e.g. {@code waitTask}. */
+  default void onWait(WaitMetrics metrics) {}
+
+  /**
+   * Called on each lookup of the caches of the client, e.g. {@link ApiKeyCache}.
+   *
+   * @param cache The name of the cache, e.g. apiKey or securedApiKey
+   * @param hit False when the value had to be loaded or generated, or is unknown
+   */
+  default void onCacheAccess(String cache, boolean hit) {}
+
+  /**
+   * Calls the listener, if any, ignoring and logging its exceptions so that they never fail the
+   * request, wait or lookup being reported, e.g. {@code dispatch(listener, l ->
+   * l.onWait(metrics))}.
+   */
+  static void dispatch(MetricsListener listener, Consumer<MetricsListener> event) {
+    if (listener == null) {
+      return;
+    }
+    try {
+      event.accept(listener);
+    } catch (RuntimeException e) {
+      Logger.getLogger(MetricsListener.class.getName())
+          .log(Level.FINE, "Error in the metrics listener", e);
+    }
+  }
+
+  /**
+   * Combines listeners, e.g. a {@link LatencyMetricsListener} and a {@link
+   * LatencyBreakdownListener}. An exception in one of them doesn't prevent calling the others.
+   */
+  static MetricsListener of(MetricsListener... listeners) {
+    MetricsListener[] copy = listeners.clone();
+    return new MetricsListener() {
+      @Override
+      public void onAttempt(AttemptMetrics metrics) {
+        for (MetricsListener listener : copy) {
+          dispatch(listener, l -> l.onAttempt(metrics));
+        }
+      }
+
+      @Override
+      public void onBatch(BatchMetrics metrics) {
+        for (MetricsListener listener : copy) {
+          dispatch(listener, l -> l.onBatch(metrics));
+        }
+      }
+
+      @Override
+      public void onWait(WaitMetrics metrics) {
+        for (MetricsListener listener : copy) {
+          dispatch(listener, l -> l.onWait(metrics));
+        }
+      }
+
+      @Override
+      public void onCacheAccess(String cache, boolean hit) {
+        for (MetricsListener listener : copy) {
+          dispatch(listener, l -> l.onCacheAccess(cache, hit));
+        }
+      }
+    };
+  }
+}
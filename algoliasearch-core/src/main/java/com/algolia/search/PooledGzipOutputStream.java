@@ -0,0 +1,72 @@
+package com.algolia.search;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * GZIP output stream writing through a raw {@link Deflater} borrowed from the {@link BufferPool}.
+ * Unlike {@link java.util.zip.GZIPOutputStream} it never ends the deflater, it gives it back to the
+ * pool when closed.
+ */
+final class PooledGzipOutputStream extends DeflaterOutputStream {
+
+  private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+  private final CRC32 crc = new CRC32();
+  private final BufferPool pool;
+  private boolean released;
+
+  /**
+   * @param out The stream receiving the compressed bytes
+   * @param pool The pool to borrow the deflater from
+   * @param level The compression level
+   */
+  PooledGzipOutputStream(OutputStream out, BufferPool pool, int level) throws IOException {
+    super(out, pool.acquireDeflater(level), 512);
+    this.pool = pool;
+    out.write(HEADER);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    super.write(b, off, len);
+    crc.update(b, off, len);
+  }
+
+  @Override
+  public void finish() throws IOException {
+    if (def.finished()) {
+      return;
+    }
+
+    def.finish();
+    while (!def.finished()) {
+      deflate();
+    }
+
+    writeInt((int) crc.getValue());
+    writeInt(def.getTotalIn());
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      super.close();
+    } finally {
+      if (!released) {
+        released = true;
+        pool.releaseDeflater(def);
+      }
+    }
+  }
+
+  private void writeInt(int i) throws IOException {
+    out.write(i & 0xff);
+    out.write((i >> 8) & 0xff);
+    out.write((i >> 16) & 0xff);
+    out.write((i >> 24) & 0xff);
+  }
+}
@@ -10,6 +10,8 @@ import com.algolia.search.models.recommendation.SetStrategyRequest;
 import com.algolia.search.models.recommendation.SetStrategyResponse;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nonnull;
@@ -23,11 +25,15 @@ import javax.annotation.Nonnull;
  * @see <a href="https://www.algolia.com/doc/rest-api/recommendation/">Algolia.com</a>
  */
 @SuppressWarnings({"WeakerAccess", "Unused"})
-public class RecommendationClient implements Closeable {
+public class RecommendationClient implements Closeable, WarmableClient {
 
   /** The transport layer. Must be reused. */
   private final HttpTransport transport;
 
+  /** Models of the strategy calls, prepared by the warm-up */
+  private static final List<Class<?>> WARM_UP_MODELS =
+      Arrays.asList(GetStrategyResponse.class, SetStrategyRequest.class, SetStrategyResponse.class);
+
   /** Client's configuration. Must be reused. */
   private final ConfigBase config;
 
@@ -63,6 +69,11 @@ public class RecommendationClient implements Closeable {
     transport.close();
   }
 
+  @Override
+  public CompletableFuture<WarmUpReport> warmUpAsync(int connectionsPerHost) {
+    return transport.warmUpAsync(connectionsPerHost, WARM_UP_MODELS);
+  }
+
   /**
    * Returns the personalization strategy of the application
    *
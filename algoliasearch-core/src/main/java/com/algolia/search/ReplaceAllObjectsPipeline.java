@@ -0,0 +1,221 @@
+package com.algolia.search;
+
+import com.algolia.search.models.RequestOptions;
+import com.algolia.search.models.WaitableResponse;
+import com.algolia.search.models.indexing.ActionEnum;
+import com.algolia.search.models.indexing.BatchIndexingResponse;
+import com.algolia.search.models.indexing.BatchRequest;
+import com.algolia.search.models.indexing.BatchResponse;
+import com.algolia.search.models.indexing.CopyScope;
+import com.algolia.search.models.indexing.ReplaceAllObjectsListener;
+import com.algolia.search.models.indexing.ReplaceAllObjectsResponse;
+import com.algolia.search.models.indexing.ReplaceAllObjectsStage;
+import com.algolia.search.util.AlgoliaUtils;
+import com.algolia.search.util.CompletableFutureUtils;
+import com.algolia.search.util.QueryStringUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Replaces all the records of an index without blocking any thread: the settings, synonyms and
+ * rules are copied to a temporary index, the records are streamed to it with a bounded number of
+ * batches in flight, then it is moved to the index. Each stage starts when the previous one is
+ * completed, after the wait for its tasks in safe mode. The temporary index is deleted on failure.
+ */
+final class ReplaceAllObjectsPipeline<T> {
+
+  private final SearchIndex<T> index;
+  private final SearchIndex<T> tmpIndex;
+  private final Iterator<T> data;
+  private final RequestOptions requestOptions;
+  private final boolean safe;
+  private final ReplaceAllObjectsListener listener;
+  private final ReplaceAllObjectsResponse response = new ReplaceAllObjectsResponse();
+  private final List<BatchResponse> batches = Collections.synchronizedList(new ArrayList<>());
+  private final AtomicLong savedObjects = new AtomicLong();
+  private final AtomicBoolean failed = new AtomicBoolean();
+  private final AtomicBoolean moved = new AtomicBoolean();
+
+  ReplaceAllObjectsPipeline(
+      SearchIndex<T> index,
+      String indexName,
+      Iterable<T> data,
+      RequestOptions requestOptions,
+      boolean safe,
+      ReplaceAllObjectsListener listener) {
+    // A random suffix, so that concurrent runs on the same index don't share their temporary index
+    String tmpIndexName = indexName + "_tmp_" + UUID.randomUUID();
+
+    this.index = index;
+    this.tmpIndex =
+        new SearchIndex<>(index.getTransport(), index.getConfig(), tmpIndexName, index.getClazz());
+    this.data = data.iterator();
+    this.requestOptions = requestOptions;
+    this.safe = safe;
+    this.listener = listener != null ? listener : new ReplaceAllObjectsListener() {};
+    this.response.setTmpIndexName(tmpIndexName);
+  }
+
+  CompletableFuture<ReplaceAllObjectsResponse> runAsync() {
+    // The records are sent with their own objectID
+    AlgoliaUtils.ensureObjectID(index.getClazz());
+
+    List<String> scopes = Arrays.asList(CopyScope.RULES, CopyScope.SETTINGS, CopyScope.SYNONYMS);
+    List<WaitableResponse> responses = new ArrayList<>();
+
+    CompletableFuture<ReplaceAllObjectsResponse> result = new CompletableFuture<>();
+
+    stage(
+            ReplaceAllObjectsStage.COPY,
+            () -> index.copyToAsync(response.getTmpIndexName(), scopes, requestOptions))
+        .thenCompose(
+            copy -> {
+              responses.add(copy);
+              return stage(ReplaceAllObjectsStage.SAVE, this::saveObjectsAsync);
+            })
+        .thenCompose(
+            save -> {
+              responses.add(save);
+              return stage(
+                  ReplaceAllObjectsStage.MOVE,
+                  () ->
+                      index
+                          .moveFromAsync(
+                              QueryStringUtils.urlEncodeUTF8(response.getTmpIndexName()),
+                              requestOptions)
+                          .whenComplete((move, t) -> moved.set(t == null)));
+            })
+        .whenComplete(
+            (move, t) -> {
+              if (t == null) {
+                responses.add(move);
+                response.setResponses(responses);
+                response.setSavedObjects(savedObjects.get());
+                result.complete(response);
+                return;
+              }
+
+              Throwable cause = CompletableFutureUtils.unwrap(t);
+              if (moved.get()) {
+                result.completeExceptionally(cause);
+                return;
+              }
+
+              // Best effort: the error of the pipeline matters more than the one of the cleanup
+              deleteTmpIndexAsync()
+                  .whenComplete((v, ignored) -> result.completeExceptionally(cause));
+            });
+
+    return result;
+  }
+
+  /**
+   * Runs a stage, waits for its tasks in safe mode and records its duration.
+   *
+   * @param stage The stage
+   * @param call The requests of the stage
+   */
+  private <R extends WaitableResponse> CompletableFuture<R> stage(
+      ReplaceAllObjectsStage stage, Supplier<CompletableFuture<R>> call) {
+    long start = System.nanoTime();
+
+    CompletableFuture<R> stageResponse = supply(call);
+
+    if (safe) {
+      stageResponse = stageResponse.thenCompose(r -> r.waitTaskAsync().thenApply(v -> r));
+    }
+
+    return stageResponse.thenApply(
+        r -> {
+          long elapsed = System.nanoTime() - start;
+          response.setStageTime(stage, elapsed);
+          listener.onStageCompleted(stage, elapsed / 1_000_000);
+          return r;
+        });
+  }
+
+  /**
+   * Streams the records to the temporary index. Each lane sends a batch, then takes the next
+   * records from the iterator, so that at most {@link ConfigBase#getMaxConcurrentBatches()} batches
+   * are in flight and the records are not all held in memory. The records are taken on the executor
+   * of the client: the iterator may be slow, e.g. reading a file or a cursor, and must not hold the
+   * thread completing the previous batch.
+   */
+  private CompletableFuture<BatchIndexingResponse> saveObjectsAsync() {
+    int lanes = index.getConfig().getMaxConcurrentBatches();
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[lanes];
+
+    for (int i = 0; i < lanes; i++) {
+      futures[i] = saveNextBatchAsync();
+    }
+
+    return CompletableFuture.allOf(futures)
+        .thenApply(v -> new BatchIndexingResponse(new ArrayList<>(batches)));
+  }
+
+  private CompletableFuture<Void> saveNextBatchAsync() {
+    return CompletableFuture.supplyAsync(this::nextBatch, index.getConfig().getExecutor())
+        .thenCompose(
+            records -> {
+              if (records.isEmpty()) {
+                return CompletableFuture.<Void>completedFuture(null);
+              }
+
+              return supply(
+                      () ->
+                          tmpIndex.batchAsync(
+                              new BatchRequest<>(ActionEnum.UPDATE_OBJECT, records),
+                              requestOptions))
+                  .thenCompose(
+                      batch -> {
+                        batches.add(batch);
+                        listener.onObjectsSaved(savedObjects.addAndGet(records.size()));
+                        return saveNextBatchAsync();
+                      });
+            })
+        .whenComplete(
+            (v, t) -> {
+              if (t != null) {
+                // Stops the other lanes
+                failed.set(true);
+              }
+            });
+  }
+
+  /** The next records to send, none once the iterator is exhausted or a batch has failed. */
+  private List<T> nextBatch() {
+    int batchSize = index.getConfig().getBatchSize();
+    List<T> records = new ArrayList<>(batchSize);
+
+    synchronized (data) {
+      while (!failed.get() && records.size() < batchSize && data.hasNext()) {
+        records.add(data.next());
+      }
+    }
+
+    return records;
+  }
+
+  private CompletableFuture<?> deleteTmpIndexAsync() {
+    return supply(tmpIndex::deleteAsync);
+  }
+
+  /** Turns the exceptions thrown while building a request into a failed future. */
+  private static <R> CompletableFuture<R> supply(Supplier<CompletableFuture<R>> call) {
+    try {
+      return call.get();
+    } catch (RuntimeException e) {
+      CompletableFuture<R> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+  }
+}
@@ -7,6 +7,8 @@ import com.algolia.search.util.AlgoliaUtils;
 import com.algolia.search.util.HttpStatusCodeUtils;
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /** Algolia's retry strategy in case of server error, timeouts... */
@@ -15,6 +17,12 @@ class RetryStrategy {
   /** Hosts that will be used by the strategy. Could be default hosts or custom hosts */
   private final List<StatefulHost> hosts;
 
+  /**
+   * Guards the state of the hosts. A lock rather than a monitor, so that virtual threads waiting
+   * for it don't pin their carrier thread.
+   */
+  private final Lock lock = new ReentrantLock();
+
   /**
    * Creates a new instance of the retry strategy. If custom hosts are provided in the configuration
    * it will override the default hosts.
@@ -29,7 +37,8 @@ class RetryStrategy {
    * @param callType Algolia calltype.
    */
   List<StatefulHost> getTryableHosts(CallType callType) {
-    synchronized (this) {
+    lock.lock();
+    try {
       resetExpiredHosts();
       if (hosts.stream().anyMatch(h -> h.isUp() && h.getAccept().contains(callType))) {
         return hosts.stream()
@@ -45,13 +54,32 @@ class RetryStrategy {
 
         return hosts;
       }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Tells if a host of the given call type is up, without resetting the hosts as {@link
+   * #getTryableHosts(CallType)} does when they are all down.
+   *
+   * @param callType Algolia calltype.
+   */
+  boolean hasAvailableHost(CallType callType) {
+    lock.lock();
+    try {
+      resetExpiredHosts();
+      return hosts.stream().anyMatch(h -> h.isUp() && h.getAccept().contains(callType));
+    } finally {
+      lock.unlock();
     }
   }
 
   /** Retry logic. Decide if an host is retryable or not regarding the following parameters. */
   RetryOutcome decide(StatefulHost tryableHost, HttpResponse response) {
 
-    synchronized (this) {
+    lock.lock();
+    try {
       if (!response.isTimedOut() && HttpStatusCodeUtils.isSuccess(response)) {
         tryableHost.setUp(true);
         tryableHost.setLastUse(AlgoliaUtils.nowUTC());
@@ -68,6 +96,8 @@ class RetryStrategy {
       }
 
       return RetryOutcome.FAILURE;
+    } finally {
+      lock.unlock();
     }
   }
 
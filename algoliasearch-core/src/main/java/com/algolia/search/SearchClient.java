@@ -8,9 +8,18 @@ import com.algolia.search.models.HttpMethod;
 import com.algolia.search.models.RequestOptions;
 import com.algolia.search.models.common.CallType;
 import com.algolia.search.models.common.TaskStatusResponse;
+import com.algolia.search.models.indexing.BatchRequest;
+import com.algolia.search.models.indexing.BatchResponse;
+import com.algolia.search.models.indexing.MultipleQueriesRequest;
+import com.algolia.search.models.indexing.MultipleQueriesResponse;
+import com.algolia.search.models.indexing.Query;
+import com.algolia.search.models.indexing.SearchResult;
 import com.algolia.search.util.AlgoliaUtils;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nonnull;
@@ -26,6 +35,7 @@ import javax.annotation.Nonnull;
 @SuppressWarnings("WeakerAccess")
 public final class SearchClient
     implements Closeable,
+        WarmableClient,
         SearchClientMultipleOperations,
         SearchClientCopyOperations,
         SearchClientMcm,
@@ -37,6 +47,17 @@ public final class SearchClient
   /** The transport layer. Must be reused. */
   private final HttpTransport transport;
 
+  /** Models of the most common calls, prepared by the warm-up */
+  private static final List<Class<?>> WARM_UP_MODELS =
+      Arrays.asList(
+          Query.class,
+          SearchResult.class,
+          MultipleQueriesRequest.class,
+          MultipleQueriesResponse.class,
+          BatchRequest.class,
+          BatchResponse.class,
+          TaskStatusResponse.class);
+
   /** Client's configuration. Must be reused. */
   private final ConfigBase config;
 
@@ -71,11 +92,32 @@ public final class SearchClient
     transport.close();
   }
 
+  @Override
+  public CompletableFuture<WarmUpReport> warmUpAsync(int connectionsPerHost) {
+    return transport.warmUpAsync(connectionsPerHost, WARM_UP_MODELS);
+  }
+
   @Override
   public HttpTransport getTransport() {
     return transport;
   }
 
+  /**
+   * Get the cumulative timings of the stages of the requests sent by this client: serialization,
+   * compression, network and deserialization.
+   */
+  public TransportStats getTransportStats() {
+    return transport.getStats();
+  }
+
+  /**
+   * Get the leased, available and pending connections of the HTTP requester, per host name. Empty
+   * when the requester doesn't expose its pool.
+   */
+  public Map<String, ConnectionPoolStats> getConnectionPoolStats() {
+    return transport.getConnectionPoolStats();
+  }
+
   /** Get Client's configuration */
   @Override
   public ConfigBase getConfig() {
@@ -184,6 +226,56 @@ public final class SearchClient
     indexToWait.waitTask(taskID, timeToWait, requestOptions);
   }
 
+  /**
+   * Wait for a task to complete without blocking the calling thread. The returned future completes
+   * when the task is published. All write operations in Algolia are asynchronous by design.
+   *
+   * @param indexName The indexName to wait on
+   * @param taskID The Algolia taskID
+   */
+  public CompletableFuture<Void> waitTaskAsync(@Nonnull String indexName, long taskID) {
+    return waitTaskAsync(indexName, taskID, 100, Long.MAX_VALUE, null);
+  }
+
+  /**
+   * Wait for a task to complete without blocking the calling thread. The returned future completes
+   * when the task is published. All write operations in Algolia are asynchronous by design.
+   *
+   * @param indexName The indexName to wait on
+   * @param taskID The Algolia taskID
+   * @param requestOptions Options to pass to this request
+   */
+  public CompletableFuture<Void> waitTaskAsync(
+      @Nonnull String indexName, long taskID, RequestOptions requestOptions) {
+    return waitTaskAsync(indexName, taskID, 100, Long.MAX_VALUE, requestOptions);
+  }
+
+  /**
+   * Wait for a task to complete without blocking the calling thread. The status of the task is
+   * polled with a jittered exponential backoff from a scheduler shared by all the clients. The
+   * returned future completes exceptionally with an {@link AlgoliaRuntimeException} when the task
+   * is not published before the timeout, or with the error of the failed call. Cancelling it stops
+   * the polling.
+   *
+   * @param indexName The indexName to wait on
+   * @param taskID The Algolia taskID
+   * @param timeToWait The time to wait between the first two calls, doubled at each call
+   * @param timeout The maximum time to wait for the task, in milliseconds
+   * @param requestOptions Options to pass to this request
+   */
+  public CompletableFuture<Void> waitTaskAsync(
+      @Nonnull String indexName,
+      long taskID,
+      long timeToWait,
+      long timeout,
+      RequestOptions requestOptions) {
+
+    Objects.requireNonNull(indexName, "The index name is required.");
+
+    SearchIndex<?> indexToWait = initIndex(indexName);
+    return indexToWait.waitTaskAsync(taskID, timeToWait, timeout, requestOptions);
+  }
+
   /**
    * Wait for a dictionary task to complete before executing the next line of code. All write
    * operations in Algolia are asynchronous by design.
@@ -223,7 +315,39 @@ public final class SearchClient
    * @throws AlgoliaRuntimeException When an error occurred during the serialization
    */
   public void waitAppTask(long taskID, long timeToWait, RequestOptions requestOptions) {
-    TaskUtils.waitTask(taskID, timeToWait, requestOptions, this::getAppTaskAsync);
+    TaskUtils.waitTask(
+        taskID, timeToWait, requestOptions, this::getAppTaskAsync, config.getMetricsListener());
+  }
+
+  /**
+   * Wait for a dictionary task to complete without blocking the calling thread. The returned future
+   * completes when the task is published.
+   *
+   * @param taskID The Algolia taskID
+   */
+  public CompletableFuture<Void> waitAppTaskAsync(long taskID) {
+    return waitAppTaskAsync(taskID, 100, Long.MAX_VALUE, null);
+  }
+
+  /**
+   * Wait for a dictionary task to complete without blocking the calling thread. The returned future
+   * completes exceptionally with an {@link AlgoliaRuntimeException} when the task is not published
+   * before the timeout, or with the error of the failed call.
+   *
+   * @param taskID The Algolia taskID
+   * @param timeToWait The time to wait between the first two calls, doubled at each call
+   * @param timeout The maximum time to wait for the task, in milliseconds
+   * @param requestOptions Options to pass to this request
+   */
+  public CompletableFuture<Void> waitAppTaskAsync(
+      long taskID, long timeToWait, long timeout, RequestOptions requestOptions) {
+    return TaskUtils.waitTaskAsync(
+        taskID,
+        timeToWait,
+        timeout,
+        requestOptions,
+        this::getAppTaskAsync,
+        config.getMetricsListener());
   }
 
   /**
@@ -10,13 +10,13 @@ import com.algolia.search.models.apikeys.*;
 import com.algolia.search.models.common.CallType;
 import com.algolia.search.util.AlgoliaUtils;
 import com.algolia.search.util.HmacShaUtils;
+import com.algolia.search.util.SecuredApiKeyCache;
+import com.algolia.search.util.SecuredApiKeyMinter;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Base64;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.regex.*;
 import javax.annotation.Nonnull;
 
 public interface SearchClientAPIKeys extends SearchClientBase {
@@ -67,7 +67,7 @@ public interface SearchClientAPIKeys extends SearchClientBase {
     return getTransport()
         .executeRequestAsync(
             HttpMethod.GET, "/1/keys", CallType.READ, null, ApiKeys.class, requestOptions)
-        .thenApplyAsync(ApiKeys::getKeys, getConfig().getExecutor());
+        .thenApply(ApiKeys::getKeys);
   }
 
   /**
@@ -188,12 +188,16 @@ public interface SearchClientAPIKeys extends SearchClientBase {
             acl,
             AddApiKeyResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
+              getTransport().apiKeyChanged(resp.getKey(), acl);
               resp.setGetApiKeyFunction(this::getApiKey);
+              resp.setWaitAsyncFunction(
+                  key ->
+                      TaskUtils.waitApiKeyExistsAsync(
+                          key, this::getApiKeyAsync, getConfig().getMetricsListener()));
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
@@ -257,13 +261,17 @@ public interface SearchClientAPIKeys extends SearchClientBase {
             CallType.WRITE,
             DeleteApiKeyResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setKey(apiKey);
+              getTransport().apiKeyDeleted(apiKey);
               resp.setGetApiKeyFunction(this::getApiKey);
+              resp.setWaitAsyncFunction(
+                  key ->
+                      TaskUtils.waitApiKeyDeletedAsync(
+                          key, this::getApiKeyAsync, getConfig().getMetricsListener()));
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
@@ -329,13 +337,17 @@ public interface SearchClientAPIKeys extends SearchClientBase {
             request,
             UpdateApiKeyResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setPendingKey(request);
+              getTransport().apiKeyChanged(request.getValue(), request);
               resp.setGetApiKeyFunction(this::getApiKey);
+              resp.setWaitAsyncFunction(
+                  key ->
+                      TaskUtils.waitApiKeyUpdatedAsync(
+                          request, this::getApiKeyAsync, getConfig().getMetricsListener()));
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
@@ -403,17 +415,25 @@ public interface SearchClientAPIKeys extends SearchClientBase {
             CallType.WRITE,
             RestoreApiKeyResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setKey(apiKey);
+              getTransport().apiKeyChanged(apiKey, null);
               resp.setGetApiKeyFunction(this::getApiKey);
+              resp.setWaitAsyncFunction(
+                  key ->
+                      TaskUtils.waitApiKeyExistsAsync(
+                          key, this::getApiKeyAsync, getConfig().getMetricsListener()));
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
-   * Generate a virtual API Key without any call to the server.
+   * Generate a virtual API Key without any call to the server. To generate many keys from the same
+   * parent key, see {@link SecuredApiKeyMinter} and {@link #securedApiKeyCacheBuilder(String)}.
+   *
+   * <p>Not cached: the parent key is given at each call, and the generated key, deterministic, is
+   * the caller's to keep.
    *
    * @param parentAPIKey API key to generate from.
    * @param restriction Restriction to add the key
@@ -428,7 +448,9 @@ public interface SearchClientAPIKeys extends SearchClientBase {
   }
 
   /**
-   * Gets how many seconds are left before the secured API key expires.
+   * Gets how many seconds are left before the secured API key expires. Decodes the key at each
+   * call: the keys of a {@link SecuredApiKeyCache} are checked without decoding through {@link
+   * SecuredApiKeyCache#getRemainingValidity(String)}.
    *
    * @param securedAPIKey The secured API Key to check
    * @throws AlgoliaRuntimeException if <code>securedAPIKey</code> is null, empty or whitespaces.
@@ -441,20 +463,20 @@ public interface SearchClientAPIKeys extends SearchClientBase {
       throw new AlgoliaRuntimeException("securedAPIKey must not be empty, null or whitespaces");
     }
 
-    byte[] decodedBytes = Base64.getDecoder().decode(securedAPIKey);
-    String decodedString = new String(decodedBytes);
-
-    Pattern pattern = Pattern.compile("validUntil=\\d+");
-    Matcher matcher = pattern.matcher(decodedString);
-
-    if (!matcher.find()) {
-      throw new AlgoliaRuntimeException("The Secured API Key doesn't have a validUntil parameter.");
-    }
-
-    String validUntilMatch = matcher.group(0);
-
-    long timeStamp = Long.parseLong(validUntilMatch.replace("validUntil=", ""));
+    long timeStamp = HmacShaUtils.getValidUntil(securedAPIKey);
 
     return Duration.ofSeconds(timeStamp - Instant.now().getEpochSecond());
   }
+
+  /**
+   * Creates the builder of a cache of the secured API keys generated from the given parent key,
+   * refreshing them on the executor of the client and reporting to its metrics listener.
+   *
+   * @param parentAPIKey API key to generate from.
+   */
+  default SecuredApiKeyCache.Builder securedApiKeyCacheBuilder(@Nonnull String parentAPIKey) {
+    return new SecuredApiKeyCache.Builder(parentAPIKey)
+        .setExecutor(getConfig().getExecutor())
+        .setMetricsListener(getConfig().getMetricsListener());
+  }
 }
@@ -69,7 +69,7 @@ public interface SearchClientAdvanced extends SearchClientBase {
     return getTransport()
         .executeRequestAsync(
             HttpMethod.GET, "/1/indexes", CallType.READ, ListIndicesResponse.class, requestOptions)
-        .thenApplyAsync(ListIndicesResponse::getIndices, getConfig().getExecutor());
+        .thenApply(ListIndicesResponse::getIndices);
   }
 
   /**
@@ -232,7 +232,7 @@ public interface SearchClientAdvanced extends SearchClientBase {
 
     return getTransport()
         .executeRequestAsync(HttpMethod.GET, "/1/logs", CallType.READ, Logs.class, requestOptions)
-        .thenApplyAsync(Logs::getLogs, getConfig().getExecutor());
+        .thenApply(Logs::getLogs);
   }
 
   /**
@@ -1,6 +1,7 @@
 package com.algolia.search;
 
 import com.algolia.search.models.RequestOptions;
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nonnull;
 
 public interface SearchClientBase {
@@ -13,7 +14,11 @@ public interface SearchClientBase {
 
   void waitTask(@Nonnull String indexName, long taskId);
 
+  CompletableFuture<Void> waitTaskAsync(@Nonnull String indexName, long taskId);
+
   void waitAppTask(long taskId, long timeToWait, RequestOptions requestOptions);
 
   void waitAppTask(long taskId);
+
+  CompletableFuture<Void> waitAppTaskAsync(long taskId);
 }
@@ -320,13 +320,13 @@ public interface SearchClientCopyOperations extends SearchClientBase {
             request,
             CopyResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setIndexName(sourceIndex);
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
@@ -389,13 +389,13 @@ public interface SearchClientCopyOperations extends SearchClientBase {
             request,
             MoveIndexResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setIndexName(destinationIndex);
               resp.setWaitBiConsumer(this::waitTask);
+              resp.setWaitAsyncBiFunction(this::waitTaskAsync);
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   default void checkIndicesBeforeMoving(
@@ -81,12 +81,12 @@ public interface SearchClientDictionary extends SearchClientBase {
             request,
             DictionaryResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitAppTask);
+              resp.setWaitAsyncFunction(this::waitAppTaskAsync);
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
@@ -151,12 +151,12 @@ public interface SearchClientDictionary extends SearchClientBase {
             request,
             DictionaryResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitAppTask);
+              resp.setWaitAsyncFunction(this::waitAppTaskAsync);
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
@@ -225,12 +225,12 @@ public interface SearchClientDictionary extends SearchClientBase {
             request,
             DictionaryResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitAppTask);
+              resp.setWaitAsyncFunction(this::waitAppTaskAsync);
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
@@ -327,16 +327,9 @@ public interface SearchClientDictionary extends SearchClientBase {
             "/1/dictionaries/" + dictionary + "/search",
             CallType.READ,
             query,
-            SearchResult.class,
+            HttpTransport.genericClass(SearchResult.class),
             dictionary.getEntry(),
-            requestOptions)
-        .thenComposeAsync(
-            resp -> {
-              CompletableFuture<SearchResult<T>> r = new CompletableFuture<>();
-              r.complete(resp);
-              return r;
-            },
-            getConfig().getExecutor());
+            requestOptions);
   }
 
   /**
@@ -391,12 +384,12 @@ public interface SearchClientDictionary extends SearchClientBase {
             dictionarySettings,
             DictionaryResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitAppTask);
+              resp.setWaitAsyncFunction(this::waitAppTaskAsync);
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /** Retrieve dictionaries settings. */
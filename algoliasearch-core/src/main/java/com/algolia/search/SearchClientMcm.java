@@ -122,16 +122,9 @@ public interface SearchClientMcm extends SearchClientBase {
             "/1/clusters/mapping/search",
             CallType.READ,
             query,
-            SearchResult.class,
+            HttpTransport.genericClass(SearchResult.class),
             UserId.class,
-            requestOptions)
-        .thenComposeAsync(
-            resp -> {
-              CompletableFuture<SearchResult<UserId>> r = new CompletableFuture<>();
-              r.complete(resp);
-              return r;
-            },
-            getConfig().getExecutor());
+            requestOptions);
   }
 
   /**
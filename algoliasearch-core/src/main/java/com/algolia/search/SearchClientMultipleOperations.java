@@ -84,16 +84,9 @@ public interface SearchClientMultipleOperations extends SearchClientBase {
             "/1/indexes/*/objects",
             CallType.READ,
             request,
-            MultipleGetObjectsResponse.class,
+            HttpTransport.genericClass(MultipleGetObjectsResponse.class),
             clazz,
-            requestOptions)
-        .thenComposeAsync(
-            resp -> {
-              CompletableFuture<MultipleGetObjectsResponse<T>> r = new CompletableFuture<>();
-              r.complete(resp);
-              return r;
-            },
-            getConfig().getExecutor());
+            requestOptions);
   }
 
   /**
@@ -168,12 +161,12 @@ public interface SearchClientMultipleOperations extends SearchClientBase {
             request,
             MultipleIndexBatchIndexingResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
@@ -254,15 +247,8 @@ public interface SearchClientMultipleOperations extends SearchClientBase {
             "/1/indexes/*/queries",
             CallType.READ,
             request,
-            MultipleQueriesResponse.class,
+            HttpTransport.genericClass(MultipleQueriesResponse.class),
             clazz,
-            requestOptions)
-        .thenComposeAsync(
-            resp -> {
-              CompletableFuture<MultipleQueriesResponse<T>> r = new CompletableFuture<>();
-              r.complete(resp);
-              return r;
-            },
-            getConfig().getExecutor());
+            requestOptions);
   }
 }
@@ -9,7 +9,6 @@ import com.algolia.search.exceptions.LaunderThrowable;
 import com.algolia.search.iterators.IndexIterable;
 import com.algolia.search.models.HttpMethod;
 import com.algolia.search.models.RequestOptions;
-import com.algolia.search.models.WaitableResponse;
 import com.algolia.search.models.common.CallType;
 import com.algolia.search.models.common.TaskStatusResponse;
 import com.algolia.search.models.indexing.*;
@@ -326,13 +325,7 @@ public final class SearchIndex<T>
             MultipleGetObjectsResponse.class,
             clazz,
             requestOptions)
-        .thenComposeAsync(
-            resp -> {
-              CompletableFuture<List<T>> r = new CompletableFuture<>();
-              r.complete(resp.getResults());
-              return r;
-            },
-            config.getExecutor());
+        .thenApply(resp -> resp.getResults());
   }
 
   /**
@@ -496,12 +489,12 @@ public final class SearchIndex<T>
             data,
             UpdateObjectResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            config.getExecutor());
+            });
   }
 
   /**
@@ -983,14 +976,12 @@ public final class SearchIndex<T>
     }
 
     return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-        .thenComposeAsync(
+        .thenApply(
             v -> {
               List<BatchResponse> resp =
                   futures.stream().map(CompletableFuture::join).collect(toList());
-
-              return CompletableFuture.completedFuture(new BatchIndexingResponse(resp));
-            },
-            config.getExecutor());
+              return new BatchIndexingResponse(resp);
+            });
   }
 
   /**
@@ -1052,12 +1043,12 @@ public final class SearchIndex<T>
             request,
             BatchResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            config.getExecutor());
+            });
   }
 
   /**
@@ -1121,12 +1112,12 @@ public final class SearchIndex<T>
             CallType.WRITE,
             DeleteResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            config.getExecutor());
+            });
   }
 
   /**
@@ -1248,12 +1239,12 @@ public final class SearchIndex<T>
             CallType.WRITE,
             DeleteResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            config.getExecutor());
+            });
   }
 
   /**
@@ -1339,52 +1330,36 @@ public final class SearchIndex<T>
    */
   public CompletableFuture<MultiResponse> replaceAllObjectsAsync(
       Iterable<T> data, RequestOptions requestOptions, boolean safe) {
-    Objects.requireNonNull(data, "Data can't be null");
-
-    Random rnd = new Random();
-    String tmpIndexName = indexName + "_tmp_" + rnd.nextInt(100);
-    SearchIndex<T> tmpIndex = new SearchIndex<>(transport, config, tmpIndexName, clazz);
-
-    List<String> scopes = Arrays.asList(CopyScope.RULES, CopyScope.SETTINGS, CopyScope.SYNONYMS);
-
-    List<CompletableFuture<? extends WaitableResponse>> futures = new ArrayList<>();
-
-    // Copy index resources
-    CompletableFuture<CopyToResponse> copyResponseFuture =
-        copyToAsync(tmpIndexName, scopes, requestOptions);
-    futures.add(copyResponseFuture);
-
-    if (safe) {
-      copyResponseFuture.join().waitTask();
-    }
-
-    // Save new objects
-    CompletableFuture<BatchIndexingResponse> saveObjectsFuture =
-        tmpIndex.saveObjectsAsync(data, requestOptions);
-    futures.add(saveObjectsFuture);
-
-    if (safe) {
-      saveObjectsFuture.join().waitTask();
-    }
-
-    // Move temporary index to source index
-    CompletableFuture<MoveIndexResponse> moveIndexFuture =
-        moveFromAsync(QueryStringUtils.urlEncodeUTF8(tmpIndexName), requestOptions);
-    futures.add(moveIndexFuture);
-
-    if (safe) {
-      moveIndexFuture.join().waitTask();
-    }
+    return replaceAllObjectsAsync(data, requestOptions, safe, null)
+        .thenApply(MultiResponse.class::cast);
+  }
 
-    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-        .thenComposeAsync(
-            v -> {
-              List<WaitableResponse> resp =
-                  futures.stream().map(CompletableFuture::join).collect(toList());
+  /**
+   * Push a new set of objects and remove all previous ones. Settings, synonyms and query rules are
+   * untouched. Replace all records in an index without any downtime.
+   *
+   * <p>The records are streamed to a temporary index with at most {@link
+   * ConfigBase#getMaxConcurrentBatches()} batches in flight, then the temporary index is moved to
+   * the index. No thread is blocked, even in safe mode. The temporary index is deleted when a stage
+   * fails.
+   *
+   * @param data The data to send
+   * @param requestOptions Options to pass to this request
+   * @param safe Wait for the tasks of each stage before starting the next one
+   * @param listener Notified of the progress of the stages, may be null
+   * @throws AlgoliaRetryException When the retry has failed on all hosts
+   * @throws AlgoliaApiException When the API sends an http error code
+   * @throws AlgoliaRuntimeException When an error occurred during the serialization
+   */
+  public CompletableFuture<ReplaceAllObjectsResponse> replaceAllObjectsAsync(
+      Iterable<T> data,
+      RequestOptions requestOptions,
+      boolean safe,
+      ReplaceAllObjectsListener listener) {
+    Objects.requireNonNull(data, "Data can't be null");
 
-              return CompletableFuture.completedFuture(new MultiResponse().setResponses(resp));
-            },
-            config.getExecutor());
+    return new ReplaceAllObjectsPipeline<>(this, indexName, data, requestOptions, safe, listener)
+        .runAsync();
   }
 
   /**
@@ -1453,12 +1428,12 @@ public final class SearchIndex<T>
             request,
             MoveIndexResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            config.getExecutor());
+            });
   }
 
   /**
@@ -1492,12 +1467,12 @@ public final class SearchIndex<T>
             request,
             CopyToResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            config.getExecutor());
+            });
   }
 
   /**
@@ -1575,22 +1550,14 @@ public final class SearchIndex<T>
       @Nonnull BrowseIndexQuery query, RequestOptions requestOptions) {
     Objects.requireNonNull(query, "A query is required.");
 
-    return transport
-        .executeRequestAsync(
-            HttpMethod.POST,
-            "/1/indexes/" + urlEncodedIndexName + "/browse",
-            CallType.READ,
-            query,
-            BrowseIndexResponse.class,
-            clazz,
-            requestOptions)
-        .thenComposeAsync(
-            resp -> {
-              CompletableFuture<BrowseIndexResponse<T>> r = new CompletableFuture<>();
-              r.complete(resp);
-              return r;
-            },
-            config.getExecutor());
+    return transport.executeRequestAsync(
+        HttpMethod.POST,
+        "/1/indexes/" + urlEncodedIndexName + "/browse",
+        CallType.READ,
+        query,
+        HttpTransport.genericClass(BrowseIndexResponse.class),
+        clazz,
+        requestOptions);
   }
 
   /**
@@ -1708,12 +1675,12 @@ public final class SearchIndex<T>
             query,
             DeleteResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            config.getExecutor());
+            });
   }
 
   /**
@@ -1827,6 +1794,51 @@ public final class SearchIndex<T>
    * @throws AlgoliaRuntimeException When an error occurred during the serialization
    */
   public void waitTask(long taskId, long timeToWait, RequestOptions requestOptions) {
-    TaskUtils.waitTask(taskId, timeToWait, requestOptions, this::getTaskAsync);
+    TaskUtils.waitTask(
+        taskId, timeToWait, requestOptions, this::getTaskAsync, config.getMetricsListener());
+  }
+
+  /**
+   * Wait for a task to complete without blocking the calling thread. The returned future completes
+   * when the task is published. All write operations in Algolia are asynchronous by design.
+   *
+   * @param taskId The Algolia taskID
+   */
+  public CompletableFuture<Void> waitTaskAsync(long taskId) {
+    return waitTaskAsync(taskId, 100, Long.MAX_VALUE, null);
+  }
+
+  /**
+   * Wait for a task to complete without blocking the calling thread. The returned future completes
+   * when the task is published. All write operations in Algolia are asynchronous by design.
+   *
+   * @param taskId The Algolia taskID
+   * @param requestOptions Options to pass to this request
+   */
+  public CompletableFuture<Void> waitTaskAsync(long taskId, RequestOptions requestOptions) {
+    return waitTaskAsync(taskId, 100, Long.MAX_VALUE, requestOptions);
+  }
+
+  /**
+   * Wait for a task to complete without blocking the calling thread. The status of the task is
+   * polled with a jittered exponential backoff from a scheduler shared by all the clients. The
+   * returned future completes exceptionally with an {@link AlgoliaRuntimeException} when the task
+   * is not published before the timeout, or with the error of the failed call. Cancelling it stops
+   * the polling.
+   *
+   * @param taskId The Algolia taskID
+   * @param timeToWait The time to wait between the first two calls, doubled at each call
+   * @param timeout The maximum time to wait for the task, in milliseconds
+   * @param requestOptions Options to pass to this request
+   */
+  public CompletableFuture<Void> waitTaskAsync(
+      long taskId, long timeToWait, long timeout, RequestOptions requestOptions) {
+    return TaskUtils.waitTaskAsync(
+        taskId,
+        timeToWait,
+        timeout,
+        requestOptions,
+        this::getTaskAsync,
+        config.getMetricsListener());
   }
 }
@@ -150,16 +150,9 @@ public interface SearchIndexRules<T> extends SearchIndexBase<T> {
             "/1/indexes/" + getUrlEncodedIndexName() + "/rules/search",
             CallType.READ,
             query,
-            SearchResult.class,
+            HttpTransport.genericClass(SearchResult.class),
             Rule.class,
-            requestOptions)
-        .thenComposeAsync(
-            resp -> {
-              CompletableFuture<SearchResult<Rule>> r = new CompletableFuture<>();
-              r.complete(resp);
-              return r;
-            },
-            getConfig().getExecutor());
+            requestOptions);
   }
 
   /**
@@ -326,12 +319,12 @@ public interface SearchIndexRules<T> extends SearchIndexBase<T> {
             rule,
             SaveRuleResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
@@ -478,12 +471,12 @@ public interface SearchIndexRules<T> extends SearchIndexBase<T> {
             rules,
             SaveRuleResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
@@ -550,12 +543,12 @@ public interface SearchIndexRules<T> extends SearchIndexBase<T> {
             CallType.WRITE,
             DeleteResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
@@ -759,11 +752,11 @@ public interface SearchIndexRules<T> extends SearchIndexBase<T> {
             CallType.WRITE,
             DeleteResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 }
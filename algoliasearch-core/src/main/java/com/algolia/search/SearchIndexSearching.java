@@ -86,16 +86,9 @@ public interface SearchIndexSearching<T> extends SearchIndexBase<T> {
             "/1/indexes/" + getUrlEncodedIndexName() + "/query",
             CallType.READ,
             query,
-            SearchResult.class,
+            HttpTransport.genericClass(SearchResult.class),
             getClazz(),
-            requestOptions)
-        .thenComposeAsync(
-            resp -> {
-              CompletableFuture<SearchResult<T>> r = new CompletableFuture<>();
-              r.complete(resp);
-              return r;
-            },
-            getConfig().getExecutor());
+            requestOptions);
   }
 
   /**
@@ -145,12 +145,12 @@ public interface SearchIndexSettings<T> extends SearchIndexBase<T> {
             settings,
             SetSettingsResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
@@ -84,16 +84,9 @@ public interface SearchIndexSynonyms<T> extends SearchIndexBase<T> {
             "/1/indexes/" + getUrlEncodedIndexName() + "/synonyms/search",
             CallType.READ,
             query,
-            SearchResult.class,
+            HttpTransport.genericClass(SearchResult.class),
             Synonym.class,
-            requestOptions)
-        .thenComposeAsync(
-            resp -> {
-              CompletableFuture<SearchResult<Synonym>> r = new CompletableFuture<>();
-              r.complete(resp);
-              return r;
-            },
-            getConfig().getExecutor());
+            requestOptions);
   }
 
   /**
@@ -321,12 +314,12 @@ public interface SearchIndexSynonyms<T> extends SearchIndexBase<T> {
             synonym,
             SaveSynonymResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
@@ -474,12 +467,12 @@ public interface SearchIndexSynonyms<T> extends SearchIndexBase<T> {
             synonyms,
             SaveSynonymResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
@@ -580,12 +573,12 @@ public interface SearchIndexSynonyms<T> extends SearchIndexBase<T> {
             CallType.WRITE,
             DeleteResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
@@ -670,12 +663,12 @@ public interface SearchIndexSynonyms<T> extends SearchIndexBase<T> {
             CallType.WRITE,
             ClearSynonymsResponse.class,
             requestOptions)
-        .thenApplyAsync(
+        .thenApply(
             resp -> {
               resp.setWaitConsumer(this::waitTask);
+              resp.setWaitAsyncFunction(this::waitTaskAsync);
               return resp;
-            },
-            getConfig().getExecutor());
+            });
   }
 
   /**
@@ -3,15 +3,29 @@ package com.algolia.search;
 import com.algolia.search.exceptions.AlgoliaApiException;
 import com.algolia.search.exceptions.AlgoliaRetryException;
 import com.algolia.search.exceptions.AlgoliaRuntimeException;
+import com.algolia.search.exceptions.LaunderThrowable;
 import com.algolia.search.models.RequestOptions;
+import com.algolia.search.models.apikeys.ApiKey;
 import com.algolia.search.models.common.TaskStatusResponse;
+import com.algolia.search.util.CompletableFutureUtils;
+import com.algolia.search.util.NamedDaemonThreadFactory;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 class TaskUtils {
 
+  /** Time to wait between the calls to get an API key, which is not a task. */
+  static final long API_KEY_TIME_TO_WAIT_MS = 1000L;
+
   private TaskUtils() {
     throw new IllegalStateException("Utility class");
   }
@@ -23,6 +37,7 @@ class TaskUtils {
    * @param timeToWait The time to wait between each call
    * @param requestOptions Options to pass to this request
    * @param getTaskAsync The function to retrieve the task status
+   * @param listener Notified once the wait is over, null when none
    * @throws AlgoliaRetryException When the retry has failed on all hosts
    * @throws AlgoliaApiException When the API sends an http error code
    * @throws AlgoliaRuntimeException When an error occurred during the serialization
@@ -31,31 +46,274 @@ class TaskUtils {
       long taskId,
       long timeToWait,
       RequestOptions requestOptions,
-      BiFunction<Long, RequestOptions, CompletableFuture<TaskStatusResponse>> getTaskAsync) {
-    while (true) {
+      BiFunction<Long, RequestOptions, CompletableFuture<TaskStatusResponse>> getTaskAsync,
+      MetricsListener listener) {
+    await(
+        waitTaskAsync(taskId, timeToWait, Long.MAX_VALUE, requestOptions, getTaskAsync, listener));
+  }
 
-      TaskStatusResponse response;
+  /**
+   * Wait for a task to complete without blocking the calling thread. The status of the task is
+   * polled from a scheduler shared by all the clients, so that pending waits don't hold any thread.
+   *
+   * @param taskId The Algolia taskID
+   * @param timeToWait The time to wait between the first two calls, doubled at each call
+   * @param timeout The maximum time to wait for the task, in milliseconds
+   * @param requestOptions Options to pass to this request
+   * @param getTaskAsync The function to retrieve the task status
+   * @param listener Notified once the wait is over, null when none
+   */
+  static CompletableFuture<Void> waitTaskAsync(
+      long taskId,
+      long timeToWait,
+      long timeout,
+      RequestOptions requestOptions,
+      BiFunction<Long, RequestOptions, CompletableFuture<TaskStatusResponse>> getTaskAsync,
+      MetricsListener listener) {
+    return pollAsync(
+        () ->
+            getTaskAsync
+                .apply(taskId, requestOptions)
+                .thenApply(r -> Objects.equals("published", r.getStatus())),
+        timeToWait,
+        timeout,
+        "task " + taskId,
+        listener);
+  }
 
-      try {
-        response = getTaskAsync.apply(taskId, requestOptions).get();
-      } catch (InterruptedException | ExecutionException e) {
-        // If the future was cancelled or the thread was interrupted or future completed
-        // exceptionally
-        // We stop
-        break;
-      }
+  /**
+   * Wait for an API key to exist on the server, after it was added or restored.
+   *
+   * @param key The API key
+   * @param getApiKeyAsync The function to retrieve the API key
+   * @param listener Notified once the wait is over, null when none
+   */
+  static CompletableFuture<Void> waitApiKeyExistsAsync(
+      String key,
+      Function<String, CompletableFuture<ApiKey>> getApiKeyAsync,
+      MetricsListener listener) {
+    return pollAsync(
+        () ->
+            getApiKeyAsync
+                .apply(key)
+                .handle(
+                    (apiKey, t) -> {
+                      if (t == null) return true;
+                      if (isNotFound(t)) return false;
+                      throw new CompletionException(CompletableFutureUtils.unwrap(t));
+                    }),
+        API_KEY_TIME_TO_WAIT_MS,
+        Long.MAX_VALUE,
+        "API key creation",
+        listener);
+  }
+
+  /**
+   * Wait for an API key to be removed from the server.
+   *
+   * @param key The API key
+   * @param getApiKeyAsync The function to retrieve the API key
+   * @param listener Notified once the wait is over, null when none
+   */
+  static CompletableFuture<Void> waitApiKeyDeletedAsync(
+      String key,
+      Function<String, CompletableFuture<ApiKey>> getApiKeyAsync,
+      MetricsListener listener) {
+    return pollAsync(
+        () ->
+            getApiKeyAsync
+                .apply(key)
+                .handle(
+                    (apiKey, t) -> {
+                      if (t == null) return false;
+                      if (isNotFound(t)) return true;
+                      throw new CompletionException(CompletableFutureUtils.unwrap(t));
+                    }),
+        API_KEY_TIME_TO_WAIT_MS,
+        Long.MAX_VALUE,
+        "API key deletion",
+        listener);
+  }
+
+  /**
+   * Wait for the server to return the updated API key.
+   *
+   * @param pendingKey The API key as sent to the server
+   * @param getApiKeyAsync The function to retrieve the API key
+   * @param listener Notified once the wait is over, null when none
+   */
+  static CompletableFuture<Void> waitApiKeyUpdatedAsync(
+      ApiKey pendingKey,
+      Function<String, CompletableFuture<ApiKey>> getApiKeyAsync,
+      MetricsListener listener) {
+    return pollAsync(
+        () ->
+            getApiKeyAsync
+                .apply(pendingKey.getValue())
+                .thenApply(k -> Objects.equals(k.toString(), pendingKey.toString())),
+        API_KEY_TIME_TO_WAIT_MS,
+        Long.MAX_VALUE,
+        "API key update",
+        listener);
+  }
+
+  /**
+   * Calls {@code isDone} until it returns true, waiting between the calls with an exponential
+   * backoff capped to {@link Defaults#MAX_TIME_MS_TO_WAIT}. Each wait is randomized between half
+   * and all of its value, so that the waits started together don't poll the API together.
+   *
+   * <p>The returned future completes exceptionally as soon as a call fails, or with an {@link
+   * AlgoliaRuntimeException} when the timeout is reached. Cancelling it stops the polling.
+   *
+   * @param isDone The call polling the server
+   * @param timeToWait The time to wait between the first two calls, in milliseconds
+   * @param timeout The maximum time to wait, in milliseconds
+   * @param description What is waited for, for the timeout message and the metrics
+   * @param listener Notified once the wait is over, null when none
+   */
+  static CompletableFuture<Void> pollAsync(
+      Supplier<CompletableFuture<Boolean>> isDone,
+      long timeToWait,
+      long timeout,
+      String description,
+      MetricsListener listener) {
+    if (timeToWait < 1) {
+      throw new IllegalArgumentException("timeToWait must be greater than 0.");
+    }
+    if (timeout < 1) {
+      throw new IllegalArgumentException("timeout must be greater than 0.");
+    }
+
+    Poll poll = new Poll(isDone, timeout, description, listener);
+    poll.next(timeToWait);
+    return poll.result;
+  }
+
+  /** State of a wait, shared by its calls. */
+  private static final class Poll {
 
-      if (Objects.equals("published", response.getStatus())) return;
+    final Supplier<CompletableFuture<Boolean>> isDone;
+    final long start = System.nanoTime();
+    final long timeout;
+    final String description;
+    final MetricsListener listener;
+    final CompletableFuture<Void> result = new CompletableFuture<>();
+    int polls;
+
+    Poll(
+        Supplier<CompletableFuture<Boolean>> isDone,
+        long timeout,
+        String description,
+        MetricsListener listener) {
+      this.isDone = isDone;
+      this.timeout = timeout;
+      this.description = description;
+      this.listener = listener;
+    }
+
+    void next(long timeToWait) {
+      if (result.isDone()) {
+        // Cancelled by the caller
+        report(WaitMetrics.Outcome.CANCELLED);
+        return;
+      }
 
+      polls++;
+      CompletableFuture<Boolean> call;
       try {
-        Thread.sleep(timeToWait);
-      } catch (InterruptedException ignored) {
-        // Restore interrupted state...
-        Thread.currentThread().interrupt();
+        call = isDone.get();
+      } catch (RuntimeException e) {
+        fail(e);
+        return;
       }
 
-      timeToWait *= 2;
-      timeToWait = Math.min(timeToWait, Defaults.MAX_TIME_MS_TO_WAIT);
+      call.whenComplete(
+          (done, t) -> {
+            if (result.isDone()) {
+              report(WaitMetrics.Outcome.CANCELLED);
+              return;
+            }
+
+            if (t != null) {
+              fail(CompletableFutureUtils.unwrap(t));
+              return;
+            }
+
+            if (done) {
+              report(WaitMetrics.Outcome.COMPLETED);
+              result.complete(null);
+              return;
+            }
+
+            long remaining = timeout - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (remaining <= 0) {
+              report(WaitMetrics.Outcome.TIMED_OUT);
+              result.completeExceptionally(
+                  new AlgoliaRuntimeException(
+                      "The " + description + " was not completed after " + timeout + " ms."));
+              return;
+            }
+
+            long delay = Math.min(jitter(timeToWait), remaining);
+            long nextTimeToWait = Math.min(timeToWait * 2, Defaults.MAX_TIME_MS_TO_WAIT);
+
+            Scheduler.INSTANCE.schedule(() -> next(nextTimeToWait), delay, TimeUnit.MILLISECONDS);
+          });
+    }
+
+    private void fail(Throwable t) {
+      report(WaitMetrics.Outcome.FAILED);
+      result.completeExceptionally(t);
+    }
+
+    private void report(WaitMetrics.Outcome outcome) {
+      long elapsedNanos = System.nanoTime() - start;
+      MetricsListener.dispatch(
+          listener, l -> l.onWait(new WaitMetrics(description, polls, elapsedNanos, outcome)));
+    }
+  }
+
+  /**
+   * Blocks until the wait completes. When the thread is interrupted, the wait is cancelled and the
+   * method returns with the interrupted state restored.
+   */
+  static void await(CompletableFuture<Void> wait) {
+    try {
+      wait.get();
+    } catch (InterruptedException e) {
+      wait.cancel(false);
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      throw LaunderThrowable.launder(e);
+    }
+  }
+
+  /** Tells if a failed call was answered with a 404. */
+  private static boolean isNotFound(Throwable t) {
+    Throwable cause = CompletableFutureUtils.unwrap(t);
+    return cause instanceof AlgoliaApiException
+        && ((AlgoliaApiException) cause).getHttpErrorCode() == 404;
+  }
+
+  private static long jitter(long timeToWait) {
+    long half = timeToWait / 2;
+    return half + ThreadLocalRandom.current().nextLong(timeToWait - half + 1);
+  }
+
+  /**
+   * The scheduler of the waits. It only triggers the calls, the responses are handled by the
+   * executors of the clients, so one daemon thread is enough. Created on the first wait.
+   */
+  private static final class Scheduler {
+
+    static final ScheduledExecutorService INSTANCE = create();
+
+    private static ScheduledExecutorService create() {
+      ScheduledThreadPoolExecutor scheduler =
+          new ScheduledThreadPoolExecutor(
+              1, new NamedDaemonThreadFactory("algolia-task-scheduler"));
+      scheduler.setRemoveOnCancelPolicy(true);
+      return scheduler;
     }
   }
 }
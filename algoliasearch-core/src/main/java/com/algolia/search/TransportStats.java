@@ -0,0 +1,98 @@
+package com.algolia.search;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative timings of the stages of the requests sent by a client: waiting for a serialization
+ * worker, JSON serialization, body encoding, network round trips and JSON deserialization.
+ *
+ * <p>Comparing the stages tells whether a workload is CPU bound (serialization, encoding) or
+ * network bound. All the values are thread safe and only grow.
+ */
+public final class TransportStats {
+
+  private final Stage queue = new Stage();
+  private final Stage serialization = new Stage();
+  private final Stage encoding = new Stage();
+  private final Stage network = new Stage();
+  private final Stage deserialization = new Stage();
+
+  TransportStats() {}
+
+  /** Time spent by request bodies waiting for a serialization worker. */
+  public Stage getQueue() {
+    return queue;
+  }
+
+  /** Time spent serializing request bodies to JSON. */
+  public Stage getSerialization() {
+    return serialization;
+  }
+
+  /** Time spent compressing request bodies, see {@link CompressionPolicy}. */
+  public Stage getEncoding() {
+    return encoding;
+  }
+
+  /** Time between sending a request to a host and getting its response, for every attempt. */
+  public Stage getNetwork() {
+    return network;
+  }
+
+  /** Time spent deserializing successful responses. */
+  public Stage getDeserialization() {
+    return deserialization;
+  }
+
+  @Override
+  public String toString() {
+    return "TransportStats{"
+        + "queue="
+        + queue
+        + ", serialization="
+        + serialization
+        + ", encoding="
+        + encoding
+        + ", network="
+        + network
+        + ", deserialization="
+        + deserialization
+        + '}';
+  }
+
+  /** Count and total duration of one stage. */
+  public static final class Stage {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    Stage() {}
+
+    void record(long nanos) {
+      count.increment();
+      totalNanos.add(nanos);
+    }
+
+    /** Number of times the stage was run */
+    public long getCount() {
+      return count.sum();
+    }
+
+    /** Total time spent in the stage */
+    public long getTotalTime(TimeUnit unit) {
+      return unit.convert(totalNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /** Average time spent in the stage, in microseconds */
+    public double getAverageMicros() {
+      long n = count.sum();
+      return n == 0 ? 0 : totalNanos.sum() / 1000.0 / n;
+    }
+
+    @Override
+    public String toString() {
+      return "{count=" + getCount() + ", averageMicros=" + getAverageMicros() + '}';
+    }
+  }
+}
@@ -9,17 +9,28 @@ import com.algolia.search.models.insights.InsightsEvent;
 import com.algolia.search.models.insights.InsightsResult;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
 import javax.annotation.Nonnull;
 
 @SuppressWarnings("WeakerAccess")
 public final class UserInsightsClient {
 
   private final String userToken;
-  private final InsightsClient insightsClient;
+  private final BiFunction<InsightsEvent, RequestOptions, CompletableFuture<InsightsResult>> sender;
 
   public UserInsightsClient(String userToken, InsightsClient insightsClient) {
+    this(userToken, insightsClient::sendEventAsync);
+  }
+
+  /**
+   * @param userToken The user token
+   * @param sender Sends an event, directly or through a {@link BufferedInsightsSender}
+   */
+  UserInsightsClient(
+      String userToken,
+      BiFunction<InsightsEvent, RequestOptions, CompletableFuture<InsightsResult>> sender) {
     this.userToken = userToken;
-    this.insightsClient = insightsClient;
+    this.sender = sender;
   }
 
   /**
@@ -89,7 +100,7 @@ public final class UserInsightsClient {
             .setIndex(indexName)
             .setFilters(filters);
 
-    return insightsClient.sendEventAsync(event, requestOptions);
+    return sender.apply(event, requestOptions);
   }
 
   /**
@@ -159,7 +170,7 @@ public final class UserInsightsClient {
             .setIndex(indexName)
             .setObjectIDs(objectIDs);
 
-    return insightsClient.sendEventAsync(event, requestOptions);
+    return sender.apply(event, requestOptions);
   }
 
   /**
@@ -254,7 +265,7 @@ public final class UserInsightsClient {
             .setPositions(positions)
             .setQueryID(queryID);
 
-    return insightsClient.sendEventAsync(event, requestOptions);
+    return sender.apply(event, requestOptions);
   }
 
   /**
@@ -323,7 +334,7 @@ public final class UserInsightsClient {
             .setIndex(indexName)
             .setObjectIDs(objectIDs);
 
-    return insightsClient.sendEventAsync(event, requestOptions);
+    return sender.apply(event, requestOptions);
   }
 
   /**
@@ -407,7 +418,7 @@ public final class UserInsightsClient {
             .setObjectIDs(objectIDs)
             .setQueryID(queryID);
 
-    return insightsClient.sendEventAsync(event, requestOptions);
+    return sender.apply(event, requestOptions);
   }
 
   /**
@@ -459,7 +470,7 @@ public final class UserInsightsClient {
             .setIndex(indexName)
             .setFilters(filters);
 
-    return insightsClient.sendEventAsync(event, null);
+    return sender.apply(event, null);
   }
 
   /**
@@ -484,7 +495,7 @@ public final class UserInsightsClient {
             .setIndex(indexName)
             .setFilters(filters);
 
-    return insightsClient.sendEventAsync(event, requestOptions);
+    return sender.apply(event, requestOptions);
   }
 
   /**
@@ -553,7 +564,7 @@ public final class UserInsightsClient {
             .setIndex(indexName)
             .setFilters(filters);
 
-    return insightsClient.sendEventAsync(event, requestOptions);
+    return sender.apply(event, requestOptions);
   }
 
   /**
@@ -622,6 +633,6 @@ public final class UserInsightsClient {
             .setIndex(indexName)
             .setObjectIDs(objectIDs);
 
-    return insightsClient.sendEventAsync(event, requestOptions);
+    return sender.apply(event, requestOptions);
   }
 }
@@ -0,0 +1,52 @@
+package com.algolia.search;
+
+import com.algolia.search.exceptions.AlgoliaRuntimeException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to the virtual threads of Java 21+ while the client is compiled for Java 8. The factory
+ * method is looked up once, by reflection.
+ */
+final class VirtualThreads {
+
+  private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findFactory();
+
+  private VirtualThreads() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /** Tells if the running JVM supports virtual threads. */
+  static boolean isSupported() {
+    return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+  }
+
+  /**
+   * Creates an executor starting a new virtual thread for each task.
+   *
+   * @throws UnsupportedOperationException When the JVM doesn't support virtual threads
+   */
+  static ExecutorService newVirtualThreadPerTaskExecutor() {
+    if (!isSupported()) {
+      throw new UnsupportedOperationException(
+          "Virtual threads require Java 21 or later, running on Java "
+              + System.getProperty("java.version"));
+    }
+
+    try {
+      return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new AlgoliaRuntimeException("Unable to create a virtual thread executor", e);
+    }
+  }
+
+  private static Method findFactory() {
+    try {
+      return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package com.algolia.search;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of a wait for a task or an API key, e.g. {@code waitTask}, once it is over. See {@link
+ * MetricsListener#onWait(WaitMetrics)}.
+ */
+public final class WaitMetrics {
+
+  /** How a wait ended. */
+  public enum Outcome {
+    COMPLETED,
+    TIMED_OUT,
+    FAILED,
+    CANCELLED
+  }
+
+  private final String description;
+  private final int polls;
+  private final long durationNanos;
+  private final Outcome outcome;
+
+  WaitMetrics(String description, int polls, long durationNanos, Outcome outcome) {
+    this.description = description;
+    this.polls = polls;
+    this.durationNanos = durationNanos;
+    this.outcome = outcome;
+  }
+
+  /** What was waited for, e.g. task 42 or API key creation. */
+  public String getDescription() {
+    return description;
+  }
+
+  /** Number of calls made to the API to poll the status. */
+  public int getPolls() {
+    return polls;
+  }
+
+  /** Time from the first poll to the end of the wait. */
+  public long getDuration(TimeUnit unit) {
+    return unit.convert(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public Outcome getOutcome() {
+    return outcome;
+  }
+
+  @Override
+  public String toString() {
+    return "WaitMetrics{"
+        + "description="
+        + description
+        + ", polls="
+        + polls
+        + ", durationMillis="
+        + getDuration(TimeUnit.MILLISECONDS)
+        + ", outcome="
+        + outcome
+        + '}';
+  }
+}
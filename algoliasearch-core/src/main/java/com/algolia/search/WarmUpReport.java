@@ -0,0 +1,131 @@
+package com.algolia.search;
+
+import com.algolia.search.models.common.CallType;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of the warm-up of a client: the connections opened to each host, the round-trip time of
+ * the warm-up requests, and the time spent preparing the JSON serializers.
+ *
+ * <p>Meant for readiness probes: see {@link #isReady()}.
+ */
+public final class WarmUpReport {
+
+  private final List<HostReport> hosts;
+  private final long serializationNanos;
+
+  WarmUpReport(List<HostReport> hosts, long serializationNanos) {
+    this.hosts = Collections.unmodifiableList(hosts);
+    this.serializationNanos = serializationNanos;
+  }
+
+  /** One report per host of the configuration. */
+  public List<HostReport> getHosts() {
+    return hosts;
+  }
+
+  /** Time spent preparing the serializers and deserializers of the model classes. */
+  public long getSerializationTime(TimeUnit unit) {
+    return unit.convert(serializationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /** Tells if at least one host was reached for each call type, read and write. */
+  public boolean isReady() {
+    EnumSet<CallType> reached = EnumSet.noneOf(CallType.class);
+    EnumSet<CallType> expected = EnumSet.noneOf(CallType.class);
+
+    for (HostReport host : hosts) {
+      expected.addAll(host.getAccept());
+      if (host.isReachable()) {
+        reached.addAll(host.getAccept());
+      }
+    }
+
+    return reached.equals(expected);
+  }
+
+  @Override
+  public String toString() {
+    return "WarmUpReport{"
+        + "ready="
+        + isReady()
+        + ", hosts="
+        + hosts
+        + ", serializationMillis="
+        + getSerializationTime(TimeUnit.MILLISECONDS)
+        + '}';
+  }
+
+  /** Warm-up of the connections to one host. */
+  public static final class HostReport {
+
+    private final String host;
+    private final EnumSet<CallType> accept;
+    private final int connections;
+    private final int failures;
+    private final long maxRoundTripNanos;
+
+    HostReport(
+        String host,
+        EnumSet<CallType> accept,
+        int connections,
+        int failures,
+        long maxRoundTripNanos) {
+      this.host = host;
+      this.accept = accept;
+      this.connections = connections;
+      this.failures = failures;
+      this.maxRoundTripNanos = maxRoundTripNanos;
+    }
+
+    public String getHost() {
+      return host;
+    }
+
+    /** The call types served by the host. */
+    public EnumSet<CallType> getAccept() {
+      return EnumSet.copyOf(accept);
+    }
+
+    /** Number of requests which got a response from the host. */
+    public int getConnections() {
+      return connections;
+    }
+
+    /** Number of requests which timed out or failed at the network level. */
+    public int getFailures() {
+      return failures;
+    }
+
+    /** Tells if the host answered at least once. */
+    public boolean isReachable() {
+      return connections > 0;
+    }
+
+    /**
+     * Round-trip time of the slowest of the concurrent warm-up requests, from the call to the
+     * requester to the response. It includes the DNS resolution and the connection setup when the
+     * request opened a new connection, but also the queueing in the requester and the server time:
+     * it is not a measure of the handshakes alone.
+     */
+    public long getMaxRoundTripTime(TimeUnit unit) {
+      return unit.convert(maxRoundTripNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+      return "{host="
+          + host
+          + ", connections="
+          + connections
+          + ", failures="
+          + failures
+          + ", maxRoundTripMillis="
+          + getMaxRoundTripTime(TimeUnit.MILLISECONDS)
+          + '}';
+    }
+  }
+}
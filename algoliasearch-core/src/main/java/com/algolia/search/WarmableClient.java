@@ -0,0 +1,44 @@
+package com.algolia.search;
+
+import com.algolia.search.exceptions.LaunderThrowable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Warm-up of the connections and serializers of a client, so that the first requests don't pay for
+ * DNS resolution, connection setup and serializers creation. Meant to be called once the client is
+ * built, e.g. before reporting the application as ready.
+ *
+ * @see WarmUpReport#isReady()
+ */
+public interface WarmableClient {
+
+  /**
+   * Opens connections to each host and prepares the serialization of the common models of the
+   * client. The returned future never completes exceptionally, failures are in the report.
+   *
+   * @param connectionsPerHost The number of concurrent connections to open to each host
+   */
+  CompletableFuture<WarmUpReport> warmUpAsync(int connectionsPerHost);
+
+  /**
+   * Opens a connection to each host and prepares the serialization of the common models. The
+   * returned future never completes exceptionally, failures are in the report.
+   */
+  default CompletableFuture<WarmUpReport> warmUpAsync() {
+    return warmUpAsync(1);
+  }
+
+  /** Opens a connection to each host and prepares the serialization of the common models. */
+  default WarmUpReport warmUp() {
+    return LaunderThrowable.await(warmUpAsync());
+  }
+
+  /**
+   * Opens connections to each host and prepares the serialization of the common models.
+   *
+   * @param connectionsPerHost The number of concurrent connections to open to each host
+   */
+  default WarmUpReport warmUp(int connectionsPerHost) {
+    return LaunderThrowable.await(warmUpAsync(connectionsPerHost));
+  }
+}
@@ -1,6 +1,7 @@
 package com.algolia.search.models;
 
 import com.algolia.search.models.common.CompressionType;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.HashMap;
@@ -62,15 +63,54 @@ public class HttpRequest {
     return this;
   }
 
+  /**
+   * The body of the request. When the body was set as a byte array, a new stream is returned on
+   * each call so the body can be sent again when the request is retried on another host.
+   */
   public InputStream getBody() {
+    if (bodyBytes != null) {
+      return new ByteArrayInputStream(bodyBytes, 0, bodyLength);
+    }
     return body;
   }
 
   public HttpRequest setBody(InputStream body) {
     this.body = body;
+    this.bodyBytes = null;
+    this.bodyLength = 0;
     return this;
   }
 
+  /**
+   * Sets the body from the first bytes of the given array. The array is not copied and must not be
+   * modified until the request has completed.
+   *
+   * @param body The array holding the body
+   * @param length The number of bytes of the body
+   */
+  public HttpRequest setBody(byte[] body, int length) {
+    this.body = null;
+    this.bodyBytes = body;
+    this.bodyLength = length;
+    return this;
+  }
+
+  /**
+   * The array holding the body if it was set as a byte array, null otherwise. Only the first {@link
+   * #getBodyLength()} bytes belong to the body.
+   */
+  public byte[] getBodyBytes() {
+    return bodyBytes;
+  }
+
+  public int getBodyLength() {
+    return bodyLength;
+  }
+
+  public boolean hasBody() {
+    return bodyBytes != null || body != null;
+  }
+
   public int getTimeout() {
     return timeout;
   }
@@ -89,6 +129,16 @@ public class HttpRequest {
     return this;
   }
 
+  /** The encoding applied to the body, if any. Sent as the Content-Encoding header. */
+  public String getContentEncoding() {
+    return contentEncoding;
+  }
+
+  public HttpRequest setContentEncoding(String contentEncoding) {
+    this.contentEncoding = contentEncoding;
+    return this;
+  }
+
   /**
    * Tells if any compression can be enabled for a request or not. Compression is enabled only for
    * POST/PUT methods on the Search API (not on Analytics and Insights).
@@ -114,6 +164,9 @@ public class HttpRequest {
   private String methodPath;
   private Map<String, String> headers;
   private InputStream body;
+  private byte[] bodyBytes;
+  private int bodyLength;
   private int timeout;
   private CompressionType compressionType;
+  private String contentEncoding;
 }
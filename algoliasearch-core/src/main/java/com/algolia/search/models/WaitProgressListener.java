@@ -0,0 +1,15 @@
+package com.algolia.search.models;
+
+/**
+ * Notified while waiting for the tasks of a response spanning several indices or batches, once per
+ * completed wait. Called from the thread completing the wait, it must not block.
+ */
+@FunctionalInterface
+public interface WaitProgressListener {
+
+  /**
+   * @param completed The number of completed waits
+   * @param total The number of waits, one per index once the task IDs are collapsed
+   */
+  void onProgress(int completed, int total);
+}
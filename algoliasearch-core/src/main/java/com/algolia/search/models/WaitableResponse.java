@@ -1,5 +1,8 @@
 package com.algolia.search.models;
 
+import com.algolia.search.util.CompletableFutureUtils;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * All write operations in Algolia are asynchronous by design.
  * https://www.algolia.com/doc/api-reference/api-methods/wait-task/
@@ -11,4 +14,15 @@ public interface WaitableResponse {
    * updates.
    */
   void waitTask();
+
+  /**
+   * Wait for a task to complete without blocking the calling thread. The responses of the clients
+   * poll the task from a shared scheduler; implementations must not block a thread while waiting.
+   * Fails with an {@link IllegalStateException} by default, for the responses not bound to a
+   * client.
+   */
+  default CompletableFuture<Void> waitTaskAsync() {
+    return CompletableFutureUtils.failedFuture(
+        new IllegalStateException("The response is not bound to a client."));
+  }
 }
@@ -2,8 +2,10 @@ package com.algolia.search.models.apikeys;
 
 import com.algolia.search.exceptions.AlgoliaApiException;
 import com.algolia.search.models.WaitableResponse;
+import com.algolia.search.util.CompletableFutureUtils;
 import java.io.Serializable;
 import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 public class AddApiKeyResponse implements WaitableResponse, Serializable {
@@ -20,6 +22,10 @@ public class AddApiKeyResponse implements WaitableResponse, Serializable {
     this.getApiKeyFunction = getApiKeyConsumer;
   }
 
+  public void setWaitAsyncFunction(Function<String, CompletableFuture<Void>> waitAsyncFunction) {
+    this.waitAsyncFunction = waitAsyncFunction;
+  }
+
   public OffsetDateTime getCreatedAt() {
     return createdAt;
   }
@@ -29,6 +35,7 @@ public class AddApiKeyResponse implements WaitableResponse, Serializable {
   }
 
   private Function<String, ApiKey> getApiKeyFunction;
+  private Function<String, CompletableFuture<Void>> waitAsyncFunction;
   private String key;
   private OffsetDateTime createdAt;
 
@@ -52,4 +59,13 @@ public class AddApiKeyResponse implements WaitableResponse, Serializable {
       break;
     }
   }
+
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    if (waitAsyncFunction == null) {
+      return CompletableFutureUtils.failedFuture(
+          new IllegalStateException("The response is not bound to a client."));
+    }
+    return waitAsyncFunction.apply(getKey());
+  }
 }
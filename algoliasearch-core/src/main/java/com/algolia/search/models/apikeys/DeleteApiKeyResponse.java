@@ -2,8 +2,10 @@ package com.algolia.search.models.apikeys;
 
 import com.algolia.search.exceptions.AlgoliaApiException;
 import com.algolia.search.models.WaitableResponse;
+import com.algolia.search.util.CompletableFutureUtils;
 import java.io.Serializable;
 import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 public class DeleteApiKeyResponse implements WaitableResponse, Serializable {
@@ -29,7 +31,12 @@ public class DeleteApiKeyResponse implements WaitableResponse, Serializable {
     this.getApiKeyFunction = getApiKeyConsumer;
   }
 
+  public void setWaitAsyncFunction(Function<String, CompletableFuture<Void>> waitAsyncFunction) {
+    this.waitAsyncFunction = waitAsyncFunction;
+  }
+
   private Function<String, ApiKey> getApiKeyFunction;
+  private Function<String, CompletableFuture<Void>> waitAsyncFunction;
   private String key;
   private OffsetDateTime deletedAt;
 
@@ -52,4 +59,13 @@ public class DeleteApiKeyResponse implements WaitableResponse, Serializable {
       }
     }
   }
+
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    if (waitAsyncFunction == null) {
+      return CompletableFutureUtils.failedFuture(
+          new IllegalStateException("The response is not bound to a client."));
+    }
+    return waitAsyncFunction.apply(getKey());
+  }
 }
@@ -2,8 +2,10 @@ package com.algolia.search.models.apikeys;
 
 import com.algolia.search.exceptions.AlgoliaApiException;
 import com.algolia.search.models.WaitableResponse;
+import com.algolia.search.util.CompletableFutureUtils;
 import java.io.Serializable;
 import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 @SuppressWarnings("WeakerAccess")
@@ -21,7 +23,12 @@ public class RestoreApiKeyResponse implements WaitableResponse, Serializable {
     this.getApiKeyFunction = getApiKeyConsumer;
   }
 
+  public void setWaitAsyncFunction(Function<String, CompletableFuture<Void>> waitAsyncFunction) {
+    this.waitAsyncFunction = waitAsyncFunction;
+  }
+
   private Function<String, ApiKey> getApiKeyFunction;
+  private Function<String, CompletableFuture<Void>> waitAsyncFunction;
   private String key;
   private OffsetDateTime createdAt;
 
@@ -44,4 +51,13 @@ public class RestoreApiKeyResponse implements WaitableResponse, Serializable {
       break;
     }
   }
+
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    if (waitAsyncFunction == null) {
+      return CompletableFutureUtils.failedFuture(
+          new IllegalStateException("The response is not bound to a client."));
+    }
+    return waitAsyncFunction.apply(getKey());
+  }
 }
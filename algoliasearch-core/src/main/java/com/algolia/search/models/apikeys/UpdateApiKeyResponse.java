@@ -1,9 +1,11 @@
 package com.algolia.search.models.apikeys;
 
 import com.algolia.search.models.WaitableResponse;
+import com.algolia.search.util.CompletableFutureUtils;
 import java.io.Serializable;
 import java.time.OffsetDateTime;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 @SuppressWarnings("WeakerAccess")
@@ -21,6 +23,10 @@ public class UpdateApiKeyResponse implements WaitableResponse, Serializable {
     this.getApiKeyFunction = getApiKeyConsumer;
   }
 
+  public void setWaitAsyncFunction(Function<String, CompletableFuture<Void>> waitAsyncFunction) {
+    this.waitAsyncFunction = waitAsyncFunction;
+  }
+
   public OffsetDateTime getUpdatedAt() {
     return updatedAt;
   }
@@ -42,6 +48,7 @@ public class UpdateApiKeyResponse implements WaitableResponse, Serializable {
   }
 
   private Function<String, ApiKey> getApiKeyFunction;
+  private Function<String, CompletableFuture<Void>> waitAsyncFunction;
   private String key;
   private OffsetDateTime updatedAt;
   private ApiKey pendingKey;
@@ -64,4 +71,13 @@ public class UpdateApiKeyResponse implements WaitableResponse, Serializable {
       }
     }
   }
+
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    if (waitAsyncFunction == null) {
+      return CompletableFutureUtils.failedFuture(
+          new IllegalStateException("The response is not bound to a client."));
+    }
+    return waitAsyncFunction.apply(getKey());
+  }
 }
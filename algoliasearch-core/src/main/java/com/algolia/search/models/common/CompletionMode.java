@@ -0,0 +1,12 @@
+package com.algolia.search.models.common;
+
+/** Where the stages of the async methods (deserialization, response mapping) are run. */
+public enum CompletionMode {
+  /** On the client's executor service. Slow callbacks never hold an HTTP client thread. */
+  ASYNC,
+  /**
+   * On the thread completing the HTTP request, without any executor hop. Saves context switches,
+   * but callbacks chained by the caller must not block.
+   */
+  DIRECT
+}
@@ -0,0 +1,17 @@
+package com.algolia.search.models.common;
+
+/** What the default executor of the clients does with a task when its queue is full. */
+public enum RejectionPolicy {
+  /**
+   * Runs the task on the submitting thread, slowing down the producer. The submitting thread may be
+   * an I/O thread of the HTTP client completing a response, which then deserializes it instead of
+   * reading the other responses. The default.
+   */
+  CALLER_RUNS,
+  /**
+   * Fails the task with a {@link java.util.concurrent.RejectedExecutionException}, so that the
+   * requests fail fast once the queue is full, including the requests whose response was already
+   * received.
+   */
+  ABORT
+}
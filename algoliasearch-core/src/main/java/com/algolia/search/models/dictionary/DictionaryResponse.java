@@ -1,11 +1,14 @@
 package com.algolia.search.models.dictionary;
 
 import com.algolia.search.models.WaitableResponse;
+import com.algolia.search.util.CompletableFutureUtils;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import java.io.Serializable;
 import java.time.ZonedDateTime;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -14,6 +17,7 @@ public class DictionaryResponse implements WaitableResponse, Serializable {
   private Long taskID;
   private ZonedDateTime updatedAt;
   private Consumer<Long> waitConsumer;
+  private Function<Long, CompletableFuture<Void>> waitAsyncFunction;
 
   public Long getTaskID() {
     return taskID;
@@ -37,8 +41,21 @@ public class DictionaryResponse implements WaitableResponse, Serializable {
     this.waitConsumer = waitConsumer;
   }
 
+  public void setWaitAsyncFunction(Function<Long, CompletableFuture<Void>> waitAsyncFunction) {
+    this.waitAsyncFunction = waitAsyncFunction;
+  }
+
   @Override
   public void waitTask() {
     waitConsumer.accept(getTaskID());
   }
+
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    if (waitAsyncFunction == null) {
+      return CompletableFutureUtils.failedFuture(
+          new IllegalStateException("The response is not bound to a client."));
+    }
+    return waitAsyncFunction.apply(getTaskID());
+  }
 }
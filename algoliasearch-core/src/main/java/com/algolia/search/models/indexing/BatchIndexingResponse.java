@@ -1,8 +1,11 @@
 package com.algolia.search.models.indexing;
 
+import com.algolia.search.models.WaitProgressListener;
 import com.algolia.search.models.WaitableResponse;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class BatchIndexingResponse implements WaitableResponse, Serializable {
 
@@ -21,8 +24,34 @@ public class BatchIndexingResponse implements WaitableResponse, Serializable {
 
   private List<BatchResponse> responses;
 
+  /**
+   * Waits for the last batch only: the batches are sent to the same index, whose tasks are
+   * processed in the order of their IDs.
+   */
   @Override
   public void waitTask() {
-    for (BatchResponse response : responses) response.waitTask();
+    TaskWaits.latest(responses).ifPresent(BatchResponse::waitTask);
+  }
+
+  /**
+   * Waits for the last batch only: the batches are sent to the same index, whose tasks are
+   * processed in the order of their IDs.
+   */
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    return waitTaskAsync(null);
+  }
+
+  /**
+   * Waits for the last batch only, see {@link #waitTaskAsync()}.
+   *
+   * @param listener Notified when the wait completes
+   */
+  public CompletableFuture<Void> waitTaskAsync(WaitProgressListener listener) {
+    return TaskWaits.allOf(
+        TaskWaits.latest(responses)
+            .map(r -> Collections.singletonList(r.waitTaskAsync()))
+            .orElse(Collections.emptyList()),
+        listener);
   }
 }
@@ -1,10 +1,13 @@
 package com.algolia.search.models.indexing;
 
 import com.algolia.search.models.WaitableResponse;
+import com.algolia.search.util.CompletableFutureUtils;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import java.io.Serializable;
 import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class CopyResponse implements Serializable, WaitableResponse {
@@ -22,6 +25,11 @@ public class CopyResponse implements Serializable, WaitableResponse {
     this.waitConsumer = waitConsumer;
   }
 
+  public void setWaitAsyncFunction(
+      BiFunction<String, Long, CompletableFuture<Void>> waitAsyncFunction) {
+    this.waitAsyncFunction = waitAsyncFunction;
+  }
+
   public OffsetDateTime getUpdatedAt() {
     return updatedAt;
   }
@@ -42,6 +50,7 @@ public class CopyResponse implements Serializable, WaitableResponse {
 
   private OffsetDateTime updatedAt;
   private BiConsumer<String, Long> waitConsumer;
+  private BiFunction<String, Long, CompletableFuture<Void>> waitAsyncFunction;
   private Long taskID;
   private String indexName;
 
@@ -49,4 +58,13 @@ public class CopyResponse implements Serializable, WaitableResponse {
   public void waitTask() {
     waitConsumer.accept(indexName, taskID);
   }
+
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    if (waitAsyncFunction == null) {
+      return CompletableFutureUtils.failedFuture(
+          new IllegalStateException("The response is not bound to a client."));
+    }
+    return waitAsyncFunction.apply(indexName, taskID);
+  }
 }
@@ -1,10 +1,13 @@
 package com.algolia.search.models.indexing;
 
 import com.algolia.search.models.WaitableResponse;
+import com.algolia.search.util.CompletableFutureUtils;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -13,6 +16,7 @@ public class IndexingResponse implements WaitableResponse, Serializable {
 
   private Long taskID;
   private Consumer<Long> waitConsumer;
+  private Function<Long, CompletableFuture<Void>> waitAsyncFunction;
 
   public Long getTaskID() {
     return taskID;
@@ -27,8 +31,21 @@ public class IndexingResponse implements WaitableResponse, Serializable {
     this.waitConsumer = waitConsumer;
   }
 
+  public void setWaitAsyncFunction(Function<Long, CompletableFuture<Void>> waitAsyncFunction) {
+    this.waitAsyncFunction = waitAsyncFunction;
+  }
+
   @Override
   public void waitTask() {
     waitConsumer.accept(getTaskID());
   }
+
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    if (waitAsyncFunction == null) {
+      return CompletableFutureUtils.failedFuture(
+          new IllegalStateException("The response is not bound to a client."));
+    }
+    return waitAsyncFunction.apply(getTaskID());
+  }
 }
@@ -1,11 +1,15 @@
 package com.algolia.search.models.indexing;
 
 import com.algolia.search.models.WaitableResponse;
+import com.algolia.search.util.CompletableFutureUtils;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import java.io.Serializable;
 import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class MoveIndexResponse implements Serializable, WaitableResponse {
@@ -40,10 +44,21 @@ public class MoveIndexResponse implements Serializable, WaitableResponse {
     this.waitConsumer = waitConsumer;
   }
 
+  public void setWaitAsyncBiFunction(
+      BiFunction<String, Long, CompletableFuture<Void>> waitAsyncBiFunction) {
+    this.waitAsyncBiFunction = waitAsyncBiFunction;
+  }
+
+  public void setWaitAsyncFunction(Function<Long, CompletableFuture<Void>> waitAsyncFunction) {
+    this.waitAsyncFunction = waitAsyncFunction;
+  }
+
   private OffsetDateTime updatedAt;
   private String indexName;
   private BiConsumer<String, Long> waitBiConsumer;
   private Consumer<Long> waitConsumer;
+  private BiFunction<String, Long, CompletableFuture<Void>> waitAsyncBiFunction;
+  private Function<Long, CompletableFuture<Void>> waitAsyncFunction;
   private Long taskID;
 
   @Override
@@ -54,4 +69,16 @@ public class MoveIndexResponse implements Serializable, WaitableResponse {
       waitConsumer.accept(taskID);
     }
   }
+
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    if (waitAsyncBiFunction != null) {
+      return waitAsyncBiFunction.apply(indexName, taskID);
+    }
+    if (waitAsyncFunction != null) {
+      return waitAsyncFunction.apply(taskID);
+    }
+    return CompletableFutureUtils.failedFuture(
+        new IllegalStateException("The response is not bound to a client."));
+  }
 }
@@ -1,8 +1,12 @@
 package com.algolia.search.models.indexing;
 
+import com.algolia.search.exceptions.LaunderThrowable;
+import com.algolia.search.models.WaitProgressListener;
 import com.algolia.search.models.WaitableResponse;
 import java.io.Serializable;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 public class MultiResponse implements Serializable, WaitableResponse {
 
@@ -17,10 +21,26 @@ public class MultiResponse implements Serializable, WaitableResponse {
 
   private List<WaitableResponse> responses;
 
+  /** Waits for the tasks of all the responses in parallel. */
   @Override
   public void waitTask() {
-    for (WaitableResponse resp : responses) {
-      resp.waitTask();
-    }
+    LaunderThrowable.await(waitTaskAsync());
+  }
+
+  /** Waits for the tasks of all the responses in parallel. */
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    return waitTaskAsync(null);
+  }
+
+  /**
+   * Waits for the tasks of all the responses in parallel.
+   *
+   * @param listener Notified each time the tasks of a response are completed
+   */
+  public CompletableFuture<Void> waitTaskAsync(WaitProgressListener listener) {
+    return TaskWaits.allOf(
+        responses.stream().map(WaitableResponse::waitTaskAsync).collect(Collectors.toList()),
+        listener);
   }
 }
@@ -1,11 +1,17 @@
 package com.algolia.search.models.indexing;
 
+import com.algolia.search.exceptions.LaunderThrowable;
+import com.algolia.search.models.WaitProgressListener;
 import com.algolia.search.models.WaitableResponse;
+import com.algolia.search.util.CompletableFutureUtils;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class MultipleIndexBatchIndexingResponse implements Serializable, WaitableResponse {
@@ -32,14 +38,49 @@ public class MultipleIndexBatchIndexingResponse implements Serializable, Waitabl
     this.waitConsumer = waitConsumer;
   }
 
+  public void setWaitAsyncFunction(
+      BiFunction<String, Long, CompletableFuture<Void>> waitAsyncFunction) {
+    this.waitAsyncFunction = waitAsyncFunction;
+  }
+
   private BiConsumer<String, Long> waitConsumer;
+  private BiFunction<String, Long, CompletableFuture<Void>> waitAsyncFunction;
   private List<String> objectIDs;
   private Map<String, Long> taskID;
 
+  /** Waits for the tasks of all the indices, in parallel when possible. */
   @Override
   public void waitTask() {
+    if (waitAsyncFunction != null) {
+      LaunderThrowable.await(waitTaskAsync());
+      return;
+    }
+
     for (Map.Entry<String, Long> entry : taskID.entrySet()) {
       waitConsumer.accept(entry.getKey(), entry.getValue());
     }
   }
+
+  /** Waits for the tasks of all the indices in parallel. */
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    return waitTaskAsync(null);
+  }
+
+  /**
+   * Waits for the tasks of all the indices in parallel.
+   *
+   * @param listener Notified each time the task of an index is completed
+   */
+  public CompletableFuture<Void> waitTaskAsync(WaitProgressListener listener) {
+    if (waitAsyncFunction == null) {
+      return CompletableFutureUtils.failedFuture(
+          new IllegalStateException("The response is not bound to a client."));
+    }
+    return TaskWaits.allOf(
+        taskID.entrySet().stream()
+            .map(entry -> waitAsyncFunction.apply(entry.getKey(), entry.getValue()))
+            .collect(Collectors.toList()),
+        listener);
+  }
 }
@@ -0,0 +1,23 @@
+package com.algolia.search.models.indexing;
+
+/**
+ * Follows the progress of replaceAllObjects. Called from the threads completing the requests, it
+ * must not block.
+ */
+public interface ReplaceAllObjectsListener {
+
+  /**
+   * Called when a stage is completed, the wait for its tasks included in safe mode.
+   *
+   * @param stage The completed stage
+   * @param elapsedMillis The duration of the stage, in milliseconds
+   */
+  default void onStageCompleted(ReplaceAllObjectsStage stage, long elapsedMillis) {}
+
+  /**
+   * Called each time a batch of records is saved in the temporary index.
+   *
+   * @param savedObjects The number of records saved so far
+   */
+  default void onObjectsSaved(long savedObjects) {}
+}
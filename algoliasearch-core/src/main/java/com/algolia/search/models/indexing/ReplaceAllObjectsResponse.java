@@ -0,0 +1,52 @@
+package com.algolia.search.models.indexing;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response of replaceAllObjects: the responses of the copy, save and move stages, in this order,
+ * and the duration of each stage.
+ */
+public class ReplaceAllObjectsResponse extends MultiResponse {
+
+  private final Map<ReplaceAllObjectsStage, Long> stageNanos =
+      new EnumMap<>(ReplaceAllObjectsStage.class);
+  private String tmpIndexName;
+  private long savedObjects;
+
+  /** The name of the temporary index, moved to the index by the last stage. */
+  public String getTmpIndexName() {
+    return tmpIndexName;
+  }
+
+  public ReplaceAllObjectsResponse setTmpIndexName(String tmpIndexName) {
+    this.tmpIndexName = tmpIndexName;
+    return this;
+  }
+
+  /** The number of records saved in the temporary index. */
+  public long getSavedObjects() {
+    return savedObjects;
+  }
+
+  public ReplaceAllObjectsResponse setSavedObjects(long savedObjects) {
+    this.savedObjects = savedObjects;
+    return this;
+  }
+
+  /**
+   * The duration of a stage, the wait for its tasks included in safe mode.
+   *
+   * @param stage The stage
+   * @param unit The unit of the returned duration
+   */
+  public long getStageTime(ReplaceAllObjectsStage stage, TimeUnit unit) {
+    return unit.convert(stageNanos.getOrDefault(stage, 0L), TimeUnit.NANOSECONDS);
+  }
+
+  public ReplaceAllObjectsResponse setStageTime(ReplaceAllObjectsStage stage, long nanos) {
+    stageNanos.put(stage, nanos);
+    return this;
+  }
+}
@@ -0,0 +1,11 @@
+package com.algolia.search.models.indexing;
+
+/** The stages of replaceAllObjects, in their order of execution. */
+public enum ReplaceAllObjectsStage {
+  /** Copy of the settings, synonyms and rules of the index to the temporary index. */
+  COPY,
+  /** Indexing of the records in the temporary index. */
+  SAVE,
+  /** Move of the temporary index to the index. */
+  MOVE
+}
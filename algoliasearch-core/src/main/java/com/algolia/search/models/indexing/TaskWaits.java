@@ -0,0 +1,48 @@
+package com.algolia.search.models.indexing;
+
+import com.algolia.search.models.WaitProgressListener;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Waits shared by the responses holding several tasks. The tasks of an index are processed in the
+ * order of their IDs, so only the highest task ID of each index needs to be waited for, and the
+ * distinct indices are waited for in parallel.
+ */
+final class TaskWaits {
+
+  private TaskWaits() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /** The response holding the highest task ID, all the responses being on the same index. */
+  static <R extends IndexingResponse> Optional<R> latest(List<R> responses) {
+    return responses.stream()
+        .filter(r -> r.getTaskID() != null)
+        .max(Comparator.comparing(IndexingResponse::getTaskID));
+  }
+
+  /**
+   * Completes when all the waits are completed, notifying the listener as each of them completes.
+   *
+   * @param waits The waits, already started
+   * @param listener The progress listener, may be null
+   */
+  static CompletableFuture<Void> allOf(
+      List<CompletableFuture<Void>> waits, WaitProgressListener listener) {
+    if (listener == null) {
+      return CompletableFuture.allOf(waits.toArray(new CompletableFuture<?>[0]));
+    }
+
+    int total = waits.size();
+    AtomicInteger completed = new AtomicInteger();
+
+    return CompletableFuture.allOf(
+        waits.stream()
+            .map(w -> w.thenRun(() -> listener.onProgress(completed.incrementAndGet(), total)))
+            .toArray(CompletableFuture<?>[]::new));
+  }
+}
@@ -0,0 +1,297 @@
+package com.algolia.search.models.insights;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An Insights event meant for high-frequency tracking: the object IDs and filters are kept in
+ * arrays and the positions in a primitive {@code long[]}, rather than in lists of boxed values, and
+ * the event is written to the request body by a dedicated JSON writer rather than through Jackson.
+ *
+ * <p>Built with the builder of the current thread, which keeps its arrays from one event to the
+ * next:
+ *
+ * <pre>{@code
+ * CompactInsightsEvent event =
+ *     CompactInsightsEvent.builder()
+ *         .setEventType("click")
+ *         .setEventName("Product clicked")
+ *         .setIndex("products")
+ *         .setUserToken(userToken)
+ *         .setQueryID(queryID)
+ *         .addObjectID(objectID)
+ *         .addPosition(position)
+ *         .build();
+ * }</pre>
+ *
+ * <p>This class is immutable.
+ */
+public final class CompactInsightsEvent {
+
+  /** Value of {@link #getTimestamp()} when the timestamp is not set */
+  public static final long NO_TIMESTAMP = -1L;
+
+  private static final String[] NO_STRINGS = new String[0];
+  private static final long[] NO_LONGS = new long[0];
+
+  private static final ThreadLocal<Builder> BUILDERS = ThreadLocal.withInitial(Builder::new);
+
+  private final String eventType;
+  private final String eventName;
+  private final String index;
+  private final String userToken;
+  private final long timestamp;
+  private final String queryID;
+  private final String[] objectIDs;
+  private final String[] filters;
+  private final long[] positions;
+
+  private CompactInsightsEvent(Builder builder) {
+    this.eventType = builder.eventType;
+    this.eventName = builder.eventName;
+    this.index = builder.index;
+    this.userToken = builder.userToken;
+    this.timestamp = builder.timestamp;
+    this.queryID = builder.queryID;
+    this.objectIDs = copy(builder.objectIDs, builder.objectIDCount);
+    this.filters = copy(builder.filters, builder.filterCount);
+    this.positions =
+        builder.positionCount == 0
+            ? NO_LONGS
+            : Arrays.copyOf(builder.positions, builder.positionCount);
+  }
+
+  /**
+   * The builder of the current thread, emptied. It must not be shared with another thread, nor kept
+   * once the event is built. On virtual threads, which are not reused, prefer {@code new
+   * Builder()}.
+   */
+  public static Builder builder() {
+    return BUILDERS.get().reset();
+  }
+
+  public String getEventType() {
+    return eventType;
+  }
+
+  public String getEventName() {
+    return eventName;
+  }
+
+  public String getIndex() {
+    return index;
+  }
+
+  public String getUserToken() {
+    return userToken;
+  }
+
+  /** Time of the event in milliseconds since the epoch, or {@link #NO_TIMESTAMP}. */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public String getQueryID() {
+    return queryID;
+  }
+
+  public int getObjectIDCount() {
+    return objectIDs.length;
+  }
+
+  public String getObjectID(int i) {
+    return objectIDs[i];
+  }
+
+  public int getFilterCount() {
+    return filters.length;
+  }
+
+  public String getFilter(int i) {
+    return filters[i];
+  }
+
+  public int getPositionCount() {
+    return positions.length;
+  }
+
+  public long getPosition(int i) {
+    return positions[i];
+  }
+
+  /** Converts the event, e.g. to send it with {@link InsightsEvent}s. */
+  public InsightsEvent toInsightsEvent() {
+    InsightsEvent event =
+        new InsightsEvent()
+            .setEventType(eventType)
+            .setEventName(eventName)
+            .setIndex(index)
+            .setUserToken(userToken)
+            .setQueryID(queryID);
+
+    if (timestamp != NO_TIMESTAMP) {
+      event.setTimestamp(timestamp);
+    }
+    if (objectIDs.length > 0) {
+      event.setObjectIDs(Arrays.asList(objectIDs.clone()));
+    }
+    if (filters.length > 0) {
+      event.setFilters(Arrays.asList(filters.clone()));
+    }
+    if (positions.length > 0) {
+      List<Long> boxed = new ArrayList<>(positions.length);
+      for (long position : positions) {
+        boxed.add(position);
+      }
+      event.setPositions(Collections.unmodifiableList(boxed));
+    }
+
+    return event;
+  }
+
+  @Override
+  public String toString() {
+    return "CompactInsightsEvent{"
+        + "eventType='"
+        + eventType
+        + '\''
+        + ", eventName='"
+        + eventName
+        + '\''
+        + ", index='"
+        + index
+        + '\''
+        + ", userToken='"
+        + userToken
+        + '\''
+        + ", timestamp="
+        + timestamp
+        + ", queryID='"
+        + queryID
+        + '\''
+        + ", objectIDs="
+        + Arrays.toString(objectIDs)
+        + ", filters="
+        + Arrays.toString(filters)
+        + ", positions="
+        + Arrays.toString(positions)
+        + '}';
+  }
+
+  private static String[] copy(String[] values, int count) {
+    return count == 0 ? NO_STRINGS : Arrays.copyOf(values, count);
+  }
+
+  /**
+   * Builds {@link CompactInsightsEvent}s. The arrays of the builder grow as needed and are kept
+   * after {@link #build()}, so that building the next event doesn't allocate them again.
+   */
+  public static final class Builder {
+
+    private String eventType;
+    private String eventName;
+    private String index;
+    private String userToken;
+    private long timestamp = NO_TIMESTAMP;
+    private String queryID;
+    private String[] objectIDs = new String[4];
+    private int objectIDCount;
+    private String[] filters = new String[4];
+    private int filterCount;
+    private long[] positions = new long[4];
+    private int positionCount;
+
+    public Builder setEventType(String eventType) {
+      this.eventType = eventType;
+      return this;
+    }
+
+    public Builder setEventName(String eventName) {
+      this.eventName = eventName;
+      return this;
+    }
+
+    public Builder setIndex(String index) {
+      this.index = index;
+      return this;
+    }
+
+    public Builder setUserToken(String userToken) {
+      this.userToken = userToken;
+      return this;
+    }
+
+    /** Time of the event in milliseconds since the epoch. Default = the time it's received. */
+    public Builder setTimestamp(long timestamp) {
+      if (timestamp < 0) {
+        throw new IllegalArgumentException("timestamp must be positive.");
+      }
+      this.timestamp = timestamp;
+      return this;
+    }
+
+    public Builder setQueryID(String queryID) {
+      this.queryID = queryID;
+      return this;
+    }
+
+    public Builder addObjectID(String objectID) {
+      Objects.requireNonNull(objectID, "An objectID is required.");
+      if (objectIDCount == objectIDs.length) {
+        objectIDs = Arrays.copyOf(objectIDs, objectIDCount * 2);
+      }
+      objectIDs[objectIDCount++] = objectID;
+      return this;
+    }
+
+    public Builder addFilter(String filter) {
+      Objects.requireNonNull(filter, "A filter is required.");
+      if (filterCount == filters.length) {
+        filters = Arrays.copyOf(filters, filterCount * 2);
+      }
+      filters[filterCount++] = filter;
+      return this;
+    }
+
+    /** Adds the position of the object at the same index in the object IDs. */
+    public Builder addPosition(long position) {
+      if (positionCount == positions.length) {
+        positions = Arrays.copyOf(positions, positionCount * 2);
+      }
+      positions[positionCount++] = position;
+      return this;
+    }
+
+    /** Adds the positions of the objects, in the order of the object IDs. */
+    public Builder addPositions(int... positions) {
+      for (int position : positions) {
+        addPosition(position);
+      }
+      return this;
+    }
+
+    /** Empties the builder, keeping its arrays. */
+    public Builder reset() {
+      eventType = null;
+      eventName = null;
+      index = null;
+      userToken = null;
+      timestamp = NO_TIMESTAMP;
+      queryID = null;
+      Arrays.fill(objectIDs, 0, objectIDCount, null);
+      objectIDCount = 0;
+      Arrays.fill(filters, 0, filterCount, null);
+      filterCount = 0;
+      positionCount = 0;
+      return this;
+    }
+
+    /** Builds the event. The builder can then be reset to build the next one. */
+    public CompactInsightsEvent build() {
+      return new CompactInsightsEvent(this);
+    }
+  }
+}
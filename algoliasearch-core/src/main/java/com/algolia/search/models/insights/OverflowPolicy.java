@@ -0,0 +1,11 @@
+package com.algolia.search.models.insights;
+
+/** What a buffered events sender does with an event when its buffer is full. */
+public enum OverflowPolicy {
+  /** Waits for room in the buffer, slowing down the producer. */
+  BLOCK,
+  /** Drops the oldest buffered event to make room for the new one. */
+  DROP_OLDEST,
+  /** Drops the new event. */
+  DROP_NEWEST
+}
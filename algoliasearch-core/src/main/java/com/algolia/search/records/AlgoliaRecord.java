@@ -0,0 +1,19 @@
+package com.algolia.search.records;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class as an Algolia record. When the {@code algoliasearch-annotation-processor} module is
+ * on the annotation processor path, a dedicated JSON writer, reader and objectID accessor are
+ * generated at compile time for every annotated class. They are picked up automatically by the
+ * clients at runtime (see {@link GeneratedRecords}), and Jackson's reflective handling is used for
+ * any class without generated code.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface AlgoliaRecord {}
@@ -0,0 +1,117 @@
+package com.algolia.search.records;
+
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+
+/**
+ * Looks up the code generated at compile time for classes annotated with {@link AlgoliaRecord}.
+ *
+ * <p>For a record {@code com.acme.Product} the generated classes are {@code
+ * com.acme.Product_AlgoliaObjectIDAccessor}, {@code com.acme.Product_AlgoliaSerializer} and {@code
+ * com.acme.Product_AlgoliaDeserializer}. Nested classes are flattened with an underscore, e.g.
+ * {@code com.acme.Catalog_Product_AlgoliaSerializer}. Lookups are done once per class and cached.
+ */
+public final class GeneratedRecords {
+
+  public static final String OBJECT_ID_ACCESSOR_SUFFIX = "_AlgoliaObjectIDAccessor";
+  public static final String SERIALIZER_SUFFIX = "_AlgoliaSerializer";
+  public static final String DESERIALIZER_SUFFIX = "_AlgoliaDeserializer";
+
+  private static final Logger LOGGER = Logger.getLogger(GeneratedRecords.class.getName());
+
+  private static final ClassValue<Generated> GENERATED =
+      new ClassValue<Generated>() {
+        @Override
+        protected Generated computeValue(Class<?> type) {
+          return load(type);
+        }
+      };
+
+  private GeneratedRecords() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * Returns the generated objectID accessor of the given class, or null if there is none.
+   *
+   * @param clazz The record class
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> ObjectIDAccessor<T> findObjectIDAccessor(@Nonnull Class<T> clazz) {
+    return (ObjectIDAccessor<T>) GENERATED.get(clazz).objectIDAccessor;
+  }
+
+  /**
+   * Returns the generated JSON writer of the given class, or null if there is none.
+   *
+   * @param clazz The record class
+   */
+  public static JsonSerializer<?> findSerializer(@Nonnull Class<?> clazz) {
+    return GENERATED.get(clazz).serializer;
+  }
+
+  /**
+   * Returns the generated JSON reader of the given class, or null if there is none.
+   *
+   * @param clazz The record class
+   */
+  public static JsonDeserializer<?> findDeserializer(@Nonnull Class<?> clazz) {
+    return GENERATED.get(clazz).deserializer;
+  }
+
+  /**
+   * Computes the fully qualified name of a class generated for the given record class.
+   *
+   * @param recordClassName The binary name of the record class, e.g. {@code com.acme.Outer$Inner}
+   * @param suffix One of the suffixes defined in this class
+   */
+  public static String generatedClassName(@Nonnull String recordClassName, @Nonnull String suffix) {
+    return recordClassName.replace('$', '_') + suffix;
+  }
+
+  private static Generated load(Class<?> type) {
+    if (!type.isAnnotationPresent(AlgoliaRecord.class)) {
+      return Generated.NONE;
+    }
+
+    return new Generated(
+        instantiate(type, OBJECT_ID_ACCESSOR_SUFFIX, ObjectIDAccessor.class),
+        instantiate(type, SERIALIZER_SUFFIX, JsonSerializer.class),
+        instantiate(type, DESERIALIZER_SUFFIX, JsonDeserializer.class));
+  }
+
+  private static <E> E instantiate(Class<?> type, String suffix, Class<E> expectedType) {
+    String name = generatedClassName(type.getName(), suffix);
+    try {
+      Class<?> generated = Class.forName(name, true, type.getClassLoader());
+      return expectedType.cast(generated.getDeclaredConstructor().newInstance());
+    } catch (ClassNotFoundException e) {
+      // Nothing was generated for this record, the reflective path is used instead
+      return null;
+    } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+      LOGGER.log(Level.WARNING, "Can't load the generated class " + name, e);
+      return null;
+    }
+  }
+
+  private static final class Generated {
+
+    private static final Generated NONE = new Generated(null, null, null);
+
+    private final ObjectIDAccessor<?> objectIDAccessor;
+    private final JsonSerializer<?> serializer;
+    private final JsonDeserializer<?> deserializer;
+
+    private Generated(
+        ObjectIDAccessor<?> objectIDAccessor,
+        JsonSerializer<?> serializer,
+        JsonDeserializer<?> deserializer) {
+      this.objectIDAccessor = objectIDAccessor;
+      this.serializer = serializer;
+      this.deserializer = deserializer;
+    }
+  }
+}
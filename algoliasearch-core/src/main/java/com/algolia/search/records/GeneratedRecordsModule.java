@@ -0,0 +1,51 @@
+package com.algolia.search.records;
+
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.deser.Deserializers;
+import com.fasterxml.jackson.databind.ser.Serializers;
+
+/**
+ * Jackson module plugging the writers and readers generated for {@link AlgoliaRecord} classes into
+ * an {@link com.fasterxml.jackson.databind.ObjectMapper}. Types without generated code keep using
+ * Jackson's default bean (de)serializers.
+ */
+public final class GeneratedRecordsModule extends Module {
+
+  @Override
+  public String getModuleName() {
+    return "AlgoliaGeneratedRecords";
+  }
+
+  @Override
+  public Version version() {
+    return Version.unknownVersion();
+  }
+
+  @Override
+  public void setupModule(SetupContext context) {
+    context.addSerializers(
+        new Serializers.Base() {
+          @Override
+          public JsonSerializer<?> findSerializer(
+              SerializationConfig config, JavaType type, BeanDescription beanDesc) {
+            return GeneratedRecords.findSerializer(type.getRawClass());
+          }
+        });
+
+    context.addDeserializers(
+        new Deserializers.Base() {
+          @Override
+          public JsonDeserializer<?> findBeanDeserializer(
+              JavaType type, DeserializationConfig config, BeanDescription beanDesc) {
+            return GeneratedRecords.findDeserializer(type.getRawClass());
+          }
+        });
+  }
+}
@@ -0,0 +1,17 @@
+package com.algolia.search.records;
+
+/**
+ * Reads the objectID of a record without reflection.
+ *
+ * @param <T> The type of the record
+ */
+@FunctionalInterface
+public interface ObjectIDAccessor<T> {
+
+  /**
+   * Returns the objectID of the given record, or null if it's not set.
+   *
+   * @param record The record to read
+   */
+  String getObjectID(T record);
+}
@@ -1,6 +1,7 @@
 package com.algolia.search.util;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class CompletableFutureUtils {
   public static <T> CompletableFuture<T> failedFuture(Throwable t) {
@@ -8,4 +9,9 @@ public class CompletableFutureUtils {
     cf.completeExceptionally(t);
     return cf;
   }
+
+  /** The cause of a {@link CompletionException}, or the exception itself. */
+  public static Throwable unwrap(Throwable t) {
+    return t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+  }
 }
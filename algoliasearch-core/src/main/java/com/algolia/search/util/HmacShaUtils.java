@@ -1,5 +1,6 @@
 package com.algolia.search.util;
 
+import com.algolia.search.exceptions.AlgoliaRuntimeException;
 import com.algolia.search.models.apikeys.SecuredApiKeyRestriction;
 import java.nio.charset.Charset;
 import java.security.InvalidKeyException;
@@ -11,6 +12,8 @@ import javax.crypto.spec.SecretKeySpec;
 
 public class HmacShaUtils {
 
+  private static final byte[] VALID_UNTIL = "validUntil=".getBytes(Charset.forName("UTF8"));
+
   public static String generateSecuredApiKey(
       @Nonnull String privateApiKey, @Nonnull SecuredApiKeyRestriction restriction)
       throws Exception {
@@ -35,4 +38,42 @@ public class HmacShaUtils {
     }
     return sb.toString();
   }
+
+  /**
+   * Reads the validUntil parameter of a secured API key, without a regex or an intermediate string.
+   *
+   * @param securedApiKey The secured API key
+   * @return The expiration of the key, in seconds since the epoch
+   * @throws AlgoliaRuntimeException If the key doesn't have a validUntil parameter
+   * @throws IllegalArgumentException If the key isn't valid Base64
+   */
+  public static long getValidUntil(@Nonnull String securedApiKey) {
+    byte[] decoded = Base64.getDecoder().decode(securedApiKey);
+
+    for (int i = indexOf(decoded, 0); i >= 0; i = indexOf(decoded, i + 1)) {
+      int start = i + VALID_UNTIL.length;
+      int end = start;
+      while (end < decoded.length && decoded[end] >= '0' && decoded[end] <= '9') {
+        end++;
+      }
+      if (end > start) {
+        return Long.parseLong(new String(decoded, start, end - start, Charset.forName("UTF8")));
+      }
+    }
+
+    throw new AlgoliaRuntimeException("The Secured API Key doesn't have a validUntil parameter.");
+  }
+
+  private static int indexOf(byte[] bytes, int from) {
+    outer:
+    for (int i = from; i <= bytes.length - VALID_UNTIL.length; i++) {
+      for (int j = 0; j < VALID_UNTIL.length; j++) {
+        if (bytes[i + j] != VALID_UNTIL[j]) {
+          continue outer;
+        }
+      }
+      return i;
+    }
+    return -1;
+  }
 }
@@ -0,0 +1,27 @@
+package com.algolia.search.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+
+/**
+ * Creates the background threads of the clients, named after the given name and their number, e.g.
+ * algolia-task-scheduler-1. They are daemon threads, so that a client left open does not prevent
+ * the JVM from exiting.
+ */
+public final class NamedDaemonThreadFactory implements ThreadFactory {
+
+  private final String name;
+  private final AtomicInteger threadNumber = new AtomicInteger();
+
+  public NamedDaemonThreadFactory(@Nonnull String name) {
+    this.name = name;
+  }
+
+  @Override
+  public Thread newThread(@Nonnull Runnable r) {
+    Thread t = new Thread(r, name + "-" + threadNumber.incrementAndGet());
+    t.setDaemon(true);
+    return t;
+  }
+}
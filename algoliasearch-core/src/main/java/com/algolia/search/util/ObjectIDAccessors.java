@@ -0,0 +1,189 @@
+package com.algolia.search.util;
+
+import com.algolia.search.exceptions.AlgoliaRuntimeException;
+import com.algolia.search.records.GeneratedRecords;
+import com.algolia.search.records.ObjectIDAccessor;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+
+/**
+ * Per-class cache of objectID accessors. The objectID field and the @JsonProperty("objectID") field
+ * are looked up once per class, then read through {@link MethodHandle}s for every record.
+ */
+final class ObjectIDAccessors {
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  private static final ClassValue<Accessor> ACCESSORS =
+      new ClassValue<Accessor>() {
+        @Override
+        protected Accessor computeValue(Class<?> type) {
+          return resolve(type);
+        }
+      };
+
+  private ObjectIDAccessors() {}
+
+  /** Returns the accessor of the given class, resolved on first use */
+  static Accessor get(@Nonnull Class<?> clazz) {
+    return ACCESSORS.get(clazz);
+  }
+
+  private static Accessor resolve(Class<?> clazz) {
+    // Use the accessor generated at compile time for @AlgoliaRecord classes if any
+    ObjectIDAccessor<Object> generated = GeneratedRecords.findObjectIDAccessor(cast(clazz));
+
+    if (generated != null) {
+      return new Accessor(clazz, generated, null, null);
+    }
+
+    // Try to find the objectID field
+    MethodHandle objectIDField = unreflect(getField(clazz, "objectID"));
+
+    // Then check for Jackson annotations in all the fields
+    MethodHandle annotatedField = unreflect(findObjectIDInAnnotation(clazz).orElse(null));
+
+    return new Accessor(clazz, null, objectIDField, annotatedField);
+  }
+
+  private static MethodHandle unreflect(Field field) {
+    if (field == null) {
+      return null;
+    }
+
+    try {
+      field.setAccessible(true);
+      return MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+    } catch (IllegalAccessException e) {
+      throw new AlgoliaRuntimeException("Can't access the ObjectID field.", e);
+    }
+  }
+
+  private static Optional<Field> findObjectIDInAnnotation(@Nonnull Class<?> clazz) {
+    List<Field> fields = getFields(clazz);
+    return fields.stream()
+        .filter(
+            f ->
+                f.getAnnotation(JsonProperty.class) != null
+                    && f.getAnnotation(JsonProperty.class).value().equals("objectID"))
+        .findFirst();
+  }
+
+  /**
+   * Recursively search for the given field in the given class
+   *
+   * @param clazz The class to reflect on
+   * @param fieldName The field to reach
+   */
+  private static Field getField(@Nonnull Class<?> clazz, @Nonnull String fieldName) {
+    Class<?> tmpClass = clazz;
+    do {
+      try {
+        return tmpClass.getDeclaredField(fieldName);
+      } catch (NoSuchFieldException e) {
+        tmpClass = tmpClass.getSuperclass();
+      }
+    } while (tmpClass != null);
+
+    return null;
+  }
+
+  /**
+   * Recursively search for all fields in the given class
+   *
+   * @param clazz The class to reflect on
+   */
+  private static List<Field> getFields(@Nonnull Class<?> clazz) {
+    List<Field> result = new ArrayList<>();
+    Class<?> i = clazz;
+
+    while (i != null && i != Object.class) {
+      Collections.addAll(result, i.getDeclaredFields());
+      i = i.getSuperclass();
+    }
+
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Class<T> cast(Class<?> clazz) {
+    return (Class<T>) clazz;
+  }
+
+  /** Reads the objectID of the records of one class */
+  static final class Accessor {
+
+    private final Class<?> clazz;
+    private final ObjectIDAccessor<Object> generated;
+    private final MethodHandle objectIDField;
+    private final MethodHandle annotatedField;
+
+    private Accessor(
+        Class<?> clazz,
+        ObjectIDAccessor<Object> generated,
+        MethodHandle objectIDField,
+        MethodHandle annotatedField) {
+      this.clazz = clazz;
+      this.generated = generated;
+      this.objectIDField = objectIDField;
+      this.annotatedField = annotatedField;
+    }
+
+    /** Whether the class has an objectID field or a @JsonProperty("objectID") field */
+    boolean isPresent() {
+      return generated != null || objectIDField != null || annotatedField != null;
+    }
+
+    /**
+     * Returns the objectID of the given record
+     *
+     * @throws AlgoliaRuntimeException When the class doesn't have an objectID or when it's null
+     */
+    String getObjectID(@Nonnull Object data) {
+      String objectID = null;
+
+      if (generated != null) {
+        objectID = generated.getObjectID(data);
+      } else {
+        if (objectIDField != null) {
+          objectID = read(objectIDField, data);
+        }
+
+        if (objectID == null && annotatedField != null) {
+          objectID = read(annotatedField, data);
+        }
+      }
+
+      if (objectID != null) {
+        return objectID;
+      }
+
+      throw missingObjectID(clazz);
+    }
+
+    private static String read(MethodHandle getter, Object data) {
+      try {
+        return (String) (Object) getter.invokeExact(data);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new AlgoliaRuntimeException("Can't access the ObjectID field.", e);
+      }
+    }
+  }
+
+  static AlgoliaRuntimeException missingObjectID(Class<?> clazz) {
+    return new AlgoliaRuntimeException(
+        "The "
+            + clazz
+            + " must have an objectID property or a Jackson annotation @JsonProperty(\"objectID\")");
+  }
+}
@@ -0,0 +1,333 @@
+package com.algolia.search.util;
+
+import com.algolia.search.MetricsListener;
+import com.algolia.search.exceptions.AlgoliaRuntimeException;
+import com.algolia.search.models.apikeys.SecuredApiKeyRestriction;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+
+/**
+ * Caches the secured API keys generated from one parent API key, so that the users sharing the same
+ * restrictions share the same key.
+ *
+ * <p>The restrictions with a validUntil get a key served until their validUntil minus a safety
+ * margin, and not refreshed. The restrictions without a validUntil get a key which never expires,
+ * as from {@code SearchClient#generateSecuredAPIKey}, unless {@link Builder#setKeyValidity} is set:
+ * their key is then valid for that duration, served until its validUntil minus the safety margin,
+ * and generated again in the background when it is requested shortly before that, so that the
+ * callers don't wait for it.
+ *
+ * <p>The cache holds at most {@link Builder#setMaximumSize} restrictions, the least recently used
+ * are evicted first. This class is thread-safe.
+ */
+public final class SecuredApiKeyCache {
+
+  /** The validUntil of the keys which never expire */
+  private static final long NO_VALID_UNTIL = Long.MAX_VALUE;
+
+  private final SecuredApiKeyMinter minter;
+  /** Validity added to the restrictions without a validUntil, 0 when disabled */
+  private final long keyValidityMs;
+
+  private final long safetyMarginMs;
+  private final long refreshBeforeMs;
+  private final Executor executor;
+  private final MetricsListener metricsListener;
+
+  /** Access-ordered, so that the eldest entry is the least recently used one. */
+  private final LinkedHashMap<String, Entry> entries;
+
+  /** Expiration of the keys, so that a key is decoded once. */
+  private final LinkedHashMap<String, Long> validUntils;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  private SecuredApiKeyCache(Builder builder) {
+    this.minter = new SecuredApiKeyMinter(builder.parentApiKey);
+    this.keyValidityMs = builder.keyValidity != null ? builder.keyValidity.toMillis() : 0;
+    this.safetyMarginMs = builder.safetyMargin.toMillis();
+    this.refreshBeforeMs = builder.refreshBefore.toMillis();
+    this.executor = builder.executor;
+    this.metricsListener = builder.metricsListener;
+    this.entries = newLruMap(builder.maximumSize);
+    this.validUntils = newLruMap(builder.maximumSize);
+  }
+
+  /**
+   * Gets the secured API key of the restrictions, generating it when it is not cached or expires
+   * soon.
+   *
+   * @param restriction The restrictions of the key
+   * @throws AlgoliaRuntimeException If the signature fails
+   */
+  public String get(@Nonnull SecuredApiKeyRestriction restriction) {
+    Objects.requireNonNull(restriction, "A restriction is required.");
+
+    StringBuilder sb = new StringBuilder(128);
+    SecuredApiKeyMinter.appendRestrictionQueryString(restriction, sb);
+    String canonical = sb.toString();
+
+    long now = System.currentTimeMillis();
+    Entry entry;
+
+    synchronized (entries) {
+      entry = entries.get(canonical);
+    }
+
+    if (entry != null && now < entry.expiresAt) {
+      hits.increment();
+      MetricsListener.dispatch(metricsListener, l -> l.onCacheAccess("securedApiKey", true));
+      if (entry.refreshAt <= now && entry.refreshing.compareAndSet(false, true)) {
+        refresh(canonical, restriction, entry);
+      }
+      return entry.key;
+    }
+
+    misses.increment();
+    MetricsListener.dispatch(metricsListener, l -> l.onCacheAccess("securedApiKey", false));
+    entry = generate(restriction, now);
+
+    if (now < entry.expiresAt) {
+      put(canonical, entry);
+    }
+
+    return entry.key;
+  }
+
+  /**
+   * Gets how long the secured API key is still valid, as {@code
+   * SearchClient#getSecuredApiKeyRemainingValidity}, without decoding the keys generated by this
+   * cache or already seen.
+   *
+   * @param securedApiKey The secured API key
+   * @throws AlgoliaRuntimeException If the key doesn't have a validUntil parameter
+   */
+  public Duration getRemainingValidity(@Nonnull String securedApiKey) {
+    if (AlgoliaUtils.isNullOrEmptyWhiteSpace(securedApiKey)) {
+      throw new AlgoliaRuntimeException("securedAPIKey must not be empty, null or whitespaces");
+    }
+
+    Long validUntil;
+
+    synchronized (validUntils) {
+      validUntil = validUntils.get(securedApiKey);
+    }
+
+    if (validUntil == null) {
+      validUntil = HmacShaUtils.getValidUntil(securedApiKey);
+      synchronized (validUntils) {
+        validUntils.put(securedApiKey, validUntil);
+      }
+    }
+
+    return Duration.ofSeconds(validUntil - System.currentTimeMillis() / 1000);
+  }
+
+  /** Number of restrictions cached. */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /** Number of keys served from the cache. */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /** Number of keys generated because they were not cached or had expired. */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /** Removes all the keys. */
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+    synchronized (validUntils) {
+      validUntils.clear();
+    }
+  }
+
+  private void refresh(String canonical, SecuredApiKeyRestriction restriction, Entry previous) {
+    try {
+      executor.execute(
+          () -> {
+            try {
+              put(canonical, generate(restriction, System.currentTimeMillis()));
+            } finally {
+              // Lets a later request try again, if the generation failed
+              previous.refreshing.set(false);
+            }
+          });
+    } catch (RuntimeException e) {
+      previous.refreshing.set(false);
+    }
+  }
+
+  private Entry generate(SecuredApiKeyRestriction restriction, long now) {
+    if (restriction.getValidUntil() != null) {
+      long validUntil = restriction.getValidUntil();
+      return newEntry(minter.generate(restriction), validUntil, false);
+    }
+
+    if (keyValidityMs == 0) {
+      return new Entry(
+          minter.generate(restriction), NO_VALID_UNTIL, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    long validUntil = (now + keyValidityMs) / 1000;
+    SecuredApiKeyRestriction withValidity =
+        new SecuredApiKeyRestriction()
+            .setQuery(restriction.getQuery())
+            .setValidUntil(validUntil)
+            .setRestrictIndices(restriction.getRestrictIndices())
+            .setRestrictSources(restriction.getRestrictSources())
+            .setUserToken(restriction.getUserToken());
+
+    return newEntry(minter.generate(withValidity), validUntil, true);
+  }
+
+  private Entry newEntry(String key, long validUntil, boolean refreshable) {
+    long expiresAt = validUntil * 1000 - safetyMarginMs;
+    long refreshAt = refreshable ? expiresAt - refreshBeforeMs : Long.MAX_VALUE;
+    return new Entry(key, validUntil, expiresAt, refreshAt);
+  }
+
+  private void put(String canonical, Entry entry) {
+    synchronized (entries) {
+      entries.put(canonical, entry);
+    }
+    if (entry.validUntil == NO_VALID_UNTIL) {
+      return;
+    }
+    synchronized (validUntils) {
+      validUntils.put(entry.key, entry.validUntil);
+    }
+  }
+
+  private static <V> LinkedHashMap<String, V> newLruMap(int maximumSize) {
+    return new LinkedHashMap<String, V>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+        return size() > maximumSize;
+      }
+    };
+  }
+
+  private static final class Entry {
+
+    final String key;
+    final long validUntil;
+    final long expiresAt;
+    final long refreshAt;
+    final AtomicBoolean refreshing = new AtomicBoolean();
+
+    Entry(String key, long validUntil, long expiresAt, long refreshAt) {
+      this.key = key;
+      this.validUntil = validUntil;
+      this.expiresAt = expiresAt;
+      this.refreshAt = refreshAt;
+    }
+  }
+
+  public static class Builder {
+
+    private final String parentApiKey;
+    private Duration keyValidity;
+    private Duration safetyMargin = Duration.ofMinutes(1);
+    private Duration refreshBefore = Duration.ofMinutes(5);
+    private int maximumSize = 10_000;
+    private Executor executor = Runnable::run;
+    private MetricsListener metricsListener;
+
+    /**
+     * See also {@code SearchClient#securedApiKeyCacheBuilder}, which uses the executor and the
+     * metrics listener of the client.
+     *
+     * @param parentApiKey The API key the secured API keys are generated from
+     */
+    public Builder(@Nonnull String parentApiKey) {
+      this.parentApiKey = Objects.requireNonNull(parentApiKey, "A parent API key is required.");
+    }
+
+    /**
+     * Gives the restrictions without a validUntil a key valid for this duration, refreshed before
+     * it expires. Default = null, their key never expires
+     */
+    public Builder setKeyValidity(@Nonnull Duration keyValidity) {
+      Objects.requireNonNull(keyValidity, "keyValidity is required.");
+      if (keyValidity.getSeconds() < 1) {
+        throw new IllegalArgumentException("keyValidity must be at least 1 second.");
+      }
+      this.keyValidity = keyValidity;
+      return this;
+    }
+
+    /**
+     * Overrides how long before its validUntil a key stops being served, so that the users don't
+     * get a key about to expire. Default = 1 min
+     */
+    public Builder setSafetyMargin(@Nonnull Duration safetyMargin) {
+      Objects.requireNonNull(safetyMargin, "safetyMargin is required.");
+      if (safetyMargin.isNegative()) {
+        throw new IllegalArgumentException("safetyMargin must be positive.");
+      }
+      this.safetyMargin = safetyMargin;
+      return this;
+    }
+
+    /**
+     * Overrides how long before it stops being served a key is generated again in the background.
+     * Default = 5 min
+     */
+    public Builder setRefreshBefore(@Nonnull Duration refreshBefore) {
+      Objects.requireNonNull(refreshBefore, "refreshBefore is required.");
+      if (refreshBefore.isNegative()) {
+        throw new IllegalArgumentException("refreshBefore must be positive.");
+      }
+      this.refreshBefore = refreshBefore;
+      return this;
+    }
+
+    /** Overrides the maximum number of restrictions cached. Default = 10 000 */
+    public Builder setMaximumSize(int maximumSize) {
+      if (maximumSize < 1) {
+        throw new IllegalArgumentException("maximumSize must be greater than 0.");
+      }
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * Overrides the executor generating the keys in the background. Default = the thread getting
+     * the key, which then generates it before returning the current one
+     */
+    public Builder setExecutor(@Nonnull Executor executor) {
+      this.executor = Objects.requireNonNull(executor, "An executor is required.");
+      return this;
+    }
+
+    /** Sets a listener notified of the hits and misses, e.g. the one of the client. */
+    public Builder setMetricsListener(MetricsListener metricsListener) {
+      this.metricsListener = metricsListener;
+      return this;
+    }
+
+    public SecuredApiKeyCache build() {
+      if (keyValidity != null && safetyMargin.plus(refreshBefore).compareTo(keyValidity) > 0) {
+        throw new IllegalArgumentException(
+            "safetyMargin and refreshBefore must not exceed keyValidity.");
+      }
+      return new SecuredApiKeyCache(this);
+    }
+  }
+}
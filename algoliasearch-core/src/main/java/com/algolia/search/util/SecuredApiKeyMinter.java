@@ -0,0 +1,254 @@
+package com.algolia.search.util;
+
+import com.algolia.search.exceptions.AlgoliaRuntimeException;
+import com.algolia.search.models.apikeys.SecuredApiKeyRestriction;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nonnull;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Generates secured API keys from one parent API key, for the services generating a key per user
+ * session. The keys are the same as {@link HmacShaUtils#generateSecuredApiKey(String,
+ * SecuredApiKeyRestriction)}, but:
+ *
+ * <ul>
+ *   <li>the {@link Mac}s are initialized with the parent key once, and pooled,
+ *   <li>the restrictions are encoded directly to the query string, rather than converted to a map
+ *       by Jackson. The {@link SecuredApiKeyRestriction#getQuery() query} is still encoded by
+ *       {@link QueryStringUtils#buildQueryAsQueryParams},
+ *   <li>the signature is hex-encoded with a lookup table.
+ * </ul>
+ *
+ * <p>This class is thread-safe, and meant to be reused.
+ */
+public final class SecuredApiKeyMinter {
+
+  private static final String ALGORITHM = "HmacSHA256";
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+  private static final char[] UPPER_HEX = "0123456789ABCDEF".toCharArray();
+  private static final int MAX_SLOTS = 64;
+
+  private final SecretKeySpec key;
+  private final Mac prototype;
+  private final AtomicReferenceArray<Mac> macs;
+  private final int mask;
+
+  /**
+   * @param parentApiKey The API key the secured API keys are generated from
+   * @throws IllegalArgumentException If the parent API key is empty
+   * @throws AlgoliaRuntimeException If the JVM doesn't support HmacSHA256
+   */
+  public SecuredApiKeyMinter(@Nonnull String parentApiKey) {
+    Objects.requireNonNull(parentApiKey, "A parent API key is required.");
+
+    if (AlgoliaUtils.isEmptyWhiteSpace(parentApiKey)) {
+      throw new IllegalArgumentException("The parent API key can't be empty.");
+    }
+
+    this.key = new SecretKeySpec(parentApiKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    this.prototype = newMac();
+
+    int slots = Math.min(MAX_SLOTS, Runtime.getRuntime().availableProcessors() * 2);
+    int size = Integer.highestOneBit(Math.max(1, slots) * 2 - 1);
+    this.macs = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+  }
+
+  /**
+   * Generates a secured API key.
+   *
+   * @param restriction The restrictions of the key
+   * @throws AlgoliaRuntimeException If the signature fails
+   */
+  public String generate(@Nonnull SecuredApiKeyRestriction restriction) {
+    Objects.requireNonNull(restriction, "A restriction is required.");
+
+    Mac mac = acquire();
+    try {
+      return generate(mac, restriction, new StringBuilder(256));
+    } finally {
+      release(mac);
+    }
+  }
+
+  /**
+   * Generates a secured API key per restriction, in the same order.
+   *
+   * @param restrictions The restrictions of each key
+   * @throws AlgoliaRuntimeException If the signature fails
+   */
+  public List<String> generate(@Nonnull List<SecuredApiKeyRestriction> restrictions) {
+    Objects.requireNonNull(restrictions, "Restrictions are required.");
+
+    List<String> keys = new ArrayList<>(restrictions.size());
+    StringBuilder sb = new StringBuilder(256);
+    Mac mac = acquire();
+
+    try {
+      for (SecuredApiKeyRestriction restriction : restrictions) {
+        Objects.requireNonNull(restriction, "A restriction is required.");
+        sb.setLength(0);
+        keys.add(generate(mac, restriction, sb));
+      }
+    } finally {
+      release(mac);
+    }
+
+    return keys;
+  }
+
+  private static String generate(Mac mac, SecuredApiKeyRestriction restriction, StringBuilder sb) {
+    appendRestrictionQueryString(restriction, sb);
+
+    // The query string is URL-encoded, so one byte per char
+    int length = sb.length();
+    byte[] message = new byte[64 + length];
+    for (int i = 0; i < length; i++) {
+      message[64 + i] = (byte) sb.charAt(i);
+    }
+
+    mac.update(message, 64, length);
+    byte[] signature = mac.doFinal();
+
+    // The key is the Base64 of the hex signature followed by the query string
+    for (int i = 0; i < signature.length; i++) {
+      message[2 * i] = (byte) HEX[(signature[i] >> 4) & 0xF];
+      message[2 * i + 1] = (byte) HEX[signature[i] & 0xF];
+    }
+
+    return Base64.getEncoder().encodeToString(message);
+  }
+
+  /**
+   * Writes the restrictions as {@link QueryStringUtils#buildRestrictionQueryString} does: the
+   * fields in their declaration order, the query last.
+   */
+  static void appendRestrictionQueryString(SecuredApiKeyRestriction restriction, StringBuilder sb) {
+    if (restriction.getValidUntil() != null) {
+      appendParameter(sb, "validUntil").append(restriction.getValidUntil().longValue());
+    }
+
+    if (restriction.getRestrictIndices() != null) {
+      appendParameter(sb, "restrictIndices");
+      List<String> indices = restriction.getRestrictIndices();
+      for (int i = 0; i < indices.size(); i++) {
+        if (i > 0) {
+          // Encoded comma
+          sb.append("%2C");
+        }
+        appendUrlEncoded(sb, String.valueOf(indices.get(i)));
+      }
+    }
+
+    if (restriction.getRestrictSources() != null) {
+      appendUrlEncoded(appendParameter(sb, "restrictSources"), restriction.getRestrictSources());
+    }
+
+    if (restriction.getUserToken() != null) {
+      appendUrlEncoded(appendParameter(sb, "userToken"), restriction.getUserToken());
+    }
+
+    if (restriction.getQuery() != null) {
+      sb.append('&').append(QueryStringUtils.buildQueryAsQueryParams(restriction.getQuery()));
+    }
+  }
+
+  private static StringBuilder appendParameter(StringBuilder sb, String name) {
+    if (sb.length() > 0) {
+      sb.append('&');
+    }
+    return sb.append(name).append('=');
+  }
+
+  /** URL-encodes a value as {@link java.net.URLEncoder} does with UTF-8. */
+  static void appendUrlEncoded(StringBuilder sb, String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+
+      if ((c >= 'a' && c <= 'z')
+          || (c >= 'A' && c <= 'Z')
+          || (c >= '0' && c <= '9')
+          || c == '.'
+          || c == '-'
+          || c == '*'
+          || c == '_') {
+        sb.append(c);
+      } else if (c == ' ') {
+        sb.append('+');
+      } else if (c < 0x80) {
+        appendEncodedByte(sb, c);
+      } else if (c < 0x800) {
+        appendEncodedByte(sb, 0xC0 | (c >> 6));
+        appendEncodedByte(sb, 0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c)
+          && i + 1 < value.length()
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, value.charAt(++i));
+        appendEncodedByte(sb, 0xF0 | (cp >> 18));
+        appendEncodedByte(sb, 0x80 | ((cp >> 12) & 0x3F));
+        appendEncodedByte(sb, 0x80 | ((cp >> 6) & 0x3F));
+        appendEncodedByte(sb, 0x80 | (cp & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        // Not encodable in UTF-8, replaced as String#getBytes does
+        appendEncodedByte(sb, '?');
+      } else {
+        appendEncodedByte(sb, 0xE0 | (c >> 12));
+        appendEncodedByte(sb, 0x80 | ((c >> 6) & 0x3F));
+        appendEncodedByte(sb, 0x80 | (c & 0x3F));
+      }
+    }
+  }
+
+  private static void appendEncodedByte(StringBuilder sb, int b) {
+    sb.append('%').append(UPPER_HEX[(b >> 4) & 0xF]).append(UPPER_HEX[b & 0xF]);
+  }
+
+  /** Takes an initialized Mac from the pool, or clones the prototype. */
+  private Mac acquire() {
+    int stripe = stripe();
+    for (int i = 0; i < 2; i++) {
+      Mac mac = macs.getAndSet((stripe + i) & mask, null);
+      if (mac != null) {
+        return mac;
+      }
+    }
+
+    try {
+      return (Mac) prototype.clone();
+    } catch (CloneNotSupportedException e) {
+      return newMac();
+    }
+  }
+
+  /** Gives the Mac back to the pool, reset by {@link Mac#doFinal()}, or drops it. */
+  private void release(Mac mac) {
+    int stripe = stripe();
+    for (int i = 0; i < 2; i++) {
+      if (macs.compareAndSet((stripe + i) & mask, null, mac)) {
+        return;
+      }
+    }
+  }
+
+  private Mac newMac() {
+    try {
+      Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(key);
+      return mac;
+    } catch (GeneralSecurityException e) {
+      throw new AlgoliaRuntimeException("Error while initializing " + ALGORITHM, e);
+    }
+  }
+
+  private static int stripe() {
+    long id = Thread.currentThread().getId();
+    return (int) (id ^ (id >>> 16)) * 0x9E3779B9 >>> 16;
+  }
+}
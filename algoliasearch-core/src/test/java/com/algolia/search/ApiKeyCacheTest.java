@@ -0,0 +1,125 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.algolia.search.models.HttpMethod;
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.models.apikeys.ApiKey;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ApiKeyCacheTest {
+
+  private static final String KEYS =
+      "{\"keys\":["
+          + "{\"value\":\"searchKey\",\"acl\":[\"search\",\"browse\"],\"indexes\":[\"dev_*\",\"products\"],"
+          + "\"maxQueriesPerIPPerHour\":100,\"validity\":0},"
+          + "{\"value\":\"adminKey\",\"acl\":[\"addObject\",\"inference\"]}"
+          + "]}";
+
+  @Test
+  void testKeysAreLookedUpLocally() throws IOException {
+    AtomicInteger lists = new AtomicInteger();
+
+    try (SearchClient client = new SearchClient(config(), requester(lists));
+        ApiKeyCache cache = new ApiKeyCache.Builder(client).build()) {
+      cache.reload();
+      int requests = lists.get();
+
+      assertThat(cache.isAllowed("searchKey", "search", "dev_products")).isTrue();
+      assertThat(cache.isAllowed("searchKey", "search", "products")).isTrue();
+      assertThat(cache.isAllowed("searchKey", "search", "prod_products")).isFalse();
+      assertThat(cache.isAllowed("searchKey", "addObject", "products")).isFalse();
+      assertThat(cache.get("searchKey").getMaxQueriesPerIPPerHour()).isEqualTo(100);
+      assertThat(cache.get("searchKey").getAcl()).containsExactly("search", "browse");
+
+      // Unknown ACLs are kept
+      assertThat(cache.isAllowed("adminKey", "inference", "any")).isTrue();
+      assertThat(cache.get("unknownKey")).isNull();
+      assertThat(lists.get()).isEqualTo(requests);
+    }
+  }
+
+  @Test
+  void testChangesThroughTheClientAreApplied() throws IOException {
+    try (SearchClient client = new SearchClient(config(), requester(new AtomicInteger()));
+        ApiKeyCache cache = new ApiKeyCache.Builder(client).build()) {
+      cache.reload();
+
+      ApiKey update =
+          new ApiKey()
+              .setAcl(Collections.singletonList("search"))
+              .setIndexes(Collections.singletonList("prod_*"));
+      update.setValue("searchKey");
+      client.updateApiKey(update);
+      client.deleteApiKey("adminKey");
+
+      // A reload listing the keys as before the changes doesn't override them
+      cache.reload();
+
+      assertThat(cache.isAllowed("searchKey", "search", "prod_products")).isTrue();
+      assertThat(cache.isAllowed("searchKey", "browse", "prod_products")).isFalse();
+      assertThat(cache.get("adminKey")).isNull();
+    }
+  }
+
+  @Test
+  void testThrowingListenerDoesNotFailTheCall() throws IOException {
+    try (SearchClient client = new SearchClient(config(), requester(new AtomicInteger()))) {
+      client
+          .getTransport()
+          .addApiKeyListener(
+              new ApiKeyListener() {
+                @Override
+                public void onApiKeyChanged(String key, ApiKey apiKey) {
+                  throw new IllegalStateException("listener");
+                }
+
+                @Override
+                public void onApiKeyDeleted(String key) {
+                  throw new IllegalStateException("listener");
+                }
+              });
+
+      ApiKey update = new ApiKey().setAcl(Collections.singletonList("search"));
+      update.setValue("searchKey");
+
+      assertThat(client.updateApiKey(update)).isNotNull();
+      assertThat(client.deleteApiKey("adminKey")).isNotNull();
+    }
+  }
+
+  private static SearchConfig config() {
+    return new SearchConfig.Builder("appID", "apiKEY").build();
+  }
+
+  private static HttpRequester requester(AtomicInteger lists) {
+    return new HttpRequester() {
+      @Override
+      public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+        String body;
+
+        if (request.getMethod() == HttpMethod.GET) {
+          lists.incrementAndGet();
+          body = KEYS;
+        } else if (request.getMethod() == HttpMethod.DELETE) {
+          body = "{\"deletedAt\":\"2020-01-01T00:00:00Z\"}";
+        } else {
+          body = "{\"updatedAt\":\"2020-01-01T00:00:00Z\"}";
+        }
+
+        return CompletableFuture.completedFuture(
+            new HttpResponse(200, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))));
+      }
+
+      @Override
+      public void close() {}
+    };
+  }
+}
@@ -0,0 +1,84 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.algolia.search.BufferPool.PooledBuffer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+class BufferPoolTest {
+
+  @Test
+  void testBuffersAreReused() {
+    BufferPool pool = new BufferPool(1);
+
+    PooledBuffer buffer = pool.acquireBuffer();
+    buffer.write(1);
+    pool.releaseBuffer(buffer);
+
+    PooledBuffer reused = pool.acquireBuffer();
+    assertThat(reused).isSameAs(buffer);
+    assertThat(reused.size()).isZero();
+
+    BufferPoolStats stats = pool.stats();
+    assertThat(stats.getBufferHits()).isEqualTo(1);
+    assertThat(stats.getBufferMisses()).isEqualTo(1);
+    assertThat(stats.getBufferHitRate()).isEqualTo(0.5);
+  }
+
+  @Test
+  void testOversizedBuffersAreDiscarded() {
+    BufferPool pool = new BufferPool(1);
+    int size = BufferPool.MAX_RETAINED_BUFFER_SIZE + 1;
+
+    PooledBuffer large = pool.acquireBuffer();
+    large.write(new byte[size], 0, size);
+    pool.releaseBuffer(large);
+
+    assertThat(pool.stats().getBuffersDiscarded()).isEqualTo(1);
+    assertThat(pool.acquireBuffer()).isNotSameAs(large);
+  }
+
+  @Test
+  void testPooledGzipIsReadable() throws IOException {
+    BufferPool pool = new BufferPool(1);
+    Map<String, String> data = Collections.singletonMap("objectID", "one");
+
+    for (int i = 0; i < 2; i++) {
+      PooledBuffer buffer = pool.acquireBuffer();
+
+      try (OutputStream gzipOS =
+          new PooledGzipOutputStream(buffer, pool, Deflater.DEFAULT_COMPRESSION)) {
+        Defaults.getObjectMapper().writeValue(gzipOS, data);
+      }
+
+      try (GZIPInputStream in =
+          new GZIPInputStream(new ByteArrayInputStream(buffer.array(), 0, buffer.size()))) {
+        assertThat(new String(readAll(in), StandardCharsets.UTF_8))
+            .isEqualTo("{\"objectID\":\"one\"}");
+      }
+
+      pool.releaseBuffer(buffer);
+    }
+
+    assertThat(pool.stats().getDeflaterHits()).isEqualTo(1);
+  }
+
+  private static byte[] readAll(GZIPInputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] chunk = new byte[256];
+    int read;
+    while ((read = in.read(chunk)) != -1) {
+      out.write(chunk, 0, read);
+    }
+    return out.toByteArray();
+  }
+}
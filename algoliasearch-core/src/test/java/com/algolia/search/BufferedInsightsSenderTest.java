@@ -0,0 +1,163 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.models.insights.InsightsEvent;
+import com.algolia.search.models.insights.InsightsResult;
+import com.algolia.search.models.insights.OverflowPolicy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class BufferedInsightsSenderTest {
+
+  @Test
+  void testEventsAreSentInBatches() throws Exception {
+    EventsRequester requester = new EventsRequester();
+
+    try (InsightsClient client =
+        new InsightsClient(new InsightsConfig.Builder("appID", "apiKEY").build(), requester)) {
+      BufferedInsightsSender sender =
+          client.buffered(new InsightsBufferConfig.Builder().setLingerMs(60_000).build());
+
+      for (int i = 0; i < 2500; i++) {
+        assertThat(sender.offer(event(i))).isTrue();
+      }
+
+      CompletableFuture<InsightsResult> last =
+          sender
+              .user("user")
+              .clickedObjectIDsAsync("click", "index", Collections.singletonList("1"));
+
+      sender.flush().get(5, TimeUnit.SECONDS);
+
+      assertThat(last).isCompleted();
+      assertThat(sender.getSentCount()).isEqualTo(2501);
+      assertThat(sender.getPendingCount()).isZero();
+      assertThat(requester.bodies).hasSize(3);
+    }
+  }
+
+  @Test
+  void testOverflowPolicies() throws IOException {
+    EventsRequester requester = new EventsRequester();
+
+    try (InsightsClient client =
+        new InsightsClient(new InsightsConfig.Builder("appID", "apiKEY").build(), requester)) {
+      InsightsBufferConfig.Builder config =
+          new InsightsBufferConfig.Builder().setCapacity(10).setLingerMs(60_000);
+
+      BufferedInsightsSender dropNewest =
+          client.buffered(config.setOverflowPolicy(OverflowPolicy.DROP_NEWEST).build());
+      BufferedInsightsSender dropOldest =
+          client.buffered(config.setOverflowPolicy(OverflowPolicy.DROP_OLDEST).build());
+
+      for (int i = 0; i < 15; i++) {
+        dropNewest.offer(event(i));
+        dropOldest.offer(event(i));
+      }
+
+      assertThat(dropNewest.offer(event(99))).isFalse();
+      assertThat(dropNewest.getDroppedCount()).isEqualTo(6);
+      assertThat(dropOldest.offer(event(99))).isTrue();
+      assertThat(dropOldest.getDroppedCount()).isEqualTo(6);
+      assertThat(dropOldest.getPendingCount()).isEqualTo(10);
+    }
+
+    // Closing the client flushes the buffers
+    assertThat(requester.bodies).hasSize(2);
+  }
+
+  @Test
+  void testBlockedProducerResumesOnceABatchIsSent() throws Exception {
+    EventsRequester requester = new EventsRequester();
+    requester.pending = new CompletableFuture<>();
+
+    try (InsightsClient client =
+        new InsightsClient(new InsightsConfig.Builder("appID", "apiKEY").build(), requester)) {
+      BufferedInsightsSender sender =
+          client.buffered(
+              new InsightsBufferConfig.Builder()
+                  .setCapacity(10)
+                  .setMaxBatchSize(5)
+                  .setFlushers(1)
+                  .setLingerMs(60_000)
+                  .setOverflowPolicy(OverflowPolicy.BLOCK)
+                  .build());
+
+      // One batch in flight, two in the buffer
+      for (int i = 0; i < 15; i++) {
+        assertThat(sender.offer(event(i))).isTrue();
+      }
+
+      CompletableFuture<Boolean> blocked =
+          CompletableFuture.supplyAsync(() -> sender.offer(event(15)));
+      Thread.sleep(100);
+      boolean waitedForRoom = !blocked.isDone();
+
+      // The first batch is sent, the next one frees the room
+      requester.pending.complete(null);
+      assertThat(waitedForRoom).isTrue();
+      assertThat(blocked.get(5, TimeUnit.SECONDS)).isTrue();
+      assertThat(sender.getDroppedCount()).isZero();
+    }
+  }
+
+  @Test
+  void testClosedSenderIsForgottenByTheClient() throws IOException {
+    EventsRequester requester = new EventsRequester();
+
+    try (InsightsClient client =
+        new InsightsClient(new InsightsConfig.Builder("appID", "apiKEY").build(), requester)) {
+      BufferedInsightsSender sender = client.buffered();
+      sender.offer(event(0));
+      sender.close();
+
+      assertThat(requester.bodies).hasSize(1);
+    }
+
+    // Not flushed again by the client
+    assertThat(requester.bodies).hasSize(1);
+  }
+
+  private static InsightsEvent event(int i) {
+    return new InsightsEvent()
+        .setEventType("view")
+        .setEventName("view")
+        .setIndex("index")
+        .setUserToken("user")
+        .setObjectIDs(Collections.singletonList(String.valueOf(i)));
+  }
+
+  private static class EventsRequester implements HttpRequester {
+
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+
+    /** When set, the responses wait for it to complete */
+    private volatile CompletableFuture<Void> pending;
+
+    @Override
+    public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+      bodies.add(new String(request.getBodyBytes(), 0, request.getBodyLength()));
+      CompletableFuture<Void> gate =
+          pending != null ? pending : CompletableFuture.completedFuture(null);
+      return gate.thenApply(
+          v ->
+              new HttpResponse(
+                  200,
+                  new ByteArrayInputStream(
+                      "{\"status\":200,\"message\":\"OK\"}".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,47 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.algolia.search.models.HttpMethod;
+import com.algolia.search.models.common.CallType;
+import com.algolia.search.models.common.CompressionType;
+import org.junit.jupiter.api.Test;
+
+class CompressionPolicyTest {
+
+  @Test
+  void testDefaultPolicyFromCompressionType() {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setCompressionType(CompressionType.GZIP)
+            .build();
+    CompressionPolicy policy = config.getCompressionPolicy();
+
+    assertThat(policy.getEncoder(HttpMethod.POST, CallType.WRITE, 2048))
+        .isSameAs(ContentEncoder.gzip());
+    assertThat(policy.getEncoder(HttpMethod.PUT, CallType.READ, 2048))
+        .isSameAs(ContentEncoder.gzip());
+    assertThat(policy.getEncoder(HttpMethod.POST, CallType.READ, 200)).isNull();
+    assertThat(policy.getEncoder(HttpMethod.GET, CallType.READ, 2048)).isNull();
+
+    assertThat(new SearchConfig.Builder("appID", "apiKEY").build().getCompressionPolicy())
+        .isSameAs(CompressionPolicy.none());
+  }
+
+  @Test
+  void testCallTypeRules() {
+    CompressionPolicy policy =
+        new CompressionPolicy.Builder()
+            .setCompressionType(CompressionType.GZIP)
+            .setCompressionType(CallType.READ, CompressionType.NONE)
+            .setMinBodySize(0)
+            .setLevel(1)
+            .build();
+
+    assertThat(policy.getEncoder(HttpMethod.POST, CallType.WRITE, 10))
+        .isSameAs(ContentEncoder.gzip());
+    assertThat(policy.getEncoder(HttpMethod.POST, CallType.READ, 10)).isNull();
+    assertThat(policy.getLevel()).isEqualTo(1);
+    assertThat(policy.isEnabled()).isTrue();
+  }
+}
@@ -0,0 +1,47 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class ConnectionPoolConfigTest {
+
+  @Test
+  void testDefaults() {
+    SearchConfig config = new SearchConfig.Builder("appID", "apiKEY").build();
+    ConnectionPoolConfig poolConfig = config.getConnectionPoolConfig();
+
+    assertThat(poolConfig).isSameAs(ConnectionPoolConfig.defaults());
+    assertThat(poolConfig.getMaxConnPerRoute()).isEqualTo(100);
+    assertThat(poolConfig.getMaxConnTotal(config.getHosts().size()))
+        .isEqualTo(100 * config.getHosts().size());
+    assertThat(poolConfig.getIdleTimeOut()).isNull();
+  }
+
+  @Test
+  void testCustomPool() {
+    ConnectionPoolConfig poolConfig =
+        new ConnectionPoolConfig.Builder()
+            .setMaxConnPerRoute(10)
+            .setMaxConnTotal(25)
+            .setIdleTimeOut(30_000)
+            .build();
+
+    assertThat(poolConfig.getMaxConnTotal(4)).isEqualTo(25);
+    assertThat(poolConfig.getIdleTimeOut()).isEqualTo(30_000);
+    assertThatThrownBy(() -> new ConnectionPoolConfig.Builder().setMaxConnPerRoute(0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void testStatsOfTheRoutesToAHostAreSummed() {
+    ConnectionPoolStats stats =
+        new ConnectionPoolStats(2, 3, 0, 100).plus(new ConnectionPoolStats(1, 0, 4, 100));
+
+    assertThat(stats.getLeased()).isEqualTo(3);
+    assertThat(stats.getAvailable()).isEqualTo(3);
+    assertThat(stats.getPending()).isEqualTo(4);
+    assertThat(stats.getMax()).isEqualTo(200);
+  }
+}
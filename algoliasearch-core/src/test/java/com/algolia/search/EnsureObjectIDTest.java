@@ -1,5 +1,6 @@
 package com.algolia.search;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -133,6 +134,32 @@ class EnsureObjectIDTest {
                     DummyChildWithAnnotation.class))
         .doesNotThrowAnyException();
   }
+
+  @Test
+  @DisplayName("Test AlgoliaUtils.getObjectID returns the value of each record")
+  void testGetObjectIDValues() {
+    for (int i = 0; i < 3; i++) {
+      assertThat(
+              AlgoliaUtils.getObjectID(
+                  new DummyObjectWithObjectID().setObjectID("foo" + i),
+                  DummyObjectWithObjectID.class))
+          .isEqualTo("foo" + i);
+
+      assertThat(
+              AlgoliaUtils.getObjectID(
+                  (DummyChildWithAnnotation) new DummyChildWithAnnotation().setId("bar" + i),
+                  DummyChildWithAnnotation.class))
+          .isEqualTo("bar" + i);
+    }
+
+    assertThatThrownBy(
+            () ->
+                AlgoliaUtils.getObjectID(
+                    new DummyObjectWithObjectID(), DummyObjectWithObjectID.class))
+        .isInstanceOf(AlgoliaRuntimeException.class)
+        .hasMessageContaining(
+            "must have an objectID property or a Jackson annotation @JsonProperty(\"objectID\")");
+  }
 }
 
 class DummyObjectWithoutObjectId {
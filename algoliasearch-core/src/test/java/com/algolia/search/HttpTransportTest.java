@@ -0,0 +1,459 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.algolia.search.models.HttpMethod;
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.models.common.CallType;
+import com.algolia.search.models.common.CompletionMode;
+import com.algolia.search.models.common.RetryOutcome;
+import com.algolia.search.models.indexing.ActionEnum;
+import com.algolia.search.models.indexing.BatchRequest;
+import com.algolia.search.models.indexing.SearchResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+class HttpTransportTest {
+
+  @Test
+  void testRetriesResendTheSerializedBody() throws IOException {
+    ExecutorService serializationExecutor = Executors.newFixedThreadPool(2);
+
+    try {
+      SearchConfig config =
+          new SearchConfig.Builder("appID", "apiKEY")
+              .setCompressionPolicy(
+                  new CompressionPolicy.Builder()
+                      .setEncoder(ContentEncoder.gzip())
+                      .setMinBodySize(0)
+                      .build())
+              .setSerializationExecutor(serializationExecutor)
+              .build();
+
+      RecordingRequester requester = new RecordingRequester();
+      HttpTransport transport = new HttpTransport(config, requester);
+
+      JsonNode response =
+          transport
+              .executeRequestAsync(
+                  HttpMethod.POST,
+                  "/1/indexes/test/batch",
+                  CallType.WRITE,
+                  Collections.singletonMap("objectID", "one"),
+                  JsonNode.class,
+                  null)
+              .join();
+
+      assertThat(response.get("taskID").asLong()).isEqualTo(42);
+      assertThat(requester.bodies).hasSize(2);
+      assertThat(requester.bodies).allMatch(b -> b.equals("{\"objectID\":\"one\"}"));
+
+      TransportStats stats = transport.getStats();
+      assertThat(stats.getQueue().getCount()).isEqualTo(1);
+      assertThat(stats.getSerialization().getCount()).isEqualTo(1);
+      assertThat(stats.getEncoding().getCount()).isEqualTo(1);
+      assertThat(stats.getNetwork().getCount()).isEqualTo(2);
+      assertThat(stats.getDeserialization().getCount()).isEqualTo(1);
+    } finally {
+      serializationExecutor.shutdown();
+    }
+  }
+
+  @Test
+  void testBodiesAreCompressedOnceTheyReachTheMinimumSize() {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setCompressionPolicy(
+                new CompressionPolicy.Builder()
+                    .setEncoder(ContentEncoder.gzip())
+                    .setMinBodySize(64)
+                    .build())
+            .build();
+
+    // The bodies are pooled, so they are read while in flight
+    List<String> encodings = Collections.synchronizedList(new ArrayList<>());
+    List<String> bodies = Collections.synchronizedList(new ArrayList<>());
+    List<Integer> lengths = Collections.synchronizedList(new ArrayList<>());
+    HttpRequester requester =
+        new HttpRequester() {
+          @Override
+          public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+            encodings.add(request.getContentEncoding());
+            lengths.add(request.getBodyLength());
+            try (InputStream in =
+                request.getContentEncoding() != null
+                    ? new GZIPInputStream(request.getBody())
+                    : request.getBody()) {
+              bodies.add(readAll(in));
+            } catch (IOException e) {
+              throw new IllegalStateException(e);
+            }
+            return CompletableFuture.completedFuture(
+                new HttpResponse(
+                    200, new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8))));
+          }
+
+          @Override
+          public void close() {}
+        };
+
+    HttpTransport transport = new HttpTransport(config, requester);
+    char[] chars = new char[10_000];
+    Arrays.fill(chars, 'a');
+    String large = new String(chars);
+
+    for (String value : Arrays.asList("small", large)) {
+      transport
+          .executeRequestAsync(
+              HttpMethod.POST,
+              "/1/indexes/test",
+              CallType.WRITE,
+              Collections.singletonMap("value", value),
+              JsonNode.class,
+              null)
+          .join();
+    }
+
+    assertThat(encodings).containsExactly(null, Defaults.CONTENT_ENCODING_GZIP);
+    assertThat(bodies).containsExactly("{\"value\":\"small\"}", "{\"value\":\"" + large + "\"}");
+    assertThat(lengths.get(1)).isLessThan(1000);
+  }
+
+  @Test
+  void testMetricsListenerReceivesEveryAttempt() {
+    List<AttemptMetrics> attempts = Collections.synchronizedList(new ArrayList<>());
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setCompressionPolicy(
+                new CompressionPolicy.Builder()
+                    .setEncoder(ContentEncoder.gzip())
+                    .setMinBodySize(0)
+                    .build())
+            .setCompletionMode(CompletionMode.DIRECT)
+            .setMetricsListener(attempts::add)
+            .build();
+
+    HttpTransport transport = new HttpTransport(config, new RecordingRequester());
+
+    transport
+        .executeRequestAsync(
+            HttpMethod.POST,
+            "/1/indexes/products/batch",
+            CallType.WRITE,
+            Collections.singletonMap("objectID", "one"),
+            JsonNode.class,
+            null)
+        .join();
+
+    assertThat(attempts).hasSize(2);
+    assertThat(attempts).allMatch(a -> a.getEndpoint().equals("/1/indexes/{index}/batch"));
+    assertThat(attempts).allMatch(a -> a.getUncompressedRequestBytes() == 18);
+
+    AttemptMetrics failed = attempts.get(0);
+    assertThat(failed.getAttempt()).isEqualTo(1);
+    assertThat(failed.getStatusCode()).isEqualTo(500);
+    assertThat(failed.getOutcome()).isEqualTo(RetryOutcome.RETRY);
+    assertThat(failed.isDecided()).isTrue();
+    assertThat(failed.getResponseBytes()).isEqualTo(-1);
+
+    AttemptMetrics succeeded = attempts.get(1);
+    assertThat(succeeded.getAttempt()).isEqualTo(2);
+    assertThat(succeeded.getOutcome()).isEqualTo(RetryOutcome.SUCCESS);
+    assertThat(succeeded.getHost()).isNotEqualTo(failed.getHost());
+    assertThat(succeeded.getResponseBytes()).isEqualTo(13);
+  }
+
+  @Test
+  void testBatchesAreReportedOnceAllTheirAttemptsAreOver() {
+    List<BatchMetrics> batches = Collections.synchronizedList(new ArrayList<>());
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setCompressionPolicy(
+                new CompressionPolicy.Builder()
+                    .setEncoder(ContentEncoder.gzip())
+                    .setMinBodySize(0)
+                    .build())
+            .setCompletionMode(CompletionMode.DIRECT)
+            .setMetricsListener(
+                new MetricsListener() {
+                  @Override
+                  public void onAttempt(AttemptMetrics metrics) {}
+
+                  @Override
+                  public void onBatch(BatchMetrics metrics) {
+                    batches.add(metrics);
+                  }
+                })
+            .build();
+
+    HttpTransport transport = new HttpTransport(config, new RecordingRequester());
+
+    transport
+        .executeRequestAsync(
+            HttpMethod.POST,
+            "/1/indexes/products/batch",
+            CallType.WRITE,
+            new BatchRequest<>(ActionEnum.ADD_OBJECT, Arrays.asList("one", "two")),
+            JsonNode.class,
+            null)
+        .join();
+
+    assertThat(batches).hasSize(1);
+    BatchMetrics batch = batches.get(0);
+    assertThat(batch.getEndpoint()).isEqualTo("/1/indexes/{index}/batch");
+    assertThat(batch.getRecords()).isEqualTo(2);
+    assertThat(batch.getAttempts()).isEqualTo(2);
+    assertThat(batch.getUncompressedRequestBytes()).isGreaterThan(0);
+    assertThat(batch.getRequestBytes()).isGreaterThan(0);
+    assertThat(batch.isSucceeded()).isTrue();
+  }
+
+  @Test
+  void testSearchLatencyIsSplitBetweenServerAndNetwork() {
+    LatencyBreakdownListener breakdowns = new LatencyBreakdownListener();
+    List<AttemptMetrics> attempts = Collections.synchronizedList(new ArrayList<>());
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setMetricsListener(MetricsListener.of(attempts::add, breakdowns))
+            .build();
+
+    HttpRequester requester =
+        new HttpRequester() {
+          @Override
+          public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+            String body = "{\"hits\":[],\"processingTimeMS\":3,\"serverUsed\":\"c1-eu-3\"}";
+            return CompletableFuture.completedFuture(
+                new HttpResponse(
+                    200, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))));
+          }
+
+          @Override
+          public void close() {}
+        };
+
+    HttpTransport transport = new HttpTransport(config, requester);
+
+    transport
+        .executeRequestAsync(
+            HttpMethod.POST,
+            "/1/indexes/products/query",
+            CallType.READ,
+            Collections.singletonMap("query", "phone"),
+            SearchResult.class,
+            JsonNode.class,
+            null)
+        .join();
+
+    AttemptMetrics attempt = attempts.get(0);
+    assertThat(attempt.getServerUsed()).isEqualTo("c1-eu-3");
+    assertThat(attempt.getServerTime(TimeUnit.MILLISECONDS)).isEqualTo(3);
+    assertThat(attempt.getNetworkTime(TimeUnit.NANOSECONDS)).isNotNegative();
+
+    assertThat(breakdowns.getServerBreakdowns()).containsOnlyKeys("c1-eu-3");
+    assertThat(breakdowns.getHostBreakdowns()).containsOnlyKeys(attempt.getHost());
+    assertThat(
+            breakdowns
+                .getServerBreakdowns()
+                .get("c1-eu-3")
+                .getServer()
+                .snapshot()
+                .getPercentile(50, TimeUnit.MILLISECONDS))
+        .isEqualTo(3);
+  }
+
+  @Test
+  void testListenerExceptionsDoNotFailTheRequest() {
+    List<AttemptMetrics> attempts = Collections.synchronizedList(new ArrayList<>());
+    MetricsListener failing =
+        a -> {
+          throw new IllegalStateException("listener");
+        };
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setCompletionMode(CompletionMode.DIRECT)
+            .setMetricsListener(MetricsListener.of(failing, attempts::add))
+            .build();
+
+    CompletableFuture<HttpResponse> response =
+        CompletableFuture.completedFuture(
+            new HttpResponse(200, new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8))));
+    HttpTransport transport = new HttpTransport(config, new PendingRequester(response));
+
+    CompletableFuture<JsonNode> result =
+        transport.executeRequestAsync(
+            HttpMethod.GET, "/1/indexes/products/settings", CallType.READ, JsonNode.class, null);
+
+    assertThat(result.join()).isNotNull();
+    assertThat(attempts).hasSize(1);
+  }
+
+  @Test
+  void testRequesterErrorsAreNotReportedAsDecisions() {
+    List<AttemptMetrics> attempts = Collections.synchronizedList(new ArrayList<>());
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setCompletionMode(CompletionMode.DIRECT)
+            .setMetricsListener(attempts::add)
+            .build();
+
+    CompletableFuture<HttpResponse> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IllegalStateException("requester"));
+    HttpTransport transport = new HttpTransport(config, new PendingRequester(failed));
+
+    CompletableFuture<JsonNode> result =
+        transport.executeRequestAsync(
+            HttpMethod.GET, "/1/indexes/products/settings", CallType.READ, JsonNode.class, null);
+
+    assertThat(result).isCompletedExceptionally();
+    assertThat(attempts).hasSize(1);
+    assertThat(attempts.get(0).getOutcome()).isEqualTo(RetryOutcome.FAILURE);
+    assertThat(attempts.get(0).isDecided()).isFalse();
+  }
+
+  @Test
+  void testEndpointsReplaceTheVariableSegments() {
+    assertThat(Endpoints.of("/1/indexes/products/query")).isEqualTo("/1/indexes/{index}/query");
+    assertThat(Endpoints.of("/1/indexes/settings/settings?getVersion=2"))
+        .isEqualTo("/1/indexes/{index}/settings");
+    assertThat(Endpoints.of("/1/indexes/products/42/partial"))
+        .isEqualTo("/1/indexes/{index}/{objectID}/partial");
+    assertThat(Endpoints.of("/1/indexes/*/queries")).isEqualTo("/1/indexes/*/queries");
+    assertThat(Endpoints.of("/1/indexes/products/rules/search"))
+        .isEqualTo("/1/indexes/{index}/rules/search");
+    assertThat(Endpoints.of("/1/keys/abc/restore")).isEqualTo("/1/keys/{key}/restore");
+  }
+
+  @Test
+  void testDirectCompletionRunsOnTheCompletingThread() {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setCompletionMode(CompletionMode.DIRECT)
+            .build();
+
+    CompletableFuture<HttpResponse> pending = new CompletableFuture<>();
+    HttpTransport transport = new HttpTransport(config, new PendingRequester(pending));
+
+    CompletableFuture<String> completingThread =
+        transport
+            .executeRequestAsync(HttpMethod.GET, "/1/indexes", CallType.READ, JsonNode.class, null)
+            .thenApply(r -> Thread.currentThread().getName());
+
+    Thread io =
+        new Thread(
+            () ->
+                pending.complete(
+                    new HttpResponse(
+                        200, new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)))),
+            "io-thread");
+    io.start();
+
+    assertThat(completingThread.join()).isEqualTo("io-thread");
+  }
+
+  @Test
+  void testWarmUpReportsEveryHost() {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setHosts(
+                Arrays.asList(
+                    new StatefulHost("up.algolia.net", EnumSet.of(CallType.READ)),
+                    new StatefulHost("down.algolia.net", EnumSet.of(CallType.READ)),
+                    new StatefulHost("write.algolia.net", EnumSet.of(CallType.WRITE))))
+            .build();
+
+    HttpRequester requester =
+        new PendingRequester(null) {
+          @Override
+          public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+            assertThat(request.getUri().getPath()).isEqualTo("/1/isalive");
+            return CompletableFuture.completedFuture(
+                request.getUri().getHost().startsWith("down")
+                    ? new HttpResponse().setNetworkError(true)
+                    : new HttpResponse(404, "Not found"));
+          }
+        };
+
+    WarmUpReport report =
+        new HttpTransport(config, requester)
+            .warmUpAsync(2, Collections.singletonList(JsonNode.class))
+            .join();
+
+    assertThat(report.isReady()).isTrue();
+    assertThat(report.getHosts()).hasSize(3);
+    assertThat(report.getHosts().get(0).getConnections()).isEqualTo(2);
+    assertThat(report.getHosts().get(1).isReachable()).isFalse();
+    assertThat(report.getHosts().get(1).getFailures()).isEqualTo(2);
+    assertThat(report.getHosts().get(1).getMaxRoundTripTime(TimeUnit.NANOSECONDS)).isZero();
+  }
+
+  /** Returns the given future for every request. */
+  private static class PendingRequester implements HttpRequester {
+
+    private final CompletableFuture<HttpResponse> response;
+
+    PendingRequester(CompletableFuture<HttpResponse> response) {
+      this.response = response;
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+      return response;
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  /** Fails the first attempt with a retryable error then succeeds, recording the bodies. */
+  private static class RecordingRequester implements HttpRequester {
+
+    private final List<String> bodies = new ArrayList<>();
+
+    @Override
+    public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+      try (InputStream in = new GZIPInputStream(request.getBody())) {
+        assertThat(request.getContentEncoding()).isEqualTo(Defaults.CONTENT_ENCODING_GZIP);
+        bodies.add(readAll(in));
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+
+      HttpResponse response =
+          bodies.size() == 1
+              ? new HttpResponse(500, "Internal error")
+              : new HttpResponse(
+                  200,
+                  new ByteArrayInputStream("{\"taskID\":42}".getBytes(StandardCharsets.UTF_8)));
+
+      return CompletableFuture.completedFuture(response);
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  private static String readAll(InputStream in) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    byte[] chunk = new byte[256];
+    int read;
+    while ((read = in.read(chunk)) != -1) {
+      sb.append(new String(chunk, 0, read, StandardCharsets.UTF_8));
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,149 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.models.insights.CompactInsightsEvent;
+import com.algolia.search.models.insights.InsightsEvent;
+import com.algolia.search.models.insights.InsightsResult;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class InsightsEventFilterTest {
+
+  @Test
+  void testDuplicatesAreDropped() {
+    InsightsEventFilter filter =
+        new InsightsEventFilter(
+            new InsightsFilterConfig.Builder().setDeduplicationWindowMs(60_000).build());
+
+    assertThat(filter.accept(click("user", "1"))).isTrue();
+    assertThat(filter.accept(click("user", "1"))).isFalse();
+    assertThat(filter.accept(click("user", "2"))).isTrue();
+    assertThat(filter.accept(click("other", "1"))).isTrue();
+
+    // A compact event is a duplicate of the same InsightsEvent
+    CompactInsightsEvent compact =
+        CompactInsightsEvent.builder()
+            .setEventType("click")
+            .setEventName("click")
+            .setIndex("index")
+            .setUserToken("user")
+            .addObjectID("2")
+            .build();
+    assertThat(filter.accept(compact)).isFalse();
+
+    // The object IDs of one event and the filters of another don't collide
+    assertThat(filter.accept(click("user", "3"))).isTrue();
+    assertThat(
+            filter.accept(
+                click("user", "3").setObjectIDs(null).setFilters(Collections.singletonList("3"))))
+        .isTrue();
+
+    assertThat(filter.stats().getDuplicates()).isEqualTo(2);
+    assertThat(filter.stats().getAccepted()).isEqualTo(5);
+  }
+
+  @Test
+  void testDistinctEventsAreRarelyDropped() {
+    InsightsEventFilter filter =
+        new InsightsEventFilter(
+            new InsightsFilterConfig.Builder()
+                .setDeduplicationWindowMs(60_000)
+                .setDeduplicationCapacity(10_000)
+                .setDeduplicationFalsePositiveRate(0.01)
+                .build());
+
+    for (int i = 0; i < 10_000; i++) {
+      filter.accept(click("user" + i, String.valueOf(i)));
+    }
+
+    // 1% at the sized capacity, with some margin
+    assertThat(filter.stats().getDuplicates()).isLessThan(300);
+  }
+
+  @Test
+  void testUserRateIsLimited() {
+    InsightsEventFilter filter =
+        new InsightsEventFilter(
+            new InsightsFilterConfig.Builder().setUserRateLimit(0.001, 5).build());
+
+    for (int i = 0; i < 10; i++) {
+      filter.accept(click("bot", String.valueOf(i)));
+    }
+
+    assertThat(filter.accept(click("user", "1"))).isTrue();
+    assertThat(filter.stats().getAccepted()).isEqualTo(6);
+    assertThat(filter.stats().getRateLimited()).isEqualTo(5);
+  }
+
+  @Test
+  void testEventTypesAreSampled() {
+    InsightsEventFilter filter =
+        new InsightsEventFilter(
+            new InsightsFilterConfig.Builder()
+                .setSampleRate("view", 0)
+                .setSampleRate("click", 1)
+                .build());
+
+    assertThat(filter.accept(click("user", "1").setEventType("view"))).isFalse();
+    assertThat(filter.accept(click("user", "1"))).isTrue();
+    assertThat(filter.accept(click("user", "1").setEventType("conversion"))).isTrue();
+    assertThat(filter.stats().getSampledOut()).isEqualTo(1);
+  }
+
+  @Test
+  void testClientSendsOnlyTheFilteredEvents() throws IOException {
+    AtomicInteger requests = new AtomicInteger();
+    HttpRequester requester =
+        new HttpRequester() {
+          @Override
+          public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+            requests.incrementAndGet();
+            return CompletableFuture.completedFuture(
+                new HttpResponse(
+                    200,
+                    new ByteArrayInputStream(
+                        "{\"status\":200,\"message\":\"OK\"}".getBytes(StandardCharsets.UTF_8))));
+          }
+
+          @Override
+          public void close() {}
+        };
+
+    InsightsConfig config =
+        new InsightsConfig.Builder("appID", "apiKEY")
+            .setEventFilter(
+                new InsightsFilterConfig.Builder().setDeduplicationWindowMs(60_000).build())
+            .build();
+
+    try (InsightsClient client = new InsightsClient(config, requester)) {
+      UserInsightsClient user = client.user("user");
+
+      user.clickedObjectIDs("click", "index", Collections.singletonList("1"));
+      InsightsResult doubleClick =
+          user.clickedObjectIDs("click", "index", Collections.singletonList("1"));
+      client.sendEvents(Arrays.asList(click("user", "1"), click("user", "2")));
+
+      assertThat(doubleClick.getStatus()).isEqualTo(200);
+      assertThat(requests.get()).isEqualTo(2);
+      assertThat(client.getEventFilterStats().getDuplicates()).isEqualTo(2);
+    }
+  }
+
+  private static InsightsEvent click(String userToken, String objectID) {
+    return new InsightsEvent()
+        .setEventType("click")
+        .setEventName("click")
+        .setIndex("index")
+        .setUserToken(userToken)
+        .setObjectIDs(Collections.singletonList(objectID));
+  }
+}
@@ -0,0 +1,171 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.models.insights.InsightsEvent;
+import com.algolia.search.models.insights.InsightsResult;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InsightsEventSpoolTest {
+
+  @TempDir Path directory;
+
+  @Test
+  void testEventsAreReadUntilAcknowledged() throws IOException {
+    try (InsightsEventSpool spool = new InsightsEventSpool(directory, 4096, 1024 * 1024)) {
+      assertThat(spool.isEmpty()).isTrue();
+
+      spool.append(events(0, 5));
+
+      assertThat(objectIDs(spool.read(3))).containsExactly("0", "1", "2");
+      assertThat(objectIDs(spool.read(3))).containsExactly("0", "1", "2");
+
+      spool.acknowledge();
+
+      assertThat(objectIDs(spool.read(10))).containsExactly("3", "4");
+      spool.acknowledge();
+      assertThat(spool.isEmpty()).isTrue();
+    }
+  }
+
+  @Test
+  void testSpoolIsRecoveredAfterRestart() throws IOException {
+    try (InsightsEventSpool spool = new InsightsEventSpool(directory, 4096, 1024 * 1024)) {
+      spool.append(events(0, 100));
+      spool.read(10);
+      spool.acknowledge();
+      // Read but not acknowledged: replayed after the restart
+      spool.read(10);
+    }
+
+    try (InsightsEventSpool spool = new InsightsEventSpool(directory, 4096, 1024 * 1024)) {
+      List<String> replayed = new ArrayList<>();
+      while (!spool.isEmpty()) {
+        replayed.addAll(objectIDs(spool.read(7)));
+        spool.acknowledge();
+      }
+
+      assertThat(replayed).hasSize(90).startsWith("10").endsWith("99");
+      assertThat(spool.getDroppedCount()).isZero();
+
+      // The timestamps are kept
+      spool.append(events(0, 1));
+      assertThat(spool.read(1).get(0).getTimestamp()).isEqualTo(42L);
+    }
+  }
+
+  @Test
+  void testOldestSegmentIsDroppedWhenFull() throws IOException {
+    try (InsightsEventSpool spool = new InsightsEventSpool(directory, 4096, 3 * 4096)) {
+      spool.append(events(0, 1000));
+
+      try (Stream<Path> files = Files.list(directory)) {
+        assertThat(files.count()).isEqualTo(3);
+      }
+
+      List<String> remaining = new ArrayList<>();
+      while (!spool.isEmpty()) {
+        remaining.addAll(objectIDs(spool.read(100)));
+        spool.acknowledge();
+      }
+
+      assertThat(remaining).endsWith("999");
+      assertThat(remaining.size() + spool.getDroppedCount()).isEqualTo(1000);
+    }
+  }
+
+  @Test
+  void testEventsAreSpooledDuringAnOutageAndReplayed() throws Exception {
+    AtomicBoolean down = new AtomicBoolean(true);
+    AtomicInteger acceptedEvents = new AtomicInteger();
+
+    HttpRequester requester =
+        new HttpRequester() {
+          @Override
+          public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+            if (down.get()) {
+              return CompletableFuture.completedFuture(new HttpResponse(503, "Unavailable"));
+            }
+            String body = new String(request.getBodyBytes(), 0, request.getBodyLength());
+            acceptedEvents.addAndGet(body.split("\"eventType\"", -1).length - 1);
+            return CompletableFuture.completedFuture(
+                new HttpResponse(
+                    200,
+                    new ByteArrayInputStream(
+                        "{\"status\":200,\"message\":\"OK\"}".getBytes(StandardCharsets.UTF_8))));
+          }
+
+          @Override
+          public void close() {}
+        };
+
+    try (InsightsClient client =
+        new InsightsClient(new InsightsConfig.Builder("appID", "apiKEY").build(), requester)) {
+      BufferedInsightsSender sender =
+          client.buffered(
+              new InsightsBufferConfig.Builder()
+                  .setLingerMs(10)
+                  .setSpoolDirectory(directory)
+                  .build());
+
+      InsightsEvent undated = events(0, 1).get(0).setTimestamp(null);
+      CompletableFuture<InsightsResult> result = sender.sendAsync(undated);
+      for (InsightsEvent event : events(1, 50)) {
+        sender.offer(event);
+      }
+      sender.flush().get(5, TimeUnit.SECONDS);
+
+      assertThat(result.get().getStatus()).isEqualTo(202);
+      assertThat(sender.getSpooledCount()).isEqualTo(50);
+      assertThat(sender.getFailedCount()).isZero();
+      // Dated in the spool, not in the caller's event
+      assertThat(undated.getTimestamp()).isNull();
+
+      down.set(false);
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (sender.getReplayedCount() < 50 && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+
+      assertThat(sender.getReplayedCount()).isEqualTo(50);
+      assertThat(acceptedEvents.get()).isEqualTo(50);
+    }
+  }
+
+  private static List<InsightsEvent> events(int from, int to) {
+    List<InsightsEvent> events = new ArrayList<>();
+    for (int i = from; i < to; i++) {
+      events.add(
+          new InsightsEvent()
+              .setEventType("view")
+              .setEventName("view")
+              .setIndex("index")
+              .setUserToken("user")
+              .setTimestamp(42L)
+              .setObjectIDs(Collections.singletonList(String.valueOf(i))));
+    }
+    return events;
+  }
+
+  private static List<String> objectIDs(List<InsightsEvent> events) {
+    return events.stream().map(e -> e.getObjectIDs().get(0)).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,102 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.algolia.search.BufferPool.PooledBuffer;
+import com.algolia.search.models.insights.CompactInsightsEvent;
+import com.algolia.search.models.insights.InsightsEvent;
+import com.algolia.search.models.insights.InsightsRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class InsightsEventsBodyTest {
+
+  @Test
+  void testEventsAreWrittenAsJacksonWould() throws IOException {
+    List<InsightsEvent> events =
+        Arrays.asList(
+            new InsightsEvent()
+                .setEventType("click")
+                .setEventName("Clicked \"quotes\" \\ and \n\t\u0001 controls")
+                .setIndex("indéx 日本 😀")
+                .setUserToken("user")
+                .setTimestamp(1_600_000_000_000L)
+                .setQueryID("query")
+                .setObjectIDs(Arrays.asList("1", "2"))
+                .setPositions(Arrays.asList(1L, -42L, Long.MAX_VALUE, Long.MIN_VALUE)),
+            new InsightsEvent()
+                .setEventType("view")
+                .setEventName("view")
+                .setIndex("index")
+                .setUserToken("user")
+                .setFilters(Collections.emptyList()));
+
+    JsonNode expected =
+        Defaults.getObjectMapper()
+            .readTree(
+                Defaults.getObjectMapper()
+                    .writeValueAsBytes(new InsightsRequest().setEvents(events)));
+
+    assertThat(InsightsEventsBody.supports(events)).isTrue();
+    assertThat(write(new InsightsEventsBody(events))).isEqualTo(expected);
+  }
+
+  @Test
+  void testCompactEventsAreWrittenAsTheirInsightsEvent() throws IOException {
+    CompactInsightsEvent click =
+        CompactInsightsEvent.builder()
+            .setEventType("click")
+            .setEventName("click")
+            .setIndex("index")
+            .setUserToken("user")
+            .setQueryID("query")
+            .addObjectID("1")
+            .addObjectID("2")
+            .addPositions(3, 7)
+            .build();
+
+    // The builder of the thread is reused, the built event is not affected
+    CompactInsightsEvent conversion =
+        CompactInsightsEvent.builder()
+            .setEventType("conversion")
+            .setEventName("conversion")
+            .setIndex("index")
+            .setUserToken("user")
+            .setTimestamp(42L)
+            .addFilter("brand:apple")
+            .build();
+
+    assertThat(click.getObjectIDCount()).isEqualTo(2);
+    assertThat(click.getPosition(1)).isEqualTo(7L);
+    assertThat(conversion.getObjectIDCount()).isZero();
+    assertThat(conversion.getPositionCount()).isZero();
+
+    List<InsightsEvent> converted =
+        Arrays.asList(click.toInsightsEvent(), conversion.toInsightsEvent());
+    JsonNode expected =
+        Defaults.getObjectMapper()
+            .readTree(
+                Defaults.getObjectMapper()
+                    .writeValueAsBytes(new InsightsRequest().setEvents(converted)));
+
+    assertThat(write(new InsightsEventsBody(Arrays.asList(click, conversion)))).isEqualTo(expected);
+  }
+
+  @Test
+  void testSubclassesAndNullsAreLeftToJackson() {
+    InsightsEvent subclass = new InsightsEvent() {};
+    assertThat(InsightsEventsBody.supports(Collections.singletonList(subclass))).isFalse();
+    assertThat(InsightsEventsBody.supports(Arrays.asList(new InsightsEvent(), null))).isFalse();
+  }
+
+  private static JsonNode write(InsightsEventsBody body) throws IOException {
+    // A small buffer, so that it grows while writing
+    PooledBuffer out = new PooledBuffer(16);
+    body.writeTo(out);
+    return Defaults.getObjectMapper().readTree(Arrays.copyOf(out.array(), out.size()));
+  }
+}
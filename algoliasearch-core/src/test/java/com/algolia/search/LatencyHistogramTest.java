@@ -0,0 +1,45 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void testPercentilesAreWithinThePrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    // 1 to 10 000 microseconds
+    for (long micros = 1; micros <= 10_000; micros++) {
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+    }
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+    assertThat(snapshot.getCount()).isEqualTo(10_000);
+    assertThat(snapshot.getMax(TimeUnit.MICROSECONDS)).isEqualTo(10_000);
+    assertThat(snapshot.getMeanMicros()).isEqualTo(5000.5);
+    assertThat(snapshot.getP50Micros()).isBetween(4850L, 5150L);
+    assertThat(snapshot.getP99Micros()).isBetween(9603L, 10_000L);
+    assertThat(snapshot.getP999Micros()).isBetween(9690L, 10_000L);
+    assertThat(snapshot.getPercentile(0, TimeUnit.MICROSECONDS)).isEqualTo(1);
+  }
+
+  @Test
+  void testOutOfRangeDurationsAreClamped() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    histogram.record(-5);
+    histogram.record(Long.MAX_VALUE);
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.getCount()).isEqualTo(2);
+    assertThat(snapshot.getPercentile(50, TimeUnit.NANOSECONDS)).isEqualTo(0);
+    assertThat(snapshot.getMax(TimeUnit.MINUTES)).isEqualTo(18);
+
+    histogram.reset();
+    assertThat(histogram.snapshot().getCount()).isZero();
+  }
+}
@@ -0,0 +1,120 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.models.common.RejectionPolicy;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.Test;
+
+class ManagedExecutorServiceTest {
+
+  @Test
+  void testDefaultExecutorIsNamedAndBounded() {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setExecutorPoolSize(1)
+            .setExecutorQueueCapacity(1)
+            .setExecutorRejectionPolicy(RejectionPolicy.ABORT)
+            .build();
+
+    assertThat(config.getExecutor()).isInstanceOf(ManagedExecutorService.class);
+    ManagedExecutorService executor = (ManagedExecutorService) config.getExecutor();
+
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<String> name =
+        CompletableFuture.supplyAsync(
+            () -> {
+              await(release);
+              return Thread.currentThread().getName();
+            },
+            executor);
+    executor.execute(() -> {});
+
+    assertThat(executor.getQueueSize()).isEqualTo(1);
+    assertThatThrownBy(() -> executor.execute(() -> {}))
+        .isInstanceOf(RejectedExecutionException.class);
+    assertThat(executor.getRejectedCount()).isEqualTo(1);
+
+    release.countDown();
+    assertThat(name.join()).startsWith("algolia-executor-");
+    executor.shutdown();
+  }
+
+  @Test
+  void testDefaultExecutorStopsWithTheLastClient() throws IOException {
+    SearchConfig config = new SearchConfig.Builder("appID", "apiKEY").build();
+    ManagedExecutorService executor = (ManagedExecutorService) config.getExecutor();
+    assertThat(executor.getRejectionPolicy()).isEqualTo(RejectionPolicy.CALLER_RUNS);
+
+    HttpTransport first = new HttpTransport(config, new NoopRequester());
+    HttpTransport second = new HttpTransport(config, new NoopRequester());
+    CompletableFuture.runAsync(() -> {}, executor).join();
+
+    first.close();
+    first.close();
+    assertThat(executor.getPoolSize()).isEqualTo(1);
+
+    second.close();
+    assertThat(executor.getPoolSize()).isZero();
+    assertThat(executor.isShutdown()).isFalse();
+  }
+
+  @Test
+  void testCustomExecutorIsNotShutDown() throws IOException {
+    ExecutorService custom = Executors.newSingleThreadExecutor();
+
+    try {
+      SearchConfig config =
+          new SearchConfig.Builder("appID", "apiKEY").setExecutorService(custom).build();
+      new HttpTransport(config, new NoopRequester()).close();
+
+      assertThat(config.getExecutor()).isSameAs(custom);
+      assertThat(custom.isShutdown()).isFalse();
+    } finally {
+      custom.shutdown();
+    }
+  }
+
+  @Test
+  void testVirtualThreadsReplaceTheDefaultExecutor() {
+    SearchConfig.Builder builder = new SearchConfig.Builder("appID", "apiKEY");
+
+    if (!VirtualThreads.isSupported()) {
+      assertThatThrownBy(() -> builder.setUseVirtualThreads(true))
+          .isInstanceOf(UnsupportedOperationException.class);
+      return;
+    }
+
+    SearchConfig config = builder.setUseVirtualThreads(true).build();
+    assertThat(config.getUseVirtualThreads()).isTrue();
+    assertThat(config.getExecutor()).isNotInstanceOf(ManagedExecutorService.class);
+    assertThat(CompletableFuture.supplyAsync(() -> 42, config.getExecutor()).join()).isEqualTo(42);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static class NoopRequester implements HttpRequester {
+
+    @Override
+    public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+      return new CompletableFuture<>();
+    }
+
+    @Override
+    public void close() {}
+  }
+}
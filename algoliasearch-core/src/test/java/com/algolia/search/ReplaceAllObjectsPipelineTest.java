@@ -0,0 +1,195 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.algolia.search.exceptions.AlgoliaApiException;
+import com.algolia.search.integration.models.AlgoliaObject;
+import com.algolia.search.models.HttpMethod;
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.models.common.CompletionMode;
+import com.algolia.search.models.indexing.ReplaceAllObjectsListener;
+import com.algolia.search.models.indexing.ReplaceAllObjectsResponse;
+import com.algolia.search.models.indexing.ReplaceAllObjectsStage;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ReplaceAllObjectsPipelineTest {
+
+  private final ScheduledExecutorService server = new ScheduledThreadPoolExecutor(4);
+
+  @AfterEach
+  void tearDown() {
+    server.shutdownNow();
+  }
+
+  @Test
+  void testRecordsAreStreamedWithBoundedConcurrency() {
+    FakeRequester requester = new FakeRequester(false);
+    SearchIndex<AlgoliaObject> index = index(requester);
+
+    List<ReplaceAllObjectsStage> stages = new CopyOnWriteArrayList<>();
+    AtomicInteger lastSaved = new AtomicInteger();
+
+    ReplaceAllObjectsResponse response =
+        index
+            .replaceAllObjectsAsync(
+                records(10),
+                null,
+                false,
+                new ReplaceAllObjectsListener() {
+                  @Override
+                  public void onStageCompleted(ReplaceAllObjectsStage stage, long elapsedMillis) {
+                    stages.add(stage);
+                  }
+
+                  @Override
+                  public void onObjectsSaved(long savedObjects) {
+                    lastSaved.set((int) savedObjects);
+                  }
+                })
+            .join();
+
+    assertThat(stages)
+        .containsExactly(
+            ReplaceAllObjectsStage.COPY, ReplaceAllObjectsStage.SAVE, ReplaceAllObjectsStage.MOVE);
+    assertThat(response.getResponses()).hasSize(3);
+    assertThat(response.getSavedObjects()).isEqualTo(10);
+    assertThat(lastSaved.get()).isEqualTo(10);
+    assertThat(response.getTmpIndexName()).startsWith("test_tmp_");
+    assertThat(requester.batches.get()).isEqualTo(5);
+    assertThat(requester.maxInFlight.get()).isLessThanOrEqualTo(2);
+    assertThat(requester.deleted).isEmpty();
+  }
+
+  @Test
+  void testTmpIndexIsDeletedOnFailure() {
+    FakeRequester requester = new FakeRequester(true);
+    SearchIndex<AlgoliaObject> index = index(requester);
+
+    CompletableFuture<ReplaceAllObjectsResponse> replace =
+        index.replaceAllObjectsAsync(records(10), null, false, null);
+
+    assertThatThrownBy(replace::join).hasCauseInstanceOf(AlgoliaApiException.class);
+    assertThat(requester.deleted).hasSize(1);
+    assertThat(requester.deleted.get(0)).contains("test_tmp_");
+  }
+
+  @Test
+  void testRecordsAreNotReadOnTheCompletingThreads() {
+    FakeRequester requester = new FakeRequester(false);
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setBatchSize(2)
+            .setMaxConcurrentBatches(2)
+            .setCompletionMode(CompletionMode.DIRECT)
+            .build();
+    SearchIndex<AlgoliaObject> index =
+        new SearchIndex<>(
+            new HttpTransport(config, requester), config, "test", AlgoliaObject.class);
+
+    List<AlgoliaObject> records = records(10);
+    List<String> readers = new CopyOnWriteArrayList<>();
+    Iterable<AlgoliaObject> data =
+        () ->
+            new Iterator<AlgoliaObject>() {
+              private final Iterator<AlgoliaObject> it = records.iterator();
+
+              @Override
+              public boolean hasNext() {
+                readers.add(Thread.currentThread().getName());
+                return it.hasNext();
+              }
+
+              @Override
+              public AlgoliaObject next() {
+                return it.next();
+              }
+            };
+
+    index.replaceAllObjectsAsync(data, null, false, null).join();
+
+    assertThat(readers).isNotEmpty().allMatch(name -> name.startsWith("algolia-executor-"));
+  }
+
+  private SearchIndex<AlgoliaObject> index(FakeRequester requester) {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setBatchSize(2)
+            .setMaxConcurrentBatches(2)
+            .build();
+    return new SearchIndex<>(
+        new HttpTransport(config, requester), config, "test", AlgoliaObject.class);
+  }
+
+  private static List<AlgoliaObject> records(int count) {
+    List<AlgoliaObject> records = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      records.add(new AlgoliaObject().setObjectID(String.valueOf(i)));
+    }
+    return records;
+  }
+
+  private class FakeRequester implements HttpRequester {
+
+    private final boolean failBatches;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger batches = new AtomicInteger();
+    private final List<String> deleted = new CopyOnWriteArrayList<>();
+
+    FakeRequester(boolean failBatches) {
+      this.failBatches = failBatches;
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+      String path = request.getUri().getPath();
+
+      if (request.getMethod() == HttpMethod.DELETE) {
+        deleted.add(path);
+        return CompletableFuture.completedFuture(ok("{\"taskID\":3}"));
+      }
+
+      if (!path.endsWith("/batch")) {
+        return CompletableFuture.completedFuture(ok("{\"taskID\":1}"));
+      }
+
+      if (failBatches) {
+        return CompletableFuture.completedFuture(new HttpResponse(400, "Invalid record"));
+      }
+
+      batches.incrementAndGet();
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+      CompletableFuture<HttpResponse> response = new CompletableFuture<>();
+      server.schedule(
+          () -> {
+            inFlight.decrementAndGet();
+            response.complete(ok("{\"taskID\":2,\"objectIDs\":[]}"));
+          },
+          10,
+          TimeUnit.MILLISECONDS);
+      return response;
+    }
+
+    private HttpResponse ok(String body) {
+      return new HttpResponse(200, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public void close() {}
+  }
+}
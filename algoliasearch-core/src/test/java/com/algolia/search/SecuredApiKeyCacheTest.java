@@ -0,0 +1,94 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.algolia.search.exceptions.AlgoliaRuntimeException;
+import com.algolia.search.models.apikeys.SecuredApiKeyRestriction;
+import com.algolia.search.util.HmacShaUtils;
+import com.algolia.search.util.SecuredApiKeyCache;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SecuredApiKeyCacheTest {
+
+  private static final String PARENT_KEY = "182634d8894831d5dbce3b3185c50881";
+
+  @Test
+  void testSameRestrictionsShareTheKey() {
+    SecuredApiKeyCache cache =
+        new SecuredApiKeyCache.Builder(PARENT_KEY).setKeyValidity(Duration.ofHours(1)).build();
+
+    String key = cache.get(restriction("user1"));
+
+    assertThat(cache.get(restriction("user1"))).isEqualTo(key);
+    assertThat(cache.get(restriction("user2"))).isNotEqualTo(key);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(2);
+
+    long validUntil = HmacShaUtils.getValidUntil(key);
+    assertThat(validUntil)
+        .isBetween(Instant.now().getEpochSecond() + 3590, Instant.now().getEpochSecond() + 3600);
+    assertThat(cache.getRemainingValidity(key))
+        .isBetween(Duration.ofSeconds(3590), Duration.ofSeconds(3600));
+  }
+
+  @Test
+  void testKeysNeverExpireWithoutAValidity() {
+    SecuredApiKeyCache cache = new SecuredApiKeyCache.Builder(PARENT_KEY).build();
+
+    String key = cache.get(restriction("user1"));
+
+    assertThat(cache.get(restriction("user1"))).isEqualTo(key);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThatThrownBy(() -> cache.getRemainingValidity(key))
+        .isInstanceOf(AlgoliaRuntimeException.class);
+  }
+
+  @Test
+  void testExpiredRestrictionsAreNotCached() {
+    SecuredApiKeyCache cache = new SecuredApiKeyCache.Builder(PARENT_KEY).setMaximumSize(2).build();
+
+    // Within the safety margin
+    cache.get(restriction("user").setValidUntil(Instant.now().getEpochSecond() + 10));
+    assertThat(cache.size()).isEqualTo(0);
+
+    for (int i = 0; i < 5; i++) {
+      cache.get(restriction("user" + i));
+    }
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  void testKeysAreRefreshedInTheBackground() {
+    List<Runnable> tasks = new ArrayList<>();
+    SecuredApiKeyCache cache =
+        new SecuredApiKeyCache.Builder(PARENT_KEY)
+            .setKeyValidity(Duration.ofMinutes(10))
+            .setSafetyMargin(Duration.ZERO)
+            .setRefreshBefore(Duration.ofMinutes(10))
+            .setExecutor(tasks::add)
+            .build();
+
+    String key = cache.get(restriction("user"));
+
+    // Served while being refreshed, a single time
+    assertThat(cache.get(restriction("user"))).isEqualTo(key);
+    assertThat(cache.get(restriction("user"))).isEqualTo(key);
+    assertThat(tasks).hasSize(1);
+
+    tasks.get(0).run();
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  private static SecuredApiKeyRestriction restriction(String userToken) {
+    return new SecuredApiKeyRestriction()
+        .setRestrictIndices(Collections.singletonList("index"))
+        .setUserToken(userToken);
+  }
+}
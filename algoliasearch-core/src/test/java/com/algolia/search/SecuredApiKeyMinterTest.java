@@ -0,0 +1,44 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.algolia.search.models.apikeys.SecuredApiKeyRestriction;
+import com.algolia.search.models.indexing.Query;
+import com.algolia.search.util.HmacShaUtils;
+import com.algolia.search.util.SecuredApiKeyMinter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SecuredApiKeyMinterTest {
+
+  private static final String PARENT_KEY = "182634d8894831d5dbce3b3185c50881";
+
+  @Test
+  void testKeysAreTheSameAsHmacShaUtils() throws Exception {
+    SecuredApiKeyMinter minter = new SecuredApiKeyMinter(PARENT_KEY);
+
+    List<SecuredApiKeyRestriction> restrictions =
+        Arrays.asList(
+            new SecuredApiKeyRestriction(),
+            new SecuredApiKeyRestriction().setValidUntil(1_600_000_000L),
+            new SecuredApiKeyRestriction()
+                .setValidUntil(1_600_000_000L)
+                .setRestrictIndices(Arrays.asList("index", "prod_*", "été indices"))
+                .setRestrictSources("192.168.1.0/24")
+                .setUserToken("user 42 & co/ü😀~!'()"),
+            new SecuredApiKeyRestriction().setRestrictIndices(Collections.emptyList()),
+            new SecuredApiKeyRestriction()
+                .setUserToken("user")
+                .setQuery(new Query("query").setFilters("brand:\"A & B\"").setHitsPerPage(10)));
+
+    List<String> keys = minter.generate(restrictions);
+
+    for (int i = 0; i < restrictions.size(); i++) {
+      String expected = HmacShaUtils.generateSecuredApiKey(PARENT_KEY, restrictions.get(i));
+      assertThat(minter.generate(restrictions.get(i))).isEqualTo(expected);
+      assertThat(keys.get(i)).isEqualTo(expected);
+    }
+  }
+}
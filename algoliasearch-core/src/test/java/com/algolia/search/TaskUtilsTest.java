@@ -0,0 +1,99 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.algolia.search.exceptions.AlgoliaApiException;
+import com.algolia.search.exceptions.AlgoliaRuntimeException;
+import com.algolia.search.models.common.TaskStatusResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class TaskUtilsTest {
+
+  @Test
+  void testWaitTaskAsyncPollsUntilPublished() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+
+    CompletableFuture<Void> wait =
+        TaskUtils.waitTaskAsync(
+            42,
+            1,
+            Long.MAX_VALUE,
+            null,
+            (taskId, requestOptions) ->
+                CompletableFuture.completedFuture(
+                    new TaskStatusResponse()
+                        .setStatus(calls.incrementAndGet() < 3 ? "notPublished" : "published")),
+            null);
+
+    wait.get(5, TimeUnit.SECONDS);
+    assertThat(calls.get()).isEqualTo(3);
+  }
+
+  @Test
+  void testWaitTaskAsyncTimesOut() {
+    CompletableFuture<Void> wait =
+        TaskUtils.waitTaskAsync(
+            42,
+            10,
+            50,
+            null,
+            (taskId, requestOptions) ->
+                CompletableFuture.completedFuture(
+                    new TaskStatusResponse().setStatus("notPublished")),
+            null);
+
+    assertThatThrownBy(() -> wait.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(AlgoliaRuntimeException.class);
+  }
+
+  @Test
+  void testWaitsAreReportedOnceOver() throws Exception {
+    List<WaitMetrics> waits = Collections.synchronizedList(new ArrayList<>());
+    MetricsListener listener =
+        new MetricsListener() {
+          @Override
+          public void onAttempt(AttemptMetrics metrics) {}
+
+          @Override
+          public void onWait(WaitMetrics metrics) {
+            waits.add(metrics);
+          }
+        };
+    AtomicInteger calls = new AtomicInteger();
+
+    TaskUtils.waitTaskAsync(
+            42,
+            1,
+            Long.MAX_VALUE,
+            null,
+            (taskId, requestOptions) ->
+                CompletableFuture.completedFuture(
+                    new TaskStatusResponse()
+                        .setStatus(calls.incrementAndGet() < 3 ? "notPublished" : "published")),
+            listener)
+        .get(5, TimeUnit.SECONDS);
+
+    assertThat(waits).hasSize(1);
+    assertThat(waits.get(0).getDescription()).isEqualTo("task 42");
+    assertThat(waits.get(0).getPolls()).isEqualTo(3);
+    assertThat(waits.get(0).getOutcome()).isEqualTo(WaitMetrics.Outcome.COMPLETED);
+  }
+
+  @Test
+  void testWaitTaskPropagatesErrors() {
+    CompletableFuture<TaskStatusResponse> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new AlgoliaApiException("Index does not exist", 404));
+
+    assertThatThrownBy(() -> TaskUtils.waitTask(42, 1, null, (taskId, options) -> failed, null))
+        .isInstanceOf(AlgoliaApiException.class);
+  }
+}
@@ -0,0 +1,111 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.algolia.search.models.WaitableResponse;
+import com.algolia.search.models.indexing.BatchIndexingResponse;
+import com.algolia.search.models.indexing.BatchResponse;
+import com.algolia.search.models.indexing.MultiResponse;
+import com.algolia.search.models.indexing.MultipleIndexBatchIndexingResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+
+class TaskWaitTest {
+
+  @Test
+  void testBatchIndexingResponseWaitsForTheLastTaskOnly() {
+    List<Long> waited = new ArrayList<>();
+    List<BatchResponse> batches = new ArrayList<>();
+
+    for (long taskID : new long[] {12, 40, 27}) {
+      BatchResponse batch = new BatchResponse();
+      batch.setTaskID(taskID);
+      batch.setWaitConsumer(waited::add);
+      batch.setWaitAsyncFunction(
+          id -> {
+            waited.add(id);
+            return CompletableFuture.completedFuture(null);
+          });
+      batches.add(batch);
+    }
+
+    BatchIndexingResponse response = new BatchIndexingResponse(batches);
+
+    response.waitTask();
+    assertThat(waited).containsExactly(40L);
+
+    List<Integer> progress = new ArrayList<>();
+    response.waitTaskAsync((completed, total) -> progress.add(completed * 10 + total)).join();
+    assertThat(waited).containsExactly(40L, 40L);
+    assertThat(progress).containsExactly(11);
+  }
+
+  @Test
+  void testUnboundResponseFailsInsteadOfBlocking() {
+    CompletableFuture<Void> wait = new BatchResponse().setTaskID(1L).waitTaskAsync();
+
+    assertThat(wait).isCompletedExceptionally();
+    assertThatThrownBy(wait::join).hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void testResponsesWithoutAsyncWaitFailClearly() {
+    // An implementation written before waitTaskAsync existed
+    WaitableResponse legacy = () -> {};
+    MultiResponse response = new MultiResponse().setResponses(Arrays.asList(legacy));
+
+    assertThat(legacy.waitTaskAsync()).isCompletedExceptionally();
+    assertThatThrownBy(response::waitTask).hasRootCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void testMultipleIndicesAreWaitedInParallel() {
+    Map<String, CompletableFuture<Void>> pending = new ConcurrentHashMap<>();
+    Map<String, Long> taskIDs = new HashMap<>();
+    taskIDs.put("index1", 1L);
+    taskIDs.put("index2", 2L);
+
+    MultipleIndexBatchIndexingResponse response =
+        new MultipleIndexBatchIndexingResponse().setTaskID(taskIDs);
+    response.setWaitAsyncFunction(
+        (indexName, taskID) -> pending.computeIfAbsent(indexName, k -> new CompletableFuture<>()));
+
+    List<Integer> progress = new CopyOnWriteArrayList<>();
+    CompletableFuture<Void> wait =
+        response.waitTaskAsync((completed, total) -> progress.add(completed));
+
+    // Both polls are started before any of them completes
+    assertThat(pending).containsOnlyKeys("index1", "index2");
+
+    pending.get("index2").complete(null);
+    assertThat(wait).isNotDone();
+    pending.get("index1").complete(null);
+
+    wait.join();
+    assertThat(progress).containsExactly(1, 2);
+  }
+
+  @Test
+  void testMultiResponseReportsProgress() {
+    List<WaitableResponse> responses =
+        Arrays.asList(
+            new BatchIndexingResponse(new ArrayList<>()),
+            new BatchIndexingResponse(new ArrayList<>()));
+
+    List<Integer> totals = new CopyOnWriteArrayList<>();
+    new MultiResponse()
+        .setResponses(responses)
+        .waitTaskAsync((completed, total) -> totals.add(total))
+        .join();
+
+    assertThat(totals).containsExactly(2, 2);
+  }
+}
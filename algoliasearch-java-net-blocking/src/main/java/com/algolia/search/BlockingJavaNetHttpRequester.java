@@ -0,0 +1,262 @@
+package com.algolia.search;
+
+import com.algolia.search.exceptions.AlgoliaRuntimeException;
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.util.HttpStatusCodeUtils;
+import com.algolia.search.util.NamedDaemonThreadFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProxySelector;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpRequest.Builder;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import javax.annotation.Nonnull;
+
+/**
+ * Implementation of {@code HttpRequester} for the built-in Java.net 11 HTTP Client, sending each
+ * request with a blocking call on its own virtual thread.
+ *
+ * <p>Unlike {@code JavaNetHttpRequester}, a request is a plain blocking {@code send} with byte
+ * array bodies, without any future composition. It is meant for Java 21 or above: on older JVMs
+ * each pending request holds a platform thread of a pool owned by the requester, never one of the
+ * configuration's executor service, which still runs the HTTP client and the deserialization. This
+ * pool is bounded by the maximum total of connections of the {@link ConnectionPoolConfig}, the
+ * requests beyond it wait in a queue for a thread. Prefer {@code JavaNetHttpRequester} for many
+ * concurrent requests on these JVMs.
+ */
+public final class BlockingJavaNetHttpRequester implements HttpRequester {
+
+  /** Reusable instance of the httpClient. */
+  private final HttpClient client;
+
+  /** Runs the blocking calls. */
+  private final Executor executor;
+
+  /** The executor created by the requester, null when it uses the config's virtual threads. */
+  private final ExecutorService ownedExecutor;
+
+  /**
+   * Build the reusable instance of httpClient with the given configuration.
+   *
+   * @param config HTTPClient agnostic Algolia's configuration.
+   */
+  public BlockingJavaNetHttpRequester(@Nonnull ConfigBase config) {
+    if (config.getUseVirtualThreads()) {
+      ownedExecutor = null;
+      executor = config.getExecutor();
+    } else {
+      ownedExecutor =
+          VirtualThreads.isSupported()
+              ? VirtualThreads.newVirtualThreadPerTaskExecutor()
+              : newSendExecutor(
+                  config.getConnectionPoolConfig().getMaxConnTotal(config.getHosts().size()));
+      executor = ownedExecutor;
+    }
+
+    client =
+        HttpClient.newBuilder()
+            .executor(config.getExecutor())
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .proxy(ProxySelector.getDefault())
+            .connectTimeout(Duration.ofMillis(config.getConnectTimeOut()))
+            .build();
+  }
+
+  /**
+   * The platform threads of the sends when virtual threads are not available, at most {@code
+   * maxThreads}, released after a minute of inactivity.
+   */
+  private static ExecutorService newSendExecutor(int maxThreads) {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            maxThreads,
+            maxThreads,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            // Daemon, so that a requester left open does not prevent the JVM from exiting
+            new NamedDaemonThreadFactory("algolia-blocking-send"));
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Sends the http request on its own thread. If the request is time out it creates a new response
+   * object with timeout set to true Otherwise it throws a run time exception
+   *
+   * @param request the request to send
+   * @throws AlgoliaRuntimeException When an error occurred processing the request on the server
+   *     side
+   */
+  public CompletableFuture<HttpResponse> performRequestAsync(@Nonnull HttpRequest request) {
+    CompletableFuture<HttpResponse> response = new CompletableFuture<>();
+
+    try {
+      executor.execute(
+          () -> {
+            try {
+              response.complete(send(request));
+            } catch (Throwable t) {
+              response.completeExceptionally(t);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      // The requester is closed
+      response.completeExceptionally(
+          new AlgoliaRuntimeException("The requester is closed, the request was not sent.", e));
+    }
+
+    return response;
+  }
+
+  /**
+   * Sends the request and blocks until its response has been read.
+   *
+   * @param request the request to send
+   */
+  private HttpResponse send(@Nonnull HttpRequest request) {
+    try {
+      return buildResponse(client.send(buildRequest(request), BodyHandlers.ofByteArray()));
+    } catch (HttpTimeoutException e) {
+      return new HttpResponse(true);
+    } catch (IOException | SecurityException e) {
+      return new HttpResponse().setNetworkError(true);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return new HttpResponse().setNetworkError(true);
+    }
+  }
+
+  /**
+   * Builds an Algolia response from the server response
+   *
+   * @param response The server response
+   */
+  private HttpResponse buildResponse(java.net.http.HttpResponse<byte[]> response) {
+    if (HttpStatusCodeUtils.isSuccess(response.statusCode())) {
+      return new HttpResponse(response.statusCode(), responseBodyHandler(response));
+    }
+
+    return new HttpResponse(
+        response.statusCode(), new String(response.body(), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Builds an http request from an AlgoliaRequest object
+   *
+   * @param algoliaRequest The Algolia request object
+   */
+  private java.net.http.HttpRequest buildRequest(@Nonnull HttpRequest algoliaRequest) {
+    java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder();
+
+    buildHeaders(builder, algoliaRequest.getHeaders());
+    buildURI(builder, algoliaRequest.getUri());
+    builder.timeout(Duration.ofMillis(algoliaRequest.getTimeout()));
+
+    BodyPublisher body = buildRequestBody(builder, algoliaRequest);
+    builder.method(algoliaRequest.getMethod().toString(), body);
+
+    return builder.build();
+  }
+
+  /**
+   * Build the body for the request builder. Handling compression type of the request.
+   *
+   * @param builder Request Builder
+   * @param algoliaRequest HttpClient agnostic Algolia's request
+   */
+  private BodyPublisher buildRequestBody(
+      @Nonnull Builder builder, @Nonnull HttpRequest algoliaRequest) {
+
+    if (!algoliaRequest.hasBody()) {
+      return BodyPublishers.noBody();
+    }
+
+    if (algoliaRequest.getContentEncoding() != null) {
+      builder.header(Defaults.CONTENT_ENCODING_HEADER, algoliaRequest.getContentEncoding());
+    } else {
+      builder.header(Defaults.CONTENT_TYPE_HEADER, Defaults.APPLICATION_JSON);
+    }
+
+    if (algoliaRequest.getBodyBytes() != null) {
+      // Sent straight from the transport buffer, without copy
+      return BodyPublishers.ofByteArray(
+          algoliaRequest.getBodyBytes(), 0, algoliaRequest.getBodyLength());
+    }
+
+    return BodyPublishers.ofInputStream(algoliaRequest::getBody);
+  }
+
+  /**
+   * Handles compressed response. Basically wraps the body in a GZIPInputStream.
+   *
+   * @param response Server's response
+   */
+  private InputStream responseBodyHandler(java.net.http.HttpResponse<byte[]> response) {
+    String encoding = response.headers().firstValue(Defaults.CONTENT_ENCODING_HEADER).orElse("");
+    InputStream body = new ByteArrayInputStream(response.body());
+
+    if (!encoding.equals(Defaults.CONTENT_ENCODING_GZIP)) {
+      return body;
+    }
+
+    try {
+      return new GZIPInputStream(body);
+    } catch (IOException e) {
+      throw new AlgoliaRuntimeException(e);
+    }
+  }
+
+  /**
+   * Builds a friendly URI Object for Java.net HTTP Client
+   *
+   * @param builder Request Builder
+   * @param url HttpClient agnostic Algolia's URL
+   */
+  private void buildURI(@Nonnull Builder builder, @Nonnull URL url) {
+    try {
+      builder.uri(url.toURI());
+    } catch (URISyntaxException e) {
+      throw new AlgoliaRuntimeException(e);
+    }
+  }
+
+  /**
+   * Builds a friendly Headers for Java's HTTPClient
+   *
+   * @param builder Request Builder
+   * @param headers HttpClient agnostic Algolia's headers
+   */
+  private void buildHeaders(@Nonnull Builder builder, @Nonnull Map<String, String> headers) {
+    for (Map.Entry<String, String> entry : headers.entrySet()) {
+      builder.header(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /** Stops the executor created by the requester, if any. */
+  @Override
+  public void close() {
+    if (ownedExecutor != null) {
+      ownedExecutor.shutdown();
+    }
+  }
+}
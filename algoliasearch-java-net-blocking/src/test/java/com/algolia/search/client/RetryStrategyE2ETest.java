@@ -0,0 +1,14 @@
+package com.algolia.search.client;
+
+import com.algolia.search.BlockingJavaNetHttpRequester;
+import com.algolia.search.IntegrationTestExtension;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith({IntegrationTestExtension.class})
+public class RetryStrategyE2ETest extends com.algolia.search.RetryStrategyE2ETest {
+
+  public RetryStrategyE2ETest() {
+    super(IntegrationTestExtension.searchClient);
+    httpRequester = new BlockingJavaNetHttpRequester(config);
+  }
+}
@@ -112,16 +112,22 @@ public final class JavaNetHttpRequester implements HttpRequester {
   private BodyPublisher buildRequestBody(
       @Nonnull Builder builder, @Nonnull HttpRequest algoliaRequest) {
 
-    if (algoliaRequest.getBody() == null) {
+    if (!algoliaRequest.hasBody()) {
       return java.net.http.HttpRequest.BodyPublishers.noBody();
     }
 
-    if (algoliaRequest.canCompress()) {
-      builder.header(Defaults.CONTENT_ENCODING_HEADER, Defaults.CONTENT_ENCODING_GZIP);
+    if (algoliaRequest.getContentEncoding() != null) {
+      builder.header(Defaults.CONTENT_ENCODING_HEADER, algoliaRequest.getContentEncoding());
     } else {
       builder.header(Defaults.CONTENT_TYPE_HEADER, Defaults.APPLICATION_JSON);
     }
 
+    if (algoliaRequest.getBodyBytes() != null) {
+      // Sent straight from the transport buffer, without copy
+      return BodyPublishers.ofByteArray(
+          algoliaRequest.getBodyBytes(), 0, algoliaRequest.getBodyLength());
+    }
+
     return BodyPublishers.ofInputStream(algoliaRequest::getBody);
   }
 
@@ -0,0 +1,258 @@
+package com.algolia.search;
+
+import java.util.concurrent.TimeUnit;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Implementation of {@code MetricsListener} recording the metrics of a client as JDK Flight
+ * Recorder events, so that the requests, retries, batches, waits and cache lookups show up in the
+ * recordings next to the GC and lock events.
+ *
+ * <pre>{@code
+ * SearchConfig config =
+ *     new SearchConfig.Builder("YourApplicationID", "YourAPIKey")
+ *         .setMetricsListener(new JfrMetricsListener())
+ *         .build();
+ * }</pre>
+ *
+ * <p>The events are reported once the operation is over, so their JFR duration is 0: the durations
+ * are fields of the events. The retry decision is only recorded when the retry strategy ran, not
+ * when the HTTP client failed without a response. No stack trace is recorded. An event disabled in
+ * the recording settings, e.g. {@code com.algolia.CacheAccess#enabled=false}, only costs a check.
+ */
+public final class JfrMetricsListener implements MetricsListener {
+
+  @Override
+  public void onAttempt(AttemptMetrics metrics) {
+    HttpAttemptEvent attempt = new HttpAttemptEvent();
+    if (attempt.isEnabled()) {
+      attempt.host = metrics.getHost();
+      attempt.endpoint = metrics.getEndpoint();
+      attempt.method = metrics.getMethod().name();
+      attempt.attempt = metrics.getAttempt();
+      attempt.statusCode = metrics.getStatusCode();
+      attempt.requestBytes = metrics.getRequestBytes();
+      attempt.uncompressedRequestBytes = metrics.getUncompressedRequestBytes();
+      attempt.responseBytes = Math.max(metrics.getResponseBytes(), 0);
+      attempt.responseTime = metrics.getResponseTime(TimeUnit.NANOSECONDS);
+      attempt.serverTime =
+          metrics.hasServerTime() ? metrics.getServerTime(TimeUnit.NANOSECONDS) : 0;
+      attempt.clientTime = metrics.getClientTime(TimeUnit.NANOSECONDS);
+      attempt.commit();
+    }
+
+    if (!metrics.isDecided()) {
+      // The HTTP client failed, there is no decision to record
+      return;
+    }
+
+    RetryDecisionEvent decision = new RetryDecisionEvent();
+    if (decision.isEnabled()) {
+      decision.host = metrics.getHost();
+      decision.endpoint = metrics.getEndpoint();
+      decision.callType = metrics.getCallType().name();
+      decision.attempt = metrics.getAttempt();
+      decision.statusCode = metrics.getStatusCode();
+      decision.timedOut = metrics.isTimedOut();
+      decision.networkError = metrics.isNetworkError();
+      decision.outcome = metrics.getOutcome().name();
+      decision.commit();
+    }
+  }
+
+  @Override
+  public void onBatch(BatchMetrics metrics) {
+    BatchEvent event = new BatchEvent();
+    if (event.isEnabled()) {
+      event.endpoint = metrics.getEndpoint();
+      event.records = metrics.getRecords();
+      event.requestBytes = metrics.getRequestBytes();
+      event.uncompressedRequestBytes = metrics.getUncompressedRequestBytes();
+      event.attempts = metrics.getAttempts();
+      event.batchTime = metrics.getDuration(TimeUnit.NANOSECONDS);
+      event.succeeded = metrics.isSucceeded();
+      event.commit();
+    }
+  }
+
+  @Override
+  public void onWait(WaitMetrics metrics) {
+    WaitEvent event = new WaitEvent();
+    if (event.isEnabled()) {
+      event.description = metrics.getDescription();
+      event.polls = metrics.getPolls();
+      event.waitTime = metrics.getDuration(TimeUnit.NANOSECONDS);
+      event.outcome = metrics.getOutcome().name();
+      event.commit();
+    }
+  }
+
+  @Override
+  public void onCacheAccess(String cache, boolean hit) {
+    CacheAccessEvent event = new CacheAccessEvent();
+    if (event.isEnabled()) {
+      event.cache = cache;
+      event.hit = hit;
+      event.commit();
+    }
+  }
+
+  @Name("com.algolia.HttpAttempt")
+  @Label("Algolia HTTP Attempt")
+  @Description("An attempt to send a request to a host")
+  @Category({"Algolia", "Requests"})
+  @StackTrace(false)
+  static final class HttpAttemptEvent extends Event {
+
+    @Label("Host")
+    String host;
+
+    @Label("Endpoint")
+    @Description("The path of the request, with placeholders for its variable parts")
+    String endpoint;
+
+    @Label("Method")
+    String method;
+
+    @Label("Attempt")
+    int attempt;
+
+    @Label("Status Code")
+    @Description("0 when no response was received")
+    int statusCode;
+
+    @Label("Request Size")
+    @DataAmount
+    long requestBytes;
+
+    @Label("Uncompressed Request Size")
+    @DataAmount
+    long uncompressedRequestBytes;
+
+    @Label("Response Size")
+    @DataAmount
+    long responseBytes;
+
+    @Label("Response Time")
+    @Timespan
+    long responseTime;
+
+    @Label("Server Time")
+    @Description("Processing time reported by the engine, 0 when unknown")
+    @Timespan
+    long serverTime;
+
+    @Label("Client Time")
+    @Description("Queue, serialization, completion and deserialization time")
+    @Timespan
+    long clientTime;
+  }
+
+  @Name("com.algolia.RetryDecision")
+  @Label("Algolia Retry Decision")
+  @Description("The decision of the retry strategy on an attempt")
+  @Category({"Algolia", "Requests"})
+  @StackTrace(false)
+  static final class RetryDecisionEvent extends Event {
+
+    @Label("Host")
+    String host;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Call Type")
+    String callType;
+
+    @Label("Attempt")
+    int attempt;
+
+    @Label("Status Code")
+    int statusCode;
+
+    @Label("Timed Out")
+    boolean timedOut;
+
+    @Label("Network Error")
+    boolean networkError;
+
+    @Label("Outcome")
+    @Description("SUCCESS, RETRY on the next host, or FAILURE of the request")
+    String outcome;
+  }
+
+  @Name("com.algolia.Batch")
+  @Label("Algolia Batch")
+  @Description("A batch of records sent to an index")
+  @Category({"Algolia", "Indexing"})
+  @StackTrace(false)
+  static final class BatchEvent extends Event {
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Records")
+    int records;
+
+    @Label("Request Size")
+    @DataAmount
+    long requestBytes;
+
+    @Label("Uncompressed Request Size")
+    @DataAmount
+    long uncompressedRequestBytes;
+
+    @Label("Attempts")
+    int attempts;
+
+    @Label("Batch Time")
+    @Description("From the call to the response, serialization and retries included")
+    @Timespan
+    long batchTime;
+
+    @Label("Succeeded")
+    boolean succeeded;
+  }
+
+  @Name("com.algolia.Wait")
+  @Label("Algolia Wait")
+  @Description("A wait for a task or an API key, polling its status")
+  @Category({"Algolia", "Indexing"})
+  @StackTrace(false)
+  static final class WaitEvent extends Event {
+
+    @Label("Description")
+    String description;
+
+    @Label("Polls")
+    int polls;
+
+    @Label("Wait Time")
+    @Timespan
+    long waitTime;
+
+    @Label("Outcome")
+    String outcome;
+  }
+
+  @Name("com.algolia.CacheAccess")
+  @Label("Algolia Cache Access")
+  @Description("A lookup in a cache of the client")
+  @Category({"Algolia", "Caches"})
+  @StackTrace(false)
+  static final class CacheAccessEvent extends Event {
+
+    @Label("Cache")
+    String cache;
+
+    @Label("Hit")
+    boolean hit;
+  }
+}
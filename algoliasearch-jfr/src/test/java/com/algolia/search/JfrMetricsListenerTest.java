@@ -0,0 +1,154 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.algolia.search.models.HttpMethod;
+import com.algolia.search.models.common.CallType;
+import com.algolia.search.models.common.RetryOutcome;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+class JfrMetricsListenerTest {
+
+  @Test
+  void testMetricsAreRecordedAsEvents() throws IOException {
+    JfrMetricsListener listener = new JfrMetricsListener();
+    Path file = Files.createTempFile("algolia", ".jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.enable("com.algolia.HttpAttempt");
+      recording.enable("com.algolia.RetryDecision");
+      recording.enable("com.algolia.Batch");
+      recording.enable("com.algolia.Wait");
+      recording.enable("com.algolia.CacheAccess");
+      recording.start();
+
+      listener.onAttempt(
+          new AttemptMetrics(
+              "appID-1.algolianet.com",
+              "/1/indexes/{index}/batch",
+              HttpMethod.POST,
+              CallType.WRITE,
+              1,
+              500,
+              RetryOutcome.RETRY,
+              true,
+              false,
+              false,
+              120,
+              480,
+              -1,
+              0,
+              1_000,
+              2_000_000,
+              0,
+              0,
+              null,
+              -1));
+      listener.onBatch(
+          new BatchMetrics(
+              "/1/indexes/{index}/batch",
+              1000,
+              120,
+              480,
+              2,
+              TimeUnit.MILLISECONDS.toNanos(5),
+              true));
+      listener.onWait(
+          new WaitMetrics(
+              "task 42", 3, TimeUnit.MILLISECONDS.toNanos(300), WaitMetrics.Outcome.COMPLETED));
+      listener.onCacheAccess("apiKey", true);
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    try {
+      List<RecordedEvent> events =
+          RecordingFile.readAllEvents(file).stream()
+              .filter(e -> e.getEventType().getName().startsWith("com.algolia."))
+              .collect(Collectors.toList());
+
+      assertThat(events).hasSize(5);
+
+      RecordedEvent attempt = find(events, "com.algolia.HttpAttempt");
+      assertThat(attempt.getString("host")).isEqualTo("appID-1.algolianet.com");
+      assertThat(attempt.getInt("statusCode")).isEqualTo(500);
+      assertThat(attempt.getLong("requestBytes")).isEqualTo(120);
+      assertThat(attempt.getDuration("responseTime")).isEqualTo(Duration.ofMillis(2));
+
+      assertThat(find(events, "com.algolia.RetryDecision").getString("outcome")).isEqualTo("RETRY");
+      assertThat(find(events, "com.algolia.Batch").getInt("records")).isEqualTo(1000);
+      assertThat(find(events, "com.algolia.Wait").getInt("polls")).isEqualTo(3);
+      assertThat(find(events, "com.algolia.CacheAccess").getBoolean("hit")).isTrue();
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void testRequesterErrorsRecordNoRetryDecision() throws IOException {
+    JfrMetricsListener listener = new JfrMetricsListener();
+    Path file = Files.createTempFile("algolia", ".jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.enable("com.algolia.HttpAttempt");
+      recording.enable("com.algolia.RetryDecision");
+      recording.start();
+
+      listener.onAttempt(
+          new AttemptMetrics(
+              "appID-dsn.algolia.net",
+              "/1/indexes/{index}/query",
+              HttpMethod.POST,
+              CallType.READ,
+              1,
+              0,
+              RetryOutcome.FAILURE,
+              false,
+              false,
+              false,
+              40,
+              40,
+              -1,
+              0,
+              1_000,
+              2_000_000,
+              0,
+              0,
+              null,
+              -1));
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    try {
+      List<String> events =
+          RecordingFile.readAllEvents(file).stream()
+              .map(e -> e.getEventType().getName())
+              .filter(name -> name.startsWith("com.algolia."))
+              .collect(Collectors.toList());
+
+      assertThat(events).containsExactly("com.algolia.HttpAttempt");
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static RecordedEvent find(List<RecordedEvent> events, String name) {
+    return events.stream()
+        .filter(e -> e.getEventType().getName().equals(name))
+        .findFirst()
+        .orElseThrow(AssertionError::new);
+  }
+}